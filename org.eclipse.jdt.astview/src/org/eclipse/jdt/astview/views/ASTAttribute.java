@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2005 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials 
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,6 +29,17 @@ public abstract class ASTAttribute {
 	public abstract String getLabel();
 	public abstract Image getImage();
 	
+	/**
+	 * Returns whether this attribute has children. Subclasses override this if the children
+	 * are expensive to compute, so that the viewer can show an expandable item without
+	 * materializing them.
+	 *
+	 * @return <code>true</code> if {@link #getChildren()} returns children
+	 */
+	public boolean hasChildren() {
+		return getChildren().length > 0;
+	}
+
 	public ASTNode getParentASTNode() {
 		Object parent= getParent();
 		while (parent instanceof ASTAttribute) {
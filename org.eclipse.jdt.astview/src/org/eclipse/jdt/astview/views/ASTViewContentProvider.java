@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials 
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,7 @@ package org.eclipse.jdt.astview.views;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.eclipse.jdt.astview.ASTViewPlugin;
 
@@ -100,136 +101,142 @@ public class ASTViewContentProvider implements ITreeContentProvider {
 	private Object[] getNodeChildren(ASTNode node) {
 		ArrayList<Object> res= new ArrayList<>();
 
-		if (node instanceof Expression) {
-			Expression expression= (Expression) node;
-			ITypeBinding expressionTypeBinding= expression.resolveTypeBinding();
-			res.add(createExpressionTypeBinding(node, expressionTypeBinding));
-			
-			// expressions:
-			if (expression instanceof Name) {
-				IBinding binding= ((Name) expression).resolveBinding();
-				if (binding != expressionTypeBinding)
-					res.add(createBinding(expression, binding));
-			} else if (expression instanceof MethodInvocation) {
-				MethodInvocation methodInvocation= (MethodInvocation) expression;
-				IMethodBinding binding= methodInvocation.resolveMethodBinding();
-				res.add(createBinding(expression, binding));
-				String inferred= String.valueOf(methodInvocation.isResolvedTypeInferredFromExpectedType());
-				res.add(new GeneralAttribute(expression, "ResolvedTypeInferredFromExpectedType", inferred)); //$NON-NLS-1$
-			} else if (expression instanceof SuperMethodInvocation) {
-				SuperMethodInvocation superMethodInvocation= (SuperMethodInvocation) expression;
-				IMethodBinding binding= superMethodInvocation.resolveMethodBinding();
-				res.add(createBinding(expression, binding));
-				String inferred= String.valueOf(superMethodInvocation.isResolvedTypeInferredFromExpectedType());
-				res.add(new GeneralAttribute(expression, "ResolvedTypeInferredFromExpectedType", inferred)); //$NON-NLS-1$
-			} else if (expression instanceof ClassInstanceCreation) {
-				ClassInstanceCreation classInstanceCreation= (ClassInstanceCreation) expression;
-				IMethodBinding binding= classInstanceCreation.resolveConstructorBinding();
-				res.add(createBinding(expression, binding));
-				String inferred= String.valueOf(classInstanceCreation.isResolvedTypeInferredFromExpectedType());
-				res.add(new GeneralAttribute(expression, "ResolvedTypeInferredFromExpectedType", inferred)); //$NON-NLS-1$
-			} else if (expression instanceof FieldAccess) {
-				IVariableBinding binding= ((FieldAccess) expression).resolveFieldBinding();
-				res.add(createBinding(expression, binding));
-			} else if (expression instanceof SuperFieldAccess) {
-				IVariableBinding binding= ((SuperFieldAccess) expression).resolveFieldBinding();
-				res.add(createBinding(expression, binding));
-			} else if (expression instanceof Annotation) {
-				IAnnotationBinding binding= ((Annotation) expression).resolveAnnotationBinding();
-				res.add(createBinding(expression, binding));
-			} else if (expression instanceof LambdaExpression) {
-				ASTAttribute bindingAttribute;
-				try {
-					IMethodBinding binding= ((LambdaExpression) expression).resolveMethodBinding();
-					bindingAttribute= createBinding(expression, binding);
-				} catch (RuntimeException e) {
-					bindingAttribute= new Error(res, ">binding: Error: " + e.getMessage(), e);
-					ASTViewPlugin.log("Exception thrown in LambdaExpression#resolveMethodBinding() for \"" + expression + "\"", e);
-				}
-				res.add(bindingAttribute);
-			} else if (expression instanceof MethodReference) {
-				IMethodBinding binding= ((MethodReference) expression).resolveMethodBinding();
-				res.add(createBinding(expression, binding));
-			}
-			// Expression attributes:
-			res.add(new GeneralAttribute(expression, "Boxing: " + expression.resolveBoxing() + "; Unboxing: " + expression.resolveUnboxing())); //$NON-NLS-1$ //$NON-NLS-2$
-			res.add(new GeneralAttribute(expression, "ConstantExpressionValue", expression.resolveConstantExpressionValue())); //$NON-NLS-1$
+		addBindingChildren(node, res);
+
+		List<StructuralPropertyDescriptor> list= node.structuralPropertiesForType();
+		for (int i= 0; i < list.size(); i++) {
+			StructuralPropertyDescriptor curr= list.get(i);
+			res.add(new NodeProperty(node, curr));
+		}
 		
+		if (node instanceof CompilationUnit) {
+			CompilationUnit root= (CompilationUnit) node;
+			res.add(new JavaElement(root, root.getJavaElement()));
+			res.add(new CommentsProperty(root));
+			res.add(new ProblemsProperty(root));
+			res.add(new SettingsProperty(root));
+			res.add(new WellKnownTypesProperty(root));
+		}
+		
+		return res.toArray();
+	}
+	
+	/**
+	 * Adds the binding and attribute children of the given node. The bindings are only resolved
+	 * if they are added.
+	 *
+	 * @param node the node
+	 * @param res the list to add the children to, or <code>null</code> to only tell whether the
+	 *            node has binding or attribute children
+	 * @return <code>true</code> if the node has binding or attribute children
+	 */
+	private boolean addBindingChildren(ASTNode node, List<Object> res) {
+		if (node instanceof Expression) {
+			if (res != null)
+				addExpressionChildren((Expression) node, res);
+			return true;
+		}
+
+		Supplier<IBinding> binding;
 		// references:
-		} else if (node instanceof ConstructorInvocation) {
-			IMethodBinding binding= ((ConstructorInvocation) node).resolveConstructorBinding();
-			res.add(createBinding(node, binding));
+		if (node instanceof ConstructorInvocation) {
+			binding= () -> ((ConstructorInvocation) node).resolveConstructorBinding();
 		} else if (node instanceof SuperConstructorInvocation) {
-			IMethodBinding binding= ((SuperConstructorInvocation) node).resolveConstructorBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((SuperConstructorInvocation) node).resolveConstructorBinding();
 		} else if (node instanceof MethodRef) {
-			IBinding binding= ((MethodRef) node).resolveBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((MethodRef) node).resolveBinding();
 		} else if (node instanceof MemberRef) {
-			IBinding binding= ((MemberRef) node).resolveBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((MemberRef) node).resolveBinding();
 		} else if (node instanceof Type) {
-			IBinding binding= ((Type) node).resolveBinding();
-			res.add(createBinding(node, binding));
-			
+			binding= () -> ((Type) node).resolveBinding();
 		// declarations:
 		} else if (node instanceof AbstractTypeDeclaration) {
-			IBinding binding= ((AbstractTypeDeclaration) node).resolveBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((AbstractTypeDeclaration) node).resolveBinding();
 		} else if (node instanceof AnnotationTypeMemberDeclaration) {
-			IBinding binding= ((AnnotationTypeMemberDeclaration) node).resolveBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((AnnotationTypeMemberDeclaration) node).resolveBinding();
 		} else if (node instanceof EnumConstantDeclaration) {
-			IBinding binding= ((EnumConstantDeclaration) node).resolveVariable();
-			res.add(createBinding(node, binding));
-			IBinding binding2= ((EnumConstantDeclaration) node).resolveConstructorBinding();
-			res.add(createBinding(node, binding2));
+			if (res != null)
+				res.add(createBinding(node, ((EnumConstantDeclaration) node).resolveVariable()));
+			binding= () -> ((EnumConstantDeclaration) node).resolveConstructorBinding();
 		} else if (node instanceof MethodDeclaration) {
-			IBinding binding= ((MethodDeclaration) node).resolveBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((MethodDeclaration) node).resolveBinding();
 		} else if (node instanceof VariableDeclaration) {
-			IBinding binding= ((VariableDeclaration) node).resolveBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((VariableDeclaration) node).resolveBinding();
 		} else if (node instanceof AnonymousClassDeclaration) {
-			IBinding binding= ((AnonymousClassDeclaration) node).resolveBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((AnonymousClassDeclaration) node).resolveBinding();
 		} else if (node instanceof ImportDeclaration) {
-			IBinding binding= ((ImportDeclaration) node).resolveBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((ImportDeclaration) node).resolveBinding();
 		} else if (node instanceof PackageDeclaration) {
-			IBinding binding= ((PackageDeclaration) node).resolveBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((PackageDeclaration) node).resolveBinding();
 		} else if (node instanceof TypeParameter) {
-			IBinding binding= ((TypeParameter) node).resolveBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((TypeParameter) node).resolveBinding();
 		} else if (node instanceof MemberValuePair) {
-			IBinding binding= ((MemberValuePair) node).resolveMemberValuePairBinding();
-			res.add(createBinding(node, binding));
+			binding= () -> ((MemberValuePair) node).resolveMemberValuePairBinding();
 		} else if (node instanceof ModuleDeclaration) {
-			IBinding binding= ((ModuleDeclaration) node).resolveBinding();
-			res.add(createBinding(node, binding));
-		}
- 		
-		
-		
-		List<StructuralPropertyDescriptor> list= node.structuralPropertiesForType();
-		for (int i= 0; i < list.size(); i++) {
-			StructuralPropertyDescriptor curr= list.get(i);
-			res.add(new NodeProperty(node, curr));
+			binding= () -> ((ModuleDeclaration) node).resolveBinding();
+		} else {
+			return false;
 		}
-		
-		if (node instanceof CompilationUnit) {
-			CompilationUnit root= (CompilationUnit) node;
-			res.add(new JavaElement(root, root.getJavaElement()));
-			res.add(new CommentsProperty(root));
-			res.add(new ProblemsProperty(root));
-			res.add(new SettingsProperty(root));
-			res.add(new WellKnownTypesProperty(root));
+		if (res != null)
+			res.add(createBinding(node, binding.get()));
+		return true;
+	}
+
+	private void addExpressionChildren(Expression expression, List<Object> res) {
+		ITypeBinding expressionTypeBinding= expression.resolveTypeBinding();
+		res.add(createExpressionTypeBinding(expression, expressionTypeBinding));
+
+		// expressions:
+		if (expression instanceof Name) {
+			IBinding binding= ((Name) expression).resolveBinding();
+			if (binding != expressionTypeBinding)
+				res.add(createBinding(expression, binding));
+		} else if (expression instanceof MethodInvocation) {
+			MethodInvocation methodInvocation= (MethodInvocation) expression;
+			IMethodBinding binding= methodInvocation.resolveMethodBinding();
+			res.add(createBinding(expression, binding));
+			String inferred= String.valueOf(methodInvocation.isResolvedTypeInferredFromExpectedType());
+			res.add(new GeneralAttribute(expression, "ResolvedTypeInferredFromExpectedType", inferred)); //$NON-NLS-1$
+		} else if (expression instanceof SuperMethodInvocation) {
+			SuperMethodInvocation superMethodInvocation= (SuperMethodInvocation) expression;
+			IMethodBinding binding= superMethodInvocation.resolveMethodBinding();
+			res.add(createBinding(expression, binding));
+			String inferred= String.valueOf(superMethodInvocation.isResolvedTypeInferredFromExpectedType());
+			res.add(new GeneralAttribute(expression, "ResolvedTypeInferredFromExpectedType", inferred)); //$NON-NLS-1$
+		} else if (expression instanceof ClassInstanceCreation) {
+			ClassInstanceCreation classInstanceCreation= (ClassInstanceCreation) expression;
+			IMethodBinding binding= classInstanceCreation.resolveConstructorBinding();
+			res.add(createBinding(expression, binding));
+			String inferred= String.valueOf(classInstanceCreation.isResolvedTypeInferredFromExpectedType());
+			res.add(new GeneralAttribute(expression, "ResolvedTypeInferredFromExpectedType", inferred)); //$NON-NLS-1$
+		} else if (expression instanceof FieldAccess) {
+			IVariableBinding binding= ((FieldAccess) expression).resolveFieldBinding();
+			res.add(createBinding(expression, binding));
+		} else if (expression instanceof SuperFieldAccess) {
+			IVariableBinding binding= ((SuperFieldAccess) expression).resolveFieldBinding();
+			res.add(createBinding(expression, binding));
+		} else if (expression instanceof Annotation) {
+			IAnnotationBinding binding= ((Annotation) expression).resolveAnnotationBinding();
+			res.add(createBinding(expression, binding));
+		} else if (expression instanceof LambdaExpression) {
+			ASTAttribute bindingAttribute;
+			try {
+				IMethodBinding binding= ((LambdaExpression) expression).resolveMethodBinding();
+				bindingAttribute= createBinding(expression, binding);
+			} catch (RuntimeException e) {
+				bindingAttribute= new Error(res, ">binding: Error: " + e.getMessage(), e);
+				ASTViewPlugin.log("Exception thrown in LambdaExpression#resolveMethodBinding() for \"" + expression + "\"", e);
+			}
+			res.add(bindingAttribute);
+		} else if (expression instanceof MethodReference) {
+			IMethodBinding binding= ((MethodReference) expression).resolveMethodBinding();
+			res.add(createBinding(expression, binding));
 		}
-		
-		return res.toArray();
+		// Expression attributes:
+		res.add(new GeneralAttribute(expression, "Boxing: " + expression.resolveBoxing() + "; Unboxing: " + expression.resolveUnboxing())); //$NON-NLS-1$ //$NON-NLS-2$
+		res.add(new GeneralAttribute(expression, "ConstantExpressionValue", expression.resolveConstantExpressionValue())); //$NON-NLS-1$
 	}
-	
+
 	private Binding createBinding(ASTNode parent, IBinding binding) {
 		String label= Binding.getBindingLabel(binding);
 		return new Binding(parent, label, binding, true);
@@ -242,6 +249,13 @@ public class ASTViewContentProvider implements ITreeContentProvider {
 	
 	@Override
 	public boolean hasChildren(Object parent) {
-		return getChildren(parent).length > 0;
+		if (parent instanceof ASTAttribute) {
+			return ((ASTAttribute) parent).hasChildren();
+		} else if (parent instanceof ASTNode) {
+			// don't resolve the bindings of the node until it is expanded
+			ASTNode node= (ASTNode) parent;
+			return !node.structuralPropertiesForType().isEmpty() || addBindingChildren(node, null);
+		}
+		return false;
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials 
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,6 @@
 
 package org.eclipse.jdt.astview.views;
 
-import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.swt.SWT;
@@ -216,17 +215,39 @@ public class ASTViewLabelProvider extends LabelProvider implements IColorProvide
 			if (object instanceof ASTNode) {
 				return isInsideNode((ASTNode) object);
 			} else if (object instanceof List) {
-				for (Iterator<?> iter= ((List<?>) object).iterator(); iter.hasNext(); ) {
-					Object child= iter.next();
-					if (isInside(child)) {
-						return true;
-					}
-				}
+				return isInsideList((List<?>) object);
 			}
 		}
 		return false;
 	}
 
+	/**
+	 * Tests whether an element of a node list contains the selection. The elements of a node list
+	 * are in source order, so only the last element that starts before the selection is tested.
+	 *
+	 * @param list the node list
+	 * @return <code>true</code> if an element contains the selection
+	 */
+	private boolean isInsideList(List<?> list) {
+		int low= 0;
+		int high= list.size() - 1;
+		int candidate= -1;
+		while (low <= high) {
+			int mid= (low + high) >>> 1;
+			Object child= list.get(mid);
+			if (!(child instanceof ASTNode)) {
+				return false;
+			}
+			if (((ASTNode) child).getStartPosition() <= fSelectionStart) {
+				candidate= mid;
+				low= mid + 1;
+			} else {
+				high= mid - 1;
+			}
+		}
+		return candidate != -1 && isInsideNode((ASTNode) list.get(candidate));
+	}
+
 	@Override
 	public Font getFont(Object element) {
 		if (element instanceof ASTNode) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -75,6 +75,12 @@ public class Binding extends ASTAttribute {
 		return (typeKinds & kind) != 0;
 	}
 	
+	@Override
+	public boolean hasChildren() {
+		// the binding properties are only computed when the binding is expanded
+		return fBinding != null;
+	}
+
 	@Override
 	public Object[] getChildren() {
 		try {
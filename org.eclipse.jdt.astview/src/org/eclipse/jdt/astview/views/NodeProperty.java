@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials 
  * are made available under the terms of the Eclipse Public License 2.0
@@ -46,6 +46,15 @@ public class NodeProperty extends ASTAttribute {
 		return EMPTY;
 	}
 
+	@Override
+	public boolean hasChildren() {
+		Object child= getNode();
+		if (child instanceof List) {
+			return !((List<?>) child).isEmpty();
+		}
+		return child instanceof ASTNode;
+	}
+
 	@Override
 	public String getLabel() {
 		StringBuffer buf= new StringBuffer();
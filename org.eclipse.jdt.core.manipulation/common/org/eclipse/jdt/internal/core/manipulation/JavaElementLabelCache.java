@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.core.manipulation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Caches the labels of Java elements by handle identifier and rendering flags.
+ * <p>
+ * Since the handle identifier of a Java element starts with the handle identifier of its parent,
+ * all labels of an element and its descendants are invalidated by removing the handle identifiers
+ * with the element's handle identifier as prefix. The cache listens to Java element deltas and
+ * invalidates the labels of every element that changed in another way than in its children. The
+ * content change of a compilation unit reported with fine-grained member deltas while reconciling
+ * does not invalidate the labels, since changed members are reported separately.
+ * </p>
+ * <p>
+ * Labels rendered with {@link JavaElementLabelsCore#P_COMPRESSED} depend on preferences and are
+ * not cached. Neither are labels of elements inside non-primary working copies, which share their
+ * handle identifiers with the primary elements, nor labels rendered with
+ * {@link JavaElementLabelsCore#USE_RESOLVED} of resolved elements, which share their handle
+ * identifiers with the unresolved elements but render the parameterization of their binding key.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @since 1.11
+ */
+public class JavaElementLabelCache {
+
+	/**
+	 * Computes the label of a Java element.
+	 */
+	public interface ILabelComputer {
+
+		/**
+		 * Computes the label of the given element.
+		 *
+		 * @param element the element to render
+		 * @param flags the rendering flags
+		 * @return the label of the element
+		 */
+		String computeLabel(IJavaElement element, long flags);
+	}
+
+	/**
+	 * Maximal number of cached labels. The cache is cleared when this size is exceeded.
+	 */
+	private static final int MAX_SIZE= 20000;
+
+	/**
+	 * Flags which make a label depend on more than the element itself.
+	 */
+	private static final long UNCACHEABLE_FLAGS= JavaElementLabelsCore.P_COMPRESSED;
+
+	private final ConcurrentSkipListMap<String, Map<Long, String>> fLabels= new ConcurrentSkipListMap<>();
+
+	private final AtomicInteger fSize= new AtomicInteger();
+
+	/**
+	 * Incremented on every invalidation, so that labels computed from an outdated model are not
+	 * put into the cache. Modified and compared to the count at the start of a label computation
+	 * while holding {@link #fLock}.
+	 */
+	private volatile int fModificationCount;
+
+	/**
+	 * Lock held while labels are added and while labels are invalidated.
+	 */
+	private final Object fLock= new Object();
+
+	private final IElementChangedListener fListener= new IElementChangedListener() {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			processDelta(event.getDelta());
+		}
+	};
+
+	private boolean fInstalled;
+
+	/**
+	 * Starts listening to Java element changes. Must be called before the cache is used.
+	 */
+	public synchronized void install() {
+		if (!fInstalled) {
+			JavaCore.addElementChangedListener(fListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+			fInstalled= true;
+		}
+	}
+
+	/**
+	 * Stops listening to Java element changes and clears the cache.
+	 */
+	public synchronized void dispose() {
+		if (fInstalled) {
+			JavaCore.removeElementChangedListener(fListener);
+			fInstalled= false;
+		}
+		clear();
+	}
+
+	/**
+	 * Returns the label of the given element, computing and caching it if necessary.
+	 *
+	 * @param element the element to render
+	 * @param flags the rendering flags
+	 * @param computer computes the label if it is not cached
+	 * @return the label of the element
+	 */
+	public String getLabel(IJavaElement element, long flags, ILabelComputer computer) {
+		if (!isCacheable(element, flags))
+			return computer.computeLabel(element, flags);
+
+		String handle= element.getHandleIdentifier();
+		Long key= Long.valueOf(flags);
+		Map<Long, String> labels= fLabels.get(handle);
+		if (labels != null) {
+			String label= labels.get(key);
+			if (label != null)
+				return label;
+		}
+
+		int modificationCount= fModificationCount;
+		String label= computer.computeLabel(element, flags);
+		synchronized (fLock) {
+			if (modificationCount == fModificationCount) {
+				labels= fLabels.computeIfAbsent(handle, h -> new ConcurrentHashMap<>(4));
+				if (labels.put(key, label) == null && fSize.incrementAndGet() > MAX_SIZE) {
+					clear();
+				}
+			}
+		}
+		return label;
+	}
+
+	/**
+	 * Removes all cached labels.
+	 */
+	public void clear() {
+		synchronized (fLock) {
+			fModificationCount++;
+			fLabels.clear();
+			fSize.set(0);
+		}
+	}
+
+	/**
+	 * Removes the cached labels of the given element and its descendants.
+	 *
+	 * @param element the element
+	 */
+	public void invalidate(IJavaElement element) {
+		String prefix= element.getHandleIdentifier();
+		synchronized (fLock) {
+			fModificationCount++;
+			ConcurrentNavigableMap<String, Map<Long, String>> descendants= fLabels.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+			for (Map<Long, String> labels : descendants.values()) {
+				fSize.addAndGet(-labels.size());
+			}
+			descendants.clear();
+		}
+	}
+
+	private boolean isCacheable(IJavaElement element, long flags) {
+		if ((flags & UNCACHEABLE_FLAGS) != 0)
+			return false;
+		if ((flags & JavaElementLabelsCore.USE_RESOLVED) != 0 && isResolved(element))
+			return false;
+		ICompilationUnit cu= (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
+		return cu == null || cu.getOwner() == null;
+	}
+
+	/**
+	 * Tells whether the given element or one of its ancestors is resolved, so that its label can
+	 * show the parameterization of a binding key.
+	 *
+	 * @param element the element
+	 * @return <code>true</code> if the element or an ancestor is resolved
+	 */
+	private static boolean isResolved(IJavaElement element) {
+		for (IJavaElement e= element; e != null; e= e.getParent()) {
+			switch (e.getElementType()) {
+				case IJavaElement.TYPE:
+					if (((IType) e).isResolved())
+						return true;
+					break;
+				case IJavaElement.METHOD:
+					if (((IMethod) e).isResolved())
+						return true;
+					break;
+				case IJavaElement.FIELD:
+					if (((IField) e).isResolved())
+						return true;
+					break;
+				case IJavaElement.COMPILATION_UNIT:
+				case IJavaElement.CLASS_FILE:
+					return false;
+				default:
+					break;
+			}
+		}
+		return false;
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		if (fLabels.isEmpty())
+			return;
+		int flags= delta.getFlags() & ~IJavaElementDelta.F_CHILDREN;
+		if ((flags & IJavaElementDelta.F_FINE_GRAINED) != 0) {
+			// the members whose labels can change are reported as children
+			flags&= ~(IJavaElementDelta.F_FINE_GRAINED | IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_AST_AFFECTED);
+		}
+		if (delta.getKind() != IJavaElementDelta.CHANGED || flags != 0) {
+			if (delta.getElement().getElementType() == IJavaElement.JAVA_MODEL) {
+				clear();
+			} else {
+				invalidate(delta.getElement());
+			}
+			return;
+		}
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			processDelta(children[i]);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 IBM Corporation and others.
+ * Copyright (c) 2018, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -394,8 +394,23 @@ public final class JavaElementLabelsCore {
 	 * @return the label of the Java element
 	 */
 	public static String getElementLabel(IJavaElement element, long flags) {
-		StringBuffer result= new StringBuffer();
-		getElementLabel(element, flags, result);
+		JavaManipulationPlugin plugin= JavaManipulationPlugin.getDefault();
+		if (plugin != null) {
+			return plugin.getJavaElementLabelCache().getLabel(element, flags, LABEL_COMPUTER);
+		}
+		return computeElementLabel(element, flags);
+	}
+
+	private static final JavaElementLabelCache.ILabelComputer LABEL_COMPUTER= new JavaElementLabelCache.ILabelComputer() {
+		@Override
+		public String computeLabel(IJavaElement element, long flags) {
+			return computeElementLabel(element, flags);
+		}
+	};
+
+	private static String computeElementLabel(IJavaElement element, long flags) {
+		StringBuilder result= new StringBuilder();
+		new JavaElementLabelComposerCore(result).appendElementLabel(element, flags);
 		return org.eclipse.jdt.internal.core.manipulation.util.Strings.markJavaElementLabelLTR(result.toString());
 	}
 
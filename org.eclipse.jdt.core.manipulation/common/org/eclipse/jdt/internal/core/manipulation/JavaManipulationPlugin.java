@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -37,6 +37,8 @@ public class JavaManipulationPlugin extends Plugin implements DebugOptionsListen
 
 	private MembersOrderPreferenceCacheCommon fMembersOrderPreferenceCacheCommon;
 
+	private JavaElementLabelCache fJavaElementLabelCache;
+
 	/**
 	 * The constructor.
 	 */
@@ -51,6 +53,12 @@ public class JavaManipulationPlugin extends Plugin implements DebugOptionsListen
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		synchronized (this) {
+			if (fJavaElementLabelCache != null) {
+				fJavaElementLabelCache.dispose();
+				fJavaElementLabelCache= null;
+			}
+		}
 		super.stop(context);
 		fgDefault = null;
 	}
@@ -76,6 +84,19 @@ public class JavaManipulationPlugin extends Plugin implements DebugOptionsListen
 		return fMembersOrderPreferenceCacheCommon;
 	}
 
+	/**
+	 * Returns the shared cache for Java element labels.
+	 *
+	 * @return the shared cache
+	 */
+	public synchronized JavaElementLabelCache getJavaElementLabelCache() {
+		if (fJavaElementLabelCache == null) {
+			fJavaElementLabelCache= new JavaElementLabelCache();
+			fJavaElementLabelCache.install();
+		}
+		return fJavaElementLabelCache;
+	}
+
 	/**
 	 * Set the default Members Order Preference Cache Common
 	 *
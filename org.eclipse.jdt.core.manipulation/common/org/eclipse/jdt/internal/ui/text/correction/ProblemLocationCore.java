@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 IBM Corporation and others.
+ * Copyright (c) 2018, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,6 +33,9 @@ public class ProblemLocationCore implements IProblemLocationCore {
 	private final boolean fIsError;
 	private final String fMarkerType;
 
+	private CompilationUnit fNodeFinderRoot;
+	private NodeFinder fNodeFinder;
+
 	public ProblemLocationCore(int offset, int length, int id, String[] arguments, boolean isError, String markerType) {
 		fId= id;
 		fArguments= arguments;
@@ -84,14 +87,29 @@ public class ProblemLocationCore implements IProblemLocationCore {
 
 	@Override
 	public ASTNode getCoveringNode(CompilationUnit astRoot) {
-		NodeFinder finder= new NodeFinder(astRoot, fOffset, fLength);
-		return finder.getCoveringNode();
+		return getNodeFinder(astRoot).getCoveringNode();
 	}
 
 	@Override
 	public ASTNode getCoveredNode(CompilationUnit astRoot) {
-		NodeFinder finder= new NodeFinder(astRoot, fOffset, fLength);
-		return finder.getCoveredNode();
+		return getNodeFinder(astRoot).getCoveredNode();
+	}
+
+	/**
+	 * Returns the node finder for this problem in the given AST. The finder of the last AST is
+	 * reused, since all processors computing proposals for this problem ask for its nodes.
+	 *
+	 * @param astRoot the AST root
+	 * @return the node finder
+	 */
+	private NodeFinder getNodeFinder(CompilationUnit astRoot) {
+		NodeFinder finder= fNodeFinder;
+		if (finder == null || fNodeFinderRoot != astRoot) {
+			finder= new NodeFinder(astRoot, fOffset, fLength);
+			fNodeFinderRoot= astRoot;
+			fNodeFinder= finder;
+		}
+		return finder;
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,13 +14,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.codemanipulation;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.jdt.core.ICompilationUnit;
-import org.eclipse.jdt.core.IJavaElement;
-import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeRoot;
@@ -34,12 +31,11 @@ import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.Modifier;
 import org.eclipse.jdt.core.dom.Name;
 import org.eclipse.jdt.core.dom.NodeFinder;
-import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.rewrite.ImportRewrite;
 import org.eclipse.jdt.core.dom.rewrite.ImportRewrite.TypeLocation;
-import org.eclipse.jdt.core.manipulation.ImportReferencesCollector;
 import org.eclipse.jdt.core.dom.rewrite.ImportRewrite.ImportRewriteContext;
 
+import org.eclipse.jdt.internal.corext.dom.ASTAnalysisCache;
 import org.eclipse.jdt.internal.corext.dom.ScopeAnalyzer;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
@@ -224,22 +220,14 @@ public class ContextSensitiveImportRewriteContext extends ImportRewriteContext {
 
 	private IBinding[] getDeclarationsInScope() {
 		if (fDeclarationsInScope == null) {
-			ScopeAnalyzer analyzer= new ScopeAnalyzer(fCompilationUnit);
-			fDeclarationsInScope= analyzer.getDeclarationsInScope(fPosition, ScopeAnalyzer.METHODS | ScopeAnalyzer.TYPES | ScopeAnalyzer.VARIABLES);
+			fDeclarationsInScope= ASTAnalysisCache.getDeclarationsInScope(fCompilationUnit, fPosition, ScopeAnalyzer.METHODS | ScopeAnalyzer.TYPES | ScopeAnalyzer.VARIABLES);
 		}
 		return fDeclarationsInScope;
 	}
 
 	private Name[] getImportedNames() {
 		if (fImportedNames == null) {
-			IJavaProject project= null;
-			IJavaElement javaElement= fCompilationUnit.getJavaElement();
-			if (javaElement != null)
-				project= javaElement.getJavaProject();
-
-			List<SimpleName> imports= new ArrayList<>();
-			ImportReferencesCollector.collect(fCompilationUnit, project, null, imports, null);
-			fImportedNames= imports.toArray(new Name[imports.size()]);
+			fImportedNames= ASTAnalysisCache.getImportedNames(fCompilationUnit);
 		}
 		return fImportedNames;
 	}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.manipulation.ImportReferencesCollector;
+
+/**
+ * Shares analyses of an AST between the clients working on it in the current thread, e.g. between
+ * the quick fix and quick assist processors computing the proposals of one invocation. Without
+ * the cache, the import rewrite context of every proposal analyzes the declarations in scope and
+ * the imported names of the AST again.
+ * <p>
+ * While no cache is open, the static methods compute their results without caching. Caches opened
+ * in the same thread are shared, the outermost {@link #close()} discards the results. Since the
+ * results refer to the AST, a cache must only be open as long as the AST is not modified. Typical
+ * usage:
+ * </p>
+ * <pre>
+ * try (ASTAnalysisCache cache= ASTAnalysisCache.open()) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @see org.eclipse.jdt.internal.corext.codemanipulation.ContextSensitiveImportRewriteContext
+ * @since 1.11
+ */
+public final class ASTAnalysisCache implements AutoCloseable {
+
+	private static final ThreadLocal<ASTAnalysisCache> fgCurrent= new ThreadLocal<>();
+
+	private static final String DECLARATIONS_IN_SCOPE= "declarationsInScope"; //$NON-NLS-1$
+	private static final String IMPORTED_NAMES= "importedNames"; //$NON-NLS-1$
+
+	private int fOpenCount;
+
+	private final Map<Object, Object> fResults= new HashMap<>();
+
+	private ASTAnalysisCache() {
+	}
+
+	/**
+	 * Opens the cache of the current thread. If a cache is already open in this thread, it is
+	 * shared and remains open until the matching number of {@link #close()} calls.
+	 *
+	 * @return the open cache
+	 */
+	public static ASTAnalysisCache open() {
+		ASTAnalysisCache cache= fgCurrent.get();
+		if (cache == null) {
+			cache= new ASTAnalysisCache();
+			fgCurrent.set(cache);
+		}
+		cache.fOpenCount++;
+		return cache;
+	}
+
+	/**
+	 * @return the cache open in the current thread, or <code>null</code> if none is open
+	 */
+	public static ASTAnalysisCache getCurrent() {
+		return fgCurrent.get();
+	}
+
+	@Override
+	public void close() {
+		if (--fOpenCount == 0 && fgCurrent.get() == this) {
+			fgCurrent.remove();
+		}
+	}
+
+	/**
+	 * Returns the result of an analysis stored with {@link #put(Object, Object)}.
+	 *
+	 * @param key the key of the analysis, which must identify the analyzed AST nodes
+	 * @return the result, or <code>null</code> if none is stored
+	 */
+	public Object get(Object key) {
+		return fResults.get(key);
+	}
+
+	/**
+	 * Stores the result of an analysis.
+	 *
+	 * @param key the key of the analysis, which must identify the analyzed AST nodes
+	 * @param result the result
+	 */
+	public void put(Object key, Object result) {
+		fResults.put(key, result);
+	}
+
+	/**
+	 * Returns the declarations visible at the given offset, see
+	 * {@link ScopeAnalyzer#getDeclarationsInScope(int, int)}.
+	 *
+	 * @param root the AST root (must have resolved bindings)
+	 * @param offset the offset
+	 * @param flags the flags of the {@link ScopeAnalyzer}
+	 * @return the declarations in scope. The array must not be modified.
+	 */
+	public static IBinding[] getDeclarationsInScope(CompilationUnit root, int offset, int flags) {
+		ASTAnalysisCache cache= getCurrent();
+		Object key= null;
+		if (cache != null) {
+			key= Arrays.asList(DECLARATIONS_IN_SCOPE, root, Integer.valueOf(offset), Integer.valueOf(flags));
+			IBinding[] declarations= (IBinding[]) cache.get(key);
+			if (declarations != null)
+				return declarations;
+		}
+		IBinding[] declarations= new ScopeAnalyzer(root).getDeclarationsInScope(offset, flags);
+		if (cache != null)
+			cache.put(key, declarations);
+		return declarations;
+	}
+
+	/**
+	 * Returns the names in the given AST which are references to types or static members that can
+	 * be imported, see {@link ImportReferencesCollector}.
+	 *
+	 * @param root the AST root (must have resolved bindings)
+	 * @return the imported names. The array must not be modified.
+	 */
+	public static Name[] getImportedNames(CompilationUnit root) {
+		ASTAnalysisCache cache= getCurrent();
+		Object key= null;
+		if (cache != null) {
+			key= Arrays.asList(IMPORTED_NAMES, root);
+			Name[] names= (Name[]) cache.get(key);
+			if (names != null)
+				return names;
+		}
+		IJavaProject project= null;
+		IJavaElement javaElement= root.getJavaElement();
+		if (javaElement != null)
+			project= javaElement.getJavaProject();
+
+		List<SimpleName> imports= new ArrayList<>();
+		ImportReferencesCollector.collect(root, project, null, imports, null);
+		Name[] names= imports.toArray(new Name[imports.size()]);
+		if (cache != null)
+			cache.put(key, names);
+		return names;
+	}
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.dom;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * Memoizes the type hierarchy lookups of {@link Bindings} while it is open in the current thread.
+ * Super type closures, the super class and interface sequences visited by
+ * {@link Bindings#visitHierarchy(ITypeBinding, TypeBindingVisitor)}, override relations and super
+ * type relations are stored as flat arrays, so repeated queries for the same bindings do not walk
+ * the hierarchy again.
+ * <p>
+ * The results are keyed by the identity of the queried bindings. The bindings of an AST are
+ * unique within that AST, so the bindings of different ASTs never share results even if they have
+ * the same binding key. Caches opened in the same thread are shared, the outermost
+ * {@link #close()} discards the results. Typical usage:
+ * </p>
+ * <pre>
+ * try (BindingHierarchyCache cache= BindingHierarchyCache.open()) {
+ *     ... // calls to Bindings
+ * }
+ * </pre>
+ *
+ * @since 1.11
+ */
+public final class BindingHierarchyCache implements AutoCloseable {
+
+	/**
+	 * Key of a result computed for two bindings, compared by identity.
+	 */
+	private static final class BindingPair {
+		private final IBinding fFirst;
+		private final IBinding fSecond;
+		private final int fFlags;
+
+		BindingPair(IBinding first, IBinding second, int flags) {
+			fFirst= first;
+			fSecond= second;
+			fFlags= flags;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof BindingPair))
+				return false;
+			BindingPair other= (BindingPair) obj;
+			return fFirst == other.fFirst && fSecond == other.fSecond && fFlags == other.fFlags;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * System.identityHashCode(fFirst) + System.identityHashCode(fSecond)) * 31 + fFlags;
+		}
+	}
+
+	private static final ThreadLocal<BindingHierarchyCache> fgCurrent= new ThreadLocal<>();
+
+	private static final ITypeBinding[] NO_TYPES= new ITypeBinding[0];
+	private static final IMethodBinding[] NO_METHODS= new IMethodBinding[0];
+
+	private int fOpenCount;
+
+	private final Map<ITypeBinding, ITypeBinding[]> fSuperTypes= new IdentityHashMap<>();
+	private final Map<ITypeBinding, ITypeBinding[]> fSuperclasses= new IdentityHashMap<>();
+	private final Map<ITypeBinding, ITypeBinding[]> fInterfaces= new IdentityHashMap<>();
+	private final Map<BindingPair, IMethodBinding[]> fOverriddenInHierarchy= new HashMap<>();
+	private final Map<BindingPair, IMethodBinding[]> fOverriddenMethods= new HashMap<>();
+	private final Map<BindingPair, Boolean> fSuperTypeRelations= new HashMap<>();
+
+	private BindingHierarchyCache() {
+	}
+
+	/**
+	 * Opens the cache of the current thread. If a cache is already open in this thread, it is
+	 * shared and remains open until the matching number of {@link #close()} calls.
+	 *
+	 * @return the open cache
+	 */
+	public static BindingHierarchyCache open() {
+		BindingHierarchyCache cache= fgCurrent.get();
+		if (cache == null) {
+			cache= new BindingHierarchyCache();
+			fgCurrent.set(cache);
+		}
+		cache.fOpenCount++;
+		return cache;
+	}
+
+	/**
+	 * @return the cache open in the current thread, or <code>null</code> if none is open
+	 */
+	static BindingHierarchyCache getCurrent() {
+		return fgCurrent.get();
+	}
+
+	@Override
+	public void close() {
+		if (--fOpenCount == 0 && fgCurrent.get() == this) {
+			fgCurrent.remove();
+		}
+	}
+
+	ITypeBinding[] getAllSuperTypes(ITypeBinding type) {
+		ITypeBinding[] superTypes= fSuperTypes.get(type);
+		if (superTypes == null) {
+			superTypes= Bindings.computeAllSuperTypes(type);
+			fSuperTypes.put(type, superTypes);
+		}
+		return superTypes.clone();
+	}
+
+	/**
+	 * Returns the super classes of the given type, starting with the direct super class.
+	 *
+	 * @param type the type
+	 * @return the super classes
+	 */
+	ITypeBinding[] getSuperclasses(ITypeBinding type) {
+		ITypeBinding[] superclasses= fSuperclasses.get(type);
+		if (superclasses == null) {
+			List<ITypeBinding> result= new ArrayList<>();
+			ITypeBinding curr= type;
+			while ((curr= curr.getSuperclass()) != null) {
+				result.add(curr);
+			}
+			superclasses= result.isEmpty() ? NO_TYPES : result.toArray(new ITypeBinding[result.size()]);
+			fSuperclasses.put(type, superclasses);
+		}
+		return superclasses;
+	}
+
+	/**
+	 * Returns the interfaces of the given type in the order in which
+	 * {@link Bindings#visitInterfaces(ITypeBinding, TypeBindingVisitor)} visits them.
+	 *
+	 * @param type the type
+	 * @return the interfaces
+	 */
+	ITypeBinding[] getInterfaceSequence(ITypeBinding type) {
+		ITypeBinding[] interfaces= fInterfaces.get(type);
+		if (interfaces == null) {
+			final List<ITypeBinding> result= new ArrayList<>();
+			Bindings.visitInterfaces(type, new TypeBindingVisitor() {
+				@Override
+				public boolean visit(ITypeBinding visited) {
+					result.add(visited);
+					return true;
+				}
+			}, new HashSet<ITypeBinding>());
+			interfaces= result.isEmpty() ? NO_TYPES : result.toArray(new ITypeBinding[result.size()]);
+			fInterfaces.put(type, interfaces);
+		}
+		return interfaces;
+	}
+
+	/**
+	 * Returns the cached result of {@link Bindings#findOverriddenMethodInHierarchy(ITypeBinding, IMethodBinding)}.
+	 *
+	 * @param type the type to search the method in
+	 * @param binding the method that overrides
+	 * @return an array containing the overridden method, an empty array if no method is
+	 *         overridden, or <code>null</code> if the result is not cached
+	 */
+	IMethodBinding[] getOverriddenInHierarchy(ITypeBinding type, IMethodBinding binding) {
+		return fOverriddenInHierarchy.get(new BindingPair(type, binding, 0));
+	}
+
+	void putOverriddenInHierarchy(ITypeBinding type, IMethodBinding binding, IMethodBinding overridden) {
+		fOverriddenInHierarchy.put(new BindingPair(type, binding, 0), overridden != null ? new IMethodBinding[] { overridden } : NO_METHODS);
+	}
+
+	/**
+	 * Returns the cached result of {@link Bindings#findOverriddenMethods(IMethodBinding, boolean, boolean)}.
+	 *
+	 * @param overriding the overriding method
+	 * @param testVisibility whether the visibility was tested
+	 * @param firstOnly whether only the first method was searched
+	 * @return the overridden methods, or <code>null</code> if the result is not cached
+	 */
+	IMethodBinding[] getOverriddenMethods(IMethodBinding overriding, boolean testVisibility, boolean firstOnly) {
+		return fOverriddenMethods.get(new BindingPair(overriding, null, getFlags(testVisibility, firstOnly)));
+	}
+
+	void putOverriddenMethods(IMethodBinding overriding, boolean testVisibility, boolean firstOnly, List<IMethodBinding> overridden) {
+		fOverriddenMethods.put(new BindingPair(overriding, null, getFlags(testVisibility, firstOnly)), overridden.isEmpty() ? NO_METHODS : overridden.toArray(new IMethodBinding[overridden.size()]));
+	}
+
+	/**
+	 * Returns the cached result of {@link Bindings#isSuperType(ITypeBinding, ITypeBinding, boolean)}.
+	 *
+	 * @param possibleSuperType the type to inspect
+	 * @param type the type whose super types are looked at
+	 * @param considerTypeArguments whether type arguments are considered
+	 * @return the result, or <code>null</code> if the result is not cached
+	 */
+	Boolean isSuperType(ITypeBinding possibleSuperType, ITypeBinding type, boolean considerTypeArguments) {
+		return fSuperTypeRelations.get(new BindingPair(possibleSuperType, type, getFlags(considerTypeArguments, false)));
+	}
+
+	void putSuperType(ITypeBinding possibleSuperType, ITypeBinding type, boolean considerTypeArguments, boolean isSuperType) {
+		fSuperTypeRelations.put(new BindingPair(possibleSuperType, type, getFlags(considerTypeArguments, false)), Boolean.valueOf(isSuperType));
+	}
+
+	private static int getFlags(boolean first, boolean second) {
+		return (first ? 1 : 0) | (second ? 2 : 0);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@
 package org.eclipse.jdt.internal.corext.dom;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -510,6 +511,19 @@ public class Bindings {
 	 * @return the method binding overridden the method
 	 */
 	public static IMethodBinding findOverriddenMethodInHierarchy(ITypeBinding type, IMethodBinding binding) {
+		BindingHierarchyCache cache= BindingHierarchyCache.getCurrent();
+		if (cache != null) {
+			IMethodBinding[] cached= cache.getOverriddenInHierarchy(type, binding);
+			if (cached != null)
+				return cached.length > 0 ? cached[0] : null;
+		}
+		IMethodBinding method= computeOverriddenMethodInHierarchy(type, binding);
+		if (cache != null)
+			cache.putOverriddenInHierarchy(type, binding, method);
+		return method;
+	}
+
+	private static IMethodBinding computeOverriddenMethodInHierarchy(ITypeBinding type, IMethodBinding binding) {
 		IMethodBinding method= findOverriddenMethodInType(type, binding);
 		if (method != null)
 			return method;
@@ -557,6 +571,19 @@ public class Bindings {
 	 * @since 3.9
 	 */
 	public static List<IMethodBinding> findOverriddenMethods(IMethodBinding overriding, boolean testVisibility, boolean firstOnly) {
+		BindingHierarchyCache cache= BindingHierarchyCache.getCurrent();
+		if (cache != null) {
+			IMethodBinding[] cached= cache.getOverriddenMethods(overriding, testVisibility, firstOnly);
+			if (cached != null)
+				return new ArrayList<>(Arrays.asList(cached));
+		}
+		List<IMethodBinding> methodList= computeOverriddenMethods(overriding, testVisibility, firstOnly);
+		if (cache != null)
+			cache.putOverriddenMethods(overriding, testVisibility, firstOnly, methodList);
+		return methodList;
+	}
+
+	private static List<IMethodBinding> computeOverriddenMethods(IMethodBinding overriding, boolean testVisibility, boolean firstOnly) {
 		List<IMethodBinding> methodList= new ArrayList<>();
 
 		int modifiers= overriding.getModifiers();
@@ -607,6 +634,13 @@ public class Bindings {
 	 * @return all super types (excluding <code>type</code>)
 	 */
 	public static ITypeBinding[] getAllSuperTypes(ITypeBinding type) {
+		BindingHierarchyCache cache= BindingHierarchyCache.getCurrent();
+		if (cache != null)
+			return cache.getAllSuperTypes(type);
+		return computeAllSuperTypes(type);
+	}
+
+	static ITypeBinding[] computeAllSuperTypes(ITypeBinding type) {
 		Set<ITypeBinding> result= new HashSet<>();
 		collectSuperTypes(type, result);
 		result.remove(type);
@@ -655,10 +689,13 @@ public class Bindings {
 	 *         method returned <code>false</code> for a type
 	 */
 	public static boolean visitInterfaces(ITypeBinding type, TypeBindingVisitor visitor) {
+		BindingHierarchyCache cache= BindingHierarchyCache.getCurrent();
+		if (cache != null)
+			return visitTypes(cache.getInterfaceSequence(type), visitor);
 		return visitInterfaces(type, visitor, new HashSet<ITypeBinding>());
 	}
 
-	private static boolean visitInterfaces(ITypeBinding type, TypeBindingVisitor visitor, HashSet<ITypeBinding> visited) {
+	static boolean visitInterfaces(ITypeBinding type, TypeBindingVisitor visitor, HashSet<ITypeBinding> visited) {
 		boolean unvisited= visited.add(type);
 		if (!unvisited)
 			return true;
@@ -685,6 +722,9 @@ public class Bindings {
 	 *         method returned <code>false</code> for a type
 	 */
 	public static boolean visitSuperclasses(ITypeBinding type, TypeBindingVisitor visitor) {
+		BindingHierarchyCache cache= BindingHierarchyCache.getCurrent();
+		if (cache != null)
+			return visitTypes(cache.getSuperclasses(type), visitor);
 		while ((type= type.getSuperclass()) != null) {
 			if (!visitor.visit(type)) {
 				return false;
@@ -693,6 +733,15 @@ public class Bindings {
 		return true;
 	}
 
+	private static boolean visitTypes(ITypeBinding[] types, TypeBindingVisitor visitor) {
+		for (int i= 0; i < types.length; i++) {
+			if (!visitor.visit(types[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Tests whether the two methods are erasure-equivalent.
 	 * @param method the first method
@@ -993,6 +1042,19 @@ public class Bindings {
 		if (type.isArray() || type.isPrimitive()) {
 			return false;
 		}
+		BindingHierarchyCache cache= BindingHierarchyCache.getCurrent();
+		if (cache != null) {
+			Boolean cached= cache.isSuperType(possibleSuperType, type, considerTypeArguments);
+			if (cached != null)
+				return cached.booleanValue();
+		}
+		boolean isSuperType= computeIsSuperType(possibleSuperType, type, considerTypeArguments);
+		if (cache != null)
+			cache.putSuperType(possibleSuperType, type, considerTypeArguments, isSuperType);
+		return isSuperType;
+	}
+
+	private static boolean computeIsSuperType(ITypeBinding possibleSuperType, ITypeBinding type, boolean considerTypeArguments) {
 		if (! considerTypeArguments) {
 			type= type.getTypeDeclaration();
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -39,6 +39,8 @@ import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
+import org.eclipse.jdt.internal.junit.launcher.AffectedTestsIndex;
+import org.eclipse.jdt.internal.junit.launcher.TestHistoryStore;
 import org.eclipse.jdt.internal.junit.model.JUnitModel;
 
 /**
@@ -99,6 +101,16 @@ public class JUnitCorePlugin extends Plugin {
 	 */
 	private ListenerList<TestRunListener> fNewTestRunListeners;
 
+	/**
+	 * The index of the tests affected by changes, or <code>null</code> if not created yet.
+	 */
+	private AffectedTestsIndex fAffectedTestsIndex;
+
+	/**
+	 * The history of the test classes, or <code>null</code> if not created yet.
+	 */
+	private TestHistoryStore fTestHistoryStore;
+
 	private BundleContext fBundleContext;
 
 	private static boolean fIsStopped= false;
@@ -144,6 +156,12 @@ public class JUnitCorePlugin extends Plugin {
 		try {
 			InstanceScope.INSTANCE.getNode(JUnitCorePlugin.CORE_PLUGIN_ID).flush();
 			fJUnitModel.stop();
+			synchronized (this) {
+				if (fAffectedTestsIndex != null) {
+					fAffectedTestsIndex.dispose();
+					fAffectedTestsIndex= null;
+				}
+			}
 		} finally {
 			super.stop(context);
 		}
@@ -285,6 +303,26 @@ public class JUnitCorePlugin extends Plugin {
 		return fNewTestRunListeners;
 	}
 
+	/**
+	 * @return the index of the tests affected by changes
+	 */
+	public synchronized AffectedTestsIndex getAffectedTestsIndex() {
+		if (fAffectedTestsIndex == null) {
+			fAffectedTestsIndex= new AffectedTestsIndex();
+		}
+		return fAffectedTestsIndex;
+	}
+
+	/**
+	 * @return the history of the test classes
+	 */
+	public synchronized TestHistoryStore getTestHistoryStore() {
+		if (fTestHistoryStore == null) {
+			fTestHistoryStore= new TestHistoryStore();
+		}
+		return fTestHistoryStore;
+	}
+
 	public static boolean isStopped() {
 		return fIsStopped;
 	}
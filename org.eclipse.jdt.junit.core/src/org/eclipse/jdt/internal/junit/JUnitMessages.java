@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -54,6 +54,8 @@ public final class JUnitMessages extends NLS {
 
 	public static String JUnitLaunchConfigurationDelegate_error_notests_kind;
 
+	public static String JUnitLaunchConfigurationDelegate_error_no_affected_tests;
+
 	public static String JUnitLaunchConfigurationDelegate_error_wrong_input;
 
 	public static String JUnitLaunchConfigurationDelegate_input_type_does_not_exist;
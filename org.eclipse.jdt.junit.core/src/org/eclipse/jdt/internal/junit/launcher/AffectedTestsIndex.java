@@ -0,0 +1,613 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Path;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchRequestor;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+
+/**
+ * Selects the test classes that are affected by changes since they last passed, see
+ * {@link JUnitLaunchConfigurationConstants#ATTR_AFFECTED_TESTS_ONLY}.
+ * <p>
+ * For each launched project, the index keeps a reference graph of the compilation units in the
+ * workspace, computed with {@link SearchEngine#searchDeclarationsOfReferencedTypes(IJavaElement, SearchRequestor, IProgressMonitor)},
+ * and the start time of the last test run in which all tests of a test class passed. A test
+ * class is affected if a compilation unit it reaches through the graph was modified or deleted
+ * after that time, if it never passed, or if the class path of the project changed since then.
+ * </p>
+ * <p>
+ * The graph is computed lazily and updated from Java element deltas: the references of a
+ * compilation unit are recomputed after it changed. The deltas are queued and applied when the
+ * index is used next, so that the delta notification does not wait for a selection. The index
+ * of a project is stored in the state location of the plug-in.
+ * </p>
+ * <p>
+ * The references are searched without holding the lock on the index. A search result is only
+ * added to the index if no delta was queued during the search.
+ * </p>
+ */
+public class AffectedTestsIndex implements IElementChangedListener {
+
+	private static final String INDEX_DIR_NAME= "affectedTests"; //$NON-NLS-1$
+
+	private static final String INDEX_FILE_EXTENSION= ".index"; //$NON-NLS-1$
+
+	private static final int INDEX_VERSION= 1;
+
+	private static final String[] NO_REFERENCES= new String[0];
+
+	private static class References {
+
+		/**
+		 * The local time stamp of the compilation unit when the references were computed.
+		 */
+		final long fTimeStamp;
+
+		/**
+		 * The full paths of the compilation units declaring the referenced source types.
+		 */
+		final String[] fPaths;
+
+		References(long timeStamp, String[] paths) {
+			fTimeStamp= timeStamp;
+			fPaths= paths;
+		}
+	}
+
+	/**
+	 * A compilation unit whose references are to be recomputed.
+	 */
+	private static class Invalidation {
+
+		final IPath fPath;
+
+		/**
+		 * Whether the references of all compilation units of the package are to be recomputed.
+		 */
+		final boolean fInPackage;
+
+		Invalidation(IPath path, boolean inPackage) {
+			fPath= path;
+			fInPackage= inPackage;
+		}
+	}
+
+	private static class ProjectIndex {
+
+		/**
+		 * Map from the full path of a compilation unit to its references.
+		 */
+		final Map<String, References> fReferences= new HashMap<>();
+
+		/**
+		 * Map from the name of a test class to the start time of the last test run in which all
+		 * its tests passed.
+		 */
+		final Map<String, Long> fLastPassed= new HashMap<>();
+
+		/**
+		 * The class path stamp of the project when the test classes passed.
+		 */
+		int fClasspathStamp;
+
+		boolean fIsDirty;
+	}
+
+	/**
+	 * Map from project name to the loaded index of the project.
+	 */
+	private final Map<String, ProjectIndex> fProjectIndexes= new HashMap<>();
+
+	/**
+	 * The invalidations from Java element deltas that have not been applied to the indexes yet.
+	 */
+	private final Queue<Invalidation> fInvalidations= new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The number of invalidations that have been queued.
+	 */
+	private final AtomicLong fInvalidationCount= new AtomicLong();
+
+	public AffectedTestsIndex() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Returns the test classes that are affected by changes since they last passed.
+	 *
+	 * @param project the launched project
+	 * @param types the test classes to select from
+	 * @param monitor the progress monitor
+	 * @return the affected test classes, in the given order
+	 * @throws CoreException if the class path of the project cannot be resolved
+	 */
+	public IType[] selectAffectedTests(IJavaProject project, IType[] types, IProgressMonitor monitor) throws CoreException {
+		monitor.beginTask("", types.length); //$NON-NLS-1$
+		try {
+			int classpathStamp= getClasspathStamp(project);
+			List<IType> affected= new ArrayList<>();
+			ProjectIndex index;
+			synchronized (this) {
+				index= getProjectIndex(project.getElementName(), true);
+			}
+			applyInvalidations();
+			Map<String, Long> lastPassedTimes;
+			synchronized (index) {
+				if (index.fClasspathStamp != classpathStamp) {
+					index.fLastPassed.clear();
+				}
+				lastPassedTimes= new HashMap<>(index.fLastPassed);
+			}
+			Map<String, Long> timeStamps= new HashMap<>();
+			for (int i= 0; i < types.length; i++) {
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				Long lastPassed= lastPassedTimes.get(types[i].getFullyQualifiedName('.'));
+				ICompilationUnit cu= types[i].getCompilationUnit();
+				if (lastPassed == null || cu == null || isChangedSince(index, cu.getPath().toString(), lastPassed.longValue(), timeStamps)) {
+					affected.add(types[i]);
+				}
+				monitor.worked(1);
+			}
+			synchronized (index) {
+				if (index.fIsDirty) {
+					save(project.getElementName(), index);
+				}
+			}
+			return affected.toArray(new IType[affected.size()]);
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Records the test classes whose tests all passed in the given test run. Test runs that only
+	 * ran some of the tests of a class are ignored, as are projects for which no tests have been
+	 * selected yet. Only called for test runs launched with
+	 * {@link JUnitLaunchConfigurationConstants#ATTR_AFFECTED_TESTS_ONLY}.
+	 *
+	 * @param session the finished test run session
+	 */
+	public void testRunFinished(TestRunSession session) {
+		ILaunch launch= session.getLaunch();
+		if (launch != null) {
+			testRunFinished(session.getLaunchedProject(), launch.getLaunchConfiguration(), session.getStartTime(), session.getTestRoot());
+		}
+	}
+
+	/**
+	 * Records the test classes whose tests all passed in the given test run, see
+	 * {@link #testRunFinished(TestRunSession)}.
+	 *
+	 * @param project the launched project, can be <code>null</code>
+	 * @param configuration the launch configuration, can be <code>null</code>
+	 * @param startTime the start time of the test run
+	 * @param root the root of the test elements of the test run
+	 */
+	public void testRunFinished(IJavaProject project, ILaunchConfiguration configuration, long startTime, ITestElement root) {
+		if (project == null || startTime <= 0 || !isCompleteRun(configuration))
+			return;
+
+		ProjectIndex index;
+		synchronized (this) {
+			index= getProjectIndex(project.getElementName(), false);
+		}
+		if (index == null)
+			return;
+
+		Map<String, Result> results= new HashMap<>();
+		collectResults(root, results);
+		int classpathStamp;
+		try {
+			classpathStamp= getClasspathStamp(project);
+		} catch (JavaModelException e) {
+			return;
+		}
+		applyInvalidations();
+		synchronized (index) {
+			if (index.fClasspathStamp != classpathStamp) {
+				index.fLastPassed.clear();
+				index.fClasspathStamp= classpathStamp;
+			}
+			for (Map.Entry<String, Result> entry : results.entrySet()) {
+				Result result= entry.getValue();
+				if (result == Result.OK) {
+					index.fLastPassed.put(entry.getKey(), Long.valueOf(startTime));
+				} else if (result == Result.FAILURE) {
+					index.fLastPassed.remove(entry.getKey());
+				}
+			}
+			save(project.getElementName(), index);
+		}
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		synchronized (this) {
+			if (fProjectIndexes.isEmpty())
+				return;
+		}
+		processDelta(event.getDelta());
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element= delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() == IJavaElementDelta.REMOVED) {
+					removeProjectIndex(element.getElementName());
+					return;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				if ((delta.getFlags() & IJavaElementDelta.F_PRIMARY_WORKING_COPY) != 0)
+					return;
+				if (delta.getKind() == IJavaElementDelta.CHANGED) {
+					if ((delta.getFlags() & IJavaElementDelta.F_CONTENT) != 0) {
+						invalidate(element.getPath(), false);
+					}
+				} else {
+					// the references of the other compilation units of the package may resolve to the added type
+					invalidate(element.getPath(), true);
+				}
+				return;
+			default:
+				break;
+		}
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			processDelta(children[i]);
+		}
+	}
+
+	private void invalidate(IPath path, boolean inPackage) {
+		fInvalidations.add(new Invalidation(path, inPackage));
+		fInvalidationCount.incrementAndGet();
+	}
+
+	/**
+	 * Removes the references of the queued invalidations from the indexes.
+	 */
+	private void applyInvalidations() {
+		if (fInvalidations.isEmpty())
+			return;
+		List<ProjectIndex> indexes;
+		synchronized (this) {
+			indexes= new ArrayList<>(fProjectIndexes.values());
+		}
+		Invalidation invalidation;
+		while ((invalidation= fInvalidations.poll()) != null) {
+			String cuPath= invalidation.fPath.toString();
+			String packagePath= invalidation.fPath.removeLastSegments(1).toString();
+			for (ProjectIndex index : indexes) {
+				synchronized (index) {
+					if (invalidation.fInPackage) {
+						for (Iterator<String> iter= index.fReferences.keySet().iterator(); iter.hasNext();) {
+							if (new Path(iter.next()).removeLastSegments(1).toString().equals(packagePath)) {
+								iter.remove();
+								index.fIsDirty= true;
+							}
+						}
+					} else if (index.fReferences.remove(cuPath) != null) {
+						index.fIsDirty= true;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stores the modified indexes.
+	 */
+	public void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		applyInvalidations();
+		synchronized (this) {
+			for (Map.Entry<String, ProjectIndex> entry : fProjectIndexes.entrySet()) {
+				ProjectIndex index= entry.getValue();
+				synchronized (index) {
+					if (index.fIsDirty) {
+						save(entry.getKey(), index);
+					}
+				}
+			}
+			fProjectIndexes.clear();
+		}
+	}
+
+	/**
+	 * Tells whether a compilation unit that the given compilation unit reaches through the
+	 * reference graph was modified or deleted after the given time.
+	 */
+	private boolean isChangedSince(ProjectIndex index, String cuPath, long time, Map<String, Long> timeStamps) throws JavaModelException {
+		IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		Set<String> visited= new HashSet<>();
+		ArrayDeque<String> queue= new ArrayDeque<>();
+		visited.add(cuPath);
+		queue.add(cuPath);
+		while (!queue.isEmpty()) {
+			String path= queue.remove();
+			Long timeStamp= timeStamps.get(path);
+			if (timeStamp == null) {
+				IResource resource= root.findMember(path);
+				timeStamp= Long.valueOf(resource instanceof IFile ? resource.getLocalTimeStamp() : IResource.NULL_STAMP);
+				timeStamps.put(path, timeStamp);
+			}
+			if (timeStamp.longValue() == IResource.NULL_STAMP || timeStamp.longValue() > time)
+				return true;
+
+			String[] references= getReferences(index, path, timeStamp.longValue());
+			for (int i= 0; i < references.length; i++) {
+				if (visited.add(references[i])) {
+					queue.add(references[i]);
+				}
+			}
+		}
+		return false;
+	}
+
+	private String[] getReferences(ProjectIndex index, final String cuPath, long timeStamp) throws JavaModelException {
+		synchronized (index) {
+			References references= index.fReferences.get(cuPath);
+			if (references != null && references.fTimeStamp == timeStamp)
+				return references.fPaths;
+		}
+
+		long invalidationCount= fInvalidationCount.get();
+		String[] paths= NO_REFERENCES;
+		IFile file= ResourcesPlugin.getWorkspace().getRoot().getFile(new Path(cuPath));
+		ICompilationUnit cu= JavaCore.createCompilationUnitFrom(file);
+		if (cu != null && cu.exists()) {
+			final Set<String> result= new LinkedHashSet<>();
+			new SearchEngine().searchDeclarationsOfReferencedTypes(cu, new SearchRequestor() {
+				@Override
+				public void acceptSearchMatch(SearchMatch match) throws CoreException {
+					Object element= match.getElement();
+					IResource resource= match.getResource();
+					if (element instanceof IType && !((IType) element).isBinary() && resource instanceof IFile) {
+						result.add(resource.getFullPath().toString());
+					}
+				}
+			}, null);
+			result.remove(cuPath);
+			if (!result.isEmpty()) {
+				paths= result.toArray(new String[result.size()]);
+			}
+		}
+		applyInvalidations();
+		synchronized (index) {
+			// the references may be outdated if a delta arrived during the search
+			if (fInvalidationCount.get() == invalidationCount) {
+				index.fReferences.put(cuPath, new References(timeStamp, paths));
+				index.fIsDirty= true;
+			}
+		}
+		return paths;
+	}
+
+	/**
+	 * Tells whether the given launch configuration runs all tests of its test classes.
+	 *
+	 * @param configuration the launch configuration, can be <code>null</code>
+	 * @return <code>true</code> if no single test or tag is selected
+	 */
+	static boolean isCompleteRun(ILaunchConfiguration configuration) {
+		if (configuration == null)
+			return false;
+		try {
+			return configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_NAME, "").length() == 0 //$NON-NLS-1$
+					&& configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_UNIQUE_ID, "").trim().isEmpty() //$NON-NLS-1$
+					&& !configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_HAS_INCLUDE_TAGS, false)
+					&& !configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_HAS_EXCLUDE_TAGS, false);
+		} catch (CoreException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Collects the results of the test classes: {@link Result#OK} if all tests passed,
+	 * {@link Result#FAILURE} if a test failed or had an error, and {@link Result#UNDEFINED} if some
+	 * tests did not run, e.g. because the test run was stopped.
+	 */
+	private static void collectResults(ITestElement element, Map<String, Result> results) {
+		if (element instanceof TestCaseElement) {
+			TestCaseElement testCase= (TestCaseElement) element;
+			Result result= testCase.getTestResult(false);
+			if (result == Result.IGNORED) {
+				result= Result.OK;
+			} else if (result == Result.ERROR) {
+				result= Result.FAILURE;
+			}
+			Result previous= results.get(testCase.getClassName());
+			if (previous == null || previous == Result.OK || previous == Result.UNDEFINED && result == Result.FAILURE) {
+				results.put(testCase.getClassName(), result);
+			}
+		} else if (element instanceof TestSuiteElement) {
+			ITestElement[] children= ((TestSuiteElement) element).getChildren();
+			for (int i= 0; i < children.length; i++) {
+				collectResults(children[i], results);
+			}
+		}
+	}
+
+	/**
+	 * Returns a stamp of the resolved class path of the project, including the time stamps of the
+	 * libraries, so that tests are selected again after a library changed.
+	 */
+	private static int getClasspathStamp(IJavaProject project) throws JavaModelException {
+		IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		IClasspathEntry[] entries= project.getResolvedClasspath(true);
+		int stamp= 0;
+		for (int i= 0; i < entries.length; i++) {
+			IPath path= entries[i].getPath();
+			stamp= 31 * stamp + path.hashCode();
+			if (entries[i].getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+				IResource resource= root.findMember(path);
+				long modified= resource != null ? resource.getLocalTimeStamp() : path.toFile().lastModified();
+				stamp= 31 * stamp + Long.hashCode(modified);
+			}
+		}
+		return stamp;
+	}
+
+	private ProjectIndex getProjectIndex(String projectName, boolean create) {
+		ProjectIndex index= fProjectIndexes.get(projectName);
+		if (index == null) {
+			File file= getIndexFile(projectName);
+			if (file != null && file.isFile()) {
+				index= load(file);
+			}
+			if (index == null && create) {
+				index= new ProjectIndex();
+			}
+			if (index != null) {
+				fProjectIndexes.put(projectName, index);
+			}
+		}
+		return index;
+	}
+
+	private synchronized void removeProjectIndex(String projectName) {
+		fProjectIndexes.remove(projectName);
+		File file= getIndexFile(projectName);
+		if (file != null) {
+			file.delete();
+		}
+	}
+
+	private static File getIndexFile(String projectName) {
+		File dir;
+		try {
+			dir= JUnitCorePlugin.getDefault().getStateLocation().append(INDEX_DIR_NAME).toFile();
+		} catch (IllegalStateException e) {
+			// no state location
+			return null;
+		}
+		if (!dir.isDirectory() && !dir.mkdirs())
+			return null;
+		return new File(dir, projectName + INDEX_FILE_EXTENSION);
+	}
+
+	private static ProjectIndex load(File file) {
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != INDEX_VERSION)
+				return null;
+			ProjectIndex index= new ProjectIndex();
+			index.fClasspathStamp= in.readInt();
+			int passedCount= in.readInt();
+			for (int i= 0; i < passedCount; i++) {
+				String name= in.readUTF();
+				index.fLastPassed.put(name, Long.valueOf(in.readLong()));
+			}
+			int referencesCount= in.readInt();
+			for (int i= 0; i < referencesCount; i++) {
+				String path= in.readUTF();
+				long timeStamp= in.readLong();
+				String[] paths= new String[in.readInt()];
+				for (int j= 0; j < paths.length; j++) {
+					paths[j]= in.readUTF();
+				}
+				index.fReferences.put(path, new References(timeStamp, paths));
+			}
+			return index;
+		} catch (IOException e) {
+			// the index is corrupt, it is replaced when the index is saved again
+			file.delete();
+			return null;
+		}
+	}
+
+	private static void save(String projectName, ProjectIndex index) {
+		File file= getIndexFile(projectName);
+		if (file == null)
+			return;
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(INDEX_VERSION);
+			out.writeInt(index.fClasspathStamp);
+			out.writeInt(index.fLastPassed.size());
+			for (Map.Entry<String, Long> entry : index.fLastPassed.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeLong(entry.getValue().longValue());
+			}
+			out.writeInt(index.fReferences.size());
+			for (Map.Entry<String, References> entry : index.fReferences.entrySet()) {
+				out.writeUTF(entry.getKey());
+				References references= entry.getValue();
+				out.writeLong(references.fTimeStamp);
+				out.writeInt(references.fPaths.length);
+				for (int i= 0; i < references.fPaths.length; i++) {
+					out.writeUTF(references.fPaths[i]);
+				}
+			}
+			index.fIsDirty= false;
+		} catch (IOException e) {
+			JUnitCorePlugin.log(e);
+			file.delete();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,7 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 
 import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.runner.HistoryPrioritizer;
 
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 
@@ -42,6 +43,58 @@ public class JUnitLaunchConfigurationConstants {
 
 	public static final String ATTR_PORT= JUnitCorePlugin.PLUGIN_ID+".PORT"; //$NON-NLS-1$
 
+	/**
+	 * The number of VMs across which the test classes of a launch are distributed, or 1 to run all
+	 * tests in a single VM.
+	 */
+	public static final String ATTR_SHARD_COUNT= JUnitCorePlugin.PLUGIN_ID + ".SHARD_COUNT"; //$NON-NLS-1$
+
+	/**
+	 * Launch attribute with the comma-separated ports of the test runners of a launch whose tests
+	 * are distributed across several VMs. Not set if the tests run in a single VM, whose port is
+	 * {@link #ATTR_PORT}.
+	 */
+	public static final String ATTR_SHARD_PORTS= JUnitCorePlugin.PLUGIN_ID + ".SHARD_PORTS"; //$NON-NLS-1$
+
+	/**
+	 * The time in seconds to wait for each test runner of a launch with several test runners to
+	 * connect, or 0 to wait until its process terminates. Test runners that are debugged and the
+	 * test runner of a launch with a single VM are always waited for.
+	 */
+	public static final String ATTR_SHARD_CONNECT_TIMEOUT= JUnitCorePlugin.PLUGIN_ID + ".SHARD_CONNECT_TIMEOUT"; //$NON-NLS-1$
+
+	/**
+	 * The default value of {@link #ATTR_SHARD_CONNECT_TIMEOUT}.
+	 */
+	public static final int DEFAULT_SHARD_CONNECT_TIMEOUT= 60;
+
+	/**
+	 * If set to true, only the test classes affected by changes since they last passed are run,
+	 * see {@link AffectedTestsIndex}.
+	 */
+	public static final String ATTR_AFFECTED_TESTS_ONLY= JUnitCorePlugin.PLUGIN_ID + ".AFFECTED_TESTS_ONLY"; //$NON-NLS-1$
+
+	/**
+	 * The order of the test classes by their history, one of {@link #TEST_ORDER_FAILURES_FIRST}
+	 * and {@link #TEST_ORDER_FASTEST_FIRST}, or "" to keep the order, see {@link TestHistoryStore}.
+	 */
+	public static final String ATTR_TEST_ORDER= JUnitCorePlugin.PLUGIN_ID + ".TEST_ORDER"; //$NON-NLS-1$
+
+	/**
+	 * Value of {@link #ATTR_TEST_ORDER}: recently failed test classes are run first.
+	 */
+	public static final String TEST_ORDER_FAILURES_FIRST= HistoryPrioritizer.ORDER_FAILURES_FIRST;
+
+	/**
+	 * Value of {@link #ATTR_TEST_ORDER}: the fastest test classes are run first.
+	 */
+	public static final String TEST_ORDER_FASTEST_FIRST= HistoryPrioritizer.ORDER_FASTEST_FIRST;
+
+	/**
+	 * If set to true, the test run is stopped after the first failure.
+	 */
+	public static final String ATTR_STOP_ON_FIRST_FAILURE= JUnitCorePlugin.PLUGIN_ID + ".STOP_ON_FIRST_FAILURE"; //$NON-NLS-1$
+
 	public static final String ATTR_DONT_ADD_MISSING_JUNIT5_DEPENDENCY= JUnitCorePlugin.PLUGIN_ID + ".DONT_ADD_MISSING_JUNIT5_DEPENDENCY"; //$NON-NLS-1$
 
 	/**
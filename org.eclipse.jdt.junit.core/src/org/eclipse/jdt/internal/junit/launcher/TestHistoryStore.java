@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.launcher;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+
+import org.eclipse.debug.core.ILaunch;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+import org.eclipse.jdt.internal.junit.runner.HistoryPrioritizer;
+
+/**
+ * Keeps the history of the test classes of each project: how often they ran and failed in their
+ * recent runs, when they last failed and how long their tests took. The history of a test class is
+ * dropped when the class no longer exists. The history is written from the finished test
+ * run sessions, stored in the state location of the plug-in and passed to the test runner to order
+ * the test classes, see {@link HistoryPrioritizer}.
+ */
+public class TestHistoryStore {
+
+	private static final String HISTORY_DIR_NAME= "testHistory"; //$NON-NLS-1$
+
+	private static final String HISTORY_FILE_EXTENSION= ".history"; //$NON-NLS-1$
+
+	/**
+	 * The maximal number of runs counted for a test class. When it is exceeded, the run and the
+	 * failure count are halved, so that the counts stay bounded and follow the recent runs.
+	 */
+	static final int MAX_RUN_COUNT= 64;
+
+	/**
+	 * The history of a test class.
+	 */
+	public static class History {
+
+		int fRunCount;
+
+		int fFailureCount;
+
+		/**
+		 * The start time of the last test run in which the class failed, or 0.
+		 */
+		long fLastFailed;
+
+		/**
+		 * The time in milliseconds that the tests of the class took in the last complete run, or -1
+		 * if unknown.
+		 */
+		long fDuration= -1;
+
+		History() {
+		}
+
+		/**
+		 * Creates a history.
+		 *
+		 * @param runCount how often the class ran
+		 * @param failureCount how often the class failed
+		 * @param lastFailed the start time of the last test run in which the class failed, or 0
+		 * @param duration the time in milliseconds that the tests took, or -1 if unknown
+		 */
+		public History(int runCount, int failureCount, long lastFailed, long duration) {
+			fRunCount= runCount;
+			fFailureCount= failureCount;
+			fLastFailed= lastFailed;
+			fDuration= duration;
+		}
+
+		/**
+		 * @return the time in milliseconds that the tests took, or -1 if unknown
+		 */
+		public long getDuration() {
+			return fDuration;
+		}
+	}
+
+	/**
+	 * Result of a test class in a test run.
+	 */
+	private static class ClassResult {
+		boolean fHasRun;
+		boolean fIsFailed;
+		boolean fIsComplete= true;
+		long fDuration;
+	}
+
+	/**
+	 * Map from project name to the loaded histories of the project, which map the test class
+	 * names to their history.
+	 */
+	private final Map<String, Map<String, History>> fProjectHistories= new HashMap<>();
+
+	/**
+	 * Returns the history of the test classes of the given project.
+	 *
+	 * @param project the project
+	 * @return a copy of the map from test class name to history
+	 */
+	public synchronized Map<String, History> getHistories(IJavaProject project) {
+		return new HashMap<>(getProjectHistories(project.getElementName()));
+	}
+
+	/**
+	 * Writes the history of the given project to a temporary file that is passed to the test
+	 * runner.
+	 *
+	 * @param project the project
+	 * @return the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public File createHistoryFile(IJavaProject project) throws IOException {
+		File file= File.createTempFile("testHistory", ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+		file.deleteOnExit();
+		synchronized (this) {
+			write(file, getProjectHistories(project.getElementName()));
+		}
+		return file;
+	}
+
+	/**
+	 * Records the results of the test classes of the given test run.
+	 *
+	 * @param session the finished test run session
+	 */
+	public void testRunFinished(TestRunSession session) {
+		IJavaProject project= session.getLaunchedProject();
+		ILaunch launch= session.getLaunch();
+		long startTime= session.getStartTime();
+		if (project == null || launch == null || startTime <= 0)
+			return;
+
+		Map<String, ClassResult> results= new HashMap<>();
+		collectResults(session.getTestRoot(), results);
+		if (results.isEmpty())
+			return;
+		boolean isCompleteRun= AffectedTestsIndex.isCompleteRun(launch.getLaunchConfiguration());
+		Set<String> deletedClasses= getDeletedClasses(project, getHistories(project).keySet(), results.keySet());
+
+		synchronized (this) {
+			Map<String, History> histories= getProjectHistories(project.getElementName());
+			histories.keySet().removeAll(deletedClasses);
+			for (Map.Entry<String, ClassResult> entry : results.entrySet()) {
+				ClassResult result= entry.getValue();
+				if (!result.fHasRun)
+					continue;
+				History history= histories.get(entry.getKey());
+				if (history == null) {
+					history= new History();
+					histories.put(entry.getKey(), history);
+				}
+				history.fRunCount++;
+				if (result.fIsFailed) {
+					history.fFailureCount++;
+					history.fLastFailed= startTime;
+				}
+				if (history.fRunCount > MAX_RUN_COUNT) {
+					history.fRunCount/= 2;
+					history.fFailureCount/= 2;
+				}
+				if (isCompleteRun && result.fIsComplete) {
+					history.fDuration= result.fDuration;
+				}
+			}
+			File file= getHistoryFile(project.getElementName());
+			if (file != null) {
+				try {
+					write(file, histories);
+				} catch (IOException e) {
+					JUnitCorePlugin.log(e);
+					file.delete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the test classes with a history that no longer exist in the given project.
+	 *
+	 * @param project the project
+	 * @param classNames the names of the test classes with a history
+	 * @param runClassNames the names of the test classes that just ran, which exist
+	 * @return the names of the deleted test classes
+	 */
+	private static Set<String> getDeletedClasses(IJavaProject project, Set<String> classNames, Set<String> runClassNames) {
+		Set<String> result= new HashSet<>();
+		for (String className : classNames) {
+			if (runClassNames.contains(className))
+				continue;
+			try {
+				if (project.findType(className.replace('$', '.')) == null) {
+					result.add(className);
+				}
+			} catch (JavaModelException e) {
+				// keep the history
+			}
+		}
+		return result;
+	}
+
+	private static void collectResults(ITestElement element, Map<String, ClassResult> results) {
+		if (element instanceof TestCaseElement) {
+			TestCaseElement testCase= (TestCaseElement) element;
+			Result result= testCase.getTestResult(false);
+			ClassResult classResult= results.get(testCase.getClassName());
+			if (classResult == null) {
+				classResult= new ClassResult();
+				results.put(testCase.getClassName(), classResult);
+			}
+			if (result == Result.UNDEFINED) {
+				classResult.fIsComplete= false;
+				return;
+			}
+			classResult.fHasRun= true;
+			classResult.fIsFailed|= result == Result.ERROR || result == Result.FAILURE;
+			double time= testCase.getElapsedTimeInSeconds();
+			if (!Double.isNaN(time)) {
+				classResult.fDuration+= (long) (time * 1000);
+			}
+		} else if (element instanceof TestSuiteElement) {
+			ITestElement[] children= ((TestSuiteElement) element).getChildren();
+			for (int i= 0; i < children.length; i++) {
+				collectResults(children[i], results);
+			}
+		}
+	}
+
+	private Map<String, History> getProjectHistories(String projectName) {
+		Map<String, History> histories= fProjectHistories.get(projectName);
+		if (histories == null) {
+			histories= new HashMap<>();
+			File file= getHistoryFile(projectName);
+			if (file != null && file.isFile()) {
+				try {
+					read(file, histories);
+				} catch (IOException e) {
+					// the history is corrupt, it is replaced when the history is written again
+					histories.clear();
+				}
+			}
+			fProjectHistories.put(projectName, histories);
+		}
+		return histories;
+	}
+
+	private static File getHistoryFile(String projectName) {
+		File dir;
+		try {
+			dir= JUnitCorePlugin.getDefault().getStateLocation().append(HISTORY_DIR_NAME).toFile();
+		} catch (IllegalStateException e) {
+			// no state location
+			return null;
+		}
+		if (!dir.isDirectory() && !dir.mkdirs())
+			return null;
+		return new File(dir, projectName + HISTORY_FILE_EXTENSION);
+	}
+
+	/*
+	 * The format is read by HistoryPrioritizer in the test runner.
+	 */
+	private static void read(File file, Map<String, History> histories) throws IOException {
+		try (BufferedReader reader= new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line= reader.readLine()) != null) {
+				String[] fields= line.split(" ", 5); //$NON-NLS-1$
+				if (fields.length != 5)
+					continue;
+				try {
+					History history= new History();
+					history.fRunCount= Integer.parseInt(fields[0]);
+					history.fFailureCount= Integer.parseInt(fields[1]);
+					history.fLastFailed= Long.parseLong(fields[2]);
+					history.fDuration= Long.parseLong(fields[3]);
+					histories.put(fields[4], history);
+				} catch (NumberFormatException e) {
+					// skip the malformed entry
+				}
+			}
+		}
+	}
+
+	private static void write(File file, Map<String, History> histories) throws IOException {
+		try (BufferedWriter writer= new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			for (Map.Entry<String, History> entry : histories.entrySet()) {
+				History history= entry.getValue();
+				writer.write(history.fRunCount + " " + history.fFailureCount + " " + history.fLastFailed + " " + history.fDuration + " " + entry.getKey()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				writer.newLine();
+			}
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.launcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.launcher.TestHistoryStore.History;
+
+/**
+ * Distributes the test classes of a launch across several VMs, see
+ * {@link JUnitLaunchConfigurationConstants#ATTR_SHARD_COUNT}.
+ * <p>
+ * The classes are balanced by the time their tests took in the last complete test run, see
+ * {@link TestHistoryStore}. Classes without a recorded time are assumed to take the average time
+ * of the recorded classes. The classes are assigned longest first, each to the shard
+ * with the least total time.
+ * </p>
+ */
+public class TestShardPartitioner {
+
+	private TestShardPartitioner() {
+	}
+
+	/**
+	 * Distributes the given test classes.
+	 *
+	 * @param types the test classes
+	 * @param shardCount the number of shards, must not be greater than the number of test classes
+	 * @param project the launched project
+	 * @return the test classes of each shard, none of which is empty
+	 */
+	public static IType[][] partition(IType[] types, int shardCount, IJavaProject project) {
+		return partition(types, shardCount, JUnitCorePlugin.getDefault().getTestHistoryStore().getHistories(project));
+	}
+
+	/**
+	 * Distributes the given test classes by the given histories.
+	 *
+	 * @param types the test classes
+	 * @param shardCount the number of shards, must not be greater than the number of test classes
+	 * @param histories map from test class name to the history of the class
+	 * @return the test classes of each shard, none of which is empty
+	 */
+	public static IType[][] partition(IType[] types, int shardCount, Map<String, History> histories) {
+		double[] weights= new double[types.length];
+		double knownTotal= 0;
+		int knownCount= 0;
+		for (int i= 0; i < types.length; i++) {
+			History history= histories.get(types[i].getFullyQualifiedName('.'));
+			if (history != null && history.getDuration() >= 0) {
+				weights[i]= history.getDuration();
+				knownTotal+= weights[i];
+				knownCount++;
+			} else {
+				weights[i]= Double.NaN;
+			}
+		}
+		double unknownWeight= knownCount > 0 ? knownTotal / knownCount : 1;
+		for (int i= 0; i < weights.length; i++) {
+			if (Double.isNaN(weights[i]))
+				weights[i]= unknownWeight;
+		}
+
+		// longest first, ties in the given order
+		List<Integer> order= new ArrayList<>(types.length);
+		for (int i= 0; i < types.length; i++) {
+			order.add(Integer.valueOf(i));
+		}
+		order.sort((i1, i2) -> Double.compare(weights[i2.intValue()], weights[i1.intValue()]));
+
+		List<List<IType>> shards= new ArrayList<>(shardCount);
+		double[] loads= new double[shardCount];
+		for (int i= 0; i < shardCount; i++) {
+			shards.add(new ArrayList<IType>());
+		}
+		for (Integer index : order) {
+			int target= 0;
+			for (int i= 1; i < shardCount; i++) {
+				if (loads[i] < loads[target] || loads[i] == loads[target] && shards.get(i).size() < shards.get(target).size())
+					target= i;
+			}
+			shards.get(target).add(types[index.intValue()]);
+			loads[target]+= weights[index.intValue()];
+		}
+
+		IType[][] result= new IType[shardCount][];
+		for (int i= 0; i < shardCount; i++) {
+			List<IType> shard= shards.get(i);
+			result[i]= shard.toArray(new IType[shard.size()]);
+		}
+		return result;
+	}
+}
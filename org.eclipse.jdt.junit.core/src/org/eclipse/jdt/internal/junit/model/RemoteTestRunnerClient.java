@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,7 @@ import java.io.PushbackReader;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
 
 import org.eclipse.core.runtime.ISafeRunnable;
@@ -226,6 +227,11 @@ public class RemoteTestRunnerClient {
 	private ServerSocket fServerSocket;
 	private Socket fSocket;
 	private int fPort= -1;
+	/**
+	 * Time in milliseconds to wait for the RemoteTestRunner to connect, or 0 to wait until
+	 * {@link #stopWaiting()} is called
+	 */
+	private int fConnectTimeout;
 	private PrintWriter fWriter;
 	private PushbackReader fPushbackReader;
 	private String fLastLineDelimiter;
@@ -265,13 +271,14 @@ public class RemoteTestRunnerClient {
 				if (fDebug)
 					System.out.println("Creating server socket "+fServerPort); //$NON-NLS-1$
 				fServerSocket= new ServerSocket(fServerPort);
+				fServerSocket.setSoTimeout(fConnectTimeout);
 				fSocket= fServerSocket.accept();
 				fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(fSocket.getInputStream(), StandardCharsets.UTF_8)));
 				fWriter= new PrintWriter(new OutputStreamWriter(fSocket.getOutputStream(), StandardCharsets.UTF_8), true);
 				String message;
 				while(fPushbackReader != null && (message= readMessage(fPushbackReader)) != null)
 					receiveMessage(message);
-			} catch (SocketException e) {
+			} catch (SocketException | SocketTimeoutException e) {
 				notifyTestRunTerminated();
 			} catch (IOException e) {
 				JUnitCorePlugin.log(e);
@@ -289,8 +296,23 @@ public class RemoteTestRunnerClient {
 	 * @param port port on which the server socket will be opened
 	 */
 	public synchronized void startListening(ITestRunListener2[] listeners, int port) {
+		startListening(listeners, port, 0);
+	}
+
+	/**
+	 * Start listening to a test run. Start a server connection that
+	 * the RemoteTestRunner can connect to. The test run is terminated if
+	 * the RemoteTestRunner does not connect within the given time.
+	 *
+	 * @param listeners listeners to inform
+	 * @param port port on which the server socket will be opened
+	 * @param connectTimeout time in milliseconds to wait for the connection,
+	 * 	or 0 to wait until {@link #stopWaiting()} is called
+	 */
+	public synchronized void startListening(ITestRunListener2[] listeners, int port, int connectTimeout) {
 		fListeners= listeners;
 		fPort= port;
+		fConnectTimeout= connectTimeout;
 		ServerConnection connection= new ServerConnection(port);
 		connection.start();
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,9 +16,14 @@ package org.eclipse.jdt.internal.junit.model;
 import org.eclipse.jdt.junit.TestRunListener;
 import org.eclipse.jdt.junit.model.ITestCaseElement;
 
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ListenerList;
 
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+
 import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
 import org.eclipse.jdt.internal.junit.model.TestElement.Status;
 
 
@@ -62,6 +67,30 @@ public class TestRunListenerAdapter implements ITestSessionListener {
 	}
 
 
+	private void recordResults() {
+		JUnitCorePlugin plugin= JUnitCorePlugin.getDefault();
+		plugin.getTestHistoryStore().testRunFinished(fSession);
+		if (isAffectedTestsOnly()) {
+			plugin.getAffectedTestsIndex().testRunFinished(fSession);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff the session was launched to run only the affected tests, see
+	 *         {@link JUnitLaunchConfigurationConstants#ATTR_AFFECTED_TESTS_ONLY}
+	 */
+	private boolean isAffectedTestsOnly() {
+		ILaunch launch= fSession.getLaunch();
+		ILaunchConfiguration configuration= launch != null ? launch.getLaunchConfiguration() : null;
+		if (configuration == null)
+			return false;
+		try {
+			return configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_AFFECTED_TESTS_ONLY, false);
+		} catch (CoreException e) {
+			return false;
+		}
+	}
+
 	@Override
 	public void sessionStarted() {
 		// wait until all test are added
@@ -70,12 +99,14 @@ public class TestRunListenerAdapter implements ITestSessionListener {
 	@Override
 	public void sessionEnded(long elapsedTime) {
 		fireSessionFinished();
+		recordResults();
 		fSession.swapOut();
 	}
 
 	@Override
 	public void sessionStopped(long elapsedTime) {
 		fireSessionFinished();
+		recordResults();
 		fSession.swapOut();
 	}
 
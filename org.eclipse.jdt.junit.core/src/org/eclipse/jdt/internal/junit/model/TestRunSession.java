@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,11 +32,14 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ListenerList;
 
+import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IDebugEventSetListener;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.debug.core.ILaunchesListener2;
+import org.eclipse.debug.core.model.IProcess;
 
 import org.eclipse.jdt.core.IJavaProject;
 
@@ -67,9 +70,9 @@ public class TestRunSession implements ITestRunSession {
 	private final ITestKind fTestRunnerKind;
 
 	/**
-	 * Test runner client or <code>null</code>.
+	 * Test runner clients, one for each test runner of the launch, or <code>null</code>.
 	 */
-	private RemoteTestRunnerClient fTestRunnerClient;
+	private RemoteTestRunnerClient[] fTestRunnerClients;
 
 	private final ListenerList<ITestSessionListener> fSessionListeners;
 
@@ -95,6 +98,48 @@ public class TestRunSession implements ITestRunSession {
 
 	private List<IncompleteTestSuite> fFactoryTestSuites;
 
+	/**
+	 * Prefix of the ids of the tests reported by the test runner whose events are processed. The
+	 * ids are only unique per test runner, so the ids of a launch with several test runners are
+	 * prefixed with the index of the runner.
+	 */
+	private String fIdPrefix= EMPTY_STRING;
+
+	/**
+	 * Guards the events of the test runners of a launch with several test runners.
+	 */
+	private final Object fShardLock= new Object();
+
+	/**
+	 * Number of test runners that have started resp. finished their test run, guarded by
+	 * {@link #fShardLock}.
+	 */
+	private int fStartedShards, fFinishedShards;
+
+	/**
+	 * Whether a test runner has stopped resp. terminated its test run, guarded by
+	 * {@link #fShardLock}.
+	 */
+	private boolean fIsShardStopped, fIsShardTerminated;
+
+	/**
+	 * Ports of the test runners, in the order of {@link #fTestRunnerClients}, or <code>null</code>.
+	 */
+	private int[] fPorts;
+
+	/**
+	 * Whether the test runners of a launch with several test runners are stopped at the first
+	 * failure, see {@link JUnitLaunchConfigurationConstants#ATTR_STOP_ON_FIRST_FAILURE}. Each
+	 * test runner only stops itself, so the other test runners are stopped by the session.
+	 */
+	private boolean fIsStopOnFailure;
+
+	/**
+	 * Whether a test of a launch with several test runners has failed, guarded by
+	 * {@link #fShardLock}.
+	 */
+	private boolean fIsShardFailed;
+
 	/**
 	 * Suite for unrooted test case elements, or <code>null</code>.
 	 */
@@ -169,14 +214,29 @@ public class TestRunSession implements ITestRunSession {
 		fTestRoot= new TestRoot(this);
 		fIdToTest= new HashMap<>();
 
-		fTestRunnerClient= null;
+		fTestRunnerClients= null;
 
 		fSessionListeners= new ListenerList<>();
 	}
 
 
 	public TestRunSession(ILaunch launch, IJavaProject project, int port) {
+		this(launch, project, new int[] { port });
+	}
+
+	/**
+	 * Creates a test run session for a launch that runs its tests in one or more test runners, see
+	 * {@link JUnitLaunchConfigurationConstants#ATTR_SHARD_PORTS}. The results of all test runners
+	 * are merged into this session. A test runner whose process exits or that does not connect in
+	 * time is treated as terminated.
+	 *
+	 * @param launch the launch
+	 * @param project the launched project
+	 * @param ports the ports of the test runners
+	 */
+	public TestRunSession(ILaunch launch, IJavaProject project, int[] ports) {
 		Assert.isNotNull(launch);
+		Assert.isTrue(ports.length > 0);
 
 		fLaunch= launch;
 		fProject= project;
@@ -193,27 +253,64 @@ public class TestRunSession implements ITestRunSession {
 		fTestRoot= new TestRoot(this);
 		fIdToTest= new HashMap<>();
 
-		fTestRunnerClient= new RemoteTestRunnerClient();
-		fTestRunnerClient.startListening(new ITestRunListener2[] { new TestSessionNotifier() }, port);
+		fPorts= ports;
+		// a debugged test runner may be suspended before it connects
+		int connectTimeout= 0;
+		if (ports.length > 1 && !ILaunchManager.DEBUG_MODE.equals(launch.getLaunchMode())) {
+			connectTimeout= getShardConnectTimeout(launchConfiguration);
+		}
+		if (ports.length > 1 && launchConfiguration != null) {
+			try {
+				fIsStopOnFailure= launchConfiguration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_STOP_ON_FIRST_FAILURE, false);
+			} catch (CoreException e) {
+				JUnitCorePlugin.log(e);
+			}
+		}
+		TestSessionNotifier notifier= new TestSessionNotifier();
+		fTestRunnerClients= new RemoteTestRunnerClient[ports.length];
+		for (int i= 0; i < ports.length; i++) {
+			ITestRunListener2 listener= ports.length == 1 ? notifier : new ShardNotifier(notifier, i, ports.length);
+			fTestRunnerClients[i]= new RemoteTestRunnerClient();
+			fTestRunnerClients[i].startListening(new ITestRunListener2[] { listener }, ports[i], connectTimeout);
+		}
+
+		final IDebugEventSetListener processListener;
+		if (ports.length > 1) {
+			processListener= new IDebugEventSetListener() {
+				@Override
+				public void handleDebugEvents(DebugEvent[] events) {
+					for (int i= 0; i < events.length; i++) {
+						if (events[i].getKind() == DebugEvent.TERMINATE && events[i].getSource() instanceof IProcess) {
+							shardProcessTerminated((IProcess) events[i].getSource());
+						}
+					}
+				}
+			};
+			DebugPlugin.getDefault().addDebugEventListener(processListener);
+		} else {
+			processListener= null;
+		}
 
 		final ILaunchManager launchManager= DebugPlugin.getDefault().getLaunchManager();
 		launchManager.addLaunchListener(new ILaunchesListener2() {
 			@Override
 			public void launchesTerminated(ILaunch[] launches) {
 				if (Arrays.asList(launches).contains(fLaunch)) {
-					if (fTestRunnerClient != null) {
-						fTestRunnerClient.stopWaiting();
-					}
-					launchManager.removeLaunchListener(this);
+					stopWaiting();
+					removeListeners();
 				}
 			}
 			@Override
 			public void launchesRemoved(ILaunch[] launches) {
 				if (Arrays.asList(launches).contains(fLaunch)) {
-					if (fTestRunnerClient != null) {
-						fTestRunnerClient.stopWaiting();
-					}
-					launchManager.removeLaunchListener(this);
+					stopWaiting();
+					removeListeners();
+				}
+			}
+			private void removeListeners() {
+				launchManager.removeLaunchListener(this);
+				if (processListener != null) {
+					DebugPlugin.getDefault().removeDebugEventListener(processListener);
 				}
 			}
 			@Override
@@ -228,6 +325,71 @@ public class TestRunSession implements ITestRunSession {
 		addTestSessionListener(new TestRunListenerAdapter(this));
 	}
 
+	private void stopWaiting() {
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null) {
+			for (int i= 0; i < clients.length; i++) {
+				clients[i].stopWaiting();
+			}
+		}
+	}
+
+	/**
+	 * Stops the given test runner of a launch with several test runners. Not called while holding
+	 * {@link #fShardLock}, since stopping a test runner acquires the lock of its client.
+	 *
+	 * @param index the index of the test runner
+	 */
+	private void stopShard(int index) {
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null) {
+			clients[index].stopTest();
+		}
+	}
+
+	/**
+	 * Returns the time in milliseconds to wait for each test runner of a launch with several test
+	 * runners to connect. A test runner that has not connected by then is treated as terminated,
+	 * so that the session finishes with the other test runners.
+	 *
+	 * @param configuration the launch configuration, or <code>null</code>
+	 * @return the timeout, or 0 to wait until the process of the test runner terminates
+	 * @see JUnitLaunchConfigurationConstants#ATTR_SHARD_CONNECT_TIMEOUT
+	 */
+	private static int getShardConnectTimeout(ILaunchConfiguration configuration) {
+		int timeout= JUnitLaunchConfigurationConstants.DEFAULT_SHARD_CONNECT_TIMEOUT;
+		if (configuration != null) {
+			try {
+				timeout= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_CONNECT_TIMEOUT, timeout);
+			} catch (CoreException e) {
+				JUnitCorePlugin.log(e);
+			}
+		}
+		return Math.max(timeout, 0) * 1000;
+	}
+
+	/**
+	 * Stops waiting for the test runner of the given process to connect. The JUnit launch
+	 * delegate tags the process of each test runner with its port, see
+	 * {@link JUnitLaunchConfigurationConstants#ATTR_PORT}.
+	 *
+	 * @param process a terminated process
+	 */
+	private void shardProcessTerminated(IProcess process) {
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients == null || process.getLaunch() != fLaunch)
+			return;
+		int[] ports= fPorts;
+		String port= process.getAttribute(JUnitLaunchConfigurationConstants.ATTR_PORT);
+		if (ports == null || port == null)
+			return;
+		for (int i= 0; i < ports.length; i++) {
+			if (port.equals(String.valueOf(ports[i]))) {
+				clients[i].stopWaiting();
+			}
+		}
+	}
+
 	void reset() {
 		fStartedCount= 0;
 		fFailureCount= 0;
@@ -373,7 +535,7 @@ public class TestRunSession implements ITestRunSession {
 			JUnitModel.exportTestRunSession(this, swapFile);
 			fTestResult= fTestRoot.getTestResult(true);
 			fTestRoot= null;
-			fTestRunnerClient= null;
+			fTestRunnerClients= null;
 			fIdToTest= new HashMap<>();
 			fIncompleteTestSuites= null;
 			fFactoryTestSuites= null;
@@ -425,17 +587,23 @@ public class TestRunSession implements ITestRunSession {
 	public void stopTestRun() {
 		if (isRunning() || ! isKeptAlive())
 			fIsStopped= true;
-		if (fTestRunnerClient != null)
-			fTestRunnerClient.stopTest();
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null) {
+			for (int i= 0; i < clients.length; i++) {
+				clients[i].stopTest();
+			}
+		}
 	}
 
 	/**
 	 * @return <code>true</code> iff the runtime VM of this test session is still alive
 	 */
 	public boolean isKeptAlive() {
-		if (fTestRunnerClient != null
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null
+				&& clients.length == 1
 				&& fLaunch != null
-				&& fTestRunnerClient.isRunning()
+				&& clients[0].isRunning()
 				&& ILaunchManager.DEBUG_MODE.equals(fLaunch.getLaunchMode())) {
 			ILaunchConfiguration config= fLaunch.getLaunchConfiguration();
 			try {
@@ -473,7 +641,7 @@ public class TestRunSession implements ITestRunSession {
 			} else if (status == Status.FAILURE) {
 				fFailureCount--;
 			}
-			fTestRunnerClient.rerunTest(testId, className, testName);
+			fTestRunnerClients[0].rerunTest(testId, className, testName);
 			return true;
 		}
 		return false;
@@ -486,7 +654,7 @@ public class TestRunSession implements ITestRunSession {
 	private TestElement addTreeEntry(String treeEntry) {
 		// format: testId","testName","isSuite","testcount","isDynamicTest","parentId","displayName","parameterTypes","uniqueId
 		int index0= treeEntry.indexOf(',');
-		String id= treeEntry.substring(0, index0);
+		String id= fIdPrefix + treeEntry.substring(0, index0);
 
 		StringBuffer testNameBuffer= new StringBuffer(100);
 		int index1= scanTestName(treeEntry, index0 + 1, testNameBuffer);
@@ -522,6 +690,8 @@ public class TestRunSession implements ITestRunSession {
 			parentId= treeEntry.substring(index4 + 1, index5);
 			if (parentId.equals("-1")) { //$NON-NLS-1$
 				parentId= null;
+			} else {
+				parentId= fIdPrefix + parentId;
 			}
 
 			int index6= scanTestName(treeEntry, index5 + 1, displayNameBuffer);
@@ -808,6 +978,151 @@ public class TestRunSession implements ITestRunSession {
 		}
 	}
 
+	/**
+	 * An {@link ITestRunListener2} for one of several test runners of a launch. It serializes the
+	 * events of the test runners, prefixes the test ids with the index of the runner and forwards
+	 * the events to the {@link TestSessionNotifier} of the session, so that the tests of all runners
+	 * show up in one test run. The session starts with the first test run of a runner and finishes
+	 * when all runners have finished.
+	 */
+	private class ShardNotifier implements ITestRunListener2 {
+
+		private final TestSessionNotifier fNotifier;
+		private final int fIndex;
+		private final String fPrefix;
+		private final int fShardCount;
+
+		private List<IncompleteTestSuite> fShardIncompleteTestSuites= new ArrayList<>();
+		private List<IncompleteTestSuite> fShardFactoryTestSuites= new ArrayList<>();
+		private boolean fIsFinished;
+
+		public ShardNotifier(TestSessionNotifier notifier, int index, int shardCount) {
+			fNotifier= notifier;
+			fIndex= index;
+			fPrefix= index + ":"; //$NON-NLS-1$
+			fShardCount= shardCount;
+		}
+
+		/**
+		 * Installs the state of this test runner in the session. Must be called while holding
+		 * {@link TestRunSession#fShardLock}.
+		 */
+		private void enter() {
+			fIncompleteTestSuites= fShardIncompleteTestSuites;
+			fFactoryTestSuites= fShardFactoryTestSuites;
+			fIdPrefix= fPrefix;
+		}
+
+		@Override
+		public void testRunStarted(int testCount) {
+			boolean isShardFailed;
+			synchronized (fShardLock) {
+				if (fStartedShards++ == 0) {
+					fNotifier.testRunStarted(testCount);
+				} else {
+					fTotalCount+= testCount;
+				}
+				enter();
+				isShardFailed= fIsShardFailed;
+			}
+			if (isShardFailed) {
+				// a test of another test runner failed before this one connected
+				stopShard(fIndex);
+			}
+		}
+
+		@Override
+		public void testRunEnded(long elapsedTime) {
+			finish(false, false);
+		}
+
+		@Override
+		public void testRunStopped(long elapsedTime) {
+			finish(true, false);
+		}
+
+		@Override
+		public void testRunTerminated() {
+			finish(true, true);
+		}
+
+		private void finish(boolean stopped, boolean terminated) {
+			synchronized (fShardLock) {
+				if (fIsFinished)
+					return;
+				fIsFinished= true;
+				fIsShardStopped|= stopped;
+				fIsShardTerminated|= terminated;
+				if (++fFinishedShards < fShardCount)
+					return;
+
+				enter();
+				long elapsedTime= fStartTime > 0 ? System.currentTimeMillis() - fStartTime : 0;
+				if (fIsShardTerminated) {
+					fNotifier.testRunTerminated();
+				} else if (fIsShardStopped) {
+					fNotifier.testRunStopped(elapsedTime);
+				} else {
+					fNotifier.testRunEnded(elapsedTime);
+				}
+			}
+		}
+
+		@Override
+		public void testTreeEntry(String description) {
+			synchronized (fShardLock) {
+				enter();
+				fNotifier.testTreeEntry(description);
+			}
+		}
+
+		@Override
+		public void testStarted(String testId, String testName) {
+			synchronized (fShardLock) {
+				enter();
+				fNotifier.testStarted(fPrefix + testId, testName);
+			}
+		}
+
+		@Override
+		public void testEnded(String testId, String testName) {
+			synchronized (fShardLock) {
+				enter();
+				fNotifier.testEnded(fPrefix + testId, testName);
+			}
+		}
+
+		@Override
+		public void testFailed(int status, String testId, String testName, String trace, String expected, String actual) {
+			boolean isFirstFailure= false;
+			synchronized (fShardLock) {
+				enter();
+				fNotifier.testFailed(status, fPrefix + testId, testName, trace, expected, actual);
+				if (fIsStopOnFailure && !fIsShardFailed && (testName == null || !testName.startsWith(MessageIds.ASSUMPTION_FAILED_TEST_PREFIX))) {
+					fIsShardFailed= true;
+					isFirstFailure= true;
+				}
+			}
+			if (isFirstFailure) {
+				// the failed test runner stops itself
+				RemoteTestRunnerClient[] clients= fTestRunnerClients;
+				for (int i= 0; clients != null && i < clients.length; i++) {
+					if (i != fIndex) {
+						stopShard(i);
+					}
+				}
+			}
+		}
+
+		@Override
+		public void testReran(String testId, String testClass, String testName, int status, String trace, String expected, String actual) {
+			synchronized (fShardLock) {
+				enter();
+				fNotifier.testReran(fPrefix + testId, testClass, testName, status, trace, expected, actual);
+			}
+		}
+	}
+
 	private static class IncompleteTestSuite {
 		public TestSuiteElement fTestSuiteElement;
 		public int fOutstandingChildren;
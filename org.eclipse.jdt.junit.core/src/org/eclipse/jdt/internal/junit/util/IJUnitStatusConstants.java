@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,4 +32,10 @@ public interface IJUnitStatusConstants {
 	 */
 	public static final int ERR_JUNIT_NOT_ON_PATH = 10004;
 
+	/**
+	 * Status constant indicating that no test class of a launch that runs
+	 * only the affected tests is affected by changes.
+	 */
+	public static final int ERR_NO_AFFECTED_TESTS= 10005;
+
 }
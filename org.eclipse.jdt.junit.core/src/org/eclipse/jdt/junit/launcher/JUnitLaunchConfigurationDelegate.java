@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -51,6 +51,7 @@ import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.model.IProcess;
 
 import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
@@ -71,6 +72,7 @@ import org.eclipse.jdt.internal.junit.launcher.ITestKind;
 import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
 import org.eclipse.jdt.internal.junit.launcher.JUnitRuntimeClasspathEntry;
 import org.eclipse.jdt.internal.junit.launcher.TestKindRegistry;
+import org.eclipse.jdt.internal.junit.launcher.TestShardPartitioner;
 import org.eclipse.jdt.internal.junit.util.CoreTestSearchEngine;
 import org.eclipse.jdt.internal.junit.util.IJUnitStatusConstants;
 
@@ -105,26 +107,37 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			monitor = new NullProgressMonitor();
 		}
 		try {
-			VMRunnerConfiguration runConfig = getVMRunnerConfiguration(configuration, launch, mode, monitor);
-			if (runConfig == null) {
+			VMRunnerConfiguration[] runConfigs = getVMRunnerConfigurations(configuration, launch, mode, monitor);
+			if (runConfigs == null) {
 				return ""; //$NON-NLS-1$
 			}
 			IVMRunner runner = getVMRunner(configuration, mode);
-			String cmdLine = runner.showCommandLine(runConfig, launch, monitor);
+			StringBuilder cmdLine= new StringBuilder();
+			for (VMRunnerConfiguration runConfig : runConfigs) {
+				if (cmdLine.length() > 0) {
+					cmdLine.append(System.lineSeparator());
+				}
+				cmdLine.append(runner.showCommandLine(runConfig, launch, monitor));
+			}
 
 			// check for cancellation
 			if (monitor.isCanceled()) {
 				return ""; //$NON-NLS-1$
 			}
-			return cmdLine;
+			return cmdLine.toString();
 		} finally {
 			monitor.done();
 		}
 	}
 
-	private VMRunnerConfiguration getVMRunnerConfiguration(ILaunchConfiguration configuration, ILaunch launch, String mode, IProgressMonitor monitor) throws CoreException {
-		VMRunnerConfiguration runConfig = null;
-			monitor.beginTask(MessageFormat.format("{0}...", configuration.getName()), 5); //$NON-NLS-1$
+	/**
+	 * Returns the configurations of the VMs to launch. The tests run in a single VM unless the
+	 * launch configuration distributes them across several VMs, see
+	 * {@link JUnitLaunchConfigurationConstants#ATTR_SHARD_COUNT}.
+	 */
+	private VMRunnerConfiguration[] getVMRunnerConfigurations(ILaunchConfiguration configuration, ILaunch launch, String mode, IProgressMonitor monitor) throws CoreException {
+		VMRunnerConfiguration[] runConfigs = null;
+			monitor.beginTask(MessageFormat.format("{0}...", configuration.getName()), 6); //$NON-NLS-1$
 		// check for cancellation
 		if (monitor.isCanceled()) {
 			return null;
@@ -153,12 +166,11 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			}
 
 			fKeepAlive= mode.equals(ILaunchManager.DEBUG_MODE) && configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_KEEPRUNNING, false);
-			fPort= evaluatePort();
-			launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_PORT, String.valueOf(fPort));
 
 			ITestKind testKind= getTestRunnerKind(configuration);
 			IJavaProject javaProject= getJavaProject(configuration);
-			if (TestKindRegistry.JUNIT3_TEST_KIND_ID.equals(testKind.getId()) || TestKindRegistry.JUNIT4_TEST_KIND_ID.equals(testKind.getId())) {
+			boolean affectedTestsOnly= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_AFFECTED_TESTS_ONLY, false);
+			if (TestKindRegistry.JUNIT3_TEST_KIND_ID.equals(testKind.getId()) || TestKindRegistry.JUNIT4_TEST_KIND_ID.equals(testKind.getId()) || affectedTestsOnly) {
 				fTestElements= evaluateTests(configuration, new SubProgressMonitor(monitor, 1));
 			} else {
 				IJavaElement testTarget= getTestTarget(configuration, javaProject);
@@ -169,6 +181,25 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 				}
 			}
 
+			if (affectedTestsOnly) {
+				fTestElements= selectAffectedTests(javaProject, new SubProgressMonitor(monitor, 1));
+			}
+
+			IJavaElement[][] shards= getTestShards(configuration, javaProject);
+			int[] ports= evaluatePorts(shards.length);
+			fPort= ports[0];
+			launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_PORT, String.valueOf(fPort));
+			if (ports.length > 1) {
+				StringBuilder shardPorts= new StringBuilder();
+				for (int i= 0; i < ports.length; i++) {
+					if (i > 0) {
+						shardPorts.append(',');
+					}
+					shardPorts.append(ports[i]);
+				}
+				launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_PORTS, shardPorts.toString());
+			}
+
 			String mainTypeName= verifyMainTypeName(configuration);
 			
 
@@ -181,14 +212,6 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			// Environment variables
 			String[] envp= getEnvironment(configuration);
 
-			ArrayList<String> vmArguments= new ArrayList<>();
-			ArrayList<String> programArguments= new ArrayList<>();
-			collectExecutionArguments(configuration, vmArguments, programArguments);
-			vmArguments.addAll(Arrays.asList(DebugPlugin.parseArguments(getVMArguments(configuration, mode))));
-			if (JavaRuntime.isModularProject(javaProject)) {
-				vmArguments.add("--add-modules=ALL-MODULE-PATH"); //$NON-NLS-1$
-			}
-
 			// VM-specific attributes
 			Map<String, Object> vmAttributesMap= getVMSpecificAttributesMap(configuration);
 
@@ -213,25 +236,41 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 				}
 			}
 
-			// Create VM config
-			runConfig= new VMRunnerConfiguration(mainTypeName, classpath);
-			runConfig.setVMArguments(vmArguments.toArray(new String[vmArguments.size()]));
-			runConfig.setProgramArguments(programArguments.toArray(new String[programArguments.size()]));
-			runConfig.setEnvironment(envp);
-			runConfig.setWorkingDirectory(workingDirName);
-			runConfig.setVMSpecificAttributesMap(vmAttributesMap);
+			runConfigs= new VMRunnerConfiguration[shards.length];
+			for (int i= 0; i < shards.length; i++) {
+				ArrayList<String> vmArguments= new ArrayList<>();
+				ArrayList<String> programArguments= new ArrayList<>();
+				if (shards.length == 1) {
+					collectExecutionArguments(configuration, vmArguments, programArguments);
+				} else {
+					collectExecutionArguments(configuration, vmArguments, programArguments, ports[i], shards[i]);
+				}
+				vmArguments.addAll(Arrays.asList(DebugPlugin.parseArguments(getVMArguments(configuration, mode))));
+				if (JavaRuntime.isModularProject(javaProject)) {
+					vmArguments.add("--add-modules=ALL-MODULE-PATH"); //$NON-NLS-1$
+				}
 
-			if (!JavaRuntime.isModularConfiguration(configuration)) {
-				// Bootpath
-				runConfig.setBootClassPath(getBootpath(configuration));
-			} else {
-				// module path
-				runConfig.setModulepath(modulepath);
-				if (!configuration.getAttribute(IJavaLaunchConfigurationConstants.ATTR_DEFAULT_MODULE_CLI_OPTIONS, true)) {
-					runConfig.setOverrideDependencies(configuration.getAttribute(IJavaLaunchConfigurationConstants.ATTR_MODULE_CLI_OPTIONS, "")); //$NON-NLS-1$
+				// Create VM config
+				VMRunnerConfiguration runConfig= new VMRunnerConfiguration(mainTypeName, classpath);
+				runConfig.setVMArguments(vmArguments.toArray(new String[vmArguments.size()]));
+				runConfig.setProgramArguments(programArguments.toArray(new String[programArguments.size()]));
+				runConfig.setEnvironment(envp);
+				runConfig.setWorkingDirectory(workingDirName);
+				runConfig.setVMSpecificAttributesMap(vmAttributesMap);
+
+				if (!JavaRuntime.isModularConfiguration(configuration)) {
+					// Bootpath
+					runConfig.setBootClassPath(getBootpath(configuration));
 				} else {
-					runConfig.setOverrideDependencies(getModuleCLIOptions(configuration));
+					// module path
+					runConfig.setModulepath(modulepath);
+					if (!configuration.getAttribute(IJavaLaunchConfigurationConstants.ATTR_DEFAULT_MODULE_CLI_OPTIONS, true)) {
+						runConfig.setOverrideDependencies(configuration.getAttribute(IJavaLaunchConfigurationConstants.ATTR_MODULE_CLI_OPTIONS, "")); //$NON-NLS-1$
+					} else {
+						runConfig.setOverrideDependencies(getModuleCLIOptions(configuration));
+					}
 				}
+				runConfigs[i]= runConfig;
 			}
 
 			// check for cancellation
@@ -242,7 +281,7 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			// done the verification phase
 			monitor.worked(1);
 		}
-		return runConfig;
+		return runConfigs;
 	}
 
 	@Override
@@ -253,8 +292,8 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 
 		try {
 
-			VMRunnerConfiguration runConfig = getVMRunnerConfiguration(configuration, launch, mode, monitor);
-			if ( monitor.isCanceled() || runConfig == null) {
+			VMRunnerConfiguration[] runConfigs = getVMRunnerConfigurations(configuration, launch, mode, monitor);
+			if ( monitor.isCanceled() || runConfigs == null) {
 				return;
 			}
 			IVMRunner runner= getVMRunner(configuration, mode);
@@ -264,7 +303,21 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			monitor.worked(1);
 
 			// Launch the configuration - 1 unit of work
-			runner.run(runConfig, launch, monitor);
+			String[] shardPorts= null;
+			if (runConfigs.length > 1) {
+				shardPorts= launch.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_PORTS).split(","); //$NON-NLS-1$
+			}
+			for (int i= 0; i < runConfigs.length; i++) {
+				int processCount= launch.getProcesses().length;
+				runner.run(runConfigs[i], launch, monitor);
+				if (shardPorts != null) {
+					// tells the test run session which test runner a process belongs to
+					IProcess[] processes= launch.getProcesses();
+					for (int j= processCount; j < processes.length; j++) {
+						processes[j].setAttribute(JUnitLaunchConfigurationConstants.ATTR_PORT, shardPorts[i]);
+					}
+				}
+			}
 
 			// check for cancellation
 			if (monitor.isCanceled()) {
@@ -284,6 +337,89 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 		return port;
 	}
 
+	private int[] evaluatePorts(int count) throws CoreException {
+		int[] ports= new int[count];
+		Set<Integer> used= new HashSet<>();
+		for (int i= 0; i < count; i++) {
+			int port;
+			do {
+				port= evaluatePort();
+			} while (!used.add(Integer.valueOf(port)));
+			ports[i]= port;
+		}
+		return ports;
+	}
+
+	/**
+	 * Reduces the evaluated test elements to the test types that are affected by changes since
+	 * they last passed. Test methods are not reduced.
+	 *
+	 * @param javaProject the launched project
+	 * @param monitor the progress monitor
+	 * @return the affected test elements
+	 * @throws CoreException if no test is affected
+	 */
+	private IJavaElement[] selectAffectedTests(IJavaProject javaProject, IProgressMonitor monitor) throws CoreException {
+		IType[] types= new IType[fTestElements.length];
+		for (int i= 0; i < fTestElements.length; i++) {
+			if (!(fTestElements[i] instanceof IType)) {
+				monitor.done();
+				return fTestElements;
+			}
+			types[i]= (IType) fTestElements[i];
+		}
+		IType[] affected= JUnitCorePlugin.getDefault().getAffectedTestsIndex().selectAffectedTests(javaProject, types, monitor);
+		if (affected.length == 0) {
+			abort(JUnitMessages.JUnitLaunchConfigurationDelegate_error_no_affected_tests, null, IJUnitStatusConstants.ERR_NO_AFFECTED_TESTS);
+		}
+		return affected;
+	}
+
+	/**
+	 * Tells whether a subclass overrides
+	 * {@link #collectExecutionArguments(ILaunchConfiguration, List, List)}. The arguments of each
+	 * VM of a sharded launch are collected with the port and the test elements of that VM, which
+	 * an override does not know about.
+	 *
+	 * @return <code>true</code> if the launches of this delegate are not sharded
+	 */
+	private boolean isCollectExecutionArgumentsOverridden() {
+		for (Class<?> clazz= getClass(); clazz != JUnitLaunchConfigurationDelegate.class; clazz= clazz.getSuperclass()) {
+			try {
+				clazz.getDeclaredMethod("collectExecutionArguments", ILaunchConfiguration.class, List.class, List.class); //$NON-NLS-1$
+				return true;
+			} catch (NoSuchMethodException e) {
+				// not overridden in this class
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Distributes the evaluated test elements across the VMs to launch. Only a set of test types
+	 * is distributed, and not if the VM is kept alive to rerun tests or the execution arguments
+	 * are collected by a subclass.
+	 *
+	 * @param configuration the launch configuration
+	 * @param javaProject the launched project
+	 * @return the test elements of each VM
+	 * @throws CoreException if the launch configuration cannot be read
+	 */
+	private IJavaElement[][] getTestShards(ILaunchConfiguration configuration, IJavaProject javaProject) throws CoreException {
+		int shardCount= Math.min(configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_COUNT, 1), fTestElements.length);
+		if (shardCount <= 1 || fKeepAlive || isCollectExecutionArgumentsOverridden()) {
+			return new IJavaElement[][] { fTestElements };
+		}
+		IType[] types= new IType[fTestElements.length];
+		for (int i= 0; i < fTestElements.length; i++) {
+			if (!(fTestElements[i] instanceof IType)) {
+				return new IJavaElement[][] { fTestElements };
+			}
+			types[i]= (IType) fTestElements[i];
+		}
+		return TestShardPartitioner.partition(types, shardCount, javaProject);
+	}
+
 	/**
 	 * Performs a check on the launch configuration's attributes. If an attribute contains an invalid value, a {@link CoreException}
 	 * with the error is thrown.
@@ -371,6 +507,21 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 	 * @exception CoreException if unable to collect the execution arguments
 	 */
 	protected void collectExecutionArguments(ILaunchConfiguration configuration, List<String> vmArguments, List<String> programArguments) throws CoreException {
+		collectExecutionArguments(configuration, vmArguments, programArguments, fPort, fTestElements);
+	}
+
+	/**
+	 * Collects the VM and program arguments of the test runner that listens on the given port and
+	 * runs the given test elements.
+	 *
+	 * @param configuration the configuration to collect the arguments for
+	 * @param vmArguments a {@link List} of {@link String} representing the resulting VM arguments
+	 * @param programArguments a {@link List} of {@link String} representing the resulting program arguments
+	 * @param port the port of the test runner
+	 * @param testElements the test elements to run
+	 * @exception CoreException if unable to collect the execution arguments
+	 */
+	private void collectExecutionArguments(ILaunchConfiguration configuration, List<String> vmArguments, List<String> programArguments, int port, IJavaElement[] testElements) throws CoreException {
 
 		// add program & VM arguments provided by getProgramArguments and getVMArguments
 		String pgmArgs= getProgramArguments(configuration);
@@ -414,7 +565,7 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 		programArguments.add("3"); //$NON-NLS-1$
 
 		programArguments.add("-port"); //$NON-NLS-1$
-		programArguments.add(String.valueOf(fPort));
+		programArguments.add(String.valueOf(port));
 
 		if (fKeepAlive)
 			programArguments.add(0, "-keepalive"); //$NON-NLS-1$
@@ -426,8 +577,6 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 		programArguments.add("-loaderpluginname"); //$NON-NLS-1$
 		programArguments.add(testRunnerKind.getLoaderPluginId());
 
-		IJavaElement[] testElements= fTestElements;
-
 		if (testElements.length == 1) { // a test name was specified just run the single test, or a test container was specified
 			IJavaElement testElement= testElements[0];
 			if (testElement instanceof IMethod) {
@@ -462,6 +611,23 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			}
 		}
 
+		String testOrder= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_ORDER, ""); //$NON-NLS-1$
+		if (testOrder.length() > 0) {
+			try {
+				File historyFile= JUnitCorePlugin.getDefault().getTestHistoryStore().createHistoryFile(getJavaProject(configuration));
+				programArguments.add("-testorder"); //$NON-NLS-1$
+				programArguments.add(testOrder);
+				programArguments.add("-testhistory"); //$NON-NLS-1$
+				programArguments.add(historyFile.getAbsolutePath());
+			} catch (IOException e) {
+				throw new CoreException(new Status(IStatus.ERROR, JUnitCorePlugin.CORE_PLUGIN_ID, IStatus.ERROR, "", e)); //$NON-NLS-1$
+			}
+		}
+
+		if (configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_STOP_ON_FIRST_FAILURE, false)) {
+			programArguments.add("-stoponfailure"); //$NON-NLS-1$
+		}
+
 		String testFailureNames= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_FAILURES_NAMES, ""); //$NON-NLS-1$
 		if (testFailureNames.length() > 0) {
 			programArguments.add("-testfailures"); //$NON-NLS-1$
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Orders the test classes of a test run by their results in earlier test runs. Since all test
+ * loaders create the tests in the order of the test classes, the order applies to JUnit 3, 4 and 5
+ * tests alike.
+ * <p>
+ * The history is read from a file with one line per test class, in the format
+ * <code>runCount failureCount lastFailedTime duration className</code>. The times are in
+ * milliseconds, an unknown duration is -1. Nested classes are separated by '.'.
+ * </p>
+ */
+public class HistoryPrioritizer {
+
+	/**
+	 * Runs the test classes that failed most recently first, then those that fail most often.
+	 * Classes without history are considered new and run first.
+	 */
+	public static final String ORDER_FAILURES_FIRST= "failuresfirst"; //$NON-NLS-1$
+
+	/**
+	 * Runs the test classes that took the least time first. Classes without history run last.
+	 */
+	public static final String ORDER_FASTEST_FIRST= "fastestfirst"; //$NON-NLS-1$
+
+	private static class History {
+		int fRunCount;
+		int fFailureCount;
+		long fLastFailed;
+		long fDuration;
+
+		double getFailureRate() {
+			return fRunCount > 0 ? (double) fFailureCount / fRunCount : 0;
+		}
+	}
+
+	private final Map fHistories= new HashMap();
+
+	private final String fOrder;
+
+	public HistoryPrioritizer(String order) {
+		fOrder= order;
+	}
+
+	/**
+	 * Reads the history of the test classes.
+	 *
+	 * @param historyFile the file with the history
+	 * @throws IOException if the file cannot be read
+	 */
+	public void readHistory(String historyFile) throws IOException {
+		BufferedReader br= new BufferedReader(new InputStreamReader(new FileInputStream(new File(historyFile)), "UTF-8")); //$NON-NLS-1$
+		try {
+			String line;
+			while ((line= br.readLine()) != null) {
+				String[] fields= line.split(" ", 5); //$NON-NLS-1$
+				if (fields.length != 5)
+					continue;
+				try {
+					History history= new History();
+					history.fRunCount= Integer.parseInt(fields[0]);
+					history.fFailureCount= Integer.parseInt(fields[1]);
+					history.fLastFailed= Long.parseLong(fields[2]);
+					history.fDuration= Long.parseLong(fields[3]);
+					fHistories.put(fields[4], history);
+				} catch (NumberFormatException e) {
+					// skip the malformed entry
+				}
+			}
+		} finally {
+			br.close();
+		}
+	}
+
+	/**
+	 * Orders the given test classes. The order of classes that cannot be told apart is kept.
+	 *
+	 * @param testClassNames the names of the test classes
+	 * @return the ordered names
+	 */
+	public String[] prioritize(String[] testClassNames) {
+		String[] result= (String[]) testClassNames.clone();
+		if (ORDER_FAILURES_FIRST.equals(fOrder)) {
+			Arrays.sort(result, new Comparator() {
+				public int compare(Object o1, Object o2) {
+					History h1= getHistory((String) o1);
+					History h2= getHistory((String) o2);
+					if (h1 == null || h2 == null)
+						return h1 == null ? (h2 == null ? 0 : -1) : 1;
+					if (h1.fLastFailed != h2.fLastFailed)
+						return h1.fLastFailed > h2.fLastFailed ? -1 : 1;
+					double rate1= h1.getFailureRate();
+					double rate2= h2.getFailureRate();
+					if (rate1 != rate2)
+						return rate1 > rate2 ? -1 : 1;
+					return compareDurations(h1, h2);
+				}
+			});
+		} else if (ORDER_FASTEST_FIRST.equals(fOrder)) {
+			Arrays.sort(result, new Comparator() {
+				public int compare(Object o1, Object o2) {
+					History h1= getHistory((String) o1);
+					History h2= getHistory((String) o2);
+					if (h1 == null || h2 == null)
+						return h1 == null ? (h2 == null ? 0 : 1) : -1;
+					return compareDurations(h1, h2);
+				}
+			});
+		}
+		return result;
+	}
+
+	private History getHistory(String className) {
+		// the history uses the names of the test elements, which separate nested classes by '.'
+		return (History) fHistories.get(className.replace('$', '.'));
+	}
+
+	private static int compareDurations(History h1, History h2) {
+		// unknown durations are negative and go last
+		long duration1= h1.fDuration < 0 ? Long.MAX_VALUE : h1.fDuration;
+		long duration2= h2.fDuration < 0 ? Long.MAX_VALUE : h2.fDuration;
+		if (duration1 == duration2)
+			return 0;
+		return duration1 < duration2 ? -1 : 1;
+	}
+}
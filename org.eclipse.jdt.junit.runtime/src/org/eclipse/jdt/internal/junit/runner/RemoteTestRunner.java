@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -130,6 +130,15 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	private String[] fFailureNames;
 
+	/**
+	 * Orders the test classes by their history, or <code>null</code>
+	 */
+	private HistoryPrioritizer fHistoryPrioritizer;
+	/**
+	 * Stop the test run after the first failure
+	 */
+	private boolean fStopOnFailure= false;
+
 	private ITestLoader fLoader;
 
 	private MessageSender fSender;
@@ -200,6 +209,9 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * -host: the host to connect to default local host
 	 * -port: the port to connect to, mandatory argument
 	 * -keepalive: keep the process alive after a test run
+	 * -testorder: the order of the test classes, see HistoryPrioritizer
+	 * -testhistory: the name of a file containing the history of the test classes
+	 * -stoponfailure: stop the test run after the first failure
      * </pre>
      */
 	public static void main(String[] args) {
@@ -238,6 +250,8 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * @param args arguments
 	 */
 	protected final void defaultInit(String[] args) {
+		String testOrder= null;
+		String testHistoryFile= null;
 		for(int i= 0; i < args.length; i++) {
 			if(args[i].toLowerCase().equals("-classnames") || args[i].toLowerCase().equals("-classname")){ //$NON-NLS-1$ //$NON-NLS-2$
 				Vector list= new Vector();
@@ -299,6 +313,17 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 			else if(args[i].toLowerCase().equals("-keepalive")) { //$NON-NLS-1$
 				fKeepAlive= true;
 			}
+			else if(args[i].toLowerCase().equals("-testorder")) { //$NON-NLS-1$
+				testOrder= args[i+1];
+				i++;
+			}
+			else if(args[i].toLowerCase().equals("-testhistory")) { //$NON-NLS-1$
+				testHistoryFile= args[i+1];
+				i++;
+			}
+			else if(args[i].toLowerCase().equals("-stoponfailure")) { //$NON-NLS-1$
+				fStopOnFailure= true;
+			}
 			else if(args[i].toLowerCase().equals("-debugging") || args[i].toLowerCase().equals("-debug")){ //$NON-NLS-1$ //$NON-NLS-2$
 			    fDebugMode= true;
 
@@ -343,6 +368,15 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		if (getTestLoader() == null)
 			initDefaultLoader();
 
+		if (testOrder != null && testHistoryFile != null) {
+			fHistoryPrioritizer= new HistoryPrioritizer(testOrder);
+			try {
+				fHistoryPrioritizer.readHistory(testHistoryFile);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Cannot read testhistory file.");		 //$NON-NLS-1$
+			}
+		}
+
 		if(fTestClassNames == null || fTestClassNames.length == 0) {
 			if (fPackageNames == null || fPackageNames.length == 0) {
 				throw new IllegalArgumentException(JUnitMessages.getString("RemoteTestRunner.error.classnamemissing")); //$NON-NLS-1$
@@ -458,7 +492,9 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 			return;
 		}
 
-		FirstRunExecutionListener listener= firstRunExecutionListener();
+		IListensToTestExecutions listener= firstRunExecutionListener();
+		if (fStopOnFailure)
+			listener= new StopOnFailureExecutionListener(listener, this);
 		fExecution= new TestExecution(listener, getClassifier());
 		runTests(fExecution);
 		if (fKeepAlive)
@@ -522,6 +558,8 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * @param execution executor
 	 */
 	public void runTests(String[] testClassNames, String testName, TestExecution execution) {
+		if (fHistoryPrioritizer != null)
+			testClassNames= fHistoryPrioritizer.prioritize(testClassNames);
 		ITestReference[] suites= fLoader.loadTests(loadClasses(testClassNames), testName, fFailureNames, fPackageNames, fIncludeExcludeTags, fUniqueId, this);
 
 		// count all testMethods and inform ITestRunListeners
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.runner;
+
+/**
+ * Stops the test run after the first test that fails or has an error. Failed assumptions do not
+ * stop the test run.
+ */
+public class StopOnFailureExecutionListener implements IListensToTestExecutions {
+
+	private final IListensToTestExecutions fListener;
+
+	private final RemoteTestRunner fRunner;
+
+	public StopOnFailureExecutionListener(IListensToTestExecutions listener, RemoteTestRunner runner) {
+		fListener= listener;
+		fRunner= runner;
+	}
+
+	public void notifyTestFailed(TestReferenceFailure failure) {
+		fListener.notifyTestFailed(failure);
+		String name= failure.getTest().getName();
+		if (name == null || !name.startsWith(MessageIds.ASSUMPTION_FAILED_TEST_PREFIX))
+			fRunner.stop();
+	}
+
+	public void notifyTestStarted(ITestIdentifier test) {
+		fListener.notifyTestStarted(test);
+	}
+
+	public void notifyTestEnded(ITestIdentifier test) {
+		fListener.notifyTestEnded(test);
+	}
+}
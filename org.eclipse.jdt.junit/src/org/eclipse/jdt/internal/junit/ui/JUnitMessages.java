@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -138,6 +138,20 @@ public final class JUnitMessages extends NLS {
 
 	public static String JUnitLaunchConfigurationTab_label_keeprunning;
 
+	public static String JUnitLaunchConfigurationTab_label_shardCount;
+
+	public static String JUnitLaunchConfigurationTab_label_affectedTestsOnly;
+
+	public static String JUnitLaunchConfigurationTab_label_testOrder;
+
+	public static String JUnitLaunchConfigurationTab_testOrder_keep;
+
+	public static String JUnitLaunchConfigurationTab_testOrder_failuresFirst;
+
+	public static String JUnitLaunchConfigurationTab_testOrder_fastestFirst;
+
+	public static String JUnitLaunchConfigurationTab_label_stopOnFirstFailure;
+
 	public static String JUnitLaunchConfigurationTab_label_method;
 
 	public static String JUnitLaunchConfigurationTab_label_oneTest;
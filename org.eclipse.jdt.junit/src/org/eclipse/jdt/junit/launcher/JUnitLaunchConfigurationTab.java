@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,9 +32,11 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 
 import org.eclipse.core.runtime.CoreException;
@@ -166,6 +168,26 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 
 	private ComboViewer fTestLoaderViewer;
 
+	private Spinner fShardCount;
+
+	private Button fAffectedTestsOnly;
+
+	private Combo fTestOrder;
+
+	private Button fStopOnFirstFailure;
+
+	/**
+	 * The maximum number of VMs across which the test classes can be distributed, see
+	 * {@link JUnitLaunchConfigurationConstants#ATTR_SHARD_COUNT}.
+	 */
+	private static final int MAX_SHARD_COUNT= 16;
+
+	/**
+	 * The values of {@link JUnitLaunchConfigurationConstants#ATTR_TEST_ORDER} in the order of the
+	 * items of the test order combo.
+	 */
+	private static final String[] TEST_ORDERS= { "", JUnitLaunchConfigurationConstants.TEST_ORDER_FAILURES_FIRST, JUnitLaunchConfigurationConstants.TEST_ORDER_FASTEST_FIRST }; //$NON-NLS-1$
+
 	private ILaunchConfiguration fLaunchConfiguration;
 
 	private boolean fIsValid= true;
@@ -201,6 +223,14 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		createTestLoaderGroup(comp);
 		createSpacer(comp);
 
+		createShardGroup(comp);
+		createAffectedTestsGroup(comp);
+		createSpacer(comp);
+
+		createTestOrderGroup(comp);
+		createStopOnFirstFailureGroup(comp);
+		createSpacer(comp);
+
 		createKeepAliveGroup(comp);
 		Dialog.applyDialogFont(comp);
 		PlatformUI.getWorkbench().getHelpSystem().setHelp(getControl(), IJUnitHelpContextIds.LAUNCH_CONFIGURATION_DIALOG_JUNIT_MAIN_TAB);
@@ -441,6 +471,74 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		updateLaunchConfigurationDialog();
 	}
 
+	private void createShardGroup(Composite comp) {
+		Label shardLabel= new Label(comp, SWT.NONE);
+		shardLabel.setText(JUnitMessages.JUnitLaunchConfigurationTab_label_shardCount);
+		shardLabel.setLayoutData(new GridData());
+
+		fShardCount= new Spinner(comp, SWT.BORDER);
+		fShardCount.setMinimum(1);
+		fShardCount.setMaximum(MAX_SHARD_COUNT);
+		fShardCount.addModifyListener(new ModifyListener() {
+			@Override
+			public void modifyText(ModifyEvent evt) {
+				updateLaunchConfigurationDialog();
+			}
+		});
+		GridData gd= new GridData();
+		gd.horizontalSpan= 2;
+		fShardCount.setLayoutData(gd);
+	}
+
+	private void createAffectedTestsGroup(Composite comp) {
+		fAffectedTestsOnly= new Button(comp, SWT.CHECK);
+		fAffectedTestsOnly.setText(JUnitMessages.JUnitLaunchConfigurationTab_label_affectedTestsOnly);
+		fAffectedTestsOnly.addSelectionListener(new SelectionAdapter() {
+			@Override
+			public void widgetSelected(SelectionEvent e) {
+				updateLaunchConfigurationDialog();
+			}
+		});
+		GridData gd= new GridData();
+		gd.horizontalSpan= 3;
+		fAffectedTestsOnly.setLayoutData(gd);
+	}
+
+	private void createTestOrderGroup(Composite comp) {
+		Label orderLabel= new Label(comp, SWT.NONE);
+		orderLabel.setText(JUnitMessages.JUnitLaunchConfigurationTab_label_testOrder);
+		orderLabel.setLayoutData(new GridData());
+
+		fTestOrder= new Combo(comp, SWT.DROP_DOWN | SWT.READ_ONLY);
+		fTestOrder.setItems(new String[] {
+				JUnitMessages.JUnitLaunchConfigurationTab_testOrder_keep,
+				JUnitMessages.JUnitLaunchConfigurationTab_testOrder_failuresFirst,
+				JUnitMessages.JUnitLaunchConfigurationTab_testOrder_fastestFirst });
+		fTestOrder.addSelectionListener(new SelectionAdapter() {
+			@Override
+			public void widgetSelected(SelectionEvent e) {
+				updateLaunchConfigurationDialog();
+			}
+		});
+		GridData gd= new GridData();
+		gd.horizontalSpan= 2;
+		fTestOrder.setLayoutData(gd);
+	}
+
+	private void createStopOnFirstFailureGroup(Composite comp) {
+		fStopOnFirstFailure= new Button(comp, SWT.CHECK);
+		fStopOnFirstFailure.setText(JUnitMessages.JUnitLaunchConfigurationTab_label_stopOnFirstFailure);
+		fStopOnFirstFailure.addSelectionListener(new SelectionAdapter() {
+			@Override
+			public void widgetSelected(SelectionEvent e) {
+				updateLaunchConfigurationDialog();
+			}
+		});
+		GridData gd= new GridData();
+		gd.horizontalSpan= 3;
+		fStopOnFirstFailure.setLayoutData(gd);
+	}
+
 	private void createKeepAliveGroup(Composite comp) {
 		GridData gd;
 		fKeepRunning = new Button(comp, SWT.CHECK);
@@ -481,6 +579,10 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		else
 			updateTestTypeFromConfig(config);
 		updateKeepRunning(config);
+		updateShardCount(config);
+		updateAffectedTestsOnly(config);
+		updateTestOrder(config);
+		updateStopOnFirstFailure(config);
 		updateTestLoaderFromConfig(config);
 
 		validatePage();
@@ -514,6 +616,47 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		fKeepRunning.setSelection(running);
 	}
 
+	private void updateShardCount(ILaunchConfiguration config) {
+		int shardCount= 1;
+		try {
+			shardCount= config.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_COUNT, 1);
+		} catch (CoreException ce) {
+		}
+		fShardCount.setSelection(shardCount);
+	}
+
+	private void updateAffectedTestsOnly(ILaunchConfiguration config) {
+		boolean affectedTestsOnly= false;
+		try {
+			affectedTestsOnly= config.getAttribute(JUnitLaunchConfigurationConstants.ATTR_AFFECTED_TESTS_ONLY, false);
+		} catch (CoreException ce) {
+		}
+		fAffectedTestsOnly.setSelection(affectedTestsOnly);
+	}
+
+	private void updateTestOrder(ILaunchConfiguration config) {
+		String testOrder= ""; //$NON-NLS-1$
+		try {
+			testOrder= config.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_ORDER, ""); //$NON-NLS-1$
+		} catch (CoreException ce) {
+		}
+		int index= 0;
+		for (int i= 0; i < TEST_ORDERS.length; i++) {
+			if (TEST_ORDERS[i].equals(testOrder))
+				index= i;
+		}
+		fTestOrder.select(index);
+	}
+
+	private void updateStopOnFirstFailure(ILaunchConfiguration config) {
+		boolean stopOnFirstFailure= false;
+		try {
+			stopOnFirstFailure= config.getAttribute(JUnitLaunchConfigurationConstants.ATTR_STOP_ON_FIRST_FAILURE, false);
+		} catch (CoreException ce) {
+		}
+		fStopOnFirstFailure.setSelection(stopOnFirstFailure);
+	}
+
 	private void updateProjectFromConfig(ILaunchConfiguration config) {
 		String projectName= ""; //$NON-NLS-1$
 		try {
@@ -576,6 +719,27 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 			config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_NAME, fTestMethodText.getText());
 		}
 		config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_KEEPRUNNING, fKeepRunning.getSelection());
+		if (fShardCount.getSelection() > 1) {
+			config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_COUNT, fShardCount.getSelection());
+		} else {
+			config.removeAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_COUNT);
+		}
+		if (fAffectedTestsOnly.getSelection()) {
+			config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_AFFECTED_TESTS_ONLY, true);
+		} else {
+			config.removeAttribute(JUnitLaunchConfigurationConstants.ATTR_AFFECTED_TESTS_ONLY);
+		}
+		int testOrderIndex= fTestOrder.getSelectionIndex();
+		if (testOrderIndex > 0) {
+			config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_ORDER, TEST_ORDERS[testOrderIndex]);
+		} else {
+			config.removeAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_ORDER);
+		}
+		if (fStopOnFirstFailure.getSelection()) {
+			config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_STOP_ON_FIRST_FAILURE, true);
+		} else {
+			config.removeAttribute(JUnitLaunchConfigurationConstants.ATTR_STOP_ON_FIRST_FAILURE);
+		}
 		try {
 			mapResources(config);
 		} catch (CoreException e) {
@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.text.tests.performance.EditorTestHelper;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.SourceViewer;
+import org.eclipse.jface.text.source.projection.ProjectionAnnotationModel;
+import org.eclipse.jface.text.source.projection.ProjectionViewer;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.text.folding.DefaultJavaFoldingStructureProvider;
+import org.eclipse.jdt.ui.text.folding.IJavaFoldingStructureProvider;
+
+import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+
+/**
+ * Tests the incremental updates of the {@link DefaultJavaFoldingStructureProvider}.
+ *
+ * @since 3.17
+ */
+public class DefaultJavaFoldingStructureProviderTest extends TestCase {
+
+	private static final String DIRTY_REGION_TRACKER= "org.eclipse.jdt.ui.text.folding.DefaultJavaFoldingStructureProvider$DirtyRegionTracker";
+
+	private static final String CU_CONTENTS= "package p;\n" +
+			"\n" +
+			"import java.util.List;\n" +
+			"\n" +
+			"public class A {\n" +
+			"    List fList;\n" +
+			"\n" +
+			"    void m1() {\n" +
+			"        int a= 1;\n" +
+			"    }\n" +
+			"\n" +
+			"    void m2() {\n" +
+			"        int b= 2;\n" +
+			"    }\n" +
+			"\n" +
+			"    class B {\n" +
+			"        void m3() {\n" +
+			"            int c= 3;\n" +
+			"        }\n" +
+			"    }\n" +
+			"}\n";
+
+	public static Test suite() {
+		return new TestSuite(DefaultJavaFoldingStructureProviderTest.class);
+	}
+
+	private IJavaProject fProject;
+	private ICompilationUnit fCompilationUnit;
+	private ICompilationUnit fWorkingCopy;
+
+	@Override
+	protected void setUp() throws Exception {
+		fProject= JavaProjectHelper.createJavaProject(getName(), "bin");
+		fCompilationUnit= JavaProjectHelper.addSourceContainer(fProject, "src").createPackageFragment("p", true, null).createCompilationUnit("A.java", CU_CONTENTS, true, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		EditorTestHelper.closeAllEditors();
+		if (fWorkingCopy != null)
+			fWorkingCopy.discardWorkingCopy();
+		JavaProjectHelper.delete(fProject);
+	}
+
+	private Accessor createDirtyRegionTracker(IDocument document) {
+		Accessor tracker= new Accessor(DIRTY_REGION_TRACKER, getClass().getClassLoader(), new Object[0]);
+		tracker.invoke("connect", new Class[] { IDocument.class }, new Object[] { document });
+		return tracker;
+	}
+
+	private static IRegion consume(Accessor tracker) {
+		return (IRegion) tracker.invoke("consume", new Object[0]);
+	}
+
+	public void testDirtyRegionTracker() throws Exception {
+		IDocument document= new Document("0123456789012345678901234567890123456789");
+		Accessor tracker= createDirtyRegionTracker(document);
+		assertNull(consume(tracker));
+
+		document.replace(10, 0, "abc");
+		assertEquals(new Region(10, 3), consume(tracker));
+		// the region is also reported to the next update
+		assertEquals(new Region(10, 3), consume(tracker));
+		assertNull(consume(tracker));
+	}
+
+	public void testDirtyRegionUnion() throws Exception {
+		IDocument document= new Document("0123456789012345678901234567890123456789");
+		Accessor tracker= createDirtyRegionTracker(document);
+
+		document.replace(20, 0, "x");
+		document.replace(5, 2, "");
+		assertEquals(new Region(5, 14), consume(tracker));
+	}
+
+	public void testDirtyRegionPreviousShifted() throws Exception {
+		IDocument document= new Document("0123456789012345678901234567890123456789");
+		Accessor tracker= createDirtyRegionTracker(document);
+
+		document.replace(10, 0, "abc");
+		assertEquals(new Region(10, 3), consume(tracker));
+		document.replace(0, 0, "xx");
+		assertEquals(new Region(0, 15), consume(tracker));
+		assertEquals(new Region(0, 2), consume(tracker));
+	}
+
+	public void testDirtyRegionPreviousReplaced() throws Exception {
+		IDocument document= new Document("0123456789012345678901234567890123456789");
+		Accessor tracker= createDirtyRegionTracker(document);
+
+		document.replace(10, 0, "abc");
+		assertEquals(new Region(10, 3), consume(tracker));
+		document.replace(5, 10, "");
+		assertEquals(new Region(5, 0), consume(tracker));
+	}
+
+	public void testDirtyRegionTrackerConnect() throws Exception {
+		IDocument document= new Document("0123456789012345678901234567890123456789");
+		Accessor tracker= createDirtyRegionTracker(document);
+
+		document.replace(10, 0, "abc");
+		tracker.invoke("connect", new Class[] { IDocument.class }, new Object[] { document });
+		assertNull(consume(tracker));
+
+		tracker.invoke("connect", new Class[] { IDocument.class }, new Object[] { new Document() });
+		document.replace(10, 0, "abc");
+		assertNull(consume(tracker));
+	}
+
+	private IRegion replace(String oldText, String newText) throws Exception {
+		if (fWorkingCopy == null)
+			fWorkingCopy= fCompilationUnit.getWorkingCopy(null);
+		IBuffer buffer= fWorkingCopy.getBuffer();
+		int offset= buffer.getContents().indexOf(oldText);
+		assertTrue(offset != -1);
+		buffer.replace(offset, oldText.length(), newText);
+		return new Region(offset, newText.length());
+	}
+
+	private IRegion insert(String text, String beforeText) throws Exception {
+		IRegion region= replace(beforeText, text + beforeText);
+		return new Region(region.getOffset(), text.length());
+	}
+
+	@SuppressWarnings("unchecked")
+	private Set<IJavaElement> computeChangedElements(IRegion dirtyRegion) throws Exception {
+		final IJavaElementDelta[] delta= new IJavaElementDelta[1];
+		IElementChangedListener listener= new IElementChangedListener() {
+			@Override
+			public void elementChanged(ElementChangedEvent event) {
+				delta[0]= event.getDelta();
+			}
+		};
+		JavaCore.addElementChangedListener(listener, ElementChangedEvent.POST_RECONCILE);
+		try {
+			fWorkingCopy.reconcile(ICompilationUnit.NO_AST, false, null, null);
+		} finally {
+			JavaCore.removeElementChangedListener(listener);
+		}
+		assertNotNull(delta[0]);
+		assertEquals(fWorkingCopy, delta[0].getElement());
+
+		Accessor provider= new Accessor(new DefaultJavaFoldingStructureProvider(), DefaultJavaFoldingStructureProvider.class);
+		provider.set("fInput", fWorkingCopy);
+		return (Set<IJavaElement>) provider.invoke("computeChangedElements", new Class[] { IJavaElementDelta.class, IRegion.class }, new Object[] { delta[0], dirtyRegion });
+	}
+
+	private IType getTypeA() {
+		return fWorkingCopy.getType("A");
+	}
+
+	private IType getTypeB() {
+		return getTypeA().getType("B");
+	}
+
+	private static Set<IJavaElement> asSet(IJavaElement... elements) {
+		Set<IJavaElement> set= new HashSet<>();
+		Collections.addAll(set, elements);
+		return set;
+	}
+
+	public void testChangedMethodBody() throws Exception {
+		IRegion dirtyRegion= replace("int a= 1;", "int a= 10;");
+
+		// changes of method bodies are not reported by the delta
+		assertEquals(asSet(getTypeA().getMethod("m1", new String[0])), computeChangedElements(dirtyRegion));
+	}
+
+	public void testAddedMethod() throws Exception {
+		IRegion dirtyRegion= insert("    void m4() {\n    }\n\n", "    class B {");
+
+		assertEquals(asSet(getTypeA().getMethod("m4", new String[0])), computeChangedElements(dirtyRegion));
+	}
+
+	public void testRemovedMethod() throws Exception {
+		IRegion dirtyRegion= replace("    void m2() {\n        int b= 2;\n    }\n\n", "");
+
+		assertEquals(asSet(getTypeA().getMethod("m2", new String[0])), computeChangedElements(dirtyRegion));
+	}
+
+	public void testChangedNestedMethod() throws Exception {
+		IRegion dirtyRegion= replace("int c= 3;", "int c= 30;");
+
+		assertEquals(asSet(getTypeB().getMethod("m3", new String[0])), computeChangedElements(dirtyRegion));
+	}
+
+	public void testChangedNestedTypeAndMember() throws Exception {
+		replace("class B {", "class B extends Object {");
+		IRegion dirtyRegion= replace("int c= 3;", "int c= 30;");
+
+		// m3 is updated with its changed type
+		assertEquals(asSet(getTypeB()), computeChangedElements(dirtyRegion));
+	}
+
+	public void testChangedBetweenMembers() throws Exception {
+		IRegion dirtyRegion= insert("\n", "    void m2() {");
+
+		assertEquals(asSet(), computeChangedElements(dirtyRegion));
+	}
+
+	public void testChangedImports() throws Exception {
+		IRegion dirtyRegion= replace("import java.util.List;", "import java.util.List;\nimport java.util.Map;");
+
+		assertNull(computeChangedElements(dirtyRegion));
+	}
+
+	public void testChangedTopLevelType() throws Exception {
+		IRegion dirtyRegion= replace("public class A {", "public class A implements Cloneable {");
+
+		assertNull(computeChangedElements(dirtyRegion));
+	}
+
+	public void testAddedTopLevelType() throws Exception {
+		IRegion dirtyRegion= replace("    }\n}\n", "    }\n}\nclass C {\n}\n");
+
+		assertNull(computeChangedElements(dirtyRegion));
+	}
+
+	private static List<String> getFoldingPositions(ProjectionAnnotationModel model) {
+		List<String> positions= new ArrayList<>();
+		for (Iterator<Annotation> iterator= model.getAnnotationIterator(); iterator.hasNext();) {
+			Position position= model.getPosition(iterator.next());
+			if (position != null)
+				positions.add(position.getOffset() + ":" + position.getLength());
+		}
+		Collections.sort(positions);
+		return positions;
+	}
+
+	public void testIncrementalUpdate() throws Exception {
+		boolean folding= EditorTestHelper.enableFolding(true);
+		try {
+			JavaEditor editor= (JavaEditor) EditorTestHelper.openInEditor((IFile) fCompilationUnit.getResource(), true);
+			SourceViewer viewer= EditorTestHelper.getSourceViewer(editor);
+			assertTrue(EditorTestHelper.joinReconciler(viewer, 0, 10000, 100));
+			ProjectionAnnotationModel model= ((ProjectionViewer) viewer).getProjectionAnnotationModel();
+			int count= getFoldingPositions(model).size();
+
+			IDocument document= EditorTestHelper.getDocument(editor);
+			document.replace(document.get().indexOf("int a= 1;"), "int a= 1;".length(), "int a= 1;\n        a++;\n        a++;");
+			document.replace(document.get().indexOf("void m2()"), 0, "/**\n     * Comment.\n     */\n    ");
+			document.replace(document.get().indexOf("        void m3()"), 0, "        void m4() {\n        }\n\n");
+			assertTrue(EditorTestHelper.joinReconciler(viewer, 0, 10000, 100));
+
+			// regions for the Javadoc of m2 and for m4 are added, the other regions are moved
+			List<String> positions= getFoldingPositions(model);
+			assertEquals(count + 2, positions.size());
+
+			IJavaFoldingStructureProvider provider= editor.getAdapter(IJavaFoldingStructureProvider.class);
+			assertTrue(provider instanceof DefaultJavaFoldingStructureProvider);
+			provider.initialize();
+			assertEquals(getFoldingPositions(model), positions);
+		} finally {
+			EditorTestHelper.enableFolding(folding);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -35,6 +35,7 @@ public class JdtTextTestSuite {
 		//$JUnit-BEGIN$
 		suite.addTestSuite(CompilationUnitDocumentProviderTest.class);
 		suite.addTest(JavaHeuristicScannerTest.suite());
+		suite.addTest(PartitionCacheTest.suite());
 		suite.addTest(JavaAutoIndentStrategyTest.suite());
 		suite.addTestSuite(JavaBreakIteratorTest.class);
 		suite.addTest(JavaParameterListValidatorTest.suite());
@@ -46,6 +47,7 @@ public class JdtTextTestSuite {
 		suite.addTest(JavaPartitionerTest.suite());
 		suite.addTest(PropertiesFilePartitionerTest.suite());
 		suite.addTest(PropertiesFileAutoEditStrategyTest.suite());
+		suite.addTest(PropertyKeyReferenceIndexTest.suite());
 //		suite.addTest(PartitionTokenScannerTest.suite());
 		suite.addTest(MarkOccurrenceTest.suite());
 		suite.addTest(MarkOccurrenceTest17.suite());
@@ -72,6 +74,7 @@ public class JdtTextTestSuite {
 		suite.addTest(TemplatesTestSuite.suite());
 		suite.addTest(JavaElementPrefixPatternMatcherTest.suite());
 		suite.addTest(CodeMiningTest.suite());
+		suite.addTest(DefaultJavaFoldingStructureProviderTest.suite());
 		//$JUnit-END$
 
 		return suite;
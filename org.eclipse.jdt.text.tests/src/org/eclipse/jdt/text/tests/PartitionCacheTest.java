@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension3;
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.jface.text.TextUtilities;
+import org.eclipse.jface.text.rules.FastPartitioner;
+
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.text.FastJavaPartitionScanner;
+import org.eclipse.jdt.internal.ui.text.JavaHeuristicScanner;
+
+/**
+ * Tests the partitions shared by the {@link JavaHeuristicScanner}s on a document.
+ *
+ * @since 3.17
+ */
+public class PartitionCacheTest extends TestCase {
+
+	private static final String[] TYPES= new String[] {
+		IJavaPartitions.JAVA_DOC,
+		IJavaPartitions.JAVA_MULTI_LINE_COMMENT,
+		IJavaPartitions.JAVA_SINGLE_LINE_COMMENT,
+		IJavaPartitions.JAVA_STRING,
+		IJavaPartitions.JAVA_CHARACTER,
+		IDocument.DEFAULT_CONTENT_TYPE
+	};
+
+	private static final String SOURCE= "int a; /* c1 */ int b; // c2\nString s= \"x\";\n";
+
+	private FastPartitioner fPartitioner;
+	private Document fDocument;
+
+	public static Test suite() {
+		return new TestSuite(PartitionCacheTest.class);
+	}
+
+	@Override
+	protected void setUp() {
+		fDocument= new Document();
+		fPartitioner= new FastPartitioner(new FastJavaPartitionScanner(), TYPES);
+		fPartitioner.connect(fDocument);
+		fDocument.setDocumentPartitioner(IJavaPartitions.JAVA_PARTITIONING, fPartitioner);
+		fDocument.set(SOURCE);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fDocument.setDocumentPartitioner(IJavaPartitions.JAVA_PARTITIONING, null);
+		fPartitioner.disconnect();
+		fPartitioner= null;
+		fDocument= null;
+	}
+
+	private Object getCache() {
+		// the document has a modification stamp since it has been set
+		Object cache= new Accessor(new JavaHeuristicScanner(fDocument), JavaHeuristicScanner.class).get("fPartitionCache");
+		assertNotNull(cache);
+		return cache;
+	}
+
+	private ITypedRegion getPartition(Object cache, int position) {
+		return (ITypedRegion) new Accessor(cache, cache.getClass()).invoke("getPartition", new Class[] { IDocument.class, int.class }, new Object[] { fDocument, Integer.valueOf(position) });
+	}
+
+	private static List<Integer> getCachedOffsets(Object cache) {
+		TreeMap<?, ?> partitions= (TreeMap<?, ?>) new Accessor(cache, cache.getClass()).get("fPartitions");
+		List<Integer> offsets= new ArrayList<>();
+		for (Object offset : partitions.keySet()) {
+			offsets.add((Integer) offset);
+		}
+		return offsets;
+	}
+
+	private void assertPartitions(Object cache) throws BadLocationException {
+		for (int position= 0; position < fDocument.getLength(); position++) {
+			assertEquals(TextUtilities.getPartition(fDocument, IJavaPartitions.JAVA_PARTITIONING, position, false), getPartition(cache, position));
+		}
+	}
+
+	private List<Integer> getPartitionOffsets() throws BadLocationException {
+		ITypedRegion[] partitions= TextUtilities.computePartitioning(fDocument, IJavaPartitions.JAVA_PARTITIONING, 0, fDocument.getLength(), false);
+		List<Integer> offsets= new ArrayList<>();
+		for (int i= 0; i < partitions.length; i++) {
+			offsets.add(Integer.valueOf(partitions[i].getOffset()));
+		}
+		return offsets;
+	}
+
+	public void testShared() throws Exception {
+		Object cache= getCache();
+		assertSame(cache, getCache());
+
+		JavaHeuristicScanner scanner= new JavaHeuristicScanner(fDocument, IDocumentExtension3.DEFAULT_PARTITIONING, IDocument.DEFAULT_CONTENT_TYPE);
+		assertNotSame(cache, new Accessor(scanner, JavaHeuristicScanner.class).get("fPartitionCache"));
+	}
+
+	public void testLookUp() throws Exception {
+		Object cache= getCache();
+		assertPartitions(cache);
+		assertEquals(getPartitionOffsets(), getCachedOffsets(cache));
+
+		int offset= SOURCE.indexOf("// c2");
+		assertSame(getPartition(cache, offset), getPartition(cache, offset + 2));
+	}
+
+	public void testChangeKeepsPartitionsBefore() throws Exception {
+		Object cache= getCache();
+		assertPartitions(cache);
+
+		fDocument.replace(SOURCE.indexOf("int b"), 0, "x");
+		// the partition containing the change and all following partitions are discarded
+		assertEquals(Arrays.asList(Integer.valueOf(0), Integer.valueOf(SOURCE.indexOf("/* c1 */"))), getCachedOffsets(cache));
+		assertPartitions(cache);
+	}
+
+	public void testChangeAfterPartitions() throws Exception {
+		Object cache= getCache();
+		int offset= SOURCE.indexOf("s= ");
+		getPartition(cache, 0);
+
+		fDocument.replace(offset, 0, "int c;\n");
+		assertEquals(Arrays.asList(Integer.valueOf(0)), getCachedOffsets(cache));
+	}
+
+	public void testChangeStartsComment() throws Exception {
+		Object cache= getCache();
+		assertPartitions(cache);
+
+		fDocument.replace(SOURCE.indexOf("int b"), 0, "/*");
+		int offset= fDocument.get().indexOf("String");
+		assertEquals(IJavaPartitions.JAVA_MULTI_LINE_COMMENT, getPartition(cache, offset).getType());
+		assertFalse(new JavaHeuristicScanner(fDocument).isDefaultPartition(offset));
+		assertPartitions(cache);
+	}
+
+	public void testPartitioningChanged() throws Exception {
+		Object cache= getCache();
+		assertPartitions(cache);
+
+		FastPartitioner partitioner= new FastPartitioner(new FastJavaPartitionScanner(), TYPES);
+		fPartitioner.disconnect();
+		partitioner.connect(fDocument);
+		fDocument.setDocumentPartitioner(IJavaPartitions.JAVA_PARTITIONING, partitioner);
+		fPartitioner= partitioner;
+
+		assertEquals(Arrays.asList(), getCachedOffsets(cache));
+		assertPartitions(cache);
+	}
+
+	public void testModificationStampMismatch() throws Exception {
+		Object cache= getCache();
+		assertPartitions(cache);
+
+		fDocument.stopListenerNotification();
+		try {
+			fDocument.replace(fDocument.getLength(), 0, "int c;\n");
+			// the change has not been notified yet
+			getPartition(cache, 0);
+			assertEquals(Arrays.asList(Integer.valueOf(0)), getCachedOffsets(cache));
+		} finally {
+			fDocument.resumeListenerNotification();
+		}
+		assertPartitions(cache);
+	}
+}
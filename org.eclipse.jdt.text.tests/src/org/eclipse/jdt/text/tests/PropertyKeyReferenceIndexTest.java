@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+
+import org.eclipse.search.ui.text.Match;
+
+import org.eclipse.jdt.core.IJavaProject;
+
+import org.eclipse.jdt.internal.ui.propertiesfileeditor.PropertyKeyReferenceIndex;
+
+/**
+ * Tests the {@link PropertyKeyReferenceIndex}.
+ *
+ * @since 3.17
+ */
+public class PropertyKeyReferenceIndexTest extends TestCase {
+
+	private static final String JAVA_SOURCE= "class A {\n\tString s= get(\"my.key\") + get(\"my.key.suffix\");\n\tString t= my.key;\n}\n";
+
+	private static final String XML_SOURCE= "<extension name=\"%my.key\" id=\"my key\"/>\n";
+
+	private IJavaProject fJavaProject;
+	private IProject fProject;
+	private IFile fJavaFile;
+	private PropertyKeyReferenceIndex fIndex;
+
+	public static Test suite() {
+		return new TestSuite(PropertyKeyReferenceIndexTest.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJavaProject= JavaProjectHelper.createJavaProject("TestProject1", "bin");
+		fProject= fJavaProject.getProject();
+		fJavaFile= createFile("A.java", JAVA_SOURCE);
+		createFile("plugin.xml", XML_SOURCE);
+		fIndex= new PropertyKeyReferenceIndex();
+		fIndex.install();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fIndex.dispose();
+		JavaProjectHelper.delete(fJavaProject);
+	}
+
+	private IFile createFile(String name, String content) throws Exception {
+		IFile file= fProject.getFile(name);
+		file.create(new ByteArrayInputStream(content.getBytes("UTF-8")), true, null);
+		file.setCharset("UTF-8", null);
+		return file;
+	}
+
+	private List<String> search(String key, boolean doubleQuoted) throws Exception {
+		List<String> result= new ArrayList<>();
+		for (Match match : fIndex.search(fProject, key, doubleQuoted, null)) {
+			assertEquals(key.length(), match.getLength());
+			result.add(((IFile) match.getElement()).getName() + "@" + match.getOffset());
+		}
+		return result;
+	}
+
+	public void testIsIndexable() throws Exception {
+		assertTrue(PropertyKeyReferenceIndex.isIndexable("my.key"));
+		assertTrue(PropertyKeyReferenceIndex.isIndexable("my-key_1"));
+		assertFalse(PropertyKeyReferenceIndex.isIndexable(""));
+		assertFalse(PropertyKeyReferenceIndex.isIndexable("my key"));
+	}
+
+	public void testDoubleQuotedHit() throws Exception {
+		List<String> result= search("my.key", true);
+
+		// neither the longer literal nor the unquoted identifiers are references
+		assertEquals("[A.java@" + JAVA_SOURCE.indexOf("my.key") + "]", result.toString());
+	}
+
+	public void testDoubleQuotedMiss() throws Exception {
+		assertEquals(0, search("missing.key", true).size());
+		assertEquals(0, search("my", true).size());
+		assertEquals(0, search("other.key", false).size());
+	}
+
+	public void testSubstringHit() throws Exception {
+		List<String> result= search("my.key", false);
+
+		int literal= JAVA_SOURCE.indexOf("my.key");
+		int suffixLiteral= JAVA_SOURCE.indexOf("my.key.suffix");
+		List<String> expected= new ArrayList<>();
+		expected.add("A.java@" + literal);
+		expected.add("A.java@" + suffixLiteral);
+		expected.add("plugin.xml@" + XML_SOURCE.indexOf("my.key"));
+		assertEquals(3, result.size());
+		assertTrue(result.containsAll(expected));
+	}
+
+	public void testFileEditInvalidatesIndex() throws Exception {
+		assertEquals(1, search("my.key", true).size());
+		assertEquals(0, search("new.key", true).size());
+
+		String content= "class A {\n\tString s= get(\"new.key\");\n}\n";
+		fJavaFile.setContents(new ByteArrayInputStream(content.getBytes("UTF-8")), true, false, null);
+
+		assertEquals(0, search("my.key", true).size());
+		assertEquals("[A.java@" + content.indexOf("new.key") + "]", search("new.key", true).toString());
+	}
+
+	public void testFileDeleteInvalidatesIndex() throws Exception {
+		assertEquals(1, search("my.key", true).size());
+
+		fJavaFile.delete(true, null);
+
+		assertEquals(0, search("my.key", true).size());
+	}
+}
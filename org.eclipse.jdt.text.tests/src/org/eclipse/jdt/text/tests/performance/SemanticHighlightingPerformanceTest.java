@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.performance;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.manipulation.SharedASTProviderCore;
+
+import org.eclipse.jdt.ui.JavaUI;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting;
+import org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlightingManager;
+import org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlightingReconciler;
+import org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlightings;
+
+
+/**
+ * Measures the time to reconcile the semantic highlighting positions of a large compilation unit
+ * with all semantic highlightings enabled.
+ *
+ * @since 3.13
+ */
+public class SemanticHighlightingPerformanceTest extends TextPerformanceTestCase {
+
+	private static final Class<SemanticHighlightingPerformanceTest> THIS= SemanticHighlightingPerformanceTest.class;
+
+	private static final String FILE= PerformanceTestSetup.STYLED_TEXT;
+
+	private static final int WARM_UP_RUNS= 5;
+
+	private static final int MEASURED_RUNS= 10;
+
+	private JavaEditor fEditor;
+
+	public static Test suite() {
+		return new PerformanceTestSetup(new TestSuite(THIS));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		setAllSemanticHighlightingsEnabled(true);
+		fEditor= (JavaEditor) EditorTestHelper.openInEditor(ResourceTestHelper.findFile(FILE), true);
+		EditorTestHelper.joinBackgroundActivities(fEditor);
+		setWarmUpRuns(WARM_UP_RUNS);
+		setMeasuredRuns(MEASURED_RUNS);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		EditorTestHelper.closeAllEditors();
+		setAllSemanticHighlightingsEnabled(false);
+	}
+
+	/**
+	 * Measures the time to reconcile the semantic highlighting positions of a large compilation
+	 * unit whose positions are already up to date.
+	 *
+	 * @throws Exception if something goes wrong
+	 */
+	public void testReconcile() throws Exception {
+		ITypeRoot typeRoot= JavaUI.getEditorInputTypeRoot(fEditor.getEditorInput());
+		CompilationUnit ast= SharedASTProviderCore.getAST(typeRoot, SharedASTProviderCore.WAIT_YES, null);
+		assertNotNull(ast);
+		SemanticHighlightingManager manager= (SemanticHighlightingManager) new Accessor(fEditor, JavaEditor.class).get("fSemanticManager");
+		SemanticHighlightingReconciler reconciler= manager.getReconciler();
+
+		measure(reconciler, ast, getNullPerformanceMeter(), getWarmUpRuns());
+		PerformanceMeter performanceMeter= createPerformanceMeterForSummary("Java Editor: semantic highlighting", Dimension.ELAPSED_PROCESS);
+		measure(reconciler, ast, performanceMeter, getMeasuredRuns());
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
+	private void measure(SemanticHighlightingReconciler reconciler, CompilationUnit ast, PerformanceMeter performanceMeter, int runs) {
+		for (int i= 0; i < runs; i++) {
+			performanceMeter.start();
+			reconciler.reconciled(ast, true, new NullProgressMonitor());
+			performanceMeter.stop();
+			EditorTestHelper.runEventQueue();
+		}
+	}
+
+	private static void setAllSemanticHighlightingsEnabled(boolean enabled) {
+		IPreferenceStore store= JavaPlugin.getDefault().getPreferenceStore();
+		SemanticHighlighting[] semanticHighlightings= SemanticHighlightings.getSemanticHighlightings();
+		for (int i= 0, n= semanticHighlightings.length; i < n; i++) {
+			String enabledPreferenceKey= SemanticHighlightings.getEnabledPreferenceKey(semanticHighlightings[i]);
+			if (enabled)
+				store.setValue(enabledPreferenceKey, true);
+			else
+				store.setToDefault(enabledPreferenceKey);
+		}
+	}
+}
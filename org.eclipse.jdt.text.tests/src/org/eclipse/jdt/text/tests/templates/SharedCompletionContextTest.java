@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.templates;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jface.text.Document;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+
+import org.eclipse.jdt.internal.corext.template.java.SharedCompletionContext;
+
+/**
+ * Tests the {@link SharedCompletionContext}.
+ *
+ * @since 3.17
+ */
+public class SharedCompletionContextTest extends TestCase {
+
+	private static final String SOURCE= "package test;\npublic class A {\n\tvoid foo() {\n\t\t\n\t}\n}\n";
+
+	private IJavaProject fJavaProject;
+	private ICompilationUnit fCU;
+	private Document fDocument;
+	private int fOffset;
+
+	public static Test suite() {
+		return new TestSuite(SharedCompletionContextTest.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJavaProject= JavaProjectHelper.createJavaProject("TestProject1", "bin");
+		IPackageFragment fragment= JavaProjectHelper.addSourceContainer(fJavaProject, "src").createPackageFragment("test", true, null);
+		fCU= fragment.createCompilationUnit("A.java", SOURCE, true, null);
+		fDocument= createDocument();
+		fOffset= SOURCE.indexOf("\t\t\n") + 2;
+		SharedCompletionContext.clear();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		SharedCompletionContext.clear();
+		JavaProjectHelper.delete(fJavaProject);
+	}
+
+	private static Document createDocument() {
+		// a document created with its content has no modification stamp yet
+		Document document= new Document();
+		document.set(SOURCE);
+		return document;
+	}
+
+	public void testSameOffsetHits() throws Exception {
+		SharedCompletionContext context= SharedCompletionContext.get(fDocument, fCU, fOffset);
+		assertNotNull(context);
+		assertSame(context, SharedCompletionContext.get(fDocument, fCU, fOffset));
+	}
+
+	public void testNewOffsetMisses() throws Exception {
+		SharedCompletionContext context= SharedCompletionContext.get(fDocument, fCU, fOffset);
+		SharedCompletionContext other= SharedCompletionContext.get(fDocument, fCU, fOffset - 1);
+		assertNotSame(context, other);
+
+		// only the most recent offset is kept
+		assertSame(other, SharedCompletionContext.get(fDocument, fCU, fOffset - 1));
+		assertNotSame(context, SharedCompletionContext.get(fDocument, fCU, fOffset));
+	}
+
+	public void testNewStampMisses() throws Exception {
+		SharedCompletionContext context= SharedCompletionContext.get(fDocument, fCU, fOffset);
+		fDocument.replace(fOffset, 0, "i");
+		fDocument.replace(fOffset, 1, "");
+
+		// the same content at the same offset, but a new modification stamp
+		assertNotSame(context, SharedCompletionContext.get(fDocument, fCU, fOffset));
+	}
+
+	public void testOtherDocumentMisses() throws Exception {
+		SharedCompletionContext context= SharedCompletionContext.get(fDocument, fCU, fOffset);
+		assertNotSame(context, SharedCompletionContext.get(createDocument(), fCU, fOffset));
+	}
+
+	public void testClear() throws Exception {
+		SharedCompletionContext context= SharedCompletionContext.get(fDocument, fCU, fOffset);
+		SharedCompletionContext.clear();
+		assertNotSame(context, SharedCompletionContext.get(fDocument, fCU, fOffset));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,6 +28,7 @@ public class TemplatesTestSuite {
 		TestSuite suite = new TestSuite(TemplatesTestSuite.class.getName());
 		//$JUnit-BEGIN$
 		suite.addTest(TemplateContributionTest.suite());
+		suite.addTest(SharedCompletionContextTest.suite());
 		//$JUnit-END$
 		return suite;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -35,6 +35,7 @@ public class NLSTestSuite {
 		suite.addTest(NLSHintTest.suite());
         suite.addTest(NLSHintHelperTest.suite());
         suite.addTest(PropertyFileDocumentModellTest.suite());
+        suite.addTest(PropertiesFileKeyIndexTest.suite());
         suite.addTest(SimpleLineReaderTest.suite());
         suite.addTest(NLSHolderTest.suite());
         suite.addTest(NLSSubstitutionTest.suite());
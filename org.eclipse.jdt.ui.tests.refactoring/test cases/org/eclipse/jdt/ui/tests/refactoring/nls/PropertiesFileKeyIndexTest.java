@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.nls;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.internal.corext.refactoring.nls.PropertiesFileKeyIndex;
+
+public class PropertiesFileKeyIndexTest extends TestCase {
+
+	public PropertiesFileKeyIndexTest(String name) {
+		super(name);
+	}
+
+	public static TestSuite suite() {
+		return new TestSuite(PropertiesFileKeyIndexTest.class);
+	}
+
+	private static void assertKey(PropertiesFileKeyIndex index, String content, String key, String rawKey) {
+		assertTrue(index.containsKey(key));
+		int offset= index.getOffset(key);
+		assertEquals(rawKey, content.substring(offset, offset + index.getLength(key)));
+	}
+
+	public void testKeys() throws Exception {
+		String content=
+				"# comment=value\n" +
+				"! other comment\n" +
+				"key1=value\n" +
+				"  key2 : value\n" +
+				"key3 value \\\n" +
+				"  continued=value\n" +
+				"key4\n" +
+				"\tkey5=";
+		PropertiesFileKeyIndex index= PropertiesFileKeyIndex.create(content);
+
+		assertEquals(Arrays.asList("key1", "key2", "key3", "key4", "key5"), Arrays.asList(index.getKeys().toArray()));
+		assertKey(index, content, "key1", "key1");
+		assertKey(index, content, "key2", "key2");
+		assertKey(index, content, "key3", "key3");
+		assertKey(index, content, "key4", "key4");
+		assertKey(index, content, "key5", "key5");
+		assertFalse(index.containsKey("continued"));
+		assertFalse(index.containsKey("comment"));
+		assertEquals(-1, index.getOffset("comment"));
+		assertTrue(index.getDuplicateKeys().isEmpty());
+	}
+
+	public void testEscapedKeys() throws Exception {
+		String content=
+				"a\\ b=value\n" +
+				"c\\=d=value\n" +
+				"\\u00e4\\u00f6=value\r\n" +
+				"e\\\r\n" +
+				"  f=value\n";
+		PropertiesFileKeyIndex index= PropertiesFileKeyIndex.create(content);
+
+		assertKey(index, content, "a b", "a\\ b");
+		assertKey(index, content, "c=d", "c\\=d");
+		assertKey(index, content, "\u00e4\u00f6", "\\u00e4\\u00f6");
+		assertKey(index, content, "ef", "e\\\r\n  f");
+	}
+
+	public void testDuplicateKeys() throws Exception {
+		String content=
+				"key1=value\n" +
+				"key2=value\n" +
+				"key1=other value\n";
+		PropertiesFileKeyIndex index= PropertiesFileKeyIndex.create(content);
+
+		assertEquals(2, index.size());
+		assertEquals(Arrays.asList("key1"), Arrays.asList(index.getDuplicateKeys().toArray()));
+		assertEquals(0, index.getOffset("key1"));
+	}
+
+	public void testSameKeysAsProperties() throws Exception {
+		String content=
+				"key1=value\n" +
+				"key\\:2=value\\\n" +
+				"   continued\n" +
+				" #not a comment\n" +
+				"key\\u0033\n" +
+				"key4 = a\\\\\n" +
+				"key5\n";
+		Properties properties= new Properties();
+		properties.load(new StringReader(content));
+		PropertiesFileKeyIndex index= PropertiesFileKeyIndex.create(content);
+
+		assertEquals(properties.keySet(), index.getKeys());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -316,6 +316,28 @@ public class PropertyFileDocumentModellTest extends TestCase {
 		assertEquals("org.eclipse.1=value1\n" + "org.1=value\n" + "org.eclipse.3=value3\n", props.get());
 	}
 
+	public void testInsertionOfKey() throws Exception {
+		Document props= new Document("org.eclipse.1=value1\n" + "org.eclipse.3=value3\n");
+		PropertyFileDocumentModel modell= new PropertyFileDocumentModel(props);
+
+		DocumentChange change= new DocumentChange("", props);
+		modell.insert(new KeyValuePair[] { new KeyValuePair("org.eclipse.2", "value\n") }, change);
+		assertEquals("value\n", modell.getKeyValuePair("org.eclipse.2").getValue());
+
+		DeleteEdit deleteEdit= modell.remove("org.eclipse.2");
+		assertEquals(props.get().indexOf("org.eclipse.3"), deleteEdit.getOffset());
+		assertEquals("org.eclipse.2=value\n".length(), deleteEdit.getLength());
+	}
+
+	public void testInsertionAfterDuplicateKey() throws Exception {
+		Document props= new Document("org.eclipse.1=value1\n" + "org.eclipse.1=value2\n");
+		PropertyFileDocumentModel modell= new PropertyFileDocumentModel(props);
+
+		DocumentChange change= new DocumentChange("", props);
+		modell.insert(new KeyValuePair[] { new KeyValuePair("org.eclipse.1", "value\n") }, change);
+		assertEquals("value1\n", modell.getKeyValuePair("org.eclipse.1").getValue());
+	}
+
 	// Escaping stuff
 	public void testEscapingOfComments() throws Exception {
 		Document props= new Document();
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchConfigurationType;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+
+import org.eclipse.jdt.internal.junit.launcher.AffectedTestsIndex;
+import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+
+
+public class AffectedTestsIndexTest extends TestCase {
+
+	private IJavaProject fProject;
+	private IPackageFragment fPackage;
+	private AffectedTestsIndex fIndex;
+	private ILaunchConfigurationWorkingCopy fConfiguration;
+
+	private ICompilationUnit fUtil;
+	private IType fUtilTest;
+	private IType fOtherTest;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject= JavaProjectHelper.createJavaProject("TestProject", "bin");
+		JavaProjectHelper.addRTJar(fProject);
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fProject, "src");
+		fPackage= root.createPackageFragment("p", true, null);
+		fIndex= new AffectedTestsIndex();
+
+		ILaunchConfigurationType type= DebugPlugin.getDefault().getLaunchManager().getLaunchConfigurationType(JUnitLaunchConfigurationConstants.ID_JUNIT_APPLICATION);
+		fConfiguration= type.newInstance(null, "AffectedTestsIndexTest");
+		fConfiguration.setAttribute(JUnitLaunchConfigurationConstants.ATTR_AFFECTED_TESTS_ONLY, true);
+
+		fUtil= fPackage.createCompilationUnit("Util.java", "package p;\npublic class Util {\n}\n", true, null);
+		fUtilTest= fPackage.createCompilationUnit("UtilTest.java", "package p;\npublic class UtilTest {\n    Util fUtil;\n    public void testUtil() {\n    }\n}\n", true, null).getType("UtilTest");
+		fOtherTest= fPackage.createCompilationUnit("OtherTest.java", "package p;\npublic class OtherTest {\n    public void testOther() {\n    }\n}\n", true, null).getType("OtherTest");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		// removes the stored index of the project
+		JavaProjectHelper.delete(fProject);
+		fIndex.dispose();
+		super.tearDown();
+	}
+
+	private List<IType> selectAffectedTests() throws Exception {
+		return Arrays.asList(fIndex.selectAffectedTests(fProject, new IType[] { fUtilTest, fOtherTest }, new NullProgressMonitor()));
+	}
+
+	private void testRunFinished(long startTime, boolean utilTestPassed) {
+		TestRunSession session= new TestRunSession("AffectedTestsIndexTest", fProject);
+		addTestCase(session, "1", "UtilTest", "testUtil", utilTestPassed ? Status.OK : Status.FAILURE);
+		addTestCase(session, "3", "OtherTest", "testOther", Status.OK);
+		fIndex.testRunFinished(fProject, fConfiguration, startTime, session.getTestRoot());
+	}
+
+	private static void addTestCase(TestRunSession session, String id, String className, String methodName, Status status) {
+		String suiteName= "p." + className;
+		TestSuiteElement suite= (TestSuiteElement) session.createTestElement(session.getTestRoot(), id, suiteName, true, 0, false, null, null, null);
+		TestCaseElement testCase= (TestCaseElement) session.createTestElement(suite, id + "1", methodName + "(" + suiteName + ")", false, 1, false, null, null, null);
+		testCase.setStatus(status);
+	}
+
+	private static long getStartTime() throws InterruptedException {
+		// the resources must have been modified before the test run started
+		Thread.sleep(10);
+		return System.currentTimeMillis();
+	}
+
+	public void testNeverPassed() throws Exception {
+		assertEquals(Arrays.asList(fUtilTest, fOtherTest), selectAffectedTests());
+	}
+
+	public void testPassed() throws Exception {
+		selectAffectedTests();
+		testRunFinished(getStartTime(), true);
+
+		assertEquals(Arrays.asList(), selectAffectedTests());
+	}
+
+	public void testFailed() throws Exception {
+		selectAffectedTests();
+		testRunFinished(getStartTime(), false);
+
+		assertEquals(Arrays.asList(fUtilTest), selectAffectedTests());
+	}
+
+	public void testChangedReference() throws Exception {
+		selectAffectedTests();
+		long startTime= getStartTime();
+		testRunFinished(startTime, true);
+		assertEquals(Arrays.asList(), selectAffectedTests());
+
+		fUtil.getBuffer().setContents("package p;\npublic class Util {\n    int fCount;\n}\n");
+		fUtil.save(null, true);
+		fUtil.getResource().setLocalTimeStamp(startTime + 1000);
+
+		assertEquals(Arrays.asList(fUtilTest), selectAffectedTests());
+	}
+
+	public void testChangedClasspath() throws Exception {
+		selectAffectedTests();
+		testRunFinished(getStartTime(), true);
+
+		JavaProjectHelper.addSourceContainer(fProject, "src2");
+
+		assertEquals(Arrays.asList(fUtilTest, fOtherTest), selectAffectedTests());
+	}
+
+	public void testIncompleteRun() throws Exception {
+		selectAffectedTests();
+		fConfiguration.setAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_NAME, "testUtil");
+		testRunFinished(getStartTime(), true);
+
+		assertEquals(Arrays.asList(fUtilTest, fOtherTest), selectAffectedTests());
+	}
+
+	public void testNotSelected() throws Exception {
+		// test runs of projects without selection are not recorded
+		testRunFinished(getStartTime(), true);
+
+		assertEquals(Arrays.asList(fUtilTest, fOtherTest), selectAffectedTests());
+	}
+}
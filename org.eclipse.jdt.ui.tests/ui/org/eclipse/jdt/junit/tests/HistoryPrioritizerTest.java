@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.eclipse.jdt.internal.junit.runner.HistoryPrioritizer;
+
+import junit.framework.TestCase;
+
+public class HistoryPrioritizerTest extends TestCase {
+
+	private File fHistoryFile;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fHistoryFile= File.createTempFile("testhistory", ".txt");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fHistoryFile.delete();
+		super.tearDown();
+	}
+
+	private void writeHistory(String... lines) throws Exception {
+		try (PrintWriter writer= new PrintWriter(new OutputStreamWriter(new FileOutputStream(fHistoryFile), StandardCharsets.UTF_8))) {
+			for (String line : lines) {
+				writer.println(line);
+			}
+		}
+	}
+
+	private String[] prioritize(String order, String... classNames) throws Exception {
+		HistoryPrioritizer prioritizer= new HistoryPrioritizer(order);
+		prioritizer.readHistory(fHistoryFile.getAbsolutePath());
+		return prioritizer.prioritize(classNames);
+	}
+
+	private static void assertOrder(String[] actual, String... expected) {
+		assertEquals(Arrays.asList(expected), Arrays.asList(actual));
+	}
+
+	public void testFailuresFirst() throws Exception {
+		writeHistory(
+				"10 0 0 100 p.ATest",
+				"10 1 2000 100 p.BTest",
+				"10 5 1000 100 p.CTest",
+				"10 2 1000 100 p.DTest");
+
+		// most recent failure first, then the higher failure rate
+		assertOrder(prioritize(HistoryPrioritizer.ORDER_FAILURES_FIRST, "p.ATest", "p.BTest", "p.CTest", "p.DTest"),
+				"p.BTest", "p.CTest", "p.DTest", "p.ATest");
+	}
+
+	public void testFailuresFirstTies() throws Exception {
+		writeHistory(
+				"10 0 0 300 p.ATest",
+				"10 0 0 100 p.BTest",
+				"10 0 0 100 p.CTest",
+				"10 0 0 -1 p.DTest");
+
+		// the same failures are ordered by duration, equal durations keep the order
+		assertOrder(prioritize(HistoryPrioritizer.ORDER_FAILURES_FIRST, "p.DTest", "p.CTest", "p.ATest", "p.BTest"),
+				"p.CTest", "p.BTest", "p.ATest", "p.DTest");
+	}
+
+	public void testFailuresFirstWithoutHistory() throws Exception {
+		writeHistory("10 1 1000 100 p.ATest");
+
+		// new test classes run first, in the given order
+		assertOrder(prioritize(HistoryPrioritizer.ORDER_FAILURES_FIRST, "p.ATest", "p.CTest", "p.BTest"),
+				"p.CTest", "p.BTest", "p.ATest");
+	}
+
+	public void testFastestFirst() throws Exception {
+		writeHistory(
+				"1 0 0 300 p.ATest",
+				"1 1 1000 100 p.BTest",
+				"1 0 0 200 p.CTest",
+				"1 0 0 100 p.DTest",
+				"1 0 0 -1 p.ETest");
+
+		// unknown durations after the known ones, equal durations keep the order
+		assertOrder(prioritize(HistoryPrioritizer.ORDER_FASTEST_FIRST, "p.ETest", "p.ATest", "p.BTest", "p.CTest", "p.DTest"),
+				"p.BTest", "p.DTest", "p.CTest", "p.ATest", "p.ETest");
+	}
+
+	public void testFastestFirstWithoutHistory() throws Exception {
+		writeHistory("1 0 0 300 p.ATest");
+
+		// test classes without history run last, in the given order
+		assertOrder(prioritize(HistoryPrioritizer.ORDER_FASTEST_FIRST, "p.CTest", "p.ATest", "p.BTest"),
+				"p.ATest", "p.CTest", "p.BTest");
+	}
+
+	public void testNestedClass() throws Exception {
+		writeHistory("1 0 0 100 p.ATest.Inner");
+
+		assertOrder(prioritize(HistoryPrioritizer.ORDER_FASTEST_FIRST, "p.BTest", "p.ATest$Inner"),
+				"p.ATest$Inner", "p.BTest");
+	}
+
+	public void testMalformedHistory() throws Exception {
+		writeHistory(
+				"1 0 0 p.BTest",
+				"x 0 0 100 p.CTest",
+				"1 0 0 200 p.ATest");
+
+		assertOrder(prioritize(HistoryPrioritizer.ORDER_FASTEST_FIRST, "p.CTest", "p.BTest", "p.ATest"),
+				"p.ATest", "p.CTest", "p.BTest");
+	}
+
+	public void testKeepOrder() throws Exception {
+		writeHistory(
+				"1 1 1000 300 p.ATest",
+				"1 0 0 100 p.BTest");
+
+		assertOrder(prioritize("", "p.BTest", "p.CTest", "p.ATest"),
+				"p.BTest", "p.CTest", "p.ATest");
+	}
+}
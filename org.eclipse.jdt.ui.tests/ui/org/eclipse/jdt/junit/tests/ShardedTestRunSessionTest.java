@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfigurationType;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+import org.eclipse.debug.core.model.IProcess;
+import org.eclipse.debug.core.model.IStreamsProxy;
+
+import org.eclipse.jdt.core.IJavaProject;
+
+import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
+import org.eclipse.jdt.internal.junit.model.ITestSessionListener;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+
+import org.eclipse.jdt.launching.SocketUtil;
+
+/**
+ * Runs a test run session with several test runners, which are simulated by writing the messages
+ * of the remote test runner protocol to the ports of the session.
+ */
+public class ShardedTestRunSessionTest extends TestCase {
+
+	private static final long TIMEOUT= 10000;
+
+	private static class SessionListener implements ITestSessionListener {
+		int fStarted;
+		int fEnded;
+		int fStopped;
+		int fTerminated;
+		int fTestsEnded;
+
+		synchronized boolean isFinished() {
+			return fEnded + fStopped + fTerminated > 0;
+		}
+
+		synchronized int getTestsEnded() {
+			return fTestsEnded;
+		}
+
+		@Override
+		public synchronized void sessionStarted() {
+			fStarted++;
+		}
+
+		@Override
+		public synchronized void sessionEnded(long elapsedTime) {
+			fEnded++;
+		}
+
+		@Override
+		public synchronized void sessionStopped(long elapsedTime) {
+			fStopped++;
+		}
+
+		@Override
+		public synchronized void sessionTerminated() {
+			fTerminated++;
+		}
+
+		@Override
+		public void testAdded(TestElement testElement) {
+		}
+
+		@Override
+		public void runningBegins() {
+		}
+
+		@Override
+		public void testStarted(TestCaseElement testCaseElement) {
+		}
+
+		@Override
+		public synchronized void testEnded(TestCaseElement testCaseElement) {
+			fTestsEnded++;
+		}
+
+		@Override
+		public void testFailed(TestElement testElement, Status status, String trace, String expected, String actual) {
+		}
+
+		@Override
+		public void testReran(TestCaseElement testCaseElement, Status status, String trace, String expectedResult, String actualResult) {
+		}
+
+		@Override
+		public boolean acceptsSwapToDisk() {
+			return false;
+		}
+	}
+
+	private static class TestProcess implements IProcess {
+		private final ILaunch fProcessLaunch;
+		private final Map<String, String> fAttributes= new HashMap<>();
+
+		public TestProcess(ILaunch launch, int port) {
+			fProcessLaunch= launch;
+			fAttributes.put(JUnitLaunchConfigurationConstants.ATTR_PORT, String.valueOf(port));
+		}
+
+		@Override
+		public <T> T getAdapter(Class<T> adapter) {
+			return null;
+		}
+
+		@Override
+		public boolean canTerminate() {
+			return false;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return false;
+		}
+
+		@Override
+		public void terminate() {
+		}
+
+		@Override
+		public String getLabel() {
+			return "test runner";
+		}
+
+		@Override
+		public ILaunch getLaunch() {
+			return fProcessLaunch;
+		}
+
+		@Override
+		public IStreamsProxy getStreamsProxy() {
+			return null;
+		}
+
+		@Override
+		public void setAttribute(String key, String value) {
+			fAttributes.put(key, value);
+		}
+
+		@Override
+		public String getAttribute(String key) {
+			return fAttributes.get(key);
+		}
+
+		@Override
+		public int getExitValue() {
+			return 0;
+		}
+	}
+
+	private IJavaProject fProject;
+	private ILaunch fLaunch;
+	private SessionListener fListener;
+	private int[] fPorts;
+	private List<Socket> fSockets;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject= JavaProjectHelper.createJavaProject("TestProject", "bin");
+		fLaunch= new Launch(null, ILaunchManager.RUN_MODE, null);
+		fListener= new SessionListener();
+		fSockets= new ArrayList<>();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (Socket socket : fSockets) {
+			socket.close();
+		}
+		JavaProjectHelper.delete(fProject);
+		super.tearDown();
+	}
+
+	private TestRunSession startSession(int shardCount) {
+		Set<Integer> ports= new HashSet<>();
+		while (ports.size() < shardCount) {
+			ports.add(Integer.valueOf(SocketUtil.findFreePort()));
+		}
+		fPorts= new int[shardCount];
+		int i= 0;
+		for (Integer port : ports) {
+			fPorts[i++]= port.intValue();
+		}
+		TestRunSession session= new TestRunSession(fLaunch, fProject, fPorts);
+		session.addTestSessionListener(fListener);
+		return session;
+	}
+
+	private PrintWriter connect(int shard) throws Exception {
+		long end= System.currentTimeMillis() + TIMEOUT;
+		while (true) {
+			try {
+				Socket socket= new Socket((String) null, fPorts[shard]);
+				fSockets.add(socket);
+				return new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+			} catch (ConnectException e) {
+				if (System.currentTimeMillis() > end)
+					throw e;
+				Thread.sleep(50);
+			}
+		}
+	}
+
+	private BufferedReader getReader(int shard) throws Exception {
+		Socket socket= fSockets.get(shard);
+		socket.setSoTimeout((int) TIMEOUT);
+		return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+	}
+
+	private static ILaunchConfigurationWorkingCopy createConfiguration() throws Exception {
+		ILaunchConfigurationType type= DebugPlugin.getDefault().getLaunchManager().getLaunchConfigurationType(JUnitLaunchConfigurationConstants.ID_JUNIT_APPLICATION);
+		return type.newInstance(null, "ShardedTestRunSessionTest");
+	}
+
+	private static void startRun(PrintWriter writer, String className) {
+		writer.println("%TESTC  2 v2");
+		writer.println("%TSTTREE1," + className + ",true,2");
+		writer.println("%TSTTREE2,test1(" + className + "),false,1");
+		writer.println("%TSTTREE3,test2(" + className + "),false,1");
+	}
+
+	private static void runTests(PrintWriter writer, String className, boolean failSecond) {
+		writer.println("%TESTS  2,test1(" + className + ")");
+		writer.println("%TESTE  2,test1(" + className + ")");
+		writer.println("%TESTS  3,test2(" + className + ")");
+		if (failSecond) {
+			writer.println("%FAILED 3,test2(" + className + ")");
+			writer.println("%TRACES ");
+			writer.println("junit.framework.AssertionFailedError");
+			writer.println("%TRACEE ");
+		}
+		writer.println("%TESTE  3,test2(" + className + ")");
+	}
+
+	private void waitUntilFinished() throws InterruptedException {
+		long end= System.currentTimeMillis() + TIMEOUT;
+		while (!fListener.isFinished()) {
+			assertTrue("session did not finish", System.currentTimeMillis() < end);
+			Thread.sleep(20);
+		}
+	}
+
+	private static Set<String> getChildNames(TestRunSession session) {
+		Set<String> names= new HashSet<>();
+		ITestElement[] children= session.getTestRoot().getChildren();
+		for (int i= 0; i < children.length; i++) {
+			TestSuiteElement suite= (TestSuiteElement) children[i];
+			assertEquals(2, suite.getChildren().length);
+			names.add(suite.getTestName());
+		}
+		return names;
+	}
+
+	public void testMergedResults() throws Exception {
+		TestRunSession session= startSession(2);
+		PrintWriter shard0= connect(0);
+		PrintWriter shard1= connect(1);
+
+		// the test runners use the same ids, their tree entries are interleaved
+		startRun(shard0, "p.ATest");
+		startRun(shard1, "p.BTest");
+		runTests(shard1, "p.BTest", true);
+		runTests(shard0, "p.ATest", false);
+		shard0.println("%RUNTIME10");
+		assertFalse(fListener.isFinished());
+		shard1.println("%RUNTIME20");
+		waitUntilFinished();
+
+		assertEquals(1, fListener.fStarted);
+		assertEquals(1, fListener.fEnded);
+		assertEquals(0, fListener.fStopped + fListener.fTerminated);
+		assertFalse(session.isRunning());
+		assertFalse(session.isStopped());
+
+		assertEquals(4, session.getTotalCount());
+		assertEquals(4, session.getStartedCount());
+		assertEquals(1, session.getFailureCount());
+
+		Set<String> expected= new HashSet<>();
+		expected.add("p.ATest");
+		expected.add("p.BTest");
+		assertEquals(expected, getChildNames(session));
+
+		assertEquals("test2", ((TestCaseElement) session.getTestElement("0:3")).getTestMethodName());
+		assertEquals("p.ATest", ((TestCaseElement) session.getTestElement("0:3")).getTestClassName());
+		assertEquals("p.BTest", ((TestCaseElement) session.getTestElement("1:3")).getTestClassName());
+		assertEquals(Status.OK, session.getTestElement("0:3").getStatus());
+		assertEquals(Status.FAILURE, session.getTestElement("1:3").getStatus());
+	}
+
+	public void testStoppedShard() throws Exception {
+		TestRunSession session= startSession(2);
+		PrintWriter shard0= connect(0);
+		PrintWriter shard1= connect(1);
+
+		startRun(shard0, "p.ATest");
+		startRun(shard1, "p.BTest");
+		runTests(shard0, "p.ATest", false);
+		shard0.println("%TSTSTP 10");
+		runTests(shard1, "p.BTest", false);
+		shard1.println("%RUNTIME20");
+		waitUntilFinished();
+
+		assertEquals(1, fListener.fStopped);
+		assertEquals(0, fListener.fEnded + fListener.fTerminated);
+		assertTrue(session.isStopped());
+		assertEquals(4, session.getStartedCount());
+	}
+
+	public void testShardProcessExitsBeforeConnect() throws Exception {
+		TestRunSession session= startSession(2);
+		TestProcess process0= new TestProcess(fLaunch, fPorts[0]);
+		TestProcess process1= new TestProcess(fLaunch, fPorts[1]);
+		// the processes are matched by their port, not by their order
+		fLaunch.addProcess(process1);
+		fLaunch.addProcess(process0);
+
+		PrintWriter shard0= connect(0);
+		startRun(shard0, "p.ATest");
+		runTests(shard0, "p.ATest", false);
+		shard0.println("%RUNTIME10");
+
+		long end= System.currentTimeMillis() + TIMEOUT;
+		while (fListener.getTestsEnded() < 2) {
+			assertTrue("tests did not end", System.currentTimeMillis() < end);
+			Thread.sleep(20);
+		}
+		assertFalse(fListener.isFinished());
+		assertTrue(session.isRunning());
+
+		// the second test runner never connects
+		DebugPlugin.getDefault().fireDebugEventSet(new DebugEvent[] { new DebugEvent(process1, DebugEvent.TERMINATE) });
+		waitUntilFinished();
+
+		assertEquals(1, fListener.fTerminated);
+		assertFalse(session.isRunning());
+		assertEquals(2, session.getStartedCount());
+		assertEquals(1, session.getTestRoot().getChildren().length);
+	}
+
+	public void testShardConnectTimeout() throws Exception {
+		ILaunchConfigurationWorkingCopy configuration= createConfiguration();
+		configuration.setAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_CONNECT_TIMEOUT, 1);
+		fLaunch= new Launch(configuration, ILaunchManager.RUN_MODE, null);
+		TestRunSession session= startSession(2);
+
+		PrintWriter shard0= connect(0);
+		startRun(shard0, "p.ATest");
+		runTests(shard0, "p.ATest", false);
+		shard0.println("%RUNTIME10");
+
+		// the second test runner never connects and has no process
+		waitUntilFinished();
+
+		assertEquals(1, fListener.fTerminated);
+		assertFalse(session.isRunning());
+		assertEquals(2, session.getStartedCount());
+	}
+
+	public void testStopOnFailureStopsOtherShards() throws Exception {
+		ILaunchConfigurationWorkingCopy configuration= createConfiguration();
+		configuration.setAttribute(JUnitLaunchConfigurationConstants.ATTR_STOP_ON_FIRST_FAILURE, true);
+		fLaunch= new Launch(configuration, ILaunchManager.RUN_MODE, null);
+		TestRunSession session= startSession(2);
+		PrintWriter shard0= connect(0);
+		PrintWriter shard1= connect(1);
+		BufferedReader reader1= getReader(1);
+
+		startRun(shard0, "p.ATest");
+		startRun(shard1, "p.BTest");
+		runTests(shard0, "p.ATest", true);
+
+		// the failed test runner stops itself, the other one is stopped by the session
+		assertEquals(MessageIds.TEST_STOP, reader1.readLine());
+		shard0.println("%TSTSTP 10");
+		shard1.println("%TSTSTP 20");
+		waitUntilFinished();
+
+		assertEquals(1, fListener.fStopped);
+		assertTrue(session.isStopped());
+		assertEquals(1, session.getFailureCount());
+	}
+}
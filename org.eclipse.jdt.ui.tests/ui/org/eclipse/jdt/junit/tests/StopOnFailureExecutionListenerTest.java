@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.internal.junit.runner.IListensToTestExecutions;
+import org.eclipse.jdt.internal.junit.runner.ITestIdentifier;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
+import org.eclipse.jdt.internal.junit.runner.StopOnFailureExecutionListener;
+import org.eclipse.jdt.internal.junit.runner.TestReferenceFailure;
+
+import junit.framework.TestCase;
+
+public class StopOnFailureExecutionListenerTest extends TestCase {
+
+	private static class TestIdentifier implements ITestIdentifier {
+		private final String fName;
+
+		public TestIdentifier(String name) {
+			fName= name;
+		}
+
+		@Override
+		public String getName() {
+			return fName;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return fName;
+		}
+
+		@Override
+		public String getParameterTypes() {
+			return null;
+		}
+
+		@Override
+		public String getUniqueId() {
+			return null;
+		}
+	}
+
+	private static class RecordingListener implements IListensToTestExecutions {
+		List<String> fEvents= new ArrayList<>();
+
+		@Override
+		public void notifyTestFailed(TestReferenceFailure failure) {
+			fEvents.add("failed " + failure.getTest().getName());
+		}
+
+		@Override
+		public void notifyTestStarted(ITestIdentifier test) {
+			fEvents.add("started " + test.getName());
+		}
+
+		@Override
+		public void notifyTestEnded(ITestIdentifier test) {
+			fEvents.add("ended " + test.getName());
+		}
+	}
+
+	private static class TestRunner extends RemoteTestRunner {
+		int fStopCount;
+
+		@Override
+		protected void stop() {
+			fStopCount++;
+		}
+	}
+
+	private RecordingListener fListener;
+	private TestRunner fRunner;
+	private StopOnFailureExecutionListener fStopOnFailureListener;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fListener= new RecordingListener();
+		fRunner= new TestRunner();
+		fStopOnFailureListener= new StopOnFailureExecutionListener(fListener, fRunner);
+	}
+
+	private void runTest(String name, String failureStatus) {
+		ITestIdentifier test= new TestIdentifier(name);
+		fStopOnFailureListener.notifyTestStarted(test);
+		if (failureStatus != null) {
+			fStopOnFailureListener.notifyTestFailed(new TestReferenceFailure(test, failureStatus, "trace"));
+		}
+		fStopOnFailureListener.notifyTestEnded(test);
+	}
+
+	public void testPassed() throws Exception {
+		runTest("test1(p.ATest)", null);
+
+		assertEquals(0, fRunner.fStopCount);
+		assertEquals("[started test1(p.ATest), ended test1(p.ATest)]", fListener.fEvents.toString());
+	}
+
+	public void testFailed() throws Exception {
+		runTest("test1(p.ATest)", null);
+		assertEquals(0, fRunner.fStopCount);
+		runTest("test2(p.ATest)", MessageIds.TEST_FAILED);
+
+		assertEquals(1, fRunner.fStopCount);
+		assertEquals("[started test1(p.ATest), ended test1(p.ATest), started test2(p.ATest), failed test2(p.ATest), ended test2(p.ATest)]",
+				fListener.fEvents.toString());
+	}
+
+	public void testError() throws Exception {
+		runTest("test1(p.ATest)", MessageIds.TEST_ERROR);
+
+		assertEquals(1, fRunner.fStopCount);
+	}
+
+	public void testAssumptionFailed() throws Exception {
+		String name= MessageIds.ASSUMPTION_FAILED_TEST_PREFIX + "test1(p.ATest)";
+		runTest(name, MessageIds.TEST_FAILED);
+
+		assertEquals(0, fRunner.fStopCount);
+		assertEquals("[started " + name + ", failed " + name + ", ended " + name + "]", fListener.fEvents.toString());
+	}
+}
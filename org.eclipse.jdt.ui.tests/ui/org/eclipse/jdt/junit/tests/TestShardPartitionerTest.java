@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+
+import org.eclipse.jdt.internal.junit.launcher.TestHistoryStore.History;
+import org.eclipse.jdt.internal.junit.launcher.TestShardPartitioner;
+
+
+public class TestShardPartitionerTest extends TestCase {
+
+	private IJavaProject fProject;
+	private IPackageFragment fPackage;
+	private Map<String, History> fHistories;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject= JavaProjectHelper.createJavaProject("TestProject", "bin");
+		fPackage= JavaProjectHelper.addSourceContainer(fProject, "src").getPackageFragment("p");
+		fHistories= new HashMap<>();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.delete(fProject);
+		super.tearDown();
+	}
+
+	private IType type(String name) {
+		return fPackage.getCompilationUnit(name + ".java").getType(name);
+	}
+
+	private void setDuration(String name, long duration) {
+		fHistories.put("p." + name, new History(1, 0, 0, duration));
+	}
+
+	private static void assertShard(IType[] shard, String... expected) {
+		assertEquals(expected.length, shard.length);
+		for (int i= 0; i < expected.length; i++) {
+			assertEquals(expected[i], shard[i].getElementName());
+		}
+	}
+
+	public void testBalancedByDuration() throws Exception {
+		setDuration("A", 100);
+		setDuration("B", 60);
+		setDuration("C", 50);
+		setDuration("D", 10);
+
+		IType[][] shards= TestShardPartitioner.partition(new IType[] { type("D"), type("C"), type("B"), type("A") }, 2, fHistories);
+		assertEquals(2, shards.length);
+		assertShard(shards[0], "A", "D");
+		assertShard(shards[1], "B", "C");
+	}
+
+	public void testUnknownDuration() throws Exception {
+		setDuration("A", 300);
+		setDuration("B", 100);
+		setDuration("D", -1);
+
+		// C and D count as the average of 200, ties in the given order
+		IType[][] shards= TestShardPartitioner.partition(new IType[] { type("A"), type("B"), type("C"), type("D") }, 2, fHistories);
+		assertShard(shards[0], "A", "B");
+		assertShard(shards[1], "C", "D");
+	}
+
+	public void testNoHistory() throws Exception {
+		IType[][] shards= TestShardPartitioner.partition(new IType[] { type("A"), type("B"), type("C"), type("D"), type("E") }, 2, fHistories);
+		assertShard(shards[0], "A", "C", "E");
+		assertShard(shards[1], "B", "D");
+	}
+
+	public void testNoEmptyShard() throws Exception {
+		setDuration("A", 1000);
+		setDuration("B", 1);
+		setDuration("C", 1);
+
+		IType[][] shards= TestShardPartitioner.partition(new IType[] { type("A"), type("B"), type("C") }, 3, fHistories);
+		assertEquals(3, shards.length);
+		assertShard(shards[0], "A");
+		assertShard(shards[1], "B");
+		assertShard(shards[2], "C");
+	}
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import org.eclipse.jdt.internal.corext.dom.ASTBatchParser;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+
+public class ASTBatchParserTest extends TestCase {
+
+	private static final Class<ASTBatchParserTest> THIS= ASTBatchParserTest.class;
+
+	/**
+	 * The source size of the test units, half the minimum batch size of the parser.
+	 */
+	private static final int UNIT_SIZE= 32 * 1024;
+
+	private static final long MIN_BATCH_SIZE= 2 * UNIT_SIZE;
+
+	/**
+	 * Parser with a given initial batch size and heap occupancy, which records the units of each
+	 * batch.
+	 */
+	private static class RecordingBatchParser extends ASTBatchParser {
+
+		private final long fInitialBatchSize;
+		private final double fOccupancy;
+		final List<List<ICompilationUnit>> fBatches= new ArrayList<>();
+
+		RecordingBatchParser(long initialBatchSize, double occupancy) {
+			fInitialBatchSize= initialBatchSize;
+			fOccupancy= occupancy;
+		}
+
+		@Override
+		protected ASTParser createParser(IJavaProject project) {
+			fBatches.add(new ArrayList<ICompilationUnit>());
+			return super.createParser(project);
+		}
+
+		@Override
+		protected long getInitialBatchSize() {
+			return fInitialBatchSize;
+		}
+
+		@Override
+		protected double getOldGenerationOccupancy() {
+			return fOccupancy;
+		}
+
+		static double occupancy(MemoryUsage usage) {
+			return getOccupancy(usage);
+		}
+
+		void parse(ICompilationUnit[] units) {
+			createASTs(units, new String[0], new ASTRequestor() {
+				@Override
+				public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+					fBatches.get(fBatches.size() - 1).add(source);
+				}
+			}, null);
+		}
+
+		int[] getBatchSizes() {
+			int[] result= new int[fBatches.size()];
+			for (int i= 0; i < result.length; i++) {
+				result[i]= fBatches.get(i).size();
+			}
+			return result;
+		}
+	}
+
+	private IJavaProject fJavaProject1;
+	private IPackageFragment fPack1;
+
+	public ASTBatchParserTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJavaProject1= ProjectTestSetup.getProject();
+		IPackageFragmentRoot root1= JavaProjectHelper.addSourceContainer(fJavaProject1, "src");
+		fPack1= root1.createPackageFragment("pack1", true, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.clear(fJavaProject1, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	private ICompilationUnit createUnit(String name, int size) throws Exception {
+		StringBuilder buf= new StringBuilder();
+		buf.append("package pack1;\n");
+		buf.append("public class ").append(name).append(" {\n");
+		buf.append("}\n");
+		buf.append("//");
+		while (buf.length() < size - 1) {
+			buf.append('x');
+		}
+		buf.append('\n');
+		return fPack1.createCompilationUnit(name + ".java", buf.toString(), true, null);
+	}
+
+	private ICompilationUnit[] createUnits(int count) throws Exception {
+		ICompilationUnit[] units= new ICompilationUnit[count];
+		for (int i= 0; i < count; i++) {
+			units[i]= createUnit("C" + i, UNIT_SIZE);
+		}
+		return units;
+	}
+
+	private static void assertBatchSizes(int[] expected, RecordingBatchParser parser) {
+		assertEquals(Arrays.toString(expected), Arrays.toString(parser.getBatchSizes()));
+	}
+
+	public void testSingleBatch() throws Exception {
+		ICompilationUnit[] units= createUnits(4);
+		RecordingBatchParser parser= new RecordingBatchParser(4 * UNIT_SIZE, 0.9);
+		parser.parse(units);
+
+		assertBatchSizes(new int[] { 4 }, parser);
+	}
+
+	public void testBatchBoundaries() throws Exception {
+		ICompilationUnit[] units= new ICompilationUnit[] {
+				createUnit("A", UNIT_SIZE),
+				createUnit("B", 3 * UNIT_SIZE),
+				createUnit("C", UNIT_SIZE),
+				createUnit("D", UNIT_SIZE),
+				createUnit("E", UNIT_SIZE)
+		};
+		// the size of the batches is kept if the occupancy is unknown
+		RecordingBatchParser parser= new RecordingBatchParser(2 * UNIT_SIZE, -1);
+		parser.parse(units);
+
+		// a unit larger than a batch is parsed on its own
+		assertBatchSizes(new int[] { 1, 1, 2, 1 }, parser);
+		assertEquals("B.java", parser.fBatches.get(1).get(0).getElementName());
+	}
+
+	public void testMinimumBatchSize() throws Exception {
+		ICompilationUnit[] units= createUnits(18);
+		RecordingBatchParser parser= new RecordingBatchParser(8 * UNIT_SIZE, 0.9);
+		parser.parse(units);
+
+		// halved after each batch down to the minimum size
+		assertBatchSizes(new int[] { 8, 4, 2, 2, 2 }, parser);
+	}
+
+	public void testMaximumBatchSize() throws Exception {
+		ICompilationUnit[] units= createUnits(31);
+		RecordingBatchParser parser= new RecordingBatchParser(MIN_BATCH_SIZE, 0.1);
+		parser.parse(units);
+
+		// grown by half after each batch up to four times the initial size
+		assertBatchSizes(new int[] { 2, 3, 4, 6, 8, 8 }, parser);
+	}
+
+	public void testOccupancy() throws Exception {
+		// collection usage is not supported by the pool
+		assertEquals(-1.0, RecordingBatchParser.occupancy(null), 0);
+		// the maximum size of the pool is undefined
+		assertEquals(-1.0, RecordingBatchParser.occupancy(new MemoryUsage(0, 50, 100, -1)), 0);
+		assertEquals(0.25, RecordingBatchParser.occupancy(new MemoryUsage(0, 50, 100, 200)), 0);
+	}
+}
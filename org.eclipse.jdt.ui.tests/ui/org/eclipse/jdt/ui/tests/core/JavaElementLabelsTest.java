@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -35,6 +35,8 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ui.JavaElementLabels;
 import org.eclipse.jdt.ui.PreferenceConstants;
 
+import org.eclipse.jdt.internal.core.manipulation.JavaElementLabelCache;
+
 
 public class JavaElementLabelsTest extends CoreTests {
 
@@ -102,6 +104,32 @@ public class JavaElementLabelsTest extends CoreTests {
 		assertEqualString(lab, "TestSetupProject/src - org.test.Outer");
 	}
 
+	public void testMethodLabelAfterChange() throws Exception {
+
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+
+		IPackageFragment pack1= sourceFolder.createPackageFragment("org.test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("public class Outer {\n");
+		buf.append("    public void foo(int first) {\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String content= buf.toString();
+		ICompilationUnit cu= pack1.createCompilationUnit("Outer.java", content, false, null);
+
+		IJavaElement elem= cu.getElementAt(content.indexOf("foo"));
+		long flags= JavaElementLabels.M_PARAMETER_NAMES | JavaElementLabels.M_PARAMETER_TYPES;
+		assertExpectedLabel(elem, "foo(int first)", flags);
+		assertExpectedLabel(elem, "foo(int first)", flags);
+
+		cu.getBuffer().setContents(content.replace("first", "second"));
+		cu.save(null, true);
+
+		elem= cu.getElementAt(content.indexOf("foo"));
+		assertExpectedLabel(elem, "foo(int second)", flags);
+	}
+
 	public void testTypeLabelInner() throws Exception {
 
 		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
@@ -579,6 +607,82 @@ public class JavaElementLabelsTest extends CoreTests {
 		assertEqualString(lab, "asList(Object...)");
 	}
 
+	public void testMethodLabelCachedWhileReconciling() throws Exception {
+
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+
+		IPackageFragment pack1= sourceFolder.createPackageFragment("org.test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("public class Outer {\n");
+		buf.append("    public int foo(int first) {\n");
+		buf.append("        return 1;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String content= buf.toString();
+		ICompilationUnit cu= pack1.createCompilationUnit("Outer.java", content, false, null);
+
+		final int[] computed= new int[1];
+		JavaElementLabelCache.ILabelComputer computer= new JavaElementLabelCache.ILabelComputer() {
+			@Override
+			public String computeLabel(IJavaElement element, long flags) {
+				computed[0]++;
+				return JavaElementLabels.getTextLabel(element, flags);
+			}
+		};
+		long flags= JavaElementLabels.M_PARAMETER_TYPES | JavaElementLabels.M_APP_RETURNTYPE;
+		JavaElementLabelCache cache= new JavaElementLabelCache();
+		cache.install();
+		cu.becomeWorkingCopy(null);
+		try {
+			IJavaElement elem= cu.getElementAt(content.indexOf("foo"));
+			assertEqualString(cache.getLabel(elem, flags, computer), "foo(int) : int");
+			assertEqualString(cache.getLabel(elem, flags, computer), "foo(int) : int");
+			assertEquals(1, computed[0]);
+
+			// a change in the method body keeps the label
+			cu.getBuffer().setContents(content.replace("return 1;", "return 2;"));
+			cu.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			assertEqualString(cache.getLabel(elem, flags, computer), "foo(int) : int");
+			assertEquals(1, computed[0]);
+
+			// a change of the return type invalidates the label
+			cu.getBuffer().setContents(content.replace("public int", "public long"));
+			cu.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			assertEqualString(cache.getLabel(elem, flags, computer), "foo(int) : long");
+			assertEquals(2, computed[0]);
+		} finally {
+			cu.discardWorkingCopy();
+			cache.dispose();
+		}
+	}
+
+	public void testMethodLabelResolvedReferences() throws Exception {
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+
+		IPackageFragment pack1= sourceFolder.createPackageFragment("org.test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("import java.util.Arrays;\n");
+		buf.append("public class Varargs {\n");
+		buf.append("    void foo() {\n");
+		buf.append("        Arrays.asList(\"a\");\n");
+		buf.append("        Arrays.asList(Integer.valueOf(1));\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String content= buf.toString();
+		ICompilationUnit cu= pack1.createCompilationUnit("Varargs.java", content, false, null);
+
+		IJavaElement stringElem= cu.codeSelect(content.indexOf("asList"), 0)[0];
+		IJavaElement integerElem= cu.codeSelect(content.lastIndexOf("asList"), 0)[0];
+		assertEquals(stringElem.getHandleIdentifier(), integerElem.getHandleIdentifier());
+
+		long flags= JavaElementLabels.M_PARAMETER_TYPES | JavaElementLabels.USE_RESOLVED;
+		assertExpectedLabel(stringElem, "asList(String...)", flags);
+		assertExpectedLabel(integerElem, "asList(Integer...)", flags);
+		assertExpectedLabel(stringElem, "asList(String...)", flags);
+	}
+
 	public void testMethodLabelVarargsReference1() throws Exception {
 		assertMethodLabelVarargsReference("1");
 	}
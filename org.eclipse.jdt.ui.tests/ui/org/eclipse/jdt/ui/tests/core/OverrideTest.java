@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.jdt.ui.tests.core;
 
 import java.util.Arrays;
+import java.util.HashSet;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -32,6 +33,7 @@ import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 
+import org.eclipse.jdt.internal.corext.dom.BindingHierarchyCache;
 import org.eclipse.jdt.internal.corext.dom.Bindings;
 
 import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
@@ -773,4 +775,86 @@ public class OverrideTest extends TestCase {
 		assertNull(Bindings.findOverriddenMethod(efoo, true));
 	}
 
+	public void testCachedHierarchyLookups() throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package override.test;\n");
+		buf.append("public interface ITop {\n");
+		buf.append("    void m(Integer i);\n");
+		buf.append("}\n");
+		buf.append("\n");
+		buf.append("class Middle1 implements ITop {\n");
+		buf.append("    public void m(Integer arg) {}\n");
+		buf.append("}\n");
+		buf.append("\n");
+		buf.append("abstract class Middle2 implements ITop {\n");
+		buf.append("}\n");
+		buf.append("class Sub1 extends Middle1 {\n");
+		buf.append("    public void m(Integer arg) {}\n");
+		buf.append("}\n");
+		buf.append("\n");
+		buf.append("class Sub2 extends Middle2 {\n");
+		buf.append("    public void m(Integer arg) {}\n");
+		buf.append("}\n");
+		ICompilationUnit cu= fPackage.createCompilationUnit("ITop.java", buf.toString(), false, null);
+
+		CompilationUnit astRoot= createAST(cu);
+		IProblem[] problems= astRoot.getProblems();
+		assertTrue(problems.length == 0);
+
+		ITypeBinding iTop= ((TypeDeclaration) astRoot.types().get(0)).resolveBinding();
+		IMethodBinding iTopInteger= iTop.getDeclaredMethods()[0];
+		ITypeBinding middle1= ((TypeDeclaration) astRoot.types().get(1)).resolveBinding();
+		IMethodBinding middle1Integer= middle1.getDeclaredMethods()[0];
+		ITypeBinding sub1= ((TypeDeclaration) astRoot.types().get(3)).resolveBinding();
+		IMethodBinding sub1Integer= sub1.getDeclaredMethods()[0];
+		ITypeBinding sub2= ((TypeDeclaration) astRoot.types().get(4)).resolveBinding();
+		IMethodBinding sub2Integer= sub2.getDeclaredMethods()[0];
+
+		ITypeBinding[] superTypes= Bindings.getAllSuperTypes(sub1);
+		try (BindingHierarchyCache cache= BindingHierarchyCache.open()) {
+			for (int i= 0; i < 2; i++) {
+				assertNull(Bindings.findOverriddenMethod(iTopInteger, true));
+				assertSame(iTopInteger, Bindings.findOverriddenMethod(middle1Integer, true));
+				assertSame(middle1Integer, Bindings.findOverriddenMethod(sub1Integer, true));
+				assertSame(iTopInteger, Bindings.findOverriddenMethod(sub2Integer, true));
+				assertEquals(Arrays.asList(middle1Integer), Bindings.findOverriddenMethods(sub1Integer, true, false));
+
+				assertEquals(new HashSet<>(Arrays.asList(superTypes)), new HashSet<>(Arrays.asList(Bindings.getAllSuperTypes(sub1))));
+				assertTrue(Bindings.isSuperType(iTop, sub2));
+				assertFalse(Bindings.isSuperType(middle1, sub2));
+			}
+			// results are copies which clients may modify
+			Bindings.findOverriddenMethods(sub1Integer, true, false).clear();
+			assertEquals(1, Bindings.findOverriddenMethods(sub1Integer, true, false).size());
+		}
+	}
+
+	public void testCachedHierarchyLookupsOfTwoASTs() throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package override.test;\n");
+		buf.append("class Top {\n");
+		buf.append("    public void m() {}\n");
+		buf.append("}\n");
+		buf.append("class Sub extends Top {\n");
+		buf.append("    public void m() {}\n");
+		buf.append("}\n");
+		ICompilationUnit cu= fPackage.createCompilationUnit("Top.java", buf.toString(), false, null);
+
+		try (BindingHierarchyCache cache= BindingHierarchyCache.open()) {
+			for (int i= 0; i < 2; i++) {
+				// the bindings of each AST have the same keys
+				CompilationUnit astRoot= createAST(cu);
+				ITypeBinding top= ((TypeDeclaration) astRoot.types().get(0)).resolveBinding();
+				IMethodBinding topM= top.getDeclaredMethods()[0];
+				ITypeBinding sub= ((TypeDeclaration) astRoot.types().get(1)).resolveBinding();
+				IMethodBinding subM= sub.getDeclaredMethods()[0];
+
+				assertSame(topM, Bindings.findOverriddenMethod(subM, true));
+				assertSame(topM, Bindings.findOverriddenMethodInHierarchy(top, subM));
+				assertEquals(Arrays.asList(topM), Bindings.findOverriddenMethods(subM, true, false));
+				assertTrue(Arrays.asList(Bindings.getAllSuperTypes(sub)).contains(top));
+				assertTrue(Bindings.isSuperType(top, sub));
+			}
+		}
+	}
 }
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jdt.core.IJavaProject;
+
+import org.eclipse.jdt.internal.ui.viewsupport.IProblemChangedListener;
+import org.eclipse.jdt.internal.ui.viewsupport.ProblemMarkerManager;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+
+public class ProblemMarkerManagerTest extends TestCase {
+
+	private static final Class<ProblemMarkerManagerTest> THIS= ProblemMarkerManagerTest.class;
+
+	private static class RecordingListener implements IProblemChangedListener {
+		final List<IResource[]> fMarkerChanges= new ArrayList<>();
+
+		@Override
+		public void problemsChanged(IResource[] changedResources, boolean isMarkerChange) {
+			if (isMarkerChange) {
+				fMarkerChanges.add(changedResources);
+			}
+		}
+
+		int getChangeCount(IResource resource) {
+			int count= 0;
+			for (IResource[] resources : fMarkerChanges) {
+				if (Arrays.asList(resources).contains(resource)) {
+					count++;
+				}
+			}
+			return count;
+		}
+	}
+
+	private IJavaProject fJavaProject;
+	private IFile fFile;
+	private ProblemMarkerManager fManager;
+	private RecordingListener fListener;
+
+	public ProblemMarkerManagerTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new TestSuite(THIS);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJavaProject= JavaProjectHelper.createJavaProject("TestProject1", "bin");
+		fFile= fJavaProject.getProject().getFile("problems.txt");
+		fFile.create(new ByteArrayInputStream(new byte[0]), true, null);
+		fManager= new ProblemMarkerManager();
+		fListener= new RecordingListener();
+		fManager.addListener(fListener);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fManager.removeListener(fListener);
+		JavaProjectHelper.delete(fJavaProject);
+	}
+
+	private void createProblemMarker(int line) throws Exception {
+		IMarker marker= fFile.createMarker(IMarker.PROBLEM);
+		marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+		marker.setAttribute(IMarker.LINE_NUMBER, line);
+	}
+
+	/**
+	 * Runs the event loop until the listener has been notified about the file or the timeout has
+	 * expired.
+	 *
+	 * @param timeout the time to wait in milliseconds
+	 * @return the time in milliseconds until the listener has been notified
+	 */
+	private long waitForChange(long timeout) {
+		Display display= Display.getCurrent();
+		long start= System.currentTimeMillis();
+		while (fListener.getChangeCount(fFile) == 0 && System.currentTimeMillis() - start < timeout) {
+			runEventLoop(display);
+		}
+		return System.currentTimeMillis() - start;
+	}
+
+	private static void runEventLoop(long time) {
+		Display display= Display.getCurrent();
+		long start= System.currentTimeMillis();
+		while (System.currentTimeMillis() - start < time) {
+			runEventLoop(display);
+		}
+	}
+
+	private static void runEventLoop(Display display) {
+		if (!display.readAndDispatch()) {
+			display.timerExec(10, () -> {
+				// wake up the display
+			});
+			display.sleep();
+		}
+	}
+
+	public void testBurstIsCoalesced() throws Exception {
+		for (int i= 0; i < 20; i++) {
+			createProblemMarker(i);
+		}
+		waitForChange(5000);
+		runEventLoop(1500);
+
+		assertEquals(1, fListener.getChangeCount(fFile));
+		assertEquals(20, fFile.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_ZERO).length);
+	}
+
+	public void testSingleChangeIsDeliveredPromptly() throws Exception {
+		createProblemMarker(1);
+		long time= waitForChange(5000);
+
+		assertEquals(1, fListener.getChangeCount(fFile));
+		// not delayed up to the maximal coalesce delay
+		assertTrue("change delivered after " + time + "ms", time < 1000);
+	}
+
+	public void testParentsAreNotified() throws Exception {
+		createProblemMarker(1);
+		waitForChange(5000);
+
+		assertEquals(1, fListener.getChangeCount(fFile));
+		assertEquals(1, fListener.getChangeCount(fJavaProject.getProject()));
+	}
+}
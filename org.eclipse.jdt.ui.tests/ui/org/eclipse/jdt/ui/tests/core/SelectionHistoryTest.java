@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.core;
 
+import java.io.File;
 import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -21,6 +22,8 @@ import org.w3c.dom.Element;
 
 import org.eclipse.jdt.internal.corext.util.History;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -134,6 +137,36 @@ public class SelectionHistoryTest extends TestCase {
 
 	}
 
+	private static final class SavedHistory extends History<String, String> {
+
+		static final String FILE_NAME= "SelectionHistoryTest.xml";
+
+		boolean fLockedWhileSaving= true;
+
+		public SavedHistory() {
+			super(FILE_NAME);
+			load();
+		}
+		@Override
+		protected void setAttributes(Object object, Element element) {
+			fLockedWhileSaving&= Thread.holdsLock(this);
+			element.setAttribute("name", (String) object);
+		}
+		@Override
+		protected String createFromElement(Element element) {return element.getAttribute("name");}
+		@Override
+		protected String getKey(String object) {return object;}
+
+		static File getFile() {
+			return JavaPlugin.getDefault().getStateLocation().append(FILE_NAME).toFile();
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		SavedHistory.getFile().delete();
+	}
+
 	public void testOrganizeImportHistory01() throws Exception {
 		History<String, String> history= new TestHistory();
 		Comparator<String> comparator= new TestHistoryComparator(history);
@@ -196,4 +229,53 @@ public class SelectionHistoryTest extends TestCase {
 		assertEquals(strings, expected);
 	}
 
+	public void testOrganizeImportHistory06() throws Exception {
+		History<String, String> history= new TestHistory();
+		history.accessed("a");
+		history.accessed("b");
+		history.accessed("c");
+		history.remove("b");
+
+		assertEquals(0, history.getPosition("a"));
+		assertEquals(-1, history.getPosition("b"));
+		assertEquals(1, history.getPosition("c"));
+		assertEquals(0.5f, history.getNormalizedPosition("a"), 0.0f);
+		assertEquals(0.0f, history.getNormalizedPosition("b"), 0.0f);
+		assertEquals(1.0f, history.getNormalizedPosition("c"), 0.0f);
+		assertFalse(history.contains("b"));
+		assertTrue(history.containsKey("c"));
+	}
+
+	public void testSave() throws Exception {
+		SavedHistory history= new SavedHistory();
+		history.accessed("a");
+		history.accessed("b");
+		history.save();
+		assertTrue(history.fLockedWhileSaving);
+
+		SavedHistory loaded= new SavedHistory();
+		assertEquals(0, loaded.getPosition("a"));
+		assertEquals(1, loaded.getPosition("b"));
+	}
+
+	public void testScheduleSave() throws Exception {
+		SavedHistory history= new SavedHistory();
+		history.accessed("a");
+		history.scheduleSave();
+		history.accessed("b");
+		history.scheduleSave();
+		assertFalse(SavedHistory.getFile().exists());
+
+		long start= System.currentTimeMillis();
+		while (!SavedHistory.getFile().exists() && System.currentTimeMillis() - start < 10000) {
+			Thread.sleep(50);
+		}
+		assertTrue(SavedHistory.getFile().exists());
+		// waits until the background job has written the file
+		history.save();
+		assertTrue(history.fLockedWhileSaving);
+		SavedHistory loaded= new SavedHistory();
+		assertEquals(1, loaded.getPosition("b"));
+	}
+
 }
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.typehierarchy.TypeHierarchySnapshots;
+import org.eclipse.jdt.internal.ui.typehierarchy.TypeHierarchySnapshots.Snapshot;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+
+public class TypeHierarchySnapshotsTest extends TestCase {
+
+	private static final Class<TypeHierarchySnapshotsTest> THIS= TypeHierarchySnapshotsTest.class;
+
+	private IJavaProject fJavaProject1;
+	private IPackageFragment fPack1;
+	private TypeHierarchySnapshots fSnapshots;
+
+	public TypeHierarchySnapshotsTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJavaProject1= ProjectTestSetup.getProject();
+		IPackageFragmentRoot root1= JavaProjectHelper.addSourceContainer(fJavaProject1, "src");
+		fPack1= root1.createPackageFragment("pack1", true, null);
+		fSnapshots= new TypeHierarchySnapshots();
+		deleteStoredSnapshots();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fSnapshots.dispose();
+		deleteStoredSnapshots();
+		JavaProjectHelper.clear(fJavaProject1, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	private static void deleteStoredSnapshots() {
+		File[] files= JavaPlugin.getDefault().getStateLocation().append("typehierarchies").toFile().listFiles();
+		if (files != null) {
+			for (int i= 0; i < files.length; i++) {
+				files[i].delete();
+			}
+		}
+	}
+
+	private IType createType(String name, String source) throws Exception {
+		ICompilationUnit cu= fPack1.getCompilationUnit(name + ".java");
+		return cu.createType(source, null, true, null);
+	}
+
+	public void testNoSnapshot() throws Exception {
+		IType typeA= createType("A", "public class A {\n}\n");
+		assertNull(fSnapshots.acquire(typeA, false, null));
+	}
+
+	public void testReleasedHierarchy() throws Exception {
+		IType typeA= createType("A", "public class A {\n}\n");
+		IType typeB= createType("B", "public class B extends A {\n}\n");
+
+		ITypeHierarchy hierarchy= typeA.newTypeHierarchy(null);
+		fSnapshots.release(typeA, false, hierarchy);
+		assertNull(fSnapshots.acquire(typeA, true, null));
+
+		// loaded from the stored hierarchy
+		Snapshot snapshot= fSnapshots.acquire(typeA, false, null);
+		assertNotNull(snapshot);
+		assertNotSame(hierarchy, snapshot.getHierarchy());
+		assertTrue(snapshot.isCurrent());
+		assertEquals(typeA, snapshot.getHierarchy().getType());
+		assertTrue(Arrays.asList(snapshot.getHierarchy().getSubtypes(typeA)).contains(typeB));
+
+		// handed over to the caller, which keeps it up to date
+		snapshot= fSnapshots.acquire(typeA, false, null);
+		assertNotNull(snapshot);
+		assertFalse(snapshot.isCurrent());
+	}
+
+	public void testChangedHierarchy() throws Exception {
+		IType typeA= createType("A", "public class A {\n}\n");
+		createType("B", "public class B extends A {\n}\n");
+
+		ITypeHierarchy hierarchy= typeA.newTypeHierarchy(null);
+		fSnapshots.release(typeA, false, hierarchy);
+		createType("C", "public class C extends A {\n}\n");
+
+		Snapshot snapshot= fSnapshots.acquire(typeA, false, null);
+		assertNotNull(snapshot);
+		assertFalse(snapshot.isCurrent());
+	}
+
+	public void testNotCurrentAfterDispose() throws Exception {
+		IType typeA= createType("A", "public class A {\n}\n");
+
+		fSnapshots.release(typeA, false, typeA.newTypeHierarchy(null));
+		fSnapshots.dispose();
+
+		Snapshot snapshot= fSnapshots.acquire(typeA, false, null);
+		assertNotNull(snapshot);
+		assertFalse(snapshot.isCurrent());
+	}
+
+	public void testStoredHierarchy() throws Exception {
+		IType typeA= createType("A", "public class A {\n}\n");
+		IType typeB= createType("B", "public class B extends A {\n}\n");
+
+		fSnapshots.store(typeA, false, typeA.newTypeHierarchy(null), null);
+
+		Snapshot snapshot= fSnapshots.acquire(typeA, false, null);
+		assertNotNull(snapshot);
+		assertFalse(snapshot.isCurrent());
+		assertEquals(typeA, snapshot.getHierarchy().getType());
+		assertTrue(Arrays.asList(snapshot.getHierarchy().getSubtypes(typeA)).contains(typeB));
+
+		assertNull(fSnapshots.acquire(typeA, true, null));
+	}
+
+	public void testStoredHierarchyAfterClasspathChange() throws Exception {
+		IType typeA= createType("A", "public class A {\n}\n");
+		createType("B", "public class B extends A {\n}\n");
+
+		fSnapshots.store(typeA, false, typeA.newTypeHierarchy(null), null);
+		JavaProjectHelper.addSourceContainer(fJavaProject1, "src2");
+
+		assertNull(fSnapshots.acquire(typeA, false, null));
+	}
+
+	public void testStoredHierarchyAfterLibraryChange() throws Exception {
+		IType typeA= createType("A", "public class A {\n}\n");
+		IPackageFragmentRoot library= JavaProjectHelper.addClassFolder(fJavaProject1, "lib", null, null);
+
+		fSnapshots.store(typeA, false, typeA.newTypeHierarchy(null), null);
+		assertNotNull(fSnapshots.acquire(typeA, false, null));
+
+		// the library is rebuilt
+		File file= library.getResource().getLocation().toFile();
+		assertTrue(file.setLastModified(file.lastModified() - 10000));
+
+		assertNull(fSnapshots.acquire(typeA, false, null));
+	}
+}
@@ -164,6 +164,50 @@ public class PackageCacheTest extends TestCase {
 				expectedPackagesWithSingleChild, actualPackagesWithSingleChild);
 	}
 
+	@Test
+	public void testPackageAdded() throws Exception {
+		assertEquals(Arrays.asList(package_f_g), packageCache.getDirectChildren(package_f));
+
+		IPackageFragment package_f_h= src.createPackageFragment("f.h", true, new NullProgressMonitor());
+		packageCache.packageAdded(package_f_h);
+		packageCache.packageAdded(package_f_h);
+
+		assertEquals("method returned wrong results",
+				Arrays.asList(package_f_g, package_f_h), packageCache.getDirectChildren(package_f));
+		assertFalse(packageCache.hasSingleChild(package_f));
+	}
+
+	@Test
+	public void testPackageRemoved() throws Exception {
+		assertEquals(Arrays.asList(package_a_b_c_d1, package_a_b_c_d2), packageCache.getDirectChildren(package_a_b_c));
+
+		package_a_b_c_d2.delete(true, new NullProgressMonitor());
+		packageCache.packageRemoved(package_a_b_c_d2);
+
+		assertEquals("method returned wrong results",
+				Arrays.asList(package_a_b_c_d1), packageCache.getDirectChildren(package_a_b_c));
+		assertEquals(package_a_b_c_d1, packageCache.getSingleChild(package_a_b_c));
+	}
+
+	@Test
+	public void testIncrementalUpdatesAgainstOldImplementation() throws Exception {
+		packageCache.getDirectChildren(package_a);
+
+		IProgressMonitor monitor= new NullProgressMonitor();
+		IPackageFragment package_a_b_e_x= src.createPackageFragment("a.b.e.x", true, monitor);
+		packageCache.packageAdded(package_a_b_e_x);
+		package_f_g.delete(true, monitor);
+		packageCache.packageRemoved(package_f_g);
+
+		List<IPackageFragment> packages= new ArrayList<>(allPackages());
+		packages.remove(package_f_g);
+		packages.add(package_a_b_e_x);
+		for (IPackageFragment packageFragment : packages) {
+			assertEquals("wrong single child for " + packageFragment.getElementName(),
+					findSinglePackageChild(packageFragment), packageCache.getSingleChild(packageFragment));
+		}
+	}
+
 	private Map<IPackageFragment, IPackageFragment> actualSingleChildren() throws Exception {
 		List<IPackageFragment> allPackages= allPackages();
 		Map<IPackageFragment, IPackageFragment> actualSingleChildren= new LinkedHashMap<>();
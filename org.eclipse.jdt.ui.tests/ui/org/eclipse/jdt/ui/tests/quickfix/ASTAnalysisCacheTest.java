@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.quickfix;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.manipulation.TypeKinds;
+
+import org.eclipse.jdt.internal.corext.dom.ASTAnalysisCache;
+import org.eclipse.jdt.internal.corext.dom.ScopeAnalyzer;
+
+import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
+
+import org.eclipse.jdt.internal.ui.text.correction.ProblemLocationCore;
+import org.eclipse.jdt.internal.ui.text.correction.SimilarElement;
+import org.eclipse.jdt.internal.ui.text.correction.SimilarElementsRequestor;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the analyses shared while the proposals of one quick fix invocation are computed.
+ */
+public class ASTAnalysisCacheTest extends QuickFixTest {
+
+	private static final Class<ASTAnalysisCacheTest> THIS= ASTAnalysisCacheTest.class;
+
+	private static final String CONTENT= "package test1;\npublic class E {\n    Foobax foo;\n}\n";
+
+	private IJavaProject fJProject1;
+	private IPackageFragment fPackage;
+
+	public ASTAnalysisCacheTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJProject1= ProjectTestSetup.getProject();
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		fPackage= sourceFolder.createPackageFragment("test1", false, null);
+		fPackage.createCompilationUnit("Foobar.java", "package test1;\npublic class Foobar {\n}\n", false, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.clear(fJProject1, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	private static Name getName(CompilationUnit astRoot, String name) {
+		return (Name) NodeFinder.perform(astRoot, CONTENT.indexOf(name), name.length());
+	}
+
+	private static boolean contains(SimilarElement[] elements, String fullName) {
+		for (int i= 0; i < elements.length; i++) {
+			if (elements[i].getName().equals(fullName))
+				return true;
+		}
+		return false;
+	}
+
+	public void testDeclarationsInScope() throws Exception {
+		ICompilationUnit cu= fPackage.createCompilationUnit("E.java", CONTENT, false, null);
+		CompilationUnit astRoot= getASTRoot(cu);
+		int offset= CONTENT.indexOf("foo;");
+
+		IBinding[] declarations;
+		try (ASTAnalysisCache cache= ASTAnalysisCache.open()) {
+			declarations= ASTAnalysisCache.getDeclarationsInScope(astRoot, offset, ScopeAnalyzer.TYPES);
+			assertSame(declarations, ASTAnalysisCache.getDeclarationsInScope(astRoot, offset, ScopeAnalyzer.TYPES));
+			assertNotSame(declarations, ASTAnalysisCache.getDeclarationsInScope(astRoot, offset, ScopeAnalyzer.VARIABLES));
+			assertSame(ASTAnalysisCache.getImportedNames(astRoot), ASTAnalysisCache.getImportedNames(astRoot));
+
+			// another AST of the same unit is analyzed again
+			CompilationUnit otherRoot= getASTRoot(cu);
+			assertNotSame(declarations, ASTAnalysisCache.getDeclarationsInScope(otherRoot, offset, ScopeAnalyzer.TYPES));
+		}
+		assertNull(ASTAnalysisCache.getCurrent());
+
+		try (ASTAnalysisCache cache= ASTAnalysisCache.open()) {
+			assertNotSame(declarations, ASTAnalysisCache.getDeclarationsInScope(astRoot, offset, ScopeAnalyzer.TYPES));
+		}
+	}
+
+	public void testNestedOpen() throws Exception {
+		ICompilationUnit cu= fPackage.createCompilationUnit("E.java", CONTENT, false, null);
+		CompilationUnit astRoot= getASTRoot(cu);
+
+		try (ASTAnalysisCache cache= ASTAnalysisCache.open()) {
+			Name[] names= ASTAnalysisCache.getImportedNames(astRoot);
+			try (ASTAnalysisCache nested= ASTAnalysisCache.open()) {
+				assertSame(cache, nested);
+				assertSame(names, ASTAnalysisCache.getImportedNames(astRoot));
+			}
+			assertSame(cache, ASTAnalysisCache.getCurrent());
+		}
+		assertNull(ASTAnalysisCache.getCurrent());
+	}
+
+	public void testSimilarElements() throws Exception {
+		ICompilationUnit cu= fPackage.createCompilationUnit("E.java", CONTENT, false, null);
+		CompilationUnit astRoot= getASTRoot(cu);
+		Name name= getName(astRoot, "Foobax");
+
+		try (ASTAnalysisCache cache= ASTAnalysisCache.open()) {
+			SimilarElement[] elements= SimilarElementsRequestor.findSimilarElement(cu, name, TypeKinds.REF_TYPES);
+			assertTrue(contains(elements, "test1.Foobar"));
+
+			SimilarElement[] cached= SimilarElementsRequestor.findSimilarElement(cu, name, TypeKinds.REF_TYPES);
+			// the same elements, in a copy which the caller may modify
+			assertNotSame(elements, cached);
+			assertEquals(elements.length, cached.length);
+			for (int i= 0; i < elements.length; i++) {
+				assertSame(elements[i], cached[i]);
+			}
+		}
+
+		fPackage.createCompilationUnit("Foobaz.java", "package test1;\npublic class Foobaz {\n}\n", false, null);
+
+		// the next invocation finds the new type
+		try (ASTAnalysisCache cache= ASTAnalysisCache.open()) {
+			astRoot= getASTRoot(cu);
+			SimilarElement[] elements= SimilarElementsRequestor.findSimilarElement(cu, getName(astRoot, "Foobax"), TypeKinds.REF_TYPES);
+			assertTrue(contains(elements, "test1.Foobar"));
+			assertTrue(contains(elements, "test1.Foobaz"));
+		}
+	}
+
+	public void testProblemLocationNodeFinder() throws Exception {
+		ICompilationUnit cu= fPackage.createCompilationUnit("E.java", CONTENT, false, null);
+		CompilationUnit astRoot= getASTRoot(cu);
+		ProblemLocationCore problem= new ProblemLocationCore(CONTENT.indexOf("Foobax"), "Foobax".length(), 0, new String[0], true, null);
+		Accessor accessor= new Accessor(problem, ProblemLocationCore.class);
+
+		ASTNode covering= problem.getCoveringNode(astRoot);
+		Object finder= accessor.get("fNodeFinder");
+		assertNotNull(finder);
+		assertEquals(covering.getStartPosition(), problem.getCoveredNode(astRoot).getStartPosition());
+		assertSame(finder, accessor.get("fNodeFinder"));
+
+		// a new AST gets a new finder and nodes of that AST
+		CompilationUnit otherRoot= getASTRoot(cu);
+		ASTNode otherCovering= problem.getCoveringNode(otherRoot);
+		assertNotSame(finder, accessor.get("fNodeFinder"));
+		assertSame(otherRoot, otherCovering.getRoot());
+		assertEquals(covering.getStartPosition(), otherCovering.getStartPosition());
+	}
+}
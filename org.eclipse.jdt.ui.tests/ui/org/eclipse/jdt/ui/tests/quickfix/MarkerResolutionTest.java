@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,8 +13,11 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.quickfix;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jdt.testplugin.JavaProjectHelper;
 import org.eclipse.jdt.testplugin.TestOptions;
@@ -23,6 +26,8 @@ import org.eclipse.core.runtime.CoreException;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
 
 import org.eclipse.jface.preference.IPreferenceStore;
 
@@ -36,21 +41,38 @@ import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.texteditor.ITextEditor;
 
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 
+import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring.MultiFixTarget;
+import org.eclipse.jdt.internal.corext.fix.IProposableFix;
+import org.eclipse.jdt.internal.corext.fix.UnusedCodeFix;
+
 import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
+import org.eclipse.jdt.ui.cleanup.ICleanUpFix;
 import org.eclipse.jdt.ui.examples.AddTestMarkersAction;
+import org.eclipse.jdt.ui.text.java.IProblemLocation;
 import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.fix.UnusedCodeCleanUp;
+import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.text.correction.AssistContext;
+import org.eclipse.jdt.internal.ui.text.correction.CorrectionMarkerResolutionGenerator;
+import org.eclipse.jdt.internal.ui.text.correction.CorrectionMarkerResolutionGenerator.CorrectionMarkerResolution;
 import org.eclipse.jdt.internal.ui.text.correction.JavaCorrectionAssistant;
 import org.eclipse.jdt.internal.ui.text.correction.JavaCorrectionProcessor;
+import org.eclipse.jdt.internal.ui.text.correction.proposals.FixCorrectionProposal;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -243,4 +265,105 @@ public class MarkerResolutionTest extends QuickFixTest {
 		}
 	}
 
+	private static final class RecordingCleanUp extends UnusedCodeCleanUp {
+
+		private final List<CompilationUnit> fASTs= new ArrayList<>();
+		private final List<IProblemLocation[]> fProblems= new ArrayList<>();
+
+		RecordingCleanUp(Map<String, String> options) {
+			super(options);
+		}
+
+		@Override
+		protected ICleanUpFix createFix(CompilationUnit compilationUnit, IProblemLocation[] problems) throws CoreException {
+			fASTs.add(compilationUnit);
+			fProblems.add(problems);
+			return super.createFix(compilationUnit, problems);
+		}
+	}
+
+	private ICompilationUnit createUnitWithUnusedImports() throws CoreException {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("import java.util.List;\n");
+		buf.append("import java.util.Map;\n");
+		buf.append("import java.util.Set;\n");
+		buf.append("public class E {\n");
+		buf.append("}\n");
+		return pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+	}
+
+	private static IMarker[] getUnusedImportMarkers(ICompilationUnit cu) throws CoreException {
+		cu.getJavaProject().getProject().build(IncrementalProjectBuilder.FULL_BUILD, null);
+		IMarker[] markers= cu.getResource().findMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
+		List<IMarker> result= new ArrayList<>();
+		for (int i= 0; i < markers.length; i++) {
+			if (markers[i].getAttribute(IJavaModelMarker.ID, -1) == IProblem.UnusedImport)
+				result.add(markers[i]);
+		}
+		result.sort((m1, m2) -> m1.getAttribute(IMarker.CHAR_START, -1) - m2.getAttribute(IMarker.CHAR_START, -1));
+		return result.toArray(new IMarker[result.size()]);
+	}
+
+	private static void assertTargetOfMarkers(ICompilationUnit cu, IMarker[] markers, MultiFixTarget[] targets) {
+		assertEquals(1, targets.length);
+		assertEquals(cu, targets[0].getCompilationUnit());
+		IProblemLocation[] problems= targets[0].getProblems();
+		assertEquals(markers.length, problems.length);
+		for (int i= 0; i < markers.length; i++) {
+			assertEquals(markers[i].getAttribute(IMarker.CHAR_START, -1), problems[i].getOffset());
+			assertEquals(IProblem.UnusedImport, problems[i].getProblemId());
+		}
+	}
+
+	public void testCleanUpTargetsOfOneFile() throws Exception {
+		ICompilationUnit cu= createUnitWithUnusedImports();
+		IMarker[] markers= getUnusedImportMarkers(cu);
+		assertEquals(3, markers.length);
+
+		assertTargetOfMarkers(cu, markers, CorrectionMarkerResolution.getCleanUpTargets(markers));
+	}
+
+	public void testCleanUpTargetsOfOpenFile() throws Exception {
+		ICompilationUnit cu= createUnitWithUnusedImports();
+		IMarker[] markers= getUnusedImportMarkers(cu);
+		assertEquals(3, markers.length);
+
+		JavaUI.openInEditor(cu);
+		try {
+			// the locations are taken from the annotations of the editor
+			assertTargetOfMarkers(cu, markers, CorrectionMarkerResolution.getCleanUpTargets(markers));
+		} finally {
+			JavaPlugin.getActivePage().closeAllEditors(false);
+		}
+	}
+
+	public void testResolveMarkersOfOneFile() throws Exception {
+		ICompilationUnit cu= createUnitWithUnusedImports();
+		IMarker[] markers= getUnusedImportMarkers(cu);
+		assertEquals(3, markers.length);
+
+		AssistContext context= new AssistContext(cu, markers[0].getAttribute(IMarker.CHAR_START, -1), 0);
+		IProblemLocation location= CorrectionMarkerResolutionGenerator.findProblemLocation(EditorUtility.getEditorInput(cu), markers[0]);
+		IProposableFix fix= UnusedCodeFix.createRemoveUnusedImportFix(context.getASTRoot(), location);
+		Map<String, String> options= new Hashtable<>();
+		options.put(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS, CleanUpOptions.TRUE);
+		RecordingCleanUp cleanUp= new RecordingCleanUp(options);
+		FixCorrectionProposal proposal= new FixCorrectionProposal(fix, cleanUp, 0, null, context);
+
+		CorrectionMarkerResolution resolution= new CorrectionMarkerResolution(cu, location.getOffset(), location.getLength(), proposal, markers[0]);
+		resolution.run(markers, null);
+
+		// all markers of the file are fixed on one AST
+		assertEquals(1, cleanUp.fASTs.size());
+		assertEquals(3, cleanUp.fProblems.get(0).length);
+
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("}\n");
+		assertEqualString(cu.getSource(), buf.toString());
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,10 +21,13 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.testplugin.JavaTestPlugin;
 import org.eclipse.jdt.testplugin.StringAsserts;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.core.resources.IFile;
 
@@ -38,6 +41,7 @@ import org.eclipse.ltk.core.refactoring.TextFileChange;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IProblemRequestor;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.WorkingCopyOwner;
@@ -58,11 +62,13 @@ import org.eclipse.jdt.ui.text.java.IProblemLocation;
 import org.eclipse.jdt.ui.text.java.correction.CUCorrectionProposal;
 import org.eclipse.jdt.ui.text.java.correction.ICommandAccess;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.text.correction.AssistContext;
 import org.eclipse.jdt.internal.ui.text.correction.GetterSetterCorrectionSubProcessor.SelfEncapsulateFieldProposal;
 import org.eclipse.jdt.internal.ui.text.correction.JavaCorrectionProcessor;
 import org.eclipse.jdt.internal.ui.text.correction.ProblemLocation;
 import org.eclipse.jdt.internal.ui.text.correction.ReorgCorrectionsSubProcessor;
+import org.eclipse.jdt.internal.ui.text.correction.SimilarTypeNameIndex;
 import org.eclipse.jdt.internal.ui.text.correction.proposals.LinkedNamesAssistProposal;
 import org.eclipse.jdt.internal.ui.text.correction.proposals.NewCUUsingWizardProposal;
 import org.eclipse.jdt.internal.ui.text.correction.proposals.RenameRefactoringProposal;
@@ -83,6 +89,8 @@ public class QuickFixTest extends TestCase {
 		suite.addTest(SerialVersionQuickFixTest.suite());
 		suite.addTest(UtilitiesTest.suite());
 		suite.addTest(UnresolvedTypesQuickFixTest.suite());
+		suite.addTest(SimilarTypeNameIndexTest.suite());
+		suite.addTest(ASTAnalysisCacheTest.suite());
 		suite.addTest(UnresolvedVariablesQuickFixTest.suite());
 		suite.addTest(UnresolvedMethodsQuickFixTest.suite());
 		suite.addTest(UnresolvedMethodsQuickFixTest18.suite());
@@ -361,12 +369,34 @@ public class QuickFixTest extends TestCase {
 	}
 
 	protected static ArrayList<IJavaCompletionProposal> collectCorrections(IInvocationContext context, IProblemLocation problem) throws CoreException {
+		buildSimilarTypeNameIndex(context.getCompilationUnit().getJavaProject());
 		ArrayList<IJavaCompletionProposal> proposals= new ArrayList<>();
 		IStatus status= JavaCorrectionProcessor.collectCorrections(context, new IProblemLocation[] { problem }, proposals);
 		assertStatusOk(status);
 		return proposals;
 	}
 
+	/**
+	 * Waits until the similar type name index of the given project is built. The proposals for
+	 * unresolved types are found with code completion until then, so waiting makes them
+	 * independent of the time the index takes to build.
+	 *
+	 * @param project the project
+	 * @throws CoreException if the index cannot be built
+	 */
+	protected static void buildSimilarTypeNameIndex(IJavaProject project) throws CoreException {
+		if (!SimilarTypeNameIndex.isIndexable(project))
+			return;
+		SimilarTypeNameIndex index= JavaPlugin.getDefault().getSimilarTypeNameIndex();
+		if (index.findSimilarTypes(project, "", "", false) == null) {
+			try {
+				Job.getJobManager().join(index, null);
+			} catch (InterruptedException e) {
+				throw new CoreException(new Status(IStatus.ERROR, JavaTestPlugin.getPluginId(), IStatus.ERROR, e.getMessage(), e));
+			}
+		}
+	}
+
 	public static void assertStatusOk(IStatus status) throws CoreException {
 		if (!status.isOK()) {
 			if (status.getException() == null) {  // find a status with an exception
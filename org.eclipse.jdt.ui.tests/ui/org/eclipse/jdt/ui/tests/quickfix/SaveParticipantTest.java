@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2011 IBM Corporation and others.
+ * Copyright (c) 2007, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,12 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.quickfix;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
@@ -21,15 +27,23 @@ import org.eclipse.ui.PartInitException;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
 import org.eclipse.jdt.internal.corext.fix.CleanUpPostSaveListener;
 import org.eclipse.jdt.internal.corext.fix.CleanUpPreferenceUtil;
+import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring;
+import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
 
 import org.eclipse.jdt.ui.JavaUI;
+import org.eclipse.jdt.ui.cleanup.CleanUpContext;
 import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
+import org.eclipse.jdt.ui.cleanup.ICleanUp;
 import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
 
+import org.eclipse.jdt.internal.ui.fix.Java50CleanUp;
+import org.eclipse.jdt.internal.ui.fix.UnusedCodeCleanUp;
 import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
 
@@ -732,4 +746,88 @@ public class SaveParticipantTest extends CleanUpTestCase {
 
 		assertEquals(expected1, cu1.getBuffer().getContents());
 	}
+
+	public void testTwoPassesWithoutChange() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    ArrayList foo;\n");
+		buf.append("    @Override\n");
+		buf.append("    public String toString() {\n");
+		buf.append("        return null;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", buf.toString(), false, null);
+
+		// the first pass does not change anything, the second pass organizes the imports on the same AST
+		enable(CleanUpConstants.ADD_MISSING_ANNOTATIONS);
+		enable(CleanUpConstants.ADD_MISSING_ANNOTATIONS_OVERRIDE);
+		enable(CleanUpConstants.ORGANIZE_IMPORTS);
+
+		editCUInEditor(cu1, buf.toString().replace("foo;", "foo ;"));
+
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("\n");
+		buf.append("import java.util.ArrayList;\n");
+		buf.append("\n");
+		buf.append("public class E1 {\n");
+		buf.append("    ArrayList foo ;\n");
+		buf.append("    @Override\n");
+		buf.append("    public String toString() {\n");
+		buf.append("        return null;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String expected1= buf.toString();
+
+		assertEquals(expected1, cu1.getBuffer().getContents());
+	}
+
+	public void testCleanUpTimes() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("import java.util.List;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    public String toString() {\n");
+		buf.append("        return null;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", buf.toString(), false, null);
+
+		Map<String, String> options= new Hashtable<>();
+		options.put(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS, CleanUpOptions.TRUE);
+		options.put(CleanUpConstants.ADD_MISSING_ANNOTATIONS, CleanUpOptions.TRUE);
+		options.put(CleanUpConstants.ADD_MISSING_ANNOTATIONS_OVERRIDE, CleanUpOptions.TRUE);
+		ICleanUp[] cleanUps= new ICleanUp[] { new UnusedCodeCleanUp(options), new Java50CleanUp(options) };
+
+		Map<String, String> compilerOptions= RefactoringASTParser.getCompilerOptions(cu1.getJavaProject());
+		for (int i= 0; i < cleanUps.length; i++) {
+			Map<String, String> requiredOptions= cleanUps[i].getRequirements().getCompilerOptions();
+			if (requiredOptions != null) {
+				compilerOptions.putAll(requiredOptions);
+			}
+		}
+		ASTParser parser= CleanUpRefactoring.createCleanUpASTParser();
+		parser.setSource(cu1);
+		parser.setCompilerOptions(compilerOptions);
+		CompilationUnit ast= (CompilationUnit) parser.createAST(null);
+
+		Map<ICleanUp, Long> cleanUpTimes= new HashMap<>();
+		List<ICleanUp> undoneCleanUps= new ArrayList<>();
+		assertNotNull(CleanUpRefactoring.calculateChange(new CleanUpContext(cu1, ast), cleanUps, undoneCleanUps, null, cleanUpTimes));
+
+		// both clean ups ran on the same AST and are timed
+		assertEquals(0, undoneCleanUps.size());
+		assertEquals(2, cleanUpTimes.size());
+		long time0= cleanUpTimes.get(cleanUps[0]).longValue();
+		long time1= cleanUpTimes.get(cleanUps[1]).longValue();
+
+		// the times of further passes are added
+		CleanUpRefactoring.calculateChange(new CleanUpContext(cu1, ast), cleanUps, new ArrayList<ICleanUp>(), null, cleanUpTimes);
+		assertEquals(2, cleanUpTimes.size());
+		assertTrue(cleanUpTimes.get(cleanUps[0]).longValue() >= time0);
+		assertTrue(cleanUpTimes.get(cleanUps[1]).longValue() >= time1);
+	}
 }
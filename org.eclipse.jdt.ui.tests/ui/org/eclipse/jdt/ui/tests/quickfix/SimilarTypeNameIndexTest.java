@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.quickfix;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jdt.core.IClasspathAttribute;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.manipulation.TypeKinds;
+
+import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.text.correction.SimilarElement;
+import org.eclipse.jdt.internal.ui.text.correction.SimilarElementsRequestor;
+import org.eclipse.jdt.internal.ui.text.correction.SimilarTypeNameIndex;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+public class SimilarTypeNameIndexTest extends QuickFixTest {
+
+	private static final Class<SimilarTypeNameIndexTest> THIS= SimilarTypeNameIndexTest.class;
+
+	private IJavaProject fJProject1;
+	private IPackageFragmentRoot fSourceFolder;
+
+	public SimilarTypeNameIndexTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJProject1= ProjectTestSetup.getProject();
+		fSourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.clear(fJProject1, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	private SimilarElement[] findSimilarTypes(String packageName, String name, boolean excludeTestCode) throws Exception {
+		SimilarTypeNameIndex index= JavaPlugin.getDefault().getSimilarTypeNameIndex();
+		SimilarElement[] elements= index.findSimilarTypes(fJProject1, packageName, name, excludeTestCode);
+		if (elements == null) {
+			Job.getJobManager().join(index, null);
+			elements= index.findSimilarTypes(fJProject1, packageName, name, excludeTestCode);
+		}
+		assertNotNull(elements);
+		return elements;
+	}
+
+	private static boolean contains(SimilarElement[] elements, String fullName) {
+		for (int i= 0; i < elements.length; i++) {
+			if (elements[i].getName().equals(fullName))
+				return true;
+		}
+		return false;
+	}
+
+	public void testNotReady() throws Exception {
+		SimilarTypeNameIndex index= JavaPlugin.getDefault().getSimilarTypeNameIndex();
+		index.dispose();
+		index.install();
+		assertNull(index.findSimilarTypes(fJProject1, "test1", "Foobar", false));
+		Job.getJobManager().join(index, null);
+		assertNotNull(index.findSimilarTypes(fJProject1, "test1", "Foobar", false));
+	}
+
+	public void testCandidates() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		pack1.createCompilationUnit("Foobar.java", "package test1;\npublic class Foobar {\n}\n", false, null);
+		pack1.createCompilationUnit("Foobaz.java", "package test1;\npublic interface Foobaz {\n}\n", false, null);
+		pack1.createCompilationUnit("Unrelated.java", "package test1;\npublic class Unrelated {\n}\n", false, null);
+
+		SimilarElement[] elements= findSimilarTypes("test1", "Foobax", false);
+		assertTrue(contains(elements, "test1.Foobar"));
+		assertTrue(contains(elements, "test1.Foobaz"));
+		assertFalse(contains(elements, "test1.Unrelated"));
+
+		for (int i= 1; i < elements.length; i++) {
+			assertTrue(elements[i - 1].getRelevance() >= elements[i].getRelevance());
+		}
+	}
+
+	public void testChangedUnit() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		pack1.createCompilationUnit("Foobar.java", "package test1;\npublic class Foobar {\n}\n", false, null);
+		assertTrue(contains(findSimilarTypes("test1", "Foobax", false), "test1.Foobar"));
+
+		pack1.createCompilationUnit("Foobaz.java", "package test1;\npublic class Foobaz {\n}\n", false, null);
+		ICompilationUnit cu= pack1.getCompilationUnit("Foobar.java");
+		cu.delete(true, null);
+
+		SimilarElement[] elements= findSimilarTypes("test1", "Foobax", false);
+		assertTrue(contains(elements, "test1.Foobaz"));
+		assertFalse(contains(elements, "test1.Foobar"));
+	}
+
+	public void testVisibility() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		pack1.createCompilationUnit("Foobar.java", "package test1;\nclass Foobar {\n}\n", false, null);
+		pack1.createCompilationUnit("Foobaz.java", "package test1;\npublic class Foobaz {\n    private static class Foobay {\n    }\n}\n", false, null);
+
+		SimilarElement[] elements= findSimilarTypes("test1", "Foobax", false);
+		assertTrue(contains(elements, "test1.Foobar"));
+		assertTrue(contains(elements, "test1.Foobaz"));
+		assertFalse(contains(elements, "test1.Foobaz.Foobay"));
+
+		elements= findSimilarTypes("test2", "Foobax", false);
+		assertFalse(contains(elements, "test1.Foobar"));
+		assertTrue(contains(elements, "test1.Foobaz"));
+	}
+
+	public void testEnclosingTypeVisibility() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class Outer {\n");
+		buf.append("    public static class Foobar {\n");
+		buf.append("    }\n");
+		buf.append("    static class Hidden {\n");
+		buf.append("        public static class Foobaz {\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("    private static class Secret {\n");
+		buf.append("        public static class Foobay {\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("    interface Api {\n");
+		buf.append("        class Foobaw {\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		pack1.createCompilationUnit("Outer.java", buf.toString(), false, null);
+
+		SimilarElement[] elements= findSimilarTypes("test1", "Foobax", false);
+		assertTrue(contains(elements, "test1.Outer.Foobar"));
+		assertTrue(contains(elements, "test1.Outer.Hidden.Foobaz"));
+		assertFalse(contains(elements, "test1.Outer.Secret.Foobay"));
+		assertTrue(contains(elements, "test1.Outer.Api.Foobaw"));
+
+		// a public member type of a package visible type is not visible from other packages
+		elements= findSimilarTypes("test2", "Foobax", false);
+		assertTrue(contains(elements, "test1.Outer.Foobar"));
+		assertFalse(contains(elements, "test1.Outer.Hidden.Foobaz"));
+		assertFalse(contains(elements, "test1.Outer.Secret.Foobay"));
+		assertFalse(contains(elements, "test1.Outer.Api.Foobaw"));
+	}
+
+	public void testTestSources() throws Exception {
+		IPackageFragmentRoot testSourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src-tests", new Path[0], new Path[0], "bin-tests",
+				new IClasspathAttribute[] { JavaCore.newClasspathAttribute(IClasspathAttribute.TEST, "true") });
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		pack1.createCompilationUnit("Foobar.java", "package test1;\npublic class Foobar {\n}\n", false, null);
+		IPackageFragment pack2= testSourceFolder.createPackageFragment("test2", false, null);
+		pack2.createCompilationUnit("Foobaz.java", "package test2;\npublic class Foobaz {\n}\n", false, null);
+
+		SimilarElement[] elements= findSimilarTypes("test1", "Foobax", true);
+		assertTrue(contains(elements, "test1.Foobar"));
+		assertFalse(contains(elements, "test2.Foobaz"));
+
+		elements= findSimilarTypes("test1", "Foobax", false);
+		assertTrue(contains(elements, "test1.Foobar"));
+		assertTrue(contains(elements, "test2.Foobaz"));
+	}
+
+	public void testQualifiedName() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		pack1.createCompilationUnit("List.java", "package test1;\npublic class List {\n}\n", false, null);
+		IPackageFragment pack2= fSourceFolder.createPackageFragment("test2", false, null);
+		String content= "package test2;\npublic class E {\n    java.util.Lisst list;\n}\n";
+		ICompilationUnit cu= pack2.createCompilationUnit("E.java", content, false, null);
+		assertTrue(contains(findSimilarTypes("test2", "Lisst", false), "test1.List"));
+
+		CompilationUnit astRoot= getASTRoot(cu);
+		int offset= content.indexOf("java.util.Lisst");
+		Name name= (Name) NodeFinder.perform(astRoot, offset, "java.util.Lisst".length());
+		assertTrue(name.isQualifiedName());
+
+		SimilarElement[] elements= SimilarElementsRequestor.findSimilarElement(cu, name, TypeKinds.REF_TYPES);
+		assertTrue(contains(elements, "java.util.List"));
+		assertFalse(contains(elements, "test1.List"));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,17 +13,23 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.dom;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Hashtable;
 import java.util.Iterator;
-import java.util.List;
 
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
+import org.eclipse.core.resources.IResource;
+
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.dom.ASTParser;
@@ -34,21 +40,41 @@ import org.eclipse.jdt.core.dom.IBinding;
  * Creates AST from a set of compilation units. Uses the
  * batch parser. Splits the set of compilation units in subsets
  * such that it is unlikely that a out of memory exception will occur.
+ * <p>
+ * The subsets are limited by the size of their source rather than by the number of compilation
+ * units, starting with a share of the maximum heap size. After each subset, the limit is halved if
+ * the old generation of the heap is still highly occupied after the last garbage collection, and
+ * grown if it is hardly occupied.
+ * </p>
  *
  * @since 3.4
  */
 public class ASTBatchParser {
 
-	private static final int MAX_AT_ONCE;
-	static {
-		long maxMemory= Runtime.getRuntime().maxMemory() / (1 << 20); // in MiB
-		
-		if      (maxMemory >= 2000) MAX_AT_ONCE= 400;
-		else if (maxMemory >= 1500) MAX_AT_ONCE= 300;
-		else if (maxMemory >= 1000) MAX_AT_ONCE= 200;
-		else if (maxMemory >=  500) MAX_AT_ONCE= 100;
-		else                        MAX_AT_ONCE=  25;
-	}
+	/**
+	 * The initial source size in bytes of a batch is the maximum heap size divided by this value,
+	 * since the ASTs and bindings of a batch take a multiple of the size of their source.
+	 */
+	private static final int HEAP_TO_BATCH_SIZE_RATIO= 500;
+
+	/**
+	 * The minimum source size in bytes of a batch.
+	 */
+	private static final long MIN_BATCH_SIZE= 64 * 1024;
+
+	/**
+	 * The maximum factor by which a batch can grow beyond its initial size.
+	 */
+	private static final int MAX_BATCH_GROWTH= 4;
+
+	/**
+	 * The assumed source size in bytes of a compilation unit whose size is unknown.
+	 */
+	private static final long DEFAULT_UNIT_SIZE= 10 * 1024;
+
+	private static final double HIGH_OCCUPANCY= 0.7;
+
+	private static final double LOW_OCCUPANCY= 0.4;
 
 	/**
 	 * Creates ASTs for each compilation unit in <code>units</code>.
@@ -78,23 +104,36 @@ public class ASTBatchParser {
 		monitor.beginTask("", compilationUnits.length); //$NON-NLS-1$
 		try {
 
+			long initialBatchSize= getInitialBatchSize();
+			long batchSize= initialBatchSize;
+
 			ICompilationUnit[][] splited= splitByProject(compilationUnits);
 			for (int i= 0; i < splited.length; i++) {
 				ICompilationUnit[] units= splited[i];
 
-				if (units.length <= MAX_AT_ONCE) {
+				long[] sizes= new long[units.length];
+				long totalSize= 0;
+				for (int j= 0; j < units.length; j++) {
+					sizes[j]= getSourceSize(units[j]);
+					totalSize+= sizes[j];
+				}
+
+				if (totalSize <= batchSize) {
 					createParser(units[0].getJavaProject()).createASTs(units, bindingKeys, requestor, new SubProgressMonitor(monitor, units.length));
 				} else {
-					List<ICompilationUnit> list= Arrays.asList(units);
-					int end= 0;
 					int cursor= 0;
 					while (cursor < units.length) {
-						end= Math.min(end + MAX_AT_ONCE, units.length);
-						List<ICompilationUnit> toParse= list.subList(cursor, end);
+						int end= cursor + 1;
+						long size= sizes[cursor];
+						while (end < units.length && size + sizes[end] <= batchSize) {
+							size+= sizes[end];
+							end++;
+						}
+						ICompilationUnit[] toParse= Arrays.copyOfRange(units, cursor, end);
 
-						createParser(units[0].getJavaProject()).createASTs(toParse.toArray(new ICompilationUnit[toParse.size()]), bindingKeys, requestor,
-								new SubProgressMonitor(monitor, toParse.size()));
+						createParser(units[0].getJavaProject()).createASTs(toParse, bindingKeys, requestor, new SubProgressMonitor(monitor, toParse.length));
 						cursor= end;
+						batchSize= adjustBatchSize(batchSize, initialBatchSize);
 					}
 				}
 			}
@@ -121,6 +160,78 @@ public class ASTBatchParser {
 		return result;
 	}
 
+	/**
+	 * Returns the source size in bytes of the first batch.
+	 * <p>
+	 * Subclasses may override
+	 * </p>
+	 *
+	 * @return the source size of the first batch
+	 */
+	protected long getInitialBatchSize() {
+		Runtime runtime= Runtime.getRuntime();
+		long maxMemory= runtime.maxMemory();
+		if (maxMemory == Long.MAX_VALUE) // no limit
+			maxMemory= runtime.totalMemory();
+		return Math.max(maxMemory / HEAP_TO_BATCH_SIZE_RATIO, MIN_BATCH_SIZE);
+	}
+
+	private long adjustBatchSize(long batchSize, long initialBatchSize) {
+		double occupancy= getOldGenerationOccupancy();
+		if (occupancy > HIGH_OCCUPANCY)
+			return Math.max(batchSize / 2, MIN_BATCH_SIZE);
+		if (occupancy >= 0 && occupancy < LOW_OCCUPANCY)
+			return Math.min(batchSize * 3 / 2, initialBatchSize * MAX_BATCH_GROWTH);
+		return batchSize;
+	}
+
+	/**
+	 * Returns the occupancy of the old generation of the heap after the last garbage collection,
+	 * which is what remains reachable from the previous batches. The size of the next batch is
+	 * kept if the occupancy is unknown.
+	 * <p>
+	 * Subclasses may override
+	 * </p>
+	 *
+	 * @return the occupancy between 0 and 1, or -1 if unknown
+	 */
+	protected double getOldGenerationOccupancy() {
+		double result= -1;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			// only the old generation supports usage thresholds
+			if (pool.getType() != MemoryType.HEAP || !pool.isUsageThresholdSupported())
+				continue;
+			result= Math.max(result, getOccupancy(pool.getCollectionUsage()));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the occupancy of a memory pool.
+	 *
+	 * @param usage the usage of the pool after the last garbage collection, or <code>null</code>
+	 *            if the pool does not support it
+	 * @return the occupancy between 0 and 1, or -1 if unknown
+	 */
+	protected static double getOccupancy(MemoryUsage usage) {
+		if (usage == null || usage.getMax() <= 0)
+			return -1;
+		return (double) usage.getUsed() / usage.getMax();
+	}
+
+	private static long getSourceSize(ICompilationUnit unit) {
+		IResource resource= unit.getResource();
+		if (resource != null) {
+			IPath location= resource.getLocation();
+			if (location != null) {
+				long length= location.toFile().length();
+				if (length > 0)
+					return length;
+			}
+		}
+		return DEFAULT_UNIT_SIZE;
+	}
+
 	private static ICompilationUnit[][] splitByProject(ICompilationUnit[] units) {
 		if (hasOnlyOneProject(units))
 			return new ICompilationUnit[][] { units };
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,8 @@
 package org.eclipse.jdt.internal.corext.fix;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -56,6 +58,7 @@ import org.eclipse.core.filebuffers.ITextFileBufferManager;
 import org.eclipse.core.filebuffers.LocationKind;
 
 import org.eclipse.text.edits.MalformedTreeException;
+import org.eclipse.text.edits.MultiTextEdit;
 import org.eclipse.text.edits.TextEdit;
 import org.eclipse.text.edits.UndoEdit;
 
@@ -351,12 +354,17 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 			} else {
 				slowCleanUps= null;
 			}
+			Map<ICleanUp, Long> cleanUpTimes= new HashMap<>();
 			IUndoManager manager= RefactoringCore.getUndoManager();
 
 			boolean success= false;
 			try {
     			manager.aboutToPerformChange(result);
 
+    			// the AST is reused by the next pass as long as the document has not been changed, a
+    			// changed document needs a new AST since the positions and bindings of the old one are stale
+    			CompilationUnit ast= null;
+    			Map<String, String> astOptions= null;
     			do {
     				RefactoringStatus preCondition= new RefactoringStatus();
     				for (int i= 0; i < cleanUps.length; i++) {
@@ -374,9 +382,11 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
     					}
     				}
 
-    				CompilationUnit ast= null;
-    				if (requiresAST(cleanUps)) {
+    				if (!requiresAST(cleanUps)) {
+    					ast= null;
+    				} else if (ast == null || !astOptions.entrySet().containsAll(options.entrySet())) {
     					ast= createAst(unit, options, new SubProgressMonitor(monitor, 10));
+    					astOptions= options;
     				}
 
     				CleanUpContext context;
@@ -387,7 +397,7 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
     				}
 
     				ArrayList<ICleanUp> undoneCleanUps= new ArrayList<>();
-					CleanUpChange change= CleanUpRefactoring.calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps);
+					CleanUpChange change= CleanUpRefactoring.calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps, cleanUpTimes);
 
     				RefactoringStatus postCondition= new RefactoringStatus();
     				for (int i= 0; i < cleanUps.length; i++) {
@@ -398,7 +408,12 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
     					return;
 
     				cleanUps= undoneCleanUps.toArray(new ICleanUp[undoneCleanUps.size()]);
+    				if (change != null && isEmpty(change.getEdit())) {
+    					// nothing to apply, the AST is still up to date
+    					change= null;
+    				}
     				if (change != null) {
+    					ast= null;
     					result.add(change);
 
     					change.setSaveMode(TextFileChange.LEAVE_DIRTY);
@@ -430,7 +445,7 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 			}
 
 			if (slowCleanUps != null && slowCleanUps.size() > 0)
-				showSlowCleanUpsWarning(slowCleanUps);
+				showSlowCleanUpsWarning(slowCleanUps, cleanUpTimes);
 		} finally {
 			monitor.done();
 		}
@@ -574,6 +589,10 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 	    return false;
     }
 
+	private static boolean isEmpty(TextEdit edit) {
+		return edit == null || edit instanceof MultiTextEdit && !edit.hasChildren();
+	}
+
 	private boolean requiresChangedRegions(ICleanUp[] cleanUps) {
 		for (int i= 0; i < cleanUps.length; i++) {
 			CleanUpRequirements requirements= cleanUps[i].getRequirements();
@@ -656,10 +675,18 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 		return new CoreException(new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, 0, message, e));
 	}
 
-	private void showSlowCleanUpsWarning(HashSet<ICleanUp> slowCleanUps) {
+	private void showSlowCleanUpsWarning(HashSet<ICleanUp> slowCleanUps, final Map<ICleanUp, Long> cleanUpTimes) {
+		// slowest first
+		ArrayList<ICleanUp> sortedCleanUps= new ArrayList<>(slowCleanUps);
+		Collections.sort(sortedCleanUps, new Comparator<ICleanUp>() {
+			@Override
+			public int compare(ICleanUp c1, ICleanUp c2) {
+				return Long.compare(getTime(cleanUpTimes, c2), getTime(cleanUpTimes, c1));
+			}
+		});
 
 		final StringBuilder cleanUpNames= new StringBuilder();
-		for (Iterator<ICleanUp> iterator= slowCleanUps.iterator(); iterator.hasNext();) {
+		for (Iterator<ICleanUp> iterator= sortedCleanUps.iterator(); iterator.hasNext();) {
 			ICleanUp cleanUp= iterator.next();
 			String[] descriptions= cleanUp.getStepDescriptions();
 			if (descriptions != null) {
@@ -667,7 +694,11 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 					if (cleanUpNames.length() > 0)
 						cleanUpNames.append('\n');
 
-					cleanUpNames.append(descriptions[i]);
+					if (i == descriptions.length - 1) {
+						cleanUpNames.append(Messages.format(FixMessages.CleanUpPostSaveListener_SlowCleanUpDialog_cleanUpTime, new Object[] { descriptions[i], Long.valueOf(getTime(cleanUpTimes, cleanUp)) }));
+					} else {
+						cleanUpNames.append(descriptions[i]);
+					}
 				}
 			}
 		}
@@ -684,6 +715,11 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 		}
 	}
 
+	private static long getTime(Map<ICleanUp, Long> cleanUpTimes, ICleanUp cleanUp) {
+		Long time= cleanUpTimes.get(cleanUp);
+		return time != null ? time.longValue() : 0;
+	}
+
 	private void showSlowCleanUpDialog(final StringBuilder cleanUpNames) {
 		if (OptionalMessageDialog.isDialogEnabled(SlowCleanUpWarningDialog.ID)) {
 			Shell shell= PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell();
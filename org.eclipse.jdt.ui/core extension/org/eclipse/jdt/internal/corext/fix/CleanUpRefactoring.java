@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,6 +28,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
@@ -71,6 +72,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.refactoring.CompilationUnitChange;
 
 import org.eclipse.jdt.internal.corext.dom.ASTBatchParser;
+import org.eclipse.jdt.internal.corext.dom.BindingHierarchyCache;
 import org.eclipse.jdt.internal.corext.refactoring.Checks;
 import org.eclipse.jdt.internal.corext.refactoring.changes.DynamicValidationStateChange;
 import org.eclipse.jdt.internal.corext.refactoring.changes.MultiStateCompilationUnitChange;
@@ -516,6 +518,14 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	 */
 	private static final int SLOW_CLEAN_UP_THRESHOLD= 2000;
 
+	/**
+	 * Performance event reporting the time each clean up takes to create its fix, measured through
+	 * core's {@link PerformanceStats} service.
+	 */
+	private static final String PERFORMANCE_EVENT= JavaPlugin.getPluginId() + "/perf/cleanup/createFix"; //$NON-NLS-1$
+
+	private static final boolean MEASURE_PERFORMANCE= PerformanceStats.isEnabled(PERFORMANCE_EVENT);
+
 	private final List<ICleanUp> fCleanUps;
 	private final Hashtable<IJavaProject, List<CleanUpTarget>> fProjects;
 	private Change fChange;
@@ -779,47 +789,85 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	}
 
 	public static CleanUpChange calculateChange(CleanUpContext context, ICleanUp[] cleanUps, List<ICleanUp> undoneCleanUps, HashSet<ICleanUp> slowCleanUps) throws CoreException {
+		return calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps, null);
+	}
+
+	/**
+	 * Calculates the change of the given clean ups. All clean ups until the next one requiring a
+	 * fresh AST are applied to the AST of the context, and their non-overlapping edits are merged
+	 * into one change.
+	 *
+	 * @param context the context of the clean ups
+	 * @param cleanUps the clean ups to apply
+	 * @param undoneCleanUps collects the clean ups that have not been applied
+	 * @param slowCleanUps collects the clean ups that took longer than
+	 *            {@link #SLOW_CLEAN_UP_THRESHOLD}, or <code>null</code>
+	 * @param cleanUpTimes collects the time in ms that each clean up took to create its fix,
+	 *            added to the time already in the map, or <code>null</code>
+	 * @return the change, or <code>null</code> if there is nothing to change
+	 * @throws CoreException if a fix could not be created
+	 */
+	public static CleanUpChange calculateChange(CleanUpContext context, ICleanUp[] cleanUps, List<ICleanUp> undoneCleanUps, HashSet<ICleanUp> slowCleanUps, Map<ICleanUp, Long> cleanUpTimes) throws CoreException {
 		if (cleanUps.length == 0)
 			return null;
 
 		CleanUpChange solution= null;
 		int i= 0;
-		do {
-			ICleanUp cleanUp= cleanUps[i];
-			ICleanUpFix fix;
-			if (slowCleanUps != null) {
-				long timeBefore= System.currentTimeMillis();
-				fix= cleanUp.createFix(context);
-				if (System.currentTimeMillis() - timeBefore > SLOW_CLEAN_UP_THRESHOLD)
-					slowCleanUps.add(cleanUp);
-			} else {
-				fix= cleanUp.createFix(context);
-			}
-			if (fix != null) {
-				CompilationUnitChange current= fix.createChange(null);
-				TextEdit currentEdit= current.getEdit();
+		// all clean ups until the next one requiring a fresh AST work on the bindings of the same AST
+		try (BindingHierarchyCache cache= BindingHierarchyCache.open()) {
+			do {
+				ICleanUp cleanUp= cleanUps[i];
+				ICleanUpFix fix;
+				if (slowCleanUps != null || cleanUpTimes != null || MEASURE_PERFORMANCE) {
+					PerformanceStats stats= null;
+					if (MEASURE_PERFORMANCE) {
+						// the clean ups are created for each run, their classes identify them across runs
+						stats= PerformanceStats.getStats(PERFORMANCE_EVENT, cleanUp.getClass().getName());
+						stats.startRun(context.getCompilationUnit().getElementName());
+					}
+					long timeBefore= System.currentTimeMillis();
+					try {
+						fix= cleanUp.createFix(context);
+					} finally {
+						if (stats != null)
+							stats.endRun();
+					}
+					long time= System.currentTimeMillis() - timeBefore;
+					if (slowCleanUps != null && time > SLOW_CLEAN_UP_THRESHOLD)
+						slowCleanUps.add(cleanUp);
+					if (cleanUpTimes != null) {
+						Long previous= cleanUpTimes.get(cleanUp);
+						cleanUpTimes.put(cleanUp, Long.valueOf(previous != null ? previous.longValue() + time : time));
+					}
+				} else {
+					fix= cleanUp.createFix(context);
+				}
+				if (fix != null) {
+					CompilationUnitChange current= fix.createChange(null);
+					TextEdit currentEdit= current.getEdit();
 
-				if (solution != null) {
-					if (TextEditUtil.overlaps(currentEdit, solution.getEdit())) {
-						undoneCleanUps.add(cleanUp);
-					} else {
-						CleanUpChange merge= new CleanUpChange(FixMessages.CleanUpRefactoring_clean_up_multi_chang_name, context.getCompilationUnit());
-						merge.setEdit(TextEditUtil.merge(currentEdit, solution.getEdit()));
+					if (solution != null) {
+						if (TextEditUtil.overlaps(currentEdit, solution.getEdit())) {
+							undoneCleanUps.add(cleanUp);
+						} else {
+							CleanUpChange merge= new CleanUpChange(FixMessages.CleanUpRefactoring_clean_up_multi_chang_name, context.getCompilationUnit());
+							merge.setEdit(TextEditUtil.merge(currentEdit, solution.getEdit()));
 
-						copyChangeGroups(merge, solution);
-						copyChangeGroups(merge, current);
+							copyChangeGroups(merge, solution);
+							copyChangeGroups(merge, current);
 
-						solution= merge;
-					}
-				} else {
-					solution= new CleanUpChange(current.getName(), context.getCompilationUnit());
-					solution.setEdit(currentEdit);
+							solution= merge;
+						}
+					} else {
+						solution= new CleanUpChange(current.getName(), context.getCompilationUnit());
+						solution.setEdit(currentEdit);
 
-					copyChangeGroups(solution, current);
+						copyChangeGroups(solution, current);
+					}
 				}
-			}
-			i++;
-		} while (i < cleanUps.length && (context.getAST() == null || !cleanUps[i].getRequirements().requiresFreshAST()));
+				i++;
+			} while (i < cleanUps.length && (context.getAST() == null || !cleanUps[i].getRequirements().requiresFreshAST()));
+		}
 
 		for (; i < cleanUps.length; i++) {
 			undoneCleanUps.add(cleanUps[i]);
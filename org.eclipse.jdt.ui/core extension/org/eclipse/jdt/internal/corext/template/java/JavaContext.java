@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -375,13 +375,18 @@ public class JavaContext extends CompilationUnitContext {
 	private CompilationUnitCompletion getCompletion() {
 		ICompilationUnit compilationUnit= getCompilationUnit();
 		if (fCompletion == null) {
-			fCompletion= new CompilationUnitCompletion(compilationUnit);
-
-			if (compilationUnit != null) {
-				try {
-					compilationUnit.codeComplete(getStart(), fCompletion);
-				} catch (JavaModelException e) {
-					// ignore
+			SharedCompletionContext sharedContext= compilationUnit != null ? SharedCompletionContext.get(getDocument(), compilationUnit, getStart()) : null;
+			if (sharedContext != null) {
+				fCompletion= sharedContext.getCompletion();
+			} else {
+				fCompletion= new CompilationUnitCompletion(compilationUnit);
+
+				if (compilationUnit != null) {
+					try {
+						compilationUnit.codeComplete(getStart(), fCompletion);
+					} catch (JavaModelException e) {
+						// ignore
+					}
 				}
 			}
 		}
@@ -514,9 +519,15 @@ public class JavaContext extends CompilationUnitContext {
 		try {
 			boolean qualified= type.indexOf('.') != -1;
 			if (!qualified) {
-				IJavaSearchScope searchScope= SearchEngine.createJavaSearchScope(new IJavaElement[] { cu.getJavaProject() });
-				SimpleName nameNode= null;
-				TypeNameMatch[] matches= findAllTypes(type, searchScope, nameNode, null, cu);
+				SharedCompletionContext sharedContext= SharedCompletionContext.get(getDocument(), cu, getStart());
+				TypeNameMatch[] matches= sharedContext != null ? sharedContext.getTypes(type) : null;
+				if (matches == null) {
+					IJavaSearchScope searchScope= SearchEngine.createJavaSearchScope(new IJavaElement[] { cu.getJavaProject() });
+					SimpleName nameNode= null;
+					matches= findAllTypes(type, searchScope, nameNode, null, cu);
+					if (sharedContext != null)
+						sharedContext.putTypes(type, matches);
+				}
 				if (matches.length != 1) // only add import if we have a single match
 					return type;
 				type= matches[0].getFullyQualifiedName();
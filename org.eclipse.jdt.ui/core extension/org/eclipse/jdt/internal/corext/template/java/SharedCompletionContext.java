@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.template.java;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+
+/**
+ * Shares the code completion and the type lookups of all {@link JavaContext}s at the same offset
+ * of an unchanged document. Content assist evaluates many templates at one offset, and several
+ * contexts are created for it, which would otherwise each run code completion and search for the
+ * types to import.
+ * <p>
+ * Only the most recent offset is kept. It is discarded as soon as the document is modified and
+ * should be cleared when the content assist session ends, see {@link #clear()}.
+ * </p>
+ *
+ * @since 3.17
+ */
+public final class SharedCompletionContext {
+
+	private static SharedCompletionContext fgCurrent;
+
+	private final IDocument fDocument;
+	private final long fModificationStamp;
+	private final ICompilationUnit fCompilationUnit;
+	private final int fOffset;
+
+	private CompilationUnitCompletion fCompletion;
+
+	/**
+	 * Map from simple type name to the matching types that can be imported.
+	 */
+	private final Map<String, TypeNameMatch[]> fTypes= new HashMap<>();
+
+	private SharedCompletionContext(IDocument document, long modificationStamp, ICompilationUnit compilationUnit, int offset) {
+		fDocument= document;
+		fModificationStamp= modificationStamp;
+		fCompilationUnit= compilationUnit;
+		fOffset= offset;
+	}
+
+	/**
+	 * Returns the shared context for the given offset.
+	 *
+	 * @param document the document
+	 * @param compilationUnit the compilation unit of the document
+	 * @param offset the offset of the completion
+	 * @return the shared context, or <code>null</code> if the modifications of the document cannot
+	 *         be tracked
+	 */
+	public static synchronized SharedCompletionContext get(IDocument document, ICompilationUnit compilationUnit, int offset) {
+		if (!(document instanceof IDocumentExtension4))
+			return null;
+		long stamp= ((IDocumentExtension4) document).getModificationStamp();
+		if (stamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP)
+			return null;
+
+		SharedCompletionContext current= fgCurrent;
+		if (current == null || current.fDocument != document || current.fModificationStamp != stamp || current.fOffset != offset || !compilationUnit.equals(current.fCompilationUnit)) {
+			current= new SharedCompletionContext(document, stamp, compilationUnit, offset);
+			fgCurrent= current;
+		}
+		return current;
+	}
+
+	/**
+	 * Discards the shared context.
+	 */
+	public static synchronized void clear() {
+		fgCurrent= null;
+	}
+
+	/**
+	 * Returns the code completion at the offset, computing it on first access.
+	 *
+	 * @return the completion
+	 */
+	synchronized CompilationUnitCompletion getCompletion() {
+		if (fCompletion == null) {
+			fCompletion= new CompilationUnitCompletion(fCompilationUnit);
+			try {
+				fCompilationUnit.codeComplete(fOffset, fCompletion);
+			} catch (JavaModelException e) {
+				// ignore
+			}
+		}
+		return fCompletion;
+	}
+
+	/**
+	 * @param simpleTypeName the simple name of the type
+	 * @return the types found for the name, or <code>null</code> if not searched yet
+	 */
+	synchronized TypeNameMatch[] getTypes(String simpleTypeName) {
+		return fTypes.get(simpleTypeName);
+	}
+
+	/**
+	 * @param simpleTypeName the simple name of the type
+	 * @param types the types found for the name
+	 */
+	synchronized void putTypes(String simpleTypeName, TypeNameMatch[] types) {
+		fTypes.put(simpleTypeName, types);
+	}
+}
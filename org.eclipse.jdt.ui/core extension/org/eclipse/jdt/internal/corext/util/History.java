@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,7 +20,8 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.util.Collection;
-import java.util.Hashtable;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -48,7 +49,10 @@ import org.w3c.dom.NodeList;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.jdt.internal.corext.CorextMessages;
 
@@ -62,8 +66,12 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
  * MAX_HISTORY_SIZE. If the list exceeds this size the eldest element is removed
  * from the list. An element can be added/renewed with a call to <code>accessed(Object)</code>.
  *
- * The history can be stored to/loaded from an xml file.
- * 
+ * The history can be stored to/loaded from an xml file. Storing can be deferred to a background
+ * job with <code>scheduleSave()</code>.
+ *
+ * Queries for the position of an element do not lock the history: they are answered from an
+ * immutable snapshot of the positions that is published on every modification.
+ *
  * @param <K> key type
  * @param <V> value type
  */
@@ -72,16 +80,25 @@ public abstract class History<K, V> {
 	private static final String DEFAULT_ROOT_NODE_NAME= "histroyRootNode"; //$NON-NLS-1$
 	private static final String DEFAULT_INFO_NODE_NAME= "infoNode"; //$NON-NLS-1$
 	private static final int MAX_HISTORY_SIZE= 60;
+	private static final long SAVE_DELAY= 1000;
 
 	private static JavaUIException createException(Throwable t, String message) {
 		return new JavaUIException(JavaUIStatus.createError(IStatus.ERROR, message, t));
 	}
 
 	private final Map<K, V> fHistory;
-	private final Hashtable<K, Integer> fPositions;
+	/**
+	 * Immutable snapshot of the positions, replaced on every modification.
+	 */
+	private volatile Map<K, Integer> fPositions;
 	private final String fFileName;
 	private final String fRootNodeName;
 	private final String fInfoNodeName;
+	/**
+	 * Lock to serialize writes of the history file.
+	 */
+	private final Object fSaveLock= new Object();
+	private Job fSaveJob;
 
 	public History(String fileName, String rootNodeName, String infoNodeName) {
 		fHistory= new LinkedHashMap<K, V>(80, 0.75f, true) {
@@ -94,7 +111,7 @@ public abstract class History<K, V> {
 		fFileName= fileName;
 		fRootNodeName= rootNodeName;
 		fInfoNodeName= infoNodeName;
-		fPositions= new Hashtable<>(MAX_HISTORY_SIZE);
+		fPositions= Collections.emptyMap();
 	}
 
 	public History(String fileName) {
@@ -106,16 +123,16 @@ public abstract class History<K, V> {
 		rebuildPositions();
 	}
 
-	public synchronized boolean contains(V object) {
-		return fHistory.containsKey(getKey(object));
+	public boolean contains(V object) {
+		return fPositions.containsKey(getKey(object));
 	}
 
-	public synchronized boolean containsKey(K key) {
-		return fHistory.containsKey(key);
+	public boolean containsKey(K key) {
+		return fPositions.containsKey(key);
 	}
 
-	public synchronized boolean isEmpty() {
-		return fHistory.isEmpty();
+	public boolean isEmpty() {
+		return fPositions.isEmpty();
 	}
 
 	public synchronized Object remove(V object) {
@@ -139,14 +156,16 @@ public abstract class History<K, V> {
 	 * @param key The key of the object to inspect
 	 * @return value in [0.0, 1.0] the lower the older the element
 	 */
-	public synchronized float getNormalizedPosition(K key) {
-		if (!containsKey(key))
+	public float getNormalizedPosition(K key) {
+		Map<K, Integer> positions= fPositions;
+		Integer position= positions.get(key);
+		if (position == null)
 			return 0.0f;
 
-		int pos= fPositions.get(key).intValue() + 1;
+		int pos= position.intValue() + 1;
 
-		//containsKey(key) implies fHistory.size()>0
-		return (float)pos / (float)fHistory.size();
+		//containsKey(key) implies positions.size()>0
+		return (float)pos / (float)positions.size();
 	}
 
 	/**
@@ -157,11 +176,12 @@ public abstract class History<K, V> {
 	 * @param key The key of the object to inspect
 	 * @return value between 0 and MAX_HISTORY_SIZE - 1, or -1
 	 */
-	public synchronized int getPosition(K key) {
-		if (!containsKey(key))
+	public int getPosition(K key) {
+		Integer position= fPositions.get(key);
+		if (position == null)
 			return -1;
 
-		return fPositions.get(key).intValue();
+		return position.intValue();
 	}
 
 	public synchronized void load() {
@@ -187,13 +207,53 @@ public abstract class History<K, V> {
 		}
 	}
 
-	public synchronized void save() {
+	/**
+	 * Schedules a background job that saves the history. Subsequent calls within a short delay
+	 * are coalesced into a single write.
+	 */
+	public synchronized void scheduleSave() {
+		if (fSaveJob == null) {
+			fSaveJob= new Job(Messages.format(CorextMessages.History_save_job, BasicElementLabels.getResourceName(fFileName))) {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					save();
+					return Status.OK_STATUS;
+				}
+			};
+			fSaveJob.setSystem(true);
+			fSaveJob.setPriority(Job.DECORATE);
+		}
+		fSaveJob.schedule(SAVE_DELAY);
+	}
+
+	/**
+	 * Saves the history. The history is only locked while the content of the file is created, not
+	 * while the file is written.
+	 */
+	public void save() {
+		synchronized (fSaveLock) {
+			Document document;
+			synchronized (this) {
+				if (fSaveJob != null && fSaveJob.getState() != Job.RUNNING)
+					fSaveJob.cancel();
+				try {
+					document= createDocument(getValues());
+				} catch (CoreException e) {
+					JavaPlugin.log(e);
+					return;
+				}
+			}
+			save(document);
+		}
+	}
+
+	private void save(Document document) {
 		IPath stateLocation= JavaPlugin.getDefault().getStateLocation().append(fFileName);
 		File file= stateLocation.toFile();
 		OutputStream out= null;
 		try {
 			out= new FileOutputStream(file);
-			save(out);
+			save(document, out);
 		} catch (IOException e) {
 			JavaPlugin.log(e);
 		} catch (CoreException e) {
@@ -222,7 +282,7 @@ public abstract class History<K, V> {
 	}
 
 	/**
-	 * Store <code>Object</code> in <code>Element</code>
+	 * Store <code>Object</code> in <code>Element</code>. Called while the history is locked.
 	 *
 	 * @param object The object to store
 	 * @param element The Element to store to
@@ -246,14 +306,15 @@ public abstract class History<K, V> {
 	protected abstract K getKey(V object);
 
 	private void rebuildPositions() {
-		fPositions.clear();
+		Map<K, Integer> positions= new HashMap<>(fHistory.size() * 4 / 3 + 1);
 		Collection<V> values= fHistory.values();
 		int pos=0;
 		for (Iterator<V> iter= values.iterator(); iter.hasNext();) {
 			V element= iter.next();
-			fPositions.put(getKey(element), Integer.valueOf(pos));
+			positions.put(getKey(element), Integer.valueOf(pos));
 			pos++;
 		}
+		fPositions= Collections.unmodifiableMap(positions);
 	}
 
 	private void load(InputSource inputSource) throws CoreException {
@@ -291,7 +352,7 @@ public abstract class History<K, V> {
 		rebuildPositions();
 	}
 
-	private void save(OutputStream stream) throws CoreException {
+	private Document createDocument(Collection<V> values) throws CoreException {
 		try {
 			DocumentBuilderFactory factory= DocumentBuilderFactory.newInstance();
 			DocumentBuilder builder= factory.newDocumentBuilder();
@@ -300,14 +361,20 @@ public abstract class History<K, V> {
 			Element rootElement = document.createElement(fRootNodeName);
 			document.appendChild(rootElement);
 
-			Iterator<V> values= getValues().iterator();
-			while (values.hasNext()) {
-				Object object= values.next();
+			for (Iterator<V> iter= values.iterator(); iter.hasNext();) {
+				Object object= iter.next();
 				Element element= document.createElement(fInfoNodeName);
 				setAttributes(object, element);
 				rootElement.appendChild(element);
 			}
+			return document;
+		} catch (ParserConfigurationException e) {
+			throw createException(e, Messages.format(CorextMessages.History_error_serialize, BasicElementLabels.getResourceName(fFileName)));
+		}
+	}
 
+	private void save(Document document, OutputStream stream) throws CoreException {
+		try {
 			Transformer transformer=TransformerFactory.newInstance().newTransformer();
 			transformer.setOutputProperty(OutputKeys.METHOD, "xml"); //$NON-NLS-1$
 			transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8"); //$NON-NLS-1$
@@ -318,8 +385,6 @@ public abstract class History<K, V> {
 			transformer.transform(source, result);
 		} catch (TransformerException e) {
 			throw createException(e, Messages.format(CorextMessages.History_error_serialize, BasicElementLabels.getResourceName(fFileName)));
-		} catch (ParserConfigurationException e) {
-			throw createException(e, Messages.format(CorextMessages.History_error_serialize, BasicElementLabels.getResourceName(fFileName)));
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -171,6 +171,8 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	private volatile boolean fNeedsConsistencyCheck;
 	// Map of cached time stamps
 	private Map<TypeNameMatch, Long> fTimestampMapping;
+	// Serializes consistency checks, see internalCheckConsistency(IProgressMonitor)
+	private final Object fConsistencyCheckLock= new Object();
 
 	private final IElementChangedListener fDeltaListener;
 	private final UpdateJob fUpdateJob;
@@ -242,11 +244,6 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 		internalCheckConsistency(monitor);
 	}
 
-	@Override
-	public synchronized boolean contains(TypeNameMatch type) {
-		return super.contains(type);
-	}
-
 	@Override
 	public synchronized void accessed(TypeNameMatch info) {
 		// Fetching the timestamp might not be cheap (remote file system
@@ -300,41 +297,58 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 		return object;
 	}
 
-	private synchronized void internalCheckConsistency(IProgressMonitor monitor) throws OperationCanceledException {
-		// Setting fNeedsConsistencyCheck is necessary here since
-		// markAsInconsistent isn't synchronized.
-		fNeedsConsistencyCheck= true;
-		List<TypeNameMatch> typesToCheck= new ArrayList<>(getKeys());
-		monitor.beginTask(CorextMessages.TypeInfoHistory_consistency_check, typesToCheck.size());
-		monitor.setTaskName(CorextMessages.TypeInfoHistory_consistency_check);
-		for (Iterator<TypeNameMatch> iter= typesToCheck.iterator(); iter.hasNext();) {
-			TypeNameMatch type= iter.next();
-			long currentTimestamp= getContainerTimestamp(type);
-			Long lastTested= fTimestampMapping.get(type);
-			if (lastTested != null && currentTimestamp != IResource.NULL_STAMP && currentTimestamp == lastTested.longValue() && !isContainerDirty(type))
-				continue;
-			try {
-				IType jType= type.getType();
-				if (jType == null || !jType.exists()) {
-					remove(type);
-				} else {
-					// copy over the modifiers since they may have changed
-					int modifiers= jType.getFlags();
-					if (modifiers != type.getModifiers()) {
-						replace(type, SearchEngine.createTypeNameMatch(jType, modifiers));
+	private void internalCheckConsistency(IProgressMonitor monitor) throws OperationCanceledException {
+		// Only one consistency check at a time. The history itself is not locked while the
+		// container time stamps are fetched, so that readers and writers are not blocked.
+		synchronized (fConsistencyCheckLock) {
+			// Setting fNeedsConsistencyCheck is necessary here since
+			// markAsInconsistent isn't synchronized.
+			fNeedsConsistencyCheck= true;
+			List<TypeNameMatch> typesToCheck;
+			synchronized (this) {
+				typesToCheck= new ArrayList<>(getKeys());
+			}
+			monitor.beginTask(CorextMessages.TypeInfoHistory_consistency_check, typesToCheck.size());
+			monitor.setTaskName(CorextMessages.TypeInfoHistory_consistency_check);
+			for (Iterator<TypeNameMatch> iter= typesToCheck.iterator(); iter.hasNext();) {
+				TypeNameMatch type= iter.next();
+				long currentTimestamp= getContainerTimestamp(type);
+				Long lastTested;
+				synchronized (this) {
+					lastTested= fTimestampMapping.get(type);
+				}
+				if (lastTested != null && currentTimestamp != IResource.NULL_STAMP && currentTimestamp == lastTested.longValue() && !isContainerDirty(type))
+					continue;
+				try {
+					IType jType= type.getType();
+					if (jType == null || !jType.exists()) {
+						remove(type);
 					} else {
-						fTimestampMapping.put(type, Long.valueOf(currentTimestamp));
+						// copy over the modifiers since they may have changed
+						int modifiers= jType.getFlags();
+						if (modifiers != type.getModifiers()) {
+							replace(type, SearchEngine.createTypeNameMatch(jType, modifiers));
+						} else {
+							updateTimestamp(type, currentTimestamp);
+						}
 					}
+				} catch (JavaModelException e) {
+					remove(type);
 				}
-			} catch (JavaModelException e) {
-				remove(type);
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+				monitor.worked(1);
 			}
-			if (monitor.isCanceled())
-				throw new OperationCanceledException();
-			monitor.worked(1);
+			monitor.done();
+			fNeedsConsistencyCheck= false;
+		}
+	}
+
+	private synchronized void updateTimestamp(TypeNameMatch type, long timestamp) {
+		// the type might have been removed while its container was checked
+		if (super.contains(type)) {
+			fTimestampMapping.put(type, Long.valueOf(timestamp));
 		}
-		monitor.done();
-		fNeedsConsistencyCheck= false;
 	}
 
 	private long getContainerTimestamp(TypeNameMatch match) {
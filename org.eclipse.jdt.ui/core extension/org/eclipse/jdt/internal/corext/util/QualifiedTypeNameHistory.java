@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -58,7 +58,9 @@ public class QualifiedTypeNameHistory extends History<String, String> {
 	}
 
 	public static void remember(String fullyQualifiedTypeName) {
-		getDefault().accessed(fullyQualifiedTypeName);
+		QualifiedTypeNameHistory history= getDefault();
+		history.accessed(fullyQualifiedTypeName);
+		history.scheduleSave();
 	}
 
 }
@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.nls;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Index of the keys defined in a properties file. The file is read in a single pass which
+ * records the unescaped key of every property together with the offset and length of the key in
+ * the file, following the syntax of {@link java.util.Properties#load(Reader)}. If a key is
+ * defined more than once, the position of its first definition is recorded and the key is
+ * reported as duplicate.
+ * <p>
+ * The index of a file is cached and reused as long as the modification stamps of the file and of
+ * its connected file buffer do not change.
+ * </p>
+ *
+ * @since 3.17
+ */
+public class PropertiesFileKeyIndex {
+
+	private static final int MAX_CACHED_INDEXES= 64;
+
+	private static final Map<IFile, PropertiesFileKeyIndex> fgCache= new LinkedHashMap<IFile, PropertiesFileKeyIndex>(16, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IFile, PropertiesFileKeyIndex> eldest) {
+			return size() > MAX_CACHED_INDEXES;
+		}
+	};
+
+	private final Map<String, Integer> fKeys= new LinkedHashMap<>();
+	private final Set<String> fDuplicateKeys= new LinkedHashSet<>();
+	private int[] fPositions= new int[32];
+
+	private long fFileStamp= IResource.NULL_STAMP;
+	private long fDocumentStamp= IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+
+	private PropertiesFileKeyIndex() {
+	}
+
+	/**
+	 * Creates the index of the given properties file content.
+	 *
+	 * @param content the content of a properties file
+	 * @return the index
+	 */
+	public static PropertiesFileKeyIndex create(String content) {
+		PropertiesFileKeyIndex index= new PropertiesFileKeyIndex();
+		index.parse(content);
+		return index;
+	}
+
+	/**
+	 * Returns the index of the given properties file. If the file is connected to a file buffer,
+	 * the content of the buffer is indexed.
+	 *
+	 * @param file the properties file
+	 * @return the index
+	 * @throws CoreException if the file cannot be read
+	 */
+	public static PropertiesFileKeyIndex getIndex(IFile file) throws CoreException {
+		long fileStamp= file.getModificationStamp();
+		long documentStamp= IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+		IDocument document= null;
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		ITextFileBuffer buffer= manager.getTextFileBuffer(file.getFullPath(), LocationKind.IFILE);
+		if (buffer != null) {
+			document= buffer.getDocument();
+			if (document instanceof IDocumentExtension4)
+				documentStamp= ((IDocumentExtension4) document).getModificationStamp();
+		}
+		boolean cacheable= fileStamp != IResource.NULL_STAMP && (document == null || documentStamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP);
+
+		if (cacheable) {
+			synchronized (fgCache) {
+				PropertiesFileKeyIndex index= fgCache.get(file);
+				if (index != null && index.fFileStamp == fileStamp && index.fDocumentStamp == documentStamp)
+					return index;
+			}
+		}
+
+		String content= document != null ? document.get() : readContents(file);
+		PropertiesFileKeyIndex index= create(content);
+		if (cacheable) {
+			index.fFileStamp= fileStamp;
+			index.fDocumentStamp= documentStamp;
+			synchronized (fgCache) {
+				fgCache.put(file, index);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Returns whether the given key is defined.
+	 *
+	 * @param key the unescaped key
+	 * @return <code>true</code> if the key is defined
+	 */
+	public boolean containsKey(String key) {
+		return fKeys.containsKey(key);
+	}
+
+	/**
+	 * Returns the offset of the first definition of the given key.
+	 *
+	 * @param key the unescaped key
+	 * @return the offset of the key, or <code>-1</code> if the key is not defined
+	 */
+	public int getOffset(String key) {
+		Integer index= fKeys.get(key);
+		return index != null ? fPositions[2 * index.intValue()] : -1;
+	}
+
+	/**
+	 * Returns the length of the first definition of the given key as written in the file,
+	 * including escape characters.
+	 *
+	 * @param key the unescaped key
+	 * @return the length of the key, or <code>-1</code> if the key is not defined
+	 */
+	public int getLength(String key) {
+		Integer index= fKeys.get(key);
+		return index != null ? fPositions[2 * index.intValue() + 1] : -1;
+	}
+
+	/**
+	 * @return the unescaped keys in the order of their first definition
+	 */
+	public Set<String> getKeys() {
+		return Collections.unmodifiableSet(fKeys.keySet());
+	}
+
+	/**
+	 * @return the unescaped keys which are defined more than once
+	 */
+	public Set<String> getDuplicateKeys() {
+		return Collections.unmodifiableSet(fDuplicateKeys);
+	}
+
+	/**
+	 * @return the number of distinct keys
+	 */
+	public int size() {
+		return fKeys.size();
+	}
+
+	private void addKey(String key, int offset, int length) {
+		if (fKeys.containsKey(key)) {
+			fDuplicateKeys.add(key);
+			return;
+		}
+		int index= fKeys.size();
+		if (2 * index + 1 >= fPositions.length)
+			fPositions= Arrays.copyOf(fPositions, 2 * fPositions.length);
+		fPositions[2 * index]= offset;
+		fPositions[2 * index + 1]= length;
+		fKeys.put(key, Integer.valueOf(index));
+	}
+
+	private void parse(String content) {
+		int length= content.length();
+		StringBuilder key= new StringBuilder();
+		int i= 0;
+		while (i < length) {
+			char c= content.charAt(i);
+			if (isWhitespace(c) || c == '\r' || c == '\n') {
+				i++;
+				continue;
+			}
+			if (c == '#' || c == '!') {
+				i= skipToLineEnd(content, i, false);
+				continue;
+			}
+
+			int keyStart= i;
+			key.setLength(0);
+			while (i < length) {
+				c= content.charAt(i);
+				if (c == '\\') {
+					if (i + 1 == length) {
+						i++;
+						break;
+					}
+					char next= content.charAt(i + 1);
+					if (next == '\r' || next == '\n') {
+						i= skipLineContinuation(content, i);
+					} else if (next == 'u') {
+						i= appendUnicodeEscape(content, i, key);
+					} else {
+						key.append(unescape(next));
+						i+= 2;
+					}
+					continue;
+				}
+				if (c == '=' || c == ':' || isWhitespace(c) || c == '\r' || c == '\n')
+					break;
+				key.append(c);
+				i++;
+			}
+			addKey(key.toString(), keyStart, i - keyStart);
+			i= skipToLineEnd(content, i, true);
+		}
+	}
+
+	/**
+	 * Skips to the end of the current logical line.
+	 *
+	 * @param content the content
+	 * @param i the current offset
+	 * @param followContinuations <code>true</code> if escaped line breaks continue the line
+	 * @return the offset of the line break ending the line
+	 */
+	private static int skipToLineEnd(String content, int i, boolean followContinuations) {
+		int length= content.length();
+		while (i < length) {
+			char c= content.charAt(i);
+			if (c == '\r' || c == '\n')
+				return i;
+			if (c == '\\' && followContinuations && i + 1 < length) {
+				char next= content.charAt(i + 1);
+				if (next == '\r' || next == '\n') {
+					i= skipLineContinuation(content, i);
+				} else {
+					i+= 2;
+				}
+				continue;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	private static int skipLineContinuation(String content, int i) {
+		int length= content.length();
+		i+= 2;
+		if (content.charAt(i - 1) == '\r' && i < length && content.charAt(i) == '\n')
+			i++;
+		while (i < length && isWhitespace(content.charAt(i)))
+			i++;
+		return i;
+	}
+
+	private static int appendUnicodeEscape(String content, int i, StringBuilder key) {
+		if (i + 6 <= content.length()) {
+			try {
+				key.append((char) Integer.parseInt(content.substring(i + 2, i + 6), 16));
+				return i + 6;
+			} catch (NumberFormatException e) {
+				// malformed escape, take the 'u' literally
+			}
+		}
+		key.append('u');
+		return i + 2;
+	}
+
+	private static char unescape(char c) {
+		switch (c) {
+			case 't':
+				return '\t';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 'f':
+				return '\f';
+			default:
+				return c;
+		}
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\f';
+	}
+
+	private static String readContents(IFile file) throws CoreException {
+		try (InputStream stream= file.getContents(); Reader reader= new InputStreamReader(stream, file.getCharset())) {
+			StringBuilder content= new StringBuilder();
+			char[] buffer= new char[8192];
+			int read;
+			while ((read= reader.read(buffer)) != -1) {
+				content.append(buffer, 0, read);
+			}
+			return content.toString();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), IStatus.ERROR, e.getMessage(), e));
+		}
+	}
+}
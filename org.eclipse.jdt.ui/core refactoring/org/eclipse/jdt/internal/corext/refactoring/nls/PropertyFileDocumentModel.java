@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,8 +17,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.ibm.icu.text.Collator;
 
@@ -42,6 +43,10 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 public class PropertyFileDocumentModel {
 
 	private List<KeyValuePairModell> fKeyValuePairs;
+	/**
+	 * The first key value pair in {@link #fKeyValuePairs} for every key.
+	 */
+	private Map<String, KeyValuePairModell> fFirstKeyValuePairs;
     private String fLineDelimiter;
 
     public PropertyFileDocumentModel(IDocument document) {
@@ -63,13 +68,7 @@ public class PropertyFileDocumentModel {
 	 * @return the pair with the key or <b>null</b> if no such pair.
 	 */
     public KeyValuePair getKeyValuePair(String key) {
-    	for (int i= 0; i < fKeyValuePairs.size(); i++) {
-            KeyValuePairModell keyValuePair = fKeyValuePairs.get(i);
-            if (keyValuePair.getKey().equals(key)) {
-            	return keyValuePair;
-            }
-    	}
-    	return null;
+    	return fFirstKeyValuePairs.get(key);
     }
 
     private InsertEdit insert(KeyValuePair keyValuePair) {
@@ -104,6 +103,10 @@ public class PropertyFileDocumentModel {
         keyValuePairModell.fOffset= offset;
         keyValuePairModell.fLength= text.length();
         fKeyValuePairs.add(index, keyValuePairModell);
+        KeyValuePairModell first= fFirstKeyValuePairs.get(keyValuePairModell.fKey);
+        // the pairs are ordered by offset, the pair the new one is inserted before can have the same offset
+        if (first == null || first.fOffset > offset || first == insertHere)
+        	fFirstKeyValuePairs.put(keyValuePairModell.fKey, keyValuePairModell);
 		return new InsertEdit(offset, text);
     }
 
@@ -134,24 +137,18 @@ public class PropertyFileDocumentModel {
     }
 
     public DeleteEdit remove(String key) {
-    	for (Iterator<KeyValuePairModell> iter = fKeyValuePairs.iterator(); iter.hasNext();) {
-            KeyValuePairModell keyValuePair = iter.next();
-            if (keyValuePair.fKey.equals(key)) {
-            	return new DeleteEdit(keyValuePair.fOffset, keyValuePair.getLength());
-            }
-        }
-        return null;
+    	KeyValuePairModell keyValuePair= fFirstKeyValuePairs.get(key);
+    	if (keyValuePair == null)
+    		return null;
+    	return new DeleteEdit(keyValuePair.fOffset, keyValuePair.getLength());
     }
 
     public ReplaceEdit replace(KeyValuePair toReplace, KeyValuePair replaceWith) {
-        for (Iterator<KeyValuePairModell> iter = fKeyValuePairs.iterator(); iter.hasNext();) {
-            KeyValuePairModell keyValuePair = iter.next();
-            if (keyValuePair.fKey.equals(toReplace.getKey())) {
-                String newText= new KeyValuePairModell(replaceWith).getKeyValueText();
-                return new ReplaceEdit(keyValuePair.fOffset, keyValuePair.getLength(), newText);
-            }
-        }
-        return null;
+    	KeyValuePairModell keyValuePair= fFirstKeyValuePairs.get(toReplace.getKey());
+    	if (keyValuePair == null)
+    		return null;
+    	String newText= new KeyValuePairModell(replaceWith).getKeyValueText();
+    	return new ReplaceEdit(keyValuePair.fOffset, keyValuePair.getLength(), newText);
     }
 
     private int findInsertPosition(KeyValuePairModell keyValuePair) {
@@ -172,6 +169,7 @@ public class PropertyFileDocumentModel {
 
     private void parsePropertyDocument(IDocument document) {
         fKeyValuePairs = new ArrayList<>();
+        fFirstKeyValuePairs= new HashMap<>();
 
         SimpleLineReader reader = new SimpleLineReader(document);
         int offset = 0;
@@ -186,7 +184,9 @@ public class PropertyFileDocumentModel {
 					String value= line.substring(idx + 1);
 					String trimmedValue= Strings.trimLeadingTabsAndSpaces(value);
 					int length= key.length() + 1 + value.length();
-                    fKeyValuePairs.add(new KeyValuePairModell(trimmedKey, trimmedValue, offset, length, leadingWhiteSpaces));
+                    KeyValuePairModell keyValuePair= new KeyValuePairModell(trimmedKey, trimmedValue, offset, length, leadingWhiteSpaces);
+                    fKeyValuePairs.add(keyValuePair);
+                    fFirstKeyValuePairs.putIfAbsent(trimmedKey, keyValuePair);
                     leadingWhiteSpaces = 0;
                 }
             } else {
@@ -204,6 +204,7 @@ public class PropertyFileDocumentModel {
 		}
         LastKeyValuePair lastKeyValuePair = new LastKeyValuePair(offset, needsNewLine);
 		fKeyValuePairs.add(lastKeyValuePair);
+		fFirstKeyValuePairs.putIfAbsent(lastKeyValuePair.fKey, lastKeyValuePair);
     }
 
     private int getIndexOfSeparationCharacter(String line) {
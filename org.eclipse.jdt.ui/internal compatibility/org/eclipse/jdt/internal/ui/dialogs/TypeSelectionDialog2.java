@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -251,7 +251,7 @@ public class TypeSelectionDialog2 extends SelectionStatusDialog {
 		boolean result;
 		try {
 			if (getReturnCode() == OK) {
-				OpenTypeHistory.getInstance().save();
+				OpenTypeHistory.getInstance().scheduleSave();
 			}
 		} finally {
 			result= super.close();
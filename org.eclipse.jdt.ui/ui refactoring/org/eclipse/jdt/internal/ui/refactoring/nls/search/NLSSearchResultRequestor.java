@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,11 +13,6 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.refactoring.nls.search;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -28,11 +23,6 @@ import org.eclipse.core.runtime.IStatus;
 
 import org.eclipse.core.resources.IFile;
 
-import org.eclipse.core.filebuffers.FileBuffers;
-import org.eclipse.core.filebuffers.ITextFileBuffer;
-import org.eclipse.core.filebuffers.ITextFileBufferManager;
-import org.eclipse.core.filebuffers.LocationKind;
-
 import org.eclipse.jface.text.Position;
 
 import org.eclipse.search.ui.text.Match;
@@ -41,10 +31,12 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.core.SourceRange;
 import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.compiler.ITerminalSymbols;
@@ -52,10 +44,9 @@ import org.eclipse.jdt.core.compiler.InvalidInputException;
 import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchRequestor;
 
-import org.eclipse.jdt.internal.corext.refactoring.nls.PropertyFileDocumentModel;
+import org.eclipse.jdt.internal.corext.refactoring.nls.PropertiesFileKeyIndex;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
-import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.JavaUIStatus;
 import org.eclipse.jdt.internal.ui.util.StringMatcher;
 
@@ -83,9 +74,18 @@ class NLSSearchResultRequestor extends SearchRequestor {
 
 	private NLSSearchResult fResult;
 	private IFile fPropertiesFile;
-	private Properties fProperties;
+	private PropertiesFileKeyIndex fPropertiesIndex;
 	private HashSet<String> fUsedPropertyNames;
 
+	/**
+	 * The compilation unit of the previous match. The matches of a compilation unit are reported
+	 * together, so its source and scanner are kept until a match in another unit is reported.
+	 * @since 3.17
+	 */
+	private ICompilationUnit fUnit;
+	private String fUnitSource;
+	private IScanner fUnitScanner;
+
 	public NLSSearchResultRequestor(IFile propertiesFile, NLSSearchResult result) {
 		fPropertiesFile= propertiesFile;
 		fResult= result;
@@ -96,8 +96,18 @@ class NLSSearchResultRequestor extends SearchRequestor {
 	 */
 	@Override
 	public void beginReporting() {
-		loadProperties();
-		fUsedPropertyNames= new HashSet<>(fProperties.size());
+		loadPropertiesIndex();
+		fUsedPropertyNames= new HashSet<>(fPropertiesIndex.size());
+	}
+
+	/*
+	 * @see org.eclipse.jdt.core.search.SearchRequestor#endReporting()
+	 */
+	@Override
+	public void endReporting() {
+		fUnit= null;
+		fUnitSource= null;
+		fUnitScanner= null;
 	}
 
 	/*
@@ -125,17 +135,17 @@ class NLSSearchResultRequestor extends SearchRequestor {
 		if (javaElement.getElementType() == IJavaElement.TYPE)
 			return; //classes extending the accessor class and workaround for bug 61286
 
-		// heuristic: ignore matches in resource bundle name field:
-		if (javaElement.getElementType() == IJavaElement.FIELD) {
-			IField field= (IField) javaElement;
-			String source= field.getSource();
-			if (source != null && fgGetClassNameMatcher.match(source))
-				return;
-		}
+		// keys are only found in compilation units, don't look up the source of class files:
+		ICompilationUnit unit= (ICompilationUnit) javaElement.getAncestor(IJavaElement.COMPILATION_UNIT);
+		if (unit == null || !setUnit(unit))
+			return;
 
 		if (javaElement instanceof ISourceReference) {
-			String source= ((ISourceReference) javaElement).getSource();
+			String source= getSource((ISourceReference) javaElement);
 			if (source != null) {
+				// heuristic: ignore matches in resource bundle name field:
+				if (javaElement.getElementType() == IJavaElement.FIELD && fgGetClassNameMatcher.match(source))
+					return;
 				if (source.indexOf("NLS.initializeMessages") != -1) //$NON-NLS-1$
 					return;
 			}
@@ -158,13 +168,13 @@ class NLSSearchResultRequestor extends SearchRequestor {
 
 	public void reportUnusedPropertyNames(IProgressMonitor pm) {
 		//Don't use endReporting() for long running operation.
-		pm.beginTask("", fProperties.size()); //$NON-NLS-1$
+		pm.beginTask("", fPropertiesIndex.size()); //$NON-NLS-1$
 		boolean hasUnused= false;
 		pm.setTaskName(NLSSearchMessages.NLSSearchResultRequestor_searching);
 		FileEntry groupElement= new FileEntry(fPropertiesFile, NLSSearchMessages.NLSSearchResultCollector_unusedKeys);
 
-		for (Enumeration<?> enumeration= fProperties.propertyNames(); enumeration.hasMoreElements();) {
-			String propertyName= (String) enumeration.nextElement();
+		for (Iterator<String> iter= fPropertiesIndex.getKeys().iterator(); iter.hasNext();) {
+			String propertyName= iter.next();
 			if (!fUsedPropertyNames.contains(propertyName)) {
 				addMatch(groupElement, propertyName);
 				hasUnused= true;
@@ -179,23 +189,13 @@ class NLSSearchResultRequestor extends SearchRequestor {
 
 
 	private void addMatch(FileEntry groupElement, String propertyName) {
-		/*
-		 * TODO (bug 63794): Should read in .properties file with our own reader and not
-		 * with Properties.load(InputStream) . Then, we can remember start position and
-		 * original version (not interpreting escape characters) for each property.
-		 *
-		 * The current workaround is to escape the key again before searching in the
-		 * .properties file. However, this can fail if the key is escaped in a different
-		 * manner than what PropertyFileDocumentModel.unwindEscapeChars(.) produces.
-		 */
-		String escapedPropertyName= PropertyFileDocumentModel.escape(propertyName, false);
-		int start= findPropertyNameStartPosition(escapedPropertyName);
+		int start= fPropertiesIndex.getOffset(propertyName);
 		int length;
 		if (start == -1) { // not found -> report at beginning
 			start= 0;
 			length= 0;
 		} else {
-			length= escapedPropertyName.length();
+			length= fPropertiesIndex.getLength(propertyName);
 		}
 		fResult.addMatch(new Match(groupElement, start, length));
 	}
@@ -212,14 +212,11 @@ class NLSSearchResultRequestor extends SearchRequestor {
 			return false;
 
 		fUsedPropertyNames.add(key);
-		if (fProperties.getProperty(key) != null) {
-			return true;
-		}
-		return false;
+		return fPropertiesIndex.containsKey(key);
 	}
 
 	public boolean hasPropertyKey(String key) {
-		return fProperties.containsKey(key);
+		return fPropertiesIndex.containsKey(key);
 	}
 
 	public boolean isUsedPropertyKey(String key) {
@@ -240,23 +237,11 @@ class NLSSearchResultRequestor extends SearchRequestor {
 	 */
 	private String findKey(Position keyPositionResult, IJavaElement enclosingElement) throws CoreException {
 		ICompilationUnit unit= (ICompilationUnit)enclosingElement.getAncestor(IJavaElement.COMPILATION_UNIT);
-		if (unit == null)
-			return null;
-
-		String source= unit.getSource();
-		if (source == null)
+		if (unit == null || !setUnit(unit))
 			return null;
 
-		IJavaProject javaProject= unit.getJavaProject();
-		IScanner scanner= null;
-		if (javaProject != null) {
-			String complianceLevel= javaProject.getOption(JavaCore.COMPILER_COMPLIANCE, true);
-			String sourceLevel= javaProject.getOption(JavaCore.COMPILER_SOURCE, true);
-			scanner= ToolFactory.createScanner(false, false, false, sourceLevel, complianceLevel);
-		} else {
-			scanner= ToolFactory.createScanner(false, false, false, false);
-		}
-		scanner.setSource(source.toCharArray());
+		String source= fUnitSource;
+		IScanner scanner= fUnitScanner;
 		scanner.resetTo(keyPositionResult.getOffset() + keyPositionResult.getLength(), source.length());
 
 		try {
@@ -327,121 +312,66 @@ class NLSSearchResultRequestor extends SearchRequestor {
 	}
 
 	/**
-	 * Finds the start position in the property file. We assume that
-	 * the key is the first match on a line.
+	 * Reads the source of the given compilation unit and sets up the scanner for it, unless it is
+	 * the unit of the previous match.
 	 *
-	 * @param propertyName the property name
-	 * @return	the start position of the property name in the file, -1 if not found
+	 * @param unit the compilation unit of the current match
+	 * @return <code>true</code> if the source of the unit is available
+	 * @throws CoreException if the source of the unit cannot be accessed
 	 */
-	private int findPropertyNameStartPosition(String propertyName) {
-		// Fix for http://dev.eclipse.org/bugs/show_bug.cgi?id=19319
-		InputStream stream= null;
-		LineReader lineReader= null;
-		String encoding;
-		try {
-			encoding= fPropertiesFile.getCharset();
-		} catch (CoreException e1) {
-			encoding= "ISO-8859-1";  //$NON-NLS-1$
-		}
-		try {
-			stream= createInputStream(fPropertiesFile);
-			lineReader= new LineReader(stream, encoding);
-		} catch (CoreException cex) {
-			// failed to get input stream
-			JavaPlugin.log(cex);
-			return -1;
-		} catch (IOException e) {
-			if (stream != null) {
-				try {
-					stream.close();
-				} catch (IOException ce) {
-					JavaPlugin.log(ce);
-				}
-			}
-			return -1;
-		}
-		int start= 0;
-		try {
-			StringBuffer buf= new StringBuffer(80);
-			int eols= lineReader.readLine(buf);
-			int keyLength= propertyName.length();
-			while (eols > 0) {
-				String line= buf.toString();
-				int i= line.indexOf(propertyName);
-				int charPos= i + keyLength;
-				char terminatorChar= 0;
-				boolean hasNoValue= (charPos >= line.length());
-				if (i > -1 && !hasNoValue)
-					terminatorChar= line.charAt(charPos);
-				if (line.trim().startsWith(propertyName) &&
-						(hasNoValue || Character.isWhitespace(terminatorChar) || terminatorChar == '=')) {
-					start += line.indexOf(propertyName);
-					eols= -17; // found key
+	private boolean setUnit(ICompilationUnit unit) throws CoreException {
+		if (!unit.equals(fUnit)) {
+			fUnit= unit;
+			fUnitSource= unit.getSource();
+			fUnitScanner= null;
+			if (fUnitSource != null) {
+				IJavaProject javaProject= unit.getJavaProject();
+				if (javaProject != null) {
+					String complianceLevel= javaProject.getOption(JavaCore.COMPILER_COMPLIANCE, true);
+					String sourceLevel= javaProject.getOption(JavaCore.COMPILER_SOURCE, true);
+					fUnitScanner= ToolFactory.createScanner(false, false, false, sourceLevel, complianceLevel);
 				} else {
-					start += line.length() + eols;
-					buf.setLength(0);
-					eols= lineReader.readLine(buf);
+					fUnitScanner= ToolFactory.createScanner(false, false, false, false);
 				}
-			}
-			if (eols != -17)
-				start= -1; //key not found in file. See bug 63794. This can happen if the key contains escaped characters.
-		} catch (IOException ex) {
-			JavaPlugin.log(ex);
-			return -1;
-		} finally {
-			try {
-				lineReader.close();
-			} catch (IOException ex) {
-				JavaPlugin.log(ex);
+				fUnitScanner.setSource(fUnitSource.toCharArray());
 			}
 		}
-		return start;
+		return fUnitSource != null;
+	}
+
+	/**
+	 * Returns the source of an element of the current compilation unit, taken from the source of
+	 * the unit.
+	 *
+	 * @param reference the element
+	 * @return the source of the element, or <code>null</code> if it is not available
+	 * @throws CoreException if the source range of the element cannot be accessed
+	 */
+	private String getSource(ISourceReference reference) throws CoreException {
+		ISourceRange range= reference.getSourceRange();
+		if (!SourceRange.isAvailable(range) || range.getOffset() + range.getLength() > fUnitSource.length())
+			return null;
+		return fUnitSource.substring(range.getOffset(), range.getOffset() + range.getLength());
 	}
 
-	private void loadProperties() {
-		Set<Object> duplicateKeys= new HashSet<>();
-		fProperties= new Properties(duplicateKeys);
-		InputStream stream;
+	private void loadPropertiesIndex() {
 		try {
-			stream= new BufferedInputStream(createInputStream(fPropertiesFile));
+			fPropertiesIndex= PropertiesFileKeyIndex.getIndex(fPropertiesFile);
 		} catch (CoreException ex) {
-			fProperties= new Properties();
+			fPropertiesIndex= PropertiesFileKeyIndex.create(""); //$NON-NLS-1$
 			return;
 		}
-		try {
-			fProperties.load(stream);
-		} catch (IOException ex) {
-			fProperties= new Properties();
-			return;
-		} finally {
-			try {
-				stream.close();
-			} catch (IOException ex) {
-			}
-			reportDuplicateKeys(duplicateKeys);
-		}
-	}
-
-	private InputStream createInputStream(IFile propertiesFile) throws CoreException {
-		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
-		if (manager != null) {
-			ITextFileBuffer buffer= manager.getTextFileBuffer(propertiesFile.getFullPath(), LocationKind.IFILE);
-			if (buffer != null) {
-				return new ByteArrayInputStream(buffer.getDocument().get().getBytes());
-			}
-		}
-
-		return propertiesFile.getContents();
+		reportDuplicateKeys(fPropertiesIndex.getDuplicateKeys());
 	}
 
-	private void reportDuplicateKeys(Set<Object> duplicateKeys) {
+	private void reportDuplicateKeys(Set<String> duplicateKeys) {
 		if (duplicateKeys.size() == 0)
 			return;
 
 		FileEntry groupElement= new FileEntry(fPropertiesFile, NLSSearchMessages.NLSSearchResultCollector_duplicateKeys);
-		Iterator<Object> iter= duplicateKeys.iterator();
+		Iterator<String> iter= duplicateKeys.iterator();
 		while (iter.hasNext()) {
-			String propertyName= (String) iter.next();
+			String propertyName= iter.next();
 			addMatch(groupElement, propertyName);
 		}
 		fResult.addFileEntryGroup(groupElement);
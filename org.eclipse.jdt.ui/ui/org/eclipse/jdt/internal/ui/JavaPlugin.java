@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -88,6 +88,7 @@ import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.manipulation.JavaManipulation;
 
 import org.eclipse.jdt.internal.core.manipulation.CodeTemplateContextType;
+import org.eclipse.jdt.internal.core.manipulation.JavaElementLabelCache;
 import org.eclipse.jdt.internal.corext.fix.CleanUpRegistry;
 import org.eclipse.jdt.internal.corext.template.java.AbstractJavaContextType;
 import org.eclipse.jdt.internal.corext.template.java.JavaContextType;
@@ -111,11 +112,14 @@ import org.eclipse.jdt.internal.ui.javaeditor.saveparticipant.SaveParticipantReg
 import org.eclipse.jdt.internal.ui.preferences.MembersOrderPreferenceCache;
 import org.eclipse.jdt.internal.ui.preferences.formatter.FormatterProfileStore;
 import org.eclipse.jdt.internal.ui.propertiesfileeditor.PropertiesFileDocumentProvider;
+import org.eclipse.jdt.internal.ui.propertiesfileeditor.PropertyKeyReferenceIndex;
 import org.eclipse.jdt.internal.ui.text.PreferencesAdapter;
+import org.eclipse.jdt.internal.ui.text.correction.SimilarTypeNameIndex;
 import org.eclipse.jdt.internal.ui.text.folding.JavaFoldingStructureProviderRegistry;
 import org.eclipse.jdt.internal.ui.text.java.ContentAssistHistory;
 import org.eclipse.jdt.internal.ui.text.java.hover.JavaEditorTextHoverDescriptor;
 import org.eclipse.jdt.internal.ui.text.spelling.SpellCheckEngine;
+import org.eclipse.jdt.internal.ui.typehierarchy.TypeHierarchySnapshots;
 import org.eclipse.jdt.internal.ui.viewsupport.ImageDescriptorRegistry;
 import org.eclipse.jdt.internal.ui.viewsupport.ImagesOnFileSystemRegistry;
 import org.eclipse.jdt.internal.ui.viewsupport.ProblemMarkerManager;
@@ -222,6 +226,30 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 
 	private MembersOrderPreferenceCache fMembersOrderPreferenceCache;
 
+	/**
+	 * Cache for labels rendered by {@link org.eclipse.jdt.ui.JavaElementLabels}.
+	 * @since 3.17
+	 */
+	private JavaElementLabelCache fJavaElementLabelCache;
+
+	/**
+	 * Index of the properties keys referenced from the files of a project.
+	 * @since 3.17
+	 */
+	private PropertyKeyReferenceIndex fPropertyKeyReferenceIndex;
+
+	/**
+	 * Index of the type names used to find types similar to unresolved type names.
+	 * @since 3.17
+	 */
+	private SimilarTypeNameIndex fSimilarTypeNameIndex;
+
+	/**
+	 * Snapshots of the hierarchies shown in the type hierarchy view.
+	 * @since 3.17
+	 */
+	private TypeHierarchySnapshots fTypeHierarchySnapshots;
+
 	private JavaEditorTextHoverDescriptor[] fJavaEditorTextHoverDescriptors;
 
 	/**
@@ -528,6 +556,25 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 				fMembersOrderPreferenceCache= null;
 			}
 
+			synchronized (this) {
+				if (fJavaElementLabelCache != null) {
+					fJavaElementLabelCache.dispose();
+					fJavaElementLabelCache= null;
+				}
+				if (fPropertyKeyReferenceIndex != null) {
+					fPropertyKeyReferenceIndex.dispose();
+					fPropertyKeyReferenceIndex= null;
+				}
+				if (fSimilarTypeNameIndex != null) {
+					fSimilarTypeNameIndex.dispose();
+					fSimilarTypeNameIndex= null;
+				}
+				if (fTypeHierarchySnapshots != null) {
+					fTypeHierarchySnapshots.dispose();
+					fTypeHierarchySnapshots= null;
+				}
+			}
+
 			if (fSaveParticipantRegistry != null) {
 				fSaveParticipantRegistry.dispose();
 				fSaveParticipantRegistry= null;
@@ -650,6 +697,60 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 		return fASTProvider;
 	}
 
+	/**
+	 * Returns the cache for labels rendered by {@link org.eclipse.jdt.ui.JavaElementLabels}.
+	 *
+	 * @return the label cache
+	 * @since 3.17
+	 */
+	public synchronized JavaElementLabelCache getJavaElementLabelCache() {
+		if (fJavaElementLabelCache == null) {
+			fJavaElementLabelCache= new JavaElementLabelCache();
+			fJavaElementLabelCache.install();
+		}
+		return fJavaElementLabelCache;
+	}
+
+	/**
+	 * Returns the index of the properties keys referenced from the files of a project.
+	 *
+	 * @return the properties key reference index
+	 * @since 3.17
+	 */
+	public synchronized PropertyKeyReferenceIndex getPropertyKeyReferenceIndex() {
+		if (fPropertyKeyReferenceIndex == null) {
+			fPropertyKeyReferenceIndex= new PropertyKeyReferenceIndex();
+			fPropertyKeyReferenceIndex.install();
+		}
+		return fPropertyKeyReferenceIndex;
+	}
+
+	/**
+	 * Returns the index of the type names used to find types similar to unresolved type names.
+	 *
+	 * @return the similar type name index
+	 * @since 3.17
+	 */
+	public synchronized SimilarTypeNameIndex getSimilarTypeNameIndex() {
+		if (fSimilarTypeNameIndex == null) {
+			fSimilarTypeNameIndex= new SimilarTypeNameIndex();
+			fSimilarTypeNameIndex.install();
+		}
+		return fSimilarTypeNameIndex;
+	}
+
+	/**
+	 * Returns the snapshots of the hierarchies shown in the type hierarchy view.
+	 *
+	 * @return the type hierarchy snapshots
+	 * @since 3.17
+	 */
+	public synchronized TypeHierarchySnapshots getTypeHierarchySnapshots() {
+		if (fTypeHierarchySnapshots == null)
+			fTypeHierarchySnapshots= new TypeHierarchySnapshots();
+		return fTypeHierarchySnapshots;
+	}
+
 	public synchronized MembersOrderPreferenceCache getMemberOrderPreferenceCache() {
 		// initialized on startup
 		return fMembersOrderPreferenceCache;
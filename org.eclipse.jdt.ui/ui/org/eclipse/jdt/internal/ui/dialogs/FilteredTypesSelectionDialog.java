@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -1293,10 +1293,12 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 		 */
 		private synchronized void persistHistory() {
 			if (getReturnCode() == OK) {
+				OpenTypeHistory history= OpenTypeHistory.getInstance();
 				Object[] items= getHistoryItems();
 				for (int i= 0; i < items.length; i++) {
-					OpenTypeHistory.getInstance().accessed((TypeNameMatch) items[i]);
+					history.accessed((TypeNameMatch) items[i]);
 				}
+				history.scheduleSave();
 			}
 		}
 
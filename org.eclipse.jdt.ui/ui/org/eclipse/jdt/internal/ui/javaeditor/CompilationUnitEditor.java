@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -117,6 +117,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 
+import org.eclipse.jdt.internal.corext.dom.BindingHierarchyCache;
 import org.eclipse.jdt.internal.corext.fix.CleanUpPreferenceUtil;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
@@ -1688,9 +1689,11 @@ public class CompilationUnitEditor extends JavaEditor implements IJavaReconcilin
 		// Always notify AST provider
 		CoreASTProvider.getInstance().reconciled(ast, getInputJavaElement(), progressMonitor);
 
-		// Notify listeners
-		for (IJavaReconcilingListener listener : fReconcilingListeners) {
-			listener.reconciled(ast, forced, progressMonitor);
+		// Notify listeners, sharing the hierarchy lookups on the bindings of the AST
+		try (BindingHierarchyCache cache= BindingHierarchyCache.open()) {
+			for (IJavaReconcilingListener listener : fReconcilingListeners) {
+				listener.reconciled(ast, forced, progressMonitor);
+			}
 		}
 
 		// Update Java Outline page selection
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,10 +14,16 @@
 
 package org.eclipse.jdt.internal.ui.javaeditor;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -36,11 +42,15 @@ import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Modifier;
 import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.manipulation.SharedASTProviderCore;
 
 import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
@@ -128,11 +138,61 @@ class OverrideIndicatorManager implements IJavaReconcilingListener {
 
 	static final String ANNOTATION_TYPE= "org.eclipse.jdt.ui.overrideIndicator"; //$NON-NLS-1$
 
+	/**
+	 * Marks a method which neither overrides nor implements a method.
+	 *
+	 * @since 3.17
+	 */
+	private static final OverrideInfo NO_OVERRIDE= new OverrideInfo(false, null);
+
+	/**
+	 * The result of the override computation for a method declaration.
+	 *
+	 * @since 3.17
+	 */
+	private static class OverrideInfo {
+
+		final boolean fIsImplements;
+		final String fText;
+
+		OverrideInfo(boolean isImplements, String text) {
+			fIsImplements= isImplements;
+			fText= text;
+		}
+	}
+
 	private IAnnotationModel fAnnotationModel;
 	private Object fAnnotationModelLockObject;
-	private Annotation[] fOverrideAnnotations;
 	private ITypeRoot fJavaElement;
 
+	/**
+	 * The override indicators in the annotation model, by method signature.
+	 *
+	 * @since 3.17
+	 */
+	private Map<String, OverrideIndicator> fOverrideAnnotations= new HashMap<>();
+
+	/**
+	 * The override indicators of methods with duplicate signatures, which are always replaced.
+	 *
+	 * @since 3.17
+	 */
+	private List<OverrideIndicator> fDuplicateOverrideAnnotations= new ArrayList<>();
+
+	/**
+	 * The results of the last override computation, by method signature.
+	 *
+	 * @since 3.17
+	 */
+	private Map<String, OverrideInfo> fOverrideInfos= new HashMap<>();
+
+	/**
+	 * Describes the type hierarchy declared in the last AST, or <code>null</code> if none.
+	 *
+	 * @since 3.17
+	 */
+	private String fHierarchyFingerprint;
+
 
 	public OverrideIndicatorManager(IAnnotationModel annotationModel, ITypeRoot javaElement, CompilationUnit ast) {
 		Assert.isNotNull(annotationModel);
@@ -142,7 +202,7 @@ class OverrideIndicatorManager implements IJavaReconcilingListener {
 		fAnnotationModel=annotationModel;
 		fAnnotationModelLockObject= getLockObject(fAnnotationModel);
 
-		updateAnnotations(ast, new NullProgressMonitor());
+		updateAnnotations(ast, true, new NullProgressMonitor());
 	}
 
 	/**
@@ -170,79 +230,240 @@ class OverrideIndicatorManager implements IJavaReconcilingListener {
 	 * @since 3.0
 	 */
 	protected void updateAnnotations(CompilationUnit ast, IProgressMonitor progressMonitor) {
+		updateAnnotations(ast, true, progressMonitor);
+	}
+
+	/**
+	 * Updates the override and implements annotations based on the given AST.
+	 * <p>
+	 * Unless <code>forced</code> is set or the type hierarchy declared in the AST changed, the
+	 * overridden methods are only computed for method declarations whose signature changed since
+	 * the last update. Annotations of unchanged methods stay in the annotation model, only the
+	 * difference is applied.
+	 * </p>
+	 *
+	 * @param ast the compilation unit AST
+	 * @param forced <code>true</code> to recompute the overridden methods of all method declarations
+	 * @param progressMonitor the progress monitor
+	 * @since 3.17
+	 */
+	private void updateAnnotations(CompilationUnit ast, boolean forced, IProgressMonitor progressMonitor) {
 
 		if (ast == null || progressMonitor.isCanceled())
 			return;
 
-		final Map<Annotation, Position> annotationMap= new HashMap<>(50);
-
+		final List<MethodDeclaration> methods= new ArrayList<>();
+		final List<ITypeBinding> types= new ArrayList<>();
 		ast.accept(new ASTVisitor(false) {
 			/*
 			 * @see org.eclipse.jdt.core.dom.ASTVisitor#visit(org.eclipse.jdt.core.dom.MethodDeclaration)
 			 */
 			@Override
 			public boolean visit(MethodDeclaration node) {
-				IMethodBinding binding= node.resolveBinding();
-				if (binding != null) {
-					IMethodBinding definingMethod= Bindings.findOverriddenMethod(binding, true);
-					if (definingMethod != null) {
-
-						ITypeBinding definingType= definingMethod.getDeclaringClass();
-						String qualifiedMethodName= definingType.getQualifiedName() + "." + binding.getName(); //$NON-NLS-1$
+				methods.add(node);
+				return true;
+			}
 
-						boolean isImplements= JdtFlags.isAbstract(definingMethod);
-						String text;
-						if (isImplements)
-							text= Messages.format(JavaEditorMessages.OverrideIndicatorManager_implements, BasicElementLabels.getJavaElementName(qualifiedMethodName));
-						else
-							text= Messages.format(JavaEditorMessages.OverrideIndicatorManager_overrides, BasicElementLabels.getJavaElementName(qualifiedMethodName));
+			@Override
+			public void endVisit(TypeDeclaration node) {
+				addType(node.resolveBinding());
+			}
 
-						SimpleName name= node.getName();
-						Position position= new Position(name.getStartPosition(), name.getLength());
+			@Override
+			public void endVisit(EnumDeclaration node) {
+				addType(node.resolveBinding());
+			}
 
-						annotationMap.put(
-								new OverrideIndicator(isImplements, text, binding.getKey()),
-								position);
+			@Override
+			public void endVisit(AnonymousClassDeclaration node) {
+				addType(node.resolveBinding());
+			}
 
-					}
-				}
-				return true;
+			private void addType(ITypeBinding binding) {
+				if (binding != null)
+					types.add(binding);
 			}
 		});
 
-		if (progressMonitor.isCanceled())
-			return;
+		String hierarchyFingerprint= getHierarchyFingerprint(types);
+		Map<String, OverrideInfo> oldInfos= fOverrideInfos;
+		if (forced || !hierarchyFingerprint.equals(fHierarchyFingerprint))
+			oldInfos= Collections.emptyMap();
+
+		Map<String, OverrideInfo> overrideInfos= new HashMap<>();
+		Map<String, Position> positions= new LinkedHashMap<>();
+		List<OverrideIndicator> duplicates= new ArrayList<>();
+		Map<Annotation, Position> duplicatePositions= new HashMap<>();
+		for (Iterator<MethodDeclaration> iter= methods.iterator(); iter.hasNext();) {
+			if (progressMonitor.isCanceled())
+				return;
+
+			MethodDeclaration node= iter.next();
+			IMethodBinding binding= node.resolveBinding();
+			if (binding == null)
+				continue;
+
+			String signature= getSignature(binding);
+			OverrideInfo info= signature != null ? oldInfos.get(signature) : null;
+			if (info == null)
+				info= computeOverrideInfo(binding);
+			if (signature != null)
+				overrideInfos.put(signature, info);
+			if (info == NO_OVERRIDE)
+				continue;
+
+			SimpleName name= node.getName();
+			Position position= new Position(name.getStartPosition(), name.getLength());
+			if (signature != null && !positions.containsKey(signature)) {
+				positions.put(signature, position);
+			} else {
+				OverrideIndicator indicator= new OverrideIndicator(info.fIsImplements, info.fText, binding.getKey());
+				duplicates.add(indicator);
+				duplicatePositions.put(indicator, position);
+			}
+		}
 
 		synchronized (fAnnotationModelLockObject) {
-			if (fAnnotationModel instanceof IAnnotationModelExtension) {
-				((IAnnotationModelExtension)fAnnotationModel).replaceAnnotations(fOverrideAnnotations, annotationMap);
-			} else {
-				removeAnnotations();
-				Iterator<Entry<Annotation, Position>> iter= annotationMap.entrySet().iterator();
-				while (iter.hasNext()) {
-					Entry<Annotation, Position> mapEntry= iter.next();
-					fAnnotationModel.addAnnotation(mapEntry.getKey(), mapEntry.getValue());
+			Map<String, OverrideIndicator> annotations= new HashMap<>();
+			List<Annotation> removed= new ArrayList<>(fDuplicateOverrideAnnotations);
+			Map<Annotation, Position> added= new HashMap<>(duplicatePositions);
+			for (Iterator<Entry<String, Position>> iter= positions.entrySet().iterator(); iter.hasNext();) {
+				Entry<String, Position> entry= iter.next();
+				String signature= entry.getKey();
+				Position position= entry.getValue();
+				OverrideInfo info= overrideInfos.get(signature);
+				OverrideIndicator indicator= fOverrideAnnotations.get(signature);
+				if (indicator == null || indicator.isOverwriteIndicator() != info.fIsImplements || !info.fText.equals(indicator.getText())
+						|| !position.equals(fAnnotationModel.getPosition(indicator))) {
+					indicator= new OverrideIndicator(info.fIsImplements, info.fText, signature.substring(0, signature.lastIndexOf('|')));
+					added.put(indicator, position);
+				}
+				annotations.put(signature, indicator);
+			}
+			for (Iterator<Entry<String, OverrideIndicator>> iter= fOverrideAnnotations.entrySet().iterator(); iter.hasNext();) {
+				Entry<String, OverrideIndicator> entry= iter.next();
+				if (annotations.get(entry.getKey()) != entry.getValue())
+					removed.add(entry.getValue());
+			}
+
+			if (!removed.isEmpty() || !added.isEmpty()) {
+				if (fAnnotationModel instanceof IAnnotationModelExtension) {
+					((IAnnotationModelExtension)fAnnotationModel).replaceAnnotations(removed.toArray(new Annotation[removed.size()]), added);
+				} else {
+					for (Iterator<Annotation> iter= removed.iterator(); iter.hasNext();)
+						fAnnotationModel.removeAnnotation(iter.next());
+					Iterator<Entry<Annotation, Position>> iter= added.entrySet().iterator();
+					while (iter.hasNext()) {
+						Entry<Annotation, Position> mapEntry= iter.next();
+						fAnnotationModel.addAnnotation(mapEntry.getKey(), mapEntry.getValue());
+					}
 				}
 			}
-			fOverrideAnnotations= annotationMap.keySet().toArray(new Annotation[annotationMap.keySet().size()]);
+			fOverrideAnnotations= annotations;
+			fDuplicateOverrideAnnotations= duplicates;
+			fOverrideInfos= overrideInfos;
+			fHierarchyFingerprint= hierarchyFingerprint;
 		}
 	}
 
+	/**
+	 * Computes the override information of the given method.
+	 *
+	 * @param binding the method binding
+	 * @return the override information, or {@link #NO_OVERRIDE}
+	 * @since 3.17
+	 */
+	private static OverrideInfo computeOverrideInfo(IMethodBinding binding) {
+		IMethodBinding definingMethod= Bindings.findOverriddenMethod(binding, true);
+		if (definingMethod == null)
+			return NO_OVERRIDE;
+
+		ITypeBinding definingType= definingMethod.getDeclaringClass();
+		String qualifiedMethodName= definingType.getQualifiedName() + "." + binding.getName(); //$NON-NLS-1$
+
+		boolean isImplements= JdtFlags.isAbstract(definingMethod);
+		String text;
+		if (isImplements)
+			text= Messages.format(JavaEditorMessages.OverrideIndicatorManager_implements, BasicElementLabels.getJavaElementName(qualifiedMethodName));
+		else
+			text= Messages.format(JavaEditorMessages.OverrideIndicatorManager_overrides, BasicElementLabels.getJavaElementName(qualifiedMethodName));
+		return new OverrideInfo(isImplements, text);
+	}
+
+	/**
+	 * Returns the signature of the given method, consisting of its key and the modifiers which
+	 * determine whether it can override another method.
+	 *
+	 * @param binding the method binding
+	 * @return the signature, or <code>null</code> if the method has no key
+	 * @since 3.17
+	 */
+	private static String getSignature(IMethodBinding binding) {
+		String key= binding.getKey();
+		if (key == null)
+			return null;
+		return key + '|' + (binding.getModifiers() & (Modifier.PRIVATE | Modifier.STATIC));
+	}
+
+	/**
+	 * Describes the type hierarchy declared by the given types: their super types and the
+	 * signatures of the methods of types which are extended by another one of the types. If the
+	 * fingerprint changes, overridden methods of unchanged method declarations may have changed.
+	 *
+	 * @param types the types declared in the AST
+	 * @return the fingerprint
+	 * @since 3.17
+	 */
+	private static String getHierarchyFingerprint(List<ITypeBinding> types) {
+		Set<String> superTypeKeys= new HashSet<>();
+		StringBuilder buf= new StringBuilder();
+		for (Iterator<ITypeBinding> iter= types.iterator(); iter.hasNext();) {
+			ITypeBinding type= iter.next();
+			buf.append(type.getKey()).append(':');
+			ITypeBinding superclass= type.getSuperclass();
+			if (superclass != null) {
+				buf.append(superclass.getKey()).append(',');
+				superTypeKeys.add(superclass.getTypeDeclaration().getKey());
+			}
+			ITypeBinding[] interfaces= type.getInterfaces();
+			for (int i= 0; i < interfaces.length; i++) {
+				buf.append(interfaces[i].getKey()).append(',');
+				superTypeKeys.add(interfaces[i].getTypeDeclaration().getKey());
+			}
+			buf.append(';');
+		}
+		for (Iterator<ITypeBinding> iter= types.iterator(); iter.hasNext();) {
+			ITypeBinding type= iter.next();
+			if (!superTypeKeys.contains(type.getKey()))
+				continue;
+			IMethodBinding[] declaredMethods= type.getDeclaredMethods();
+			for (int i= 0; i < declaredMethods.length; i++) {
+				buf.append(declaredMethods[i].getKey()).append(declaredMethods[i].getModifiers()).append(';');
+			}
+		}
+		return buf.toString();
+	}
+
 	/**
 	 * Removes all override indicators from this manager's annotation model.
 	 */
 	void removeAnnotations() {
-		if (fOverrideAnnotations == null)
-			return;
-
 		synchronized (fAnnotationModelLockObject) {
+			if (fOverrideAnnotations.isEmpty() && fDuplicateOverrideAnnotations.isEmpty())
+				return;
+
+			List<Annotation> annotations= new ArrayList<>(fOverrideAnnotations.values());
+			annotations.addAll(fDuplicateOverrideAnnotations);
 			if (fAnnotationModel instanceof IAnnotationModelExtension) {
-				((IAnnotationModelExtension)fAnnotationModel).replaceAnnotations(fOverrideAnnotations, null);
+				((IAnnotationModelExtension)fAnnotationModel).replaceAnnotations(annotations.toArray(new Annotation[annotations.size()]), null);
 			} else {
-				for (int i= 0, length= fOverrideAnnotations.length; i < length; i++)
-					fAnnotationModel.removeAnnotation(fOverrideAnnotations[i]);
+				for (Iterator<Annotation> iter= annotations.iterator(); iter.hasNext();)
+					fAnnotationModel.removeAnnotation(iter.next());
 			}
-			fOverrideAnnotations= null;
+			fOverrideAnnotations= new HashMap<>();
+			fDuplicateOverrideAnnotations= new ArrayList<>();
+			fOverrideInfos= new HashMap<>();
+			fHierarchyFingerprint= null;
 		}
 	}
 
@@ -258,7 +479,7 @@ class OverrideIndicatorManager implements IJavaReconcilingListener {
 	 */
 	@Override
 	public void reconciled(CompilationUnit ast, boolean forced, IProgressMonitor progressMonitor) {
-		updateAnnotations(ast, progressMonitor);
+		updateAnnotations(ast, forced, progressMonitor);
 	}
 }
 
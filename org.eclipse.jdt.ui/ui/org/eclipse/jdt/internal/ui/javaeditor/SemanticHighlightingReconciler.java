@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@
 package org.eclipse.jdt.internal.ui.javaeditor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.swt.widgets.Display;
@@ -62,23 +63,38 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 
 	/**
 	 * Collects positions from the AST.
+	 * <p>
+	 * Candidate positions are buffered as primitive triples (offset, length, highlighting index)
+	 * during the traversal and are only matched against the existing positions in
+	 * {@link #flushPositions()}, so that {@link HighlightedPosition}s are created for real
+	 * additions only.
+	 * </p>
 	 */
 	private class PositionCollector extends PositionCollectorCore {
 
+		/** Number of <code>int</code>s per buffered candidate */
+		private static final int CANDIDATE_SIZE= 3;
+
 		/** The semantic token */
 		private SemanticToken fToken= new SemanticToken();
 
+		/** Buffered candidate positions: offset, length and index into {@link SemanticHighlightingReconciler#fJobHighlightings} */
+		private int[] fCandidates= new int[CANDIDATE_SIZE * 256];
+
+		/** Number of buffered candidate positions */
+		private int fCandidateCount;
+
 
 		@Override
 		protected boolean visitLiteral(Expression node) {
 			fToken.update(node);
-			for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
-				SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-				if (fJobHighlightings[i].isEnabled() && semanticHighlighting.consumesLiteral(fToken)) {
+			for (int i= 0, n= fJobEnabledHighlightings.length; i < n; i++) {
+				int index= fJobEnabledHighlightings[i];
+				if (fJobSemanticHighlightings[index].consumesLiteral(fToken)) {
 					int offset= node.getStartPosition();
 					int length= node.getLength();
 					if (offset > -1 && length > 0)
-						addPosition(offset, length, fJobHighlightings[i]);
+						addPosition(offset, length, index);
 					break;
 				}
 			}
@@ -93,7 +109,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		@Override
 		public boolean visit(ConstructorInvocation node) {
 			// XXX Hack for performance reasons (should loop over fJobSemanticHighlightings can call consumes(*))
-			if (fJobDeprecatedMemberHighlighting != null) {
+			if (fJobDeprecatedMemberHighlighting != -1) {
 				IMethodBinding constructorBinding= node.resolveConstructorBinding();
 				if (constructorBinding != null && constructorBinding.isDeprecated()) {
 					int offset= node.getStartPosition();
@@ -112,7 +128,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		@Override
 		public boolean visit(SuperConstructorInvocation node) {
 			// XXX Hack for performance reasons (should loop over fJobSemanticHighlightings can call consumes(*))
-			if (fJobDeprecatedMemberHighlighting != null) {
+			if (fJobDeprecatedMemberHighlighting != -1) {
 				IMethodBinding constructorBinding= node.resolveConstructorBinding();
 				if (constructorBinding != null && constructorBinding.isDeprecated()) {
 					int offset= node.getStartPosition();
@@ -126,17 +142,12 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 
 		@Override
 		public boolean visit(SimpleType node) {
-			if (node.getAST().apiLevel() >= AST.JLS10 && node.isVar()) {
+			if (fJobVarKeywordHighlighting != -1 && node.getAST().apiLevel() >= AST.JLS10 && node.isVar()) {
 				int offset= node.getStartPosition();
 				int length= node.getLength();
 				if (offset > -1 && length > 0) {
-					for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-						SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-						if (semanticHighlighting instanceof VarKeywordHighlighting) {
-							addPosition(offset, length, fJobHighlightings[i]);
-							return false;
-						}
-					}
+					addPosition(offset, length, fJobVarKeywordHighlighting);
+					return false;
 				}
 			}
 			return true;
@@ -148,13 +159,13 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		@Override
 		public boolean visit(SimpleName node) {
 			fToken.update(node);
-			for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
-				SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-				if (fJobHighlightings[i].isEnabled() && semanticHighlighting.consumes(fToken)) {
+			for (int i= 0, n= fJobEnabledHighlightings.length; i < n; i++) {
+				int index= fJobEnabledHighlightings[i];
+				if (fJobSemanticHighlightings[index].consumes(fToken)) {
 					int offset= node.getStartPosition();
 					int length= node.getLength();
 					if (offset > -1 && length > 0)
-						addPosition(offset, length, fJobHighlightings[i]);
+						addPosition(offset, length, index);
 					break;
 				}
 			}
@@ -163,30 +174,85 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		}
 
 		/**
-		 * Add a position with the given range and highlighting iff it does not exist already.
+		 * Buffer a candidate position with the given range and highlighting.
+		 * @param offset The range offset
+		 * @param length The range length
+		 * @param highlighting The index of the highlighting in {@link SemanticHighlightingReconciler#fJobHighlightings}
+		 */
+		private void addPosition(int offset, int length, int highlighting) {
+			int index= fCandidateCount * CANDIDATE_SIZE;
+			if (index + CANDIDATE_SIZE > fCandidates.length)
+				fCandidates= Arrays.copyOf(fCandidates, 2 * fCandidates.length);
+			fCandidates[index]= offset;
+			fCandidates[index + 1]= length;
+			fCandidates[index + 2]= highlighting;
+			fCandidateCount++;
+		}
+
+		/**
+		 * Add a position for each buffered candidate iff it does not exist already and clear the buffer.
+		 */
+		public void flushPositions() {
+			for (int i= 0, n= fCandidateCount * CANDIDATE_SIZE; i < n; i+= CANDIDATE_SIZE) {
+				int offset= fCandidates[i];
+				int length= fCandidates[i + 1];
+				Highlighting highlighting= fJobHighlightings[fCandidates[i + 2]];
+				if (!retainExistingPosition(offset, length, highlighting)) {
+					Position position= fJobPresenter.createHighlightedPosition(offset, length, highlighting);
+					fAddedPositions.add(position);
+				}
+			}
+			fCandidateCount= 0;
+		}
+
+		/**
+		 * Retain the position with the given range and highlighting if it exists already.
 		 * @param offset The range offset
 		 * @param length The range length
 		 * @param highlighting The highlighting
+		 * @return <code>true</code> iff an equal position exists
 		 */
-		private void addPosition(int offset, int length, Highlighting highlighting) {
-			boolean isExisting= false;
-			// TODO: use binary search
-			for (int i= 0, n= fRemovedPositions.size(); i < n; i++) {
+		private boolean retainExistingPosition(int offset, int length, Highlighting highlighting) {
+			int i, n;
+			if (fRemovedOffsets != null) {
+				i= findFirstRemovedPosition(offset);
+				n= fRemovedOffsets.length;
+			} else {
+				i= 0;
+				n= fRemovedPositions.size();
+			}
+			for (; i < n; i++) {
+				if (fRemovedOffsets != null && fRemovedOffsets[i] != offset)
+					break;
 				HighlightedPosition position= (HighlightedPosition) fRemovedPositions.get(i);
 				if (position == null)
 					continue;
 				if (position.isEqual(offset, length, highlighting)) {
-					isExisting= true;
 					fRemovedPositions.set(i, null);
 					fNOfRemovedPositions--;
-					break;
+					return true;
 				}
 			}
+			return false;
+		}
 
-			if (!isExisting) {
-				Position position= fJobPresenter.createHighlightedPosition(offset, length, highlighting);
-				fAddedPositions.add(position);
+		/**
+		 * Binary search for the first removed position starting at or after the given offset.
+		 * @param offset The offset
+		 * @return the index of the first entry in {@link SemanticHighlightingReconciler#fRemovedOffsets} which is
+		 *         not smaller than <code>offset</code>
+		 */
+		private int findFirstRemovedPosition(int offset) {
+			int low= 0;
+			int high= fRemovedOffsets.length;
+			while (low < high) {
+				int mid= (low + high) >>> 1;
+				if (fRemovedOffsets[mid] < offset)
+					low= mid + 1;
+				else
+					high= mid;
 			}
+			return low;
 		}
 
 		/**
@@ -227,6 +293,13 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	private List<Position> fRemovedPositions= new ArrayList<>();
 	/** Number of removed positions */
 	private int fNOfRemovedPositions;
+	/**
+	 * Offsets of the background job's removed highlighted positions, sorted ascending and
+	 * index-aligned with {@link #fRemovedPositions}, or <code>null</code> if the positions were not
+	 * sorted when the reconcile started.
+	 * @since 3.17
+	 */
+	private int[] fRemovedOffsets;
 
 	/** Background job */
 	private Job fJob;
@@ -251,11 +324,24 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	/** Highlightings - cache for background thread, only valid during {@link #reconciled(CompilationUnit, boolean, IProgressMonitor)} */
 	private Highlighting[] fJobHighlightings;
 
+	/**
+	 * Indices of the enabled highlightings - cache for background thread, only valid during {@link #reconciled(CompilationUnit, boolean, IProgressMonitor)}
+	 * @since 3.17
+	 */
+	private int[] fJobEnabledHighlightings;
+
 	/**
 	 * XXX Hack for performance reasons (should loop over fJobSemanticHighlightings can call consumes(*))
+	 * Index of the deprecated member highlighting or <code>-1</code> if disabled.
 	 * @since 3.5
 	 */
-	private Highlighting fJobDeprecatedMemberHighlighting;
+	private int fJobDeprecatedMemberHighlighting= -1;
+
+	/**
+	 * Index of the <code>var</code> keyword highlighting or <code>-1</code> if not present.
+	 * @since 3.17
+	 */
+	private int fJobVarKeywordHighlighting= -1;
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.java.IJavaReconcilingListener#aboutToBeReconciled()
@@ -297,14 +383,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			startReconcilingPositions();
 
 			if (!fJobPresenter.isCanceled()) {
-				fJobDeprecatedMemberHighlighting= null;
-				for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
-					SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-					if (fJobHighlightings[i].isEnabled() && semanticHighlighting instanceof DeprecatedMemberHighlighting) {
-						fJobDeprecatedMemberHighlighting= fJobHighlightings[i];
-						break;
-					}
-				}
+				initializeHighlightingDispatch();
 				reconcilePositions(subtrees);
 			}
 
@@ -320,13 +399,37 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			fJobPresenter= null;
 			fJobSemanticHighlightings= null;
 			fJobHighlightings= null;
-			fJobDeprecatedMemberHighlighting= null;
+			fJobEnabledHighlightings= null;
+			fJobDeprecatedMemberHighlighting= -1;
+			fJobVarKeywordHighlighting= -1;
 			synchronized (fReconcileLock) {
 				fIsReconciling= false;
 			}
 		}
 	}
 
+	/**
+	 * Computes the indices of the enabled highlightings once per reconcile, so that the
+	 * position collector does not need to check the enablement for every token.
+	 */
+	private void initializeHighlightingDispatch() {
+		int[] enabled= new int[fJobSemanticHighlightings.length];
+		int count= 0;
+		fJobDeprecatedMemberHighlighting= -1;
+		fJobVarKeywordHighlighting= -1;
+		for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
+			SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
+			if (semanticHighlighting instanceof VarKeywordHighlighting && fJobVarKeywordHighlighting == -1)
+				fJobVarKeywordHighlighting= i;
+			if (fJobHighlightings[i].isEnabled()) {
+				enabled[count++]= i;
+				if (semanticHighlighting instanceof DeprecatedMemberHighlighting && fJobDeprecatedMemberHighlighting == -1)
+					fJobDeprecatedMemberHighlighting= i;
+			}
+		}
+		fJobEnabledHighlightings= Arrays.copyOf(enabled, count);
+	}
+
 	/**
 	 * @param node Root node
 	 * @return Array of subtrees that may be affected by past document changes
@@ -342,6 +445,16 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	private void startReconcilingPositions() {
 		fJobPresenter.addAllPositions(fRemovedPositions);
 		fNOfRemovedPositions= fRemovedPositions.size();
+
+		int[] offsets= new int[fNOfRemovedPositions];
+		for (int i= 0; i < fNOfRemovedPositions; i++) {
+			offsets[i]= fRemovedPositions.get(i).getOffset();
+			if (i > 0 && offsets[i] < offsets[i - 1]) {
+				offsets= null;
+				break;
+			}
+		}
+		fRemovedOffsets= offsets;
 	}
 
 	/**
@@ -356,6 +469,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 
 		for (int i= 0, n= subtrees.length; i < n; i++)
 			subtrees[i].accept(fCollector);
+		fCollector.flushPositions();
 		List<Position> oldPositions= fRemovedPositions;
 		List<Position> newPositions= new ArrayList<>(fNOfRemovedPositions);
 		for (int i= 0, n= oldPositions.size(); i < n; i ++) {
@@ -403,6 +517,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	private void stopReconcilingPositions() {
 		fRemovedPositions.clear();
 		fNOfRemovedPositions= 0;
+		fRemovedOffsets= null;
 		fAddedPositions.clear();
 	}
 
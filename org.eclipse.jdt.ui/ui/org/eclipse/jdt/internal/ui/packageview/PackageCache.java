@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Simeon Andreev and others.
+ * Copyright (c) 2017, 2019 Simeon Andreev and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,10 +16,12 @@ package org.eclipse.jdt.internal.ui.packageview;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
@@ -35,12 +37,14 @@ import org.eclipse.jdt.core.JavaModelException;
  * </p>
  *
  * <p>
- * A single query runs in constant time. Preparing for queries runs in time linear to the number of
- * packages in the package root. The first query on this object will run the preparation step.
+ * A single query runs in time linear to the number of children of the queried package. Preparing
+ * for queries runs in time linear to the number of packages in the package root. The first query
+ * on this object will run the preparation step. Afterwards, the cache is kept up to date with
+ * {@link #packageAdded(IPackageFragment)} and {@link #packageRemoved(IPackageFragment)}.
  * </p>
  *
  * <p>
- * Not thread safe.
+ * Thread safe.
  * </p>
  *
  * @see #getDirectChildren(IPackageFragment)
@@ -49,7 +53,7 @@ public class PackageCache {
 
 	/**
 	 * Caches the children of a package in a package root. The cache for a package root is built on the
-	 * first query.
+	 * first query and is updated from Java element deltas, see {@link #processDelta(IJavaElementDelta)}.
 	 */
 	static class PerRootCache {
 
@@ -96,8 +100,89 @@ public class PackageCache {
 				packageCaches.clear();
 			}
 		}
+
+		/**
+		 * Updates the caches of the package roots affected by the given delta. Added and removed
+		 * packages are applied incrementally, the caches of package roots which change in any other
+		 * way are discarded and rebuilt on the next query.
+		 * <p>
+		 * Can be called from a different (not only UI) thread.
+		 * </p>
+		 *
+		 * @param delta the Java element delta
+		 */
+		void processDelta(IJavaElementDelta delta) {
+			synchronized (packageCaches) {
+				if (!packageCaches.isEmpty()) {
+					processDeltaRecursively(delta);
+				}
+			}
+		}
+
+		private void processDeltaRecursively(IJavaElementDelta delta) {
+			IJavaElement element= delta.getElement();
+			int kind= delta.getKind();
+			int flags= delta.getFlags();
+			switch (element.getElementType()) {
+				case IJavaElement.JAVA_MODEL:
+				case IJavaElement.JAVA_PROJECT:
+					if (kind != IJavaElementDelta.CHANGED || (flags & STRUCTURE_CHANGED_FLAGS) != 0) {
+						removePackageCaches(element);
+						return;
+					}
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+					if (kind != IJavaElementDelta.CHANGED || (flags & STRUCTURE_CHANGED_FLAGS) != 0) {
+						packageCaches.remove(element);
+						return;
+					}
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT:
+					PackageCache packageCache= packageCaches.get(element.getParent());
+					if (packageCache != null) {
+						if (kind == IJavaElementDelta.ADDED) {
+							packageCache.packageAdded((IPackageFragment) element);
+						} else if (kind == IJavaElementDelta.REMOVED) {
+							packageCache.packageRemoved((IPackageFragment) element);
+						}
+					}
+					return;
+				default:
+					return;
+			}
+
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				processDeltaRecursively(child);
+			}
+		}
+
+		/**
+		 * Removes the caches of all package roots which are descendants of the given Java model or
+		 * Java project.
+		 */
+		private void removePackageCaches(IJavaElement element) {
+			if (element.getElementType() == IJavaElement.JAVA_MODEL) {
+				packageCaches.clear();
+				return;
+			}
+			for (Iterator<IPackageFragmentRoot> iterator= packageCaches.keySet().iterator(); iterator.hasNext();) {
+				IPackageFragmentRoot root= iterator.next();
+				if (element.equals(root.getJavaProject())) {
+					iterator.remove();
+				}
+			}
+		}
 	}
 
+	/**
+	 * Delta flags for which the packages of a Java project or package root cannot be updated
+	 * incrementally.
+	 */
+	private static final int STRUCTURE_CHANGED_FLAGS= IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+			| IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_REORDER
+			| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
 
 	private final IPackageFragmentRoot packageRoot;
 
@@ -187,14 +272,57 @@ public class PackageCache {
 	 * @param packageFragment The direct children of this fragment will be retrieved.
 	 * @throws JavaModelException If accessing the packages in the package root fails.
 	 */
-	public List<IPackageFragment> getDirectChildren(IPackageFragment packageFragment) throws JavaModelException {
+	public synchronized List<IPackageFragment> getDirectChildren(IPackageFragment packageFragment) throws JavaModelException {
 		initialize();
 		String packageName= packageFragment.getElementName();
 		List<IPackageFragment> childrenOfPackage= packagesCache.get(packageName);
 		if (childrenOfPackage == null) {
 			return Collections.EMPTY_LIST;
 		}
-		return Collections.unmodifiableList(childrenOfPackage);
+		return Collections.unmodifiableList(new ArrayList<>(childrenOfPackage));
+	}
+
+	/**
+	 * Adds the specified package to the cache, if the cache is already prepared for queries.
+	 *
+	 * @param packageFragment The package that was added to the package root.
+	 */
+	public synchronized void packageAdded(IPackageFragment packageFragment) {
+		if (!initialized) {
+			return;
+		}
+		String parentName= getParentName(packageFragment);
+		if (parentName != null) {
+			List<IPackageFragment> siblingsOfPackage= packagesCache.get(parentName);
+			if (siblingsOfPackage == null) {
+				siblingsOfPackage= new ArrayList<>();
+				packagesCache.put(parentName, siblingsOfPackage);
+			}
+			if (!siblingsOfPackage.contains(packageFragment)) {
+				siblingsOfPackage.add(packageFragment);
+			}
+		}
+	}
+
+	/**
+	 * Removes the specified package from the cache, if the cache is already prepared for queries.
+	 *
+	 * @param packageFragment The package that was removed from the package root.
+	 */
+	public synchronized void packageRemoved(IPackageFragment packageFragment) {
+		if (!initialized) {
+			return;
+		}
+		String parentName= getParentName(packageFragment);
+		if (parentName != null) {
+			List<IPackageFragment> siblingsOfPackage= packagesCache.get(parentName);
+			if (siblingsOfPackage != null) {
+				siblingsOfPackage.remove(packageFragment);
+				if (siblingsOfPackage.isEmpty()) {
+					packagesCache.remove(parentName);
+				}
+			}
+		}
 	}
 
 	private void initialize() throws JavaModelException {
@@ -217,13 +345,9 @@ public class PackageCache {
 		for (IJavaElement child : allPackages) {
 			IPackageFragment currentPackage= (IPackageFragment) child;
 
-			String packageName= currentPackage.getElementName();
-
-			int index= packageName.lastIndexOf('.');
-			boolean hasParentPackage= index != -1;
+			String parentName= getParentName(currentPackage);
+			boolean hasParentPackage= parentName != null;
 			if (hasParentPackage) {
-				String parentName= packageName.substring(0, index);
-
 				List<IPackageFragment> siblingsOfCurrentPackage= packagesCache.get(parentName);
 				if (siblingsOfCurrentPackage == null) {
 					siblingsOfCurrentPackage= new ArrayList<>();
@@ -233,4 +357,19 @@ public class PackageCache {
 			}
 		}
 	}
+
+	/**
+	 * @return The name of the hierarchical parent of the specified package or {@code null} if the
+	 *         package has no parent.
+	 *
+	 * @param packageFragment The package for which to compute the parent name.
+	 */
+	private static String getParentName(IPackageFragment packageFragment) {
+		String packageName= packageFragment.getElementName();
+		int index= packageName.lastIndexOf('.');
+		if (index == -1) {
+			return null;
+		}
+		return packageName.substring(0, index);
+	}
 }
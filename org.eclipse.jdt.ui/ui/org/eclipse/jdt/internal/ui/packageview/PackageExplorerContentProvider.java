@@ -95,8 +95,8 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	/**
 	 * We use a cache to know whether a package has a single child for the hierarchical representation.
 	 * This avoids looping over all packages for each call to
-	 * {@link #getHierarchicalPackageParent(IPackageFragment)}. The cache is cleared on any Java model
-	 * change, as we aim to improve operations which go over all packages on by one.
+	 * {@link #getHierarchicalPackageParent(IPackageFragment)}. The cache is updated incrementally
+	 * from Java element deltas, so that it survives package additions and removals.
 	 */
 	private final PackageCache.PerRootCache packageCache;
 
@@ -128,7 +128,7 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	public void elementChanged(final ElementChangedEvent event) {
 		final ArrayList<Runnable> runnables= new ArrayList<>();
 		try {
-			clearPackageCache();
+			packageCache.processDelta(event.getDelta());
 
 			// 58952 delete project does not update Package Explorer [package explorer]
 			// if the input to the viewer is deleted then refresh to avoid the display of stale elements
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import org.eclipse.swt.SWT;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
@@ -137,6 +138,17 @@ public class PropertiesFileEditor extends TextEditor {
 					} catch (JavaModelException e) {
 						JavaPlugin.log(e);
 					}
+					IFile file= fFile;
+					if (file != null && !monitor.isCanceled()) {
+						// prepare the references used by the key hyperlinks
+						try {
+							JavaPlugin.getDefault().getPropertyKeyReferenceIndex().update(file.getProject(), monitor);
+						} catch (CoreException e) {
+							JavaPlugin.log(e);
+						} catch (OperationCanceledException e) {
+							return Status.CANCEL_STATUS;
+						}
+					}
 					return Status.OK_STATUS;
 				}
 			};
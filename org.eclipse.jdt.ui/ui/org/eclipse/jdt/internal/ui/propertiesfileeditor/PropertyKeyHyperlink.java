@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -31,6 +32,7 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.PlatformObject;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
@@ -69,6 +71,7 @@ import org.eclipse.search.core.text.TextSearchEngine;
 import org.eclipse.search.core.text.TextSearchMatchAccess;
 import org.eclipse.search.core.text.TextSearchRequestor;
 import org.eclipse.search.core.text.TextSearchScope;
+import org.eclipse.search.ui.text.Match;
 
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.JavaCore;
@@ -455,7 +458,24 @@ public class PropertyKeyHyperlink implements IHyperlink {
 							try {
 								// XXX: This is a hack to improve the accuracy of matches, see https://bugs.eclipse.org/bugs/show_bug.cgi?id=81140
 								boolean useDoubleQuotedKey= useDoubleQuotedKey();
-								if (useDoubleQuotedKey) {
+								boolean isIndexed= fStorage instanceof IResource && PropertyKeyReferenceIndex.isIndexable(key);
+								if (isIndexed) {
+									// look up the string literals in the reference index first
+									try {
+										List<Match> matches= JavaPlugin.getDefault().getPropertyKeyReferenceIndex().search(((IResource) fStorage).getProject(), key, useDoubleQuotedKey, new SubProgressMonitor(monitor, 2));
+										for (Iterator<Match> iter= matches.iterator(); iter.hasNext();) {
+											Match match= iter.next();
+											result.add(new KeyReference((IResource) match.getElement(), null, match.getOffset(), match.getLength(), true));
+										}
+									} catch (CoreException e) {
+										throw new InvocationTargetException(e);
+									} catch (OperationCanceledException e) {
+										throw new InterruptedException();
+									}
+								} else {
+									monitor.worked(2);
+								}
+								if (result.size() == 0 && useDoubleQuotedKey) {
 									SearchPattern pattern= SearchPattern.createPattern(key, IJavaSearchConstants.FIELD, IJavaSearchConstants.REFERENCES, SearchPattern.R_PATTERN_MATCH
 											| SearchPattern.R_CASE_SENSITIVE);
 									if (pattern == null)
@@ -472,8 +492,11 @@ public class PropertyKeyHyperlink implements IHyperlink {
 									} catch (CoreException e) {
 										throw new InvocationTargetException(e);
 									}
+								} else {
+									monitor.worked(1);
 								}
-								if (result.size() == 0) {
+								// the index finds all double-quoted keys, other keys may also occur outside of string literals
+								if (result.size() == 0 && !(isIndexed && useDoubleQuotedKey)) {
 									//maybe not an eclipse style NLS string
 									String searchString;
 									if (useDoubleQuotedKey) {
@@ -493,10 +516,8 @@ public class PropertyKeyHyperlink implements IHyperlink {
 									 * </p>
 									*/
 									if (fStorage instanceof IResource) {
-										engine.search(createScope(((IResource)fStorage).getProject()), collector, searchPattern, new SubProgressMonitor(monitor, 4));
+										engine.search(createScope(((IResource)fStorage).getProject()), collector, searchPattern, new SubProgressMonitor(monitor, 2));
 									}
-								} else {
-									monitor.worked(1);
 								}
 							} finally {
 								monitor.done();
@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.propertiesfileeditor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.IFileBuffer;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
+
+import org.eclipse.search.ui.text.Match;
+
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Index of the properties keys referenced from the Java, XML and INI files of a project. It is used
+ * by {@link PropertyKeyHyperlink} to find the references to a key without searching the text of all
+ * files of the project.
+ * <p>
+ * The index records the offsets of the texts between two double quotes on the same line which look
+ * like a key, i.e. which are not empty and contain no white space. So a key is found in the index
+ * exactly where a text search for the key enclosed in double quotes finds it. A search for a key
+ * which is not enclosed in double quotes finds the key in the indexed texts only.
+ * </p>
+ * <p>
+ * The index is built per project on first use and updated incrementally: resource deltas mark the
+ * changed files, which are indexed again on the next update. Files with unsaved changes are
+ * searched in their file buffer. Only the most recently used projects are kept in memory.
+ * </p>
+ *
+ * @since 3.17
+ */
+public class PropertyKeyReferenceIndex implements IResourceChangeListener {
+
+	private static final int MAX_INDEXED_PROJECTS= 8;
+
+	private static final String[] INDEXED_EXTENSIONS= { "xml", "ini" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Maximal length of an indexed text. Longer keys are searched in the text of the files.
+	 */
+	private static final int MAX_KEY_LENGTH= 256;
+
+	/**
+	 * The double quoted texts of a file. The occurrences of a text are stored as
+	 * <code>{count, offset, offset, ...}</code>, the offsets are the offsets of the texts without
+	 * the double quotes.
+	 */
+	private static class FileIndex {
+		final Map<String, int[]> fTexts= new HashMap<>();
+
+		void add(String text, int offset) {
+			int[] occurrences= fTexts.get(text);
+			if (occurrences == null) {
+				occurrences= new int[2];
+			} else if (occurrences[0] + 1 >= occurrences.length) {
+				occurrences= Arrays.copyOf(occurrences, 2 * occurrences.length);
+			}
+			occurrences[occurrences[0] + 1]= offset;
+			occurrences[0]++;
+			fTexts.put(text, occurrences);
+		}
+	}
+
+	private static class ProjectIndex {
+		/**
+		 * The indexed files, only accessed while holding the lock of the project index.
+		 */
+		final Map<IFile, FileIndex> fFiles= new HashMap<>();
+		/**
+		 * The files to index on the next update.
+		 */
+		final Set<IFile> fStaleFiles= ConcurrentHashMap.newKeySet();
+		boolean fInitialized;
+	}
+
+	private final Map<IProject, ProjectIndex> fProjects= new LinkedHashMap<IProject, ProjectIndex>(16, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IProject, ProjectIndex> eldest) {
+			return size() > MAX_INDEXED_PROJECTS;
+		}
+	};
+
+	private boolean fInstalled;
+
+	/**
+	 * Starts listening to resource changes.
+	 */
+	public synchronized void install() {
+		if (!fInstalled) {
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+			fInstalled= true;
+		}
+	}
+
+	/**
+	 * Stops listening to resource changes and discards the index.
+	 */
+	public synchronized void dispose() {
+		if (fInstalled) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+			fInstalled= false;
+		}
+		synchronized (fProjects) {
+			fProjects.clear();
+		}
+	}
+
+	/**
+	 * Returns whether references to the given key can be found with the index. Other keys have to
+	 * be searched in the text of the files.
+	 *
+	 * @param key the properties key
+	 * @return <code>true</code> if the key looks like the indexed texts
+	 */
+	public static boolean isIndexable(String key) {
+		return isKeyLike(key, 0, key.length());
+	}
+
+	/**
+	 * Indexes the files of the given project which are not indexed or have changed since they
+	 * were indexed.
+	 *
+	 * @param project the project
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @throws CoreException if the project cannot be visited
+	 */
+	public void update(IProject project, IProgressMonitor monitor) throws CoreException {
+		update(getProjectIndex(project), project, monitor);
+	}
+
+	/**
+	 * Returns the references to the given key in the Java, XML and INI files of the given project.
+	 *
+	 * @param project the project
+	 * @param key the key, must be {@link #isIndexable(String) indexable}
+	 * @param doubleQuoted <code>true</code> to return the references enclosed in double quotes,
+	 *            <code>false</code> to return all occurrences of the key in the indexed texts
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @return the references, the elements of the matches are the referencing files
+	 * @throws CoreException if the project cannot be visited
+	 */
+	public List<Match> search(IProject project, String key, boolean doubleQuoted, IProgressMonitor monitor) throws CoreException {
+		if (monitor == null)
+			monitor= new NullProgressMonitor();
+		monitor.beginTask("", 2); //$NON-NLS-1$
+		try {
+			ProjectIndex projectIndex= getProjectIndex(project);
+			update(projectIndex, project, new SubProgressMonitor(monitor, 1));
+
+			Map<IFile, FileIndex> dirtyFiles= indexDirtyFiles(project);
+			List<Match> result= new ArrayList<>();
+			synchronized (projectIndex) {
+				for (Iterator<Map.Entry<IFile, FileIndex>> iter= projectIndex.fFiles.entrySet().iterator(); iter.hasNext();) {
+					Map.Entry<IFile, FileIndex> entry= iter.next();
+					if (!dirtyFiles.containsKey(entry.getKey()))
+						addMatches(entry.getKey(), entry.getValue(), key, doubleQuoted, result);
+				}
+			}
+			for (Iterator<Map.Entry<IFile, FileIndex>> iter= dirtyFiles.entrySet().iterator(); iter.hasNext();) {
+				Map.Entry<IFile, FileIndex> entry= iter.next();
+				addMatches(entry.getKey(), entry.getValue(), key, doubleQuoted, result);
+			}
+			monitor.worked(1);
+			return result;
+		} finally {
+			monitor.done();
+		}
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta= event.getDelta();
+		if (delta == null)
+			return;
+		IResourceDelta[] projectDeltas= delta.getAffectedChildren();
+		for (int i= 0; i < projectDeltas.length; i++) {
+			IResourceDelta projectDelta= projectDeltas[i];
+			IProject project= (IProject) projectDelta.getResource();
+			final ProjectIndex projectIndex;
+			synchronized (fProjects) {
+				projectIndex= fProjects.get(project);
+				if (projectIndex == null)
+					continue;
+				if (projectDelta.getKind() == IResourceDelta.REMOVED || (projectDelta.getFlags() & IResourceDelta.OPEN) != 0) {
+					fProjects.remove(project);
+					continue;
+				}
+			}
+			try {
+				projectDelta.accept(new IResourceDeltaVisitor() {
+					@Override
+					public boolean visit(IResourceDelta child) throws CoreException {
+						IResource resource= child.getResource();
+						if (resource.getType() != IResource.FILE)
+							return true;
+						if (child.getKind() != IResourceDelta.CHANGED || (child.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.ENCODING | IResourceDelta.DERIVED_CHANGED)) != 0) {
+							if (isIndexed(resource.getName()))
+								projectIndex.fStaleFiles.add((IFile) resource);
+						}
+						return false;
+					}
+				});
+			} catch (CoreException e) {
+				JavaPlugin.log(e);
+				synchronized (fProjects) {
+					fProjects.remove(project);
+				}
+			}
+		}
+	}
+
+	private ProjectIndex getProjectIndex(IProject project) {
+		synchronized (fProjects) {
+			ProjectIndex projectIndex= fProjects.get(project);
+			if (projectIndex == null) {
+				projectIndex= new ProjectIndex();
+				fProjects.put(project, projectIndex);
+			}
+			return projectIndex;
+		}
+	}
+
+	private void update(final ProjectIndex projectIndex, IProject project, IProgressMonitor monitor) throws CoreException {
+		if (monitor == null)
+			monitor= new NullProgressMonitor();
+		synchronized (projectIndex) {
+			if (!projectIndex.fInitialized) {
+				project.accept(new IResourceProxyVisitor() {
+					@Override
+					public boolean visit(IResourceProxy proxy) throws CoreException {
+						if (proxy.isDerived())
+							return false;
+						if (proxy.getType() == IResource.FILE && isIndexed(proxy.getName()))
+							projectIndex.fStaleFiles.add((IFile) proxy.requestResource());
+						return true;
+					}
+				}, IResource.NONE);
+				projectIndex.fInitialized= true;
+			}
+
+			IFile[] staleFiles= projectIndex.fStaleFiles.toArray(new IFile[projectIndex.fStaleFiles.size()]);
+			monitor.beginTask("", staleFiles.length); //$NON-NLS-1$
+			try {
+				for (int i= 0; i < staleFiles.length; i++) {
+					if (monitor.isCanceled())
+						throw new OperationCanceledException();
+					IFile file= staleFiles[i];
+					projectIndex.fStaleFiles.remove(file);
+					projectIndex.fFiles.remove(file);
+					if (file.isAccessible() && !file.isDerived(IResource.CHECK_ANCESTORS)) {
+						try {
+							projectIndex.fFiles.put(file, indexFile(readContents(file)));
+						} catch (CoreException e) {
+							// not indexed, e.g. out of sync
+						}
+					}
+					monitor.worked(1);
+				}
+			} finally {
+				monitor.done();
+			}
+		}
+	}
+
+	private static Map<IFile, FileIndex> indexDirtyFiles(IProject project) {
+		Map<IFile, FileIndex> result= new HashMap<>();
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		IFileBuffer[] buffers= manager.getFileBuffers();
+		IPath projectPath= project.getFullPath();
+		for (int i= 0; i < buffers.length; i++) {
+			IFileBuffer buffer= buffers[i];
+			if (!(buffer instanceof ITextFileBuffer) || !buffer.isDirty())
+				continue;
+			IPath location= buffer.getLocation();
+			if (location == null || !projectPath.isPrefixOf(location) || !isIndexed(location.lastSegment()))
+				continue;
+			IFile file= FileBuffers.getWorkspaceFileAtLocation(location);
+			if (file == null)
+				continue;
+			ITextFileBuffer textFileBuffer= manager.getTextFileBuffer(location, LocationKind.IFILE);
+			if (textFileBuffer != null)
+				result.put(file, indexFile(textFileBuffer.getDocument().get()));
+		}
+		return result;
+	}
+
+	private static void addMatches(IFile file, FileIndex fileIndex, String key, boolean doubleQuoted, List<Match> result) {
+		if (doubleQuoted) {
+			int[] occurrences= fileIndex.fTexts.get(key);
+			if (occurrences != null) {
+				for (int i= 0; i < occurrences[0]; i++) {
+					result.add(new Match(file, occurrences[i + 1], key.length()));
+				}
+			}
+			return;
+		}
+		List<Match> matches= new ArrayList<>();
+		for (Iterator<Map.Entry<String, int[]>> iter= fileIndex.fTexts.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<String, int[]> entry= iter.next();
+			String text= entry.getKey();
+			int[] occurrences= entry.getValue();
+			for (int index= text.indexOf(key); index != -1; index= text.indexOf(key, index + 1)) {
+				for (int i= 0; i < occurrences[0]; i++) {
+					matches.add(new Match(file, occurrences[i + 1] + index, key.length()));
+				}
+			}
+		}
+		Collections.sort(matches, new Comparator<Match>() {
+			@Override
+			public int compare(Match m1, Match m2) {
+				return m1.getOffset() - m2.getOffset();
+			}
+		});
+		result.addAll(matches);
+	}
+
+	private static FileIndex indexFile(String content) {
+		FileIndex fileIndex= new FileIndex();
+		int length= content.length();
+		int start= -1;
+		for (int i= 0; i < length; i++) {
+			char c= content.charAt(i);
+			if (c == '"') {
+				if (start != -1 && isKeyLike(content, start, i))
+					fileIndex.add(content.substring(start, i), start);
+				start= i + 1;
+			} else if (c == '\n' || c == '\r') {
+				start= -1;
+			}
+		}
+		return fileIndex;
+	}
+
+	private static boolean isKeyLike(String text, int start, int end) {
+		if (end == start || end - start > MAX_KEY_LENGTH)
+			return false;
+		for (int i= start; i < end; i++) {
+			char c= text.charAt(i);
+			if (c == '"' || Character.isWhitespace(c))
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean isIndexed(String fileName) {
+		if (JavaCore.isJavaLikeFileName(fileName))
+			return true;
+		int index= fileName.lastIndexOf('.');
+		if (index == -1)
+			return false;
+		String extension= fileName.substring(index + 1);
+		for (int i= 0; i < INDEXED_EXTENSIONS.length; i++) {
+			if (INDEXED_EXTENSIONS[i].equalsIgnoreCase(extension))
+				return true;
+		}
+		return false;
+	}
+
+	private static String readContents(IFile file) throws CoreException {
+		try (InputStream stream= file.getContents(); Reader reader= new InputStreamReader(stream, file.getCharset())) {
+			StringBuilder content= new StringBuilder();
+			char[] buffer= new char[8192];
+			int read;
+			while ((read= reader.read(buffer)) != -1) {
+				content.append(buffer, 0, read);
+			}
+			return content.toString();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), e.getMessage(), e));
+		}
+	}
+}
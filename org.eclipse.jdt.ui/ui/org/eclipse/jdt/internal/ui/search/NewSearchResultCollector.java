@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,9 +13,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.search;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.core.runtime.CoreException;
 
 import org.eclipse.search.ui.text.AbstractTextSearchResult;
+import org.eclipse.search.ui.text.Match;
 
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.search.FieldDeclarationMatch;
@@ -27,10 +31,31 @@ import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchRequestor;
 
+/**
+ * Collects the matches of a search into a search result. The matches are added in batches, see
+ * {@link AbstractTextSearchResult#addMatches(Match[])}, so that the result page is not notified of
+ * every single match. The last batch is added by {@link #endReporting()}.
+ */
 public class NewSearchResultCollector extends SearchRequestor {
+
+	/**
+	 * The maximal number of matches added in one batch.
+	 */
+	private static final int BATCH_SIZE= 500;
+
+	/**
+	 * The time in milliseconds after which the pending matches are added together with the next
+	 * accepted match. The age of a batch is only checked when a match is accepted, so the last
+	 * batch is held back until {@link #endReporting()} if no further matches are found.
+	 */
+	private static final long BATCH_INTERVAL= 200;
+
 	private AbstractTextSearchResult fSearch;
 	private boolean fIgnorePotentials;
 
+	private final List<Match> fPendingMatches= new ArrayList<>(BATCH_SIZE);
+	private long fLastFlush;
+
 	public NewSearchResultCollector(AbstractTextSearchResult search, boolean ignorePotentials) {
 		super();
 		fSearch= search;
@@ -63,16 +88,28 @@ public class NewSearchResultCollector extends SearchRequestor {
 				MethodReferenceMatch methodRef= (MethodReferenceMatch) match;
 				isSuperInvocation= methodRef.isSuperInvocation();
 			}
-			fSearch.addMatch(new JavaElementMatch(enclosingElement, match.getRule(), match.getOffset(), match.getLength(), match.getAccuracy(), isReadAccess, isWriteAccess, match.isInsideDocComment(), isSuperInvocation));
+			fPendingMatches.add(new JavaElementMatch(enclosingElement, match.getRule(), match.getOffset(), match.getLength(), match.getAccuracy(), isReadAccess, isWriteAccess, match.isInsideDocComment(), isSuperInvocation));
+			if (fPendingMatches.size() >= BATCH_SIZE || System.currentTimeMillis() - fLastFlush >= BATCH_INTERVAL)
+				flush();
 		}
 	}
 
 	@Override
 	public void beginReporting() {
+		fLastFlush= System.currentTimeMillis();
 	}
 
 	@Override
 	public void endReporting() {
+		flush();
+	}
+
+	private void flush() {
+		if (!fPendingMatches.isEmpty()) {
+			fSearch.addMatches(fPendingMatches.toArray(new Match[fPendingMatches.size()]));
+			fPendingMatches.clear();
+		}
+		fLastFlush= System.currentTimeMillis();
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -264,6 +264,12 @@ public final class JavaHeuristicScanner implements Symbols {
 	 * @since 3.2
 	 */
 	private ITypedRegion fCachedPartition= new TypedRegion(-1, 0, "__no_partition_at_all"); //$NON-NLS-1$
+	/**
+	 * The partitions shared with the other scanners on the document, or <code>null</code> if they
+	 * are not shared.
+	 * @since 3.17
+	 */
+	private final PartitionCache fPartitionCache;
 
 	/* preset stop conditions */
 	private final StopCondition fNonWSDefaultPart= new NonWhitespaceDefaultPartition();
@@ -284,6 +290,7 @@ public final class JavaHeuristicScanner implements Symbols {
 		fDocument= document;
 		fPartitioning= partitioning;
 		fPartition= partition;
+		fPartitionCache= PartitionCache.get(document, partitioning);
 	}
 
 	/**
@@ -860,7 +867,10 @@ public final class JavaHeuristicScanner implements Symbols {
 			Assert.isTrue(position <= fDocument.getLength());
 
 			try {
-				fCachedPartition= TextUtilities.getPartition(fDocument, fPartitioning, position, false);
+				if (fPartitionCache != null)
+					fCachedPartition= fPartitionCache.getPartition(fDocument, position);
+				else
+					fCachedPartition= TextUtilities.getPartition(fDocument, fPartitioning, position, false);
 			} catch (BadLocationException e) {
 				fCachedPartition= new TypedRegion(position, 0, "__no_partition_at_all"); //$NON-NLS-1$
 			}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IDocumentPartitioningListener;
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.jface.text.TextUtilities;
+
+/**
+ * Caches the partitions of a document that have been looked up by the
+ * {@link JavaHeuristicScanner}s on the document, so that the scanners created for indenting and
+ * the auto edit strategies share the lookups.
+ * <p>
+ * The partitions are kept sorted by offset. A change of the document only discards the partitions
+ * that end at or after the changed offset, since the partitioning before a change is not affected
+ * by it. The cache is cleared when the partitioning changes or when the modification stamp of the
+ * document shows a change that has not been notified, for example while the listener notification
+ * is stopped.
+ * </p>
+ *
+ * @since 3.17
+ */
+final class PartitionCache implements IDocumentListener, IDocumentPartitioningListener {
+
+	/**
+	 * Map from document to the caches of its partitionings. The caches must not reference the
+	 * document, which is only weakly referenced.
+	 */
+	private static final Map<IDocument, Map<String, PartitionCache>> fgCaches= new WeakHashMap<>();
+
+	private final String fPartitioning;
+
+	/**
+	 * Map from partition offset to the partition.
+	 */
+	private final TreeMap<Integer, ITypedRegion> fPartitions= new TreeMap<>();
+
+	/**
+	 * The modification stamp of the document after the last notified change.
+	 */
+	private long fModificationStamp;
+
+	private PartitionCache(String partitioning, long modificationStamp) {
+		fPartitioning= partitioning;
+		fModificationStamp= modificationStamp;
+	}
+
+	/**
+	 * Returns the cache of the given document and partitioning.
+	 *
+	 * @param document the document
+	 * @param partitioning the partitioning
+	 * @return the cache, or <code>null</code> if the modifications of the document cannot be
+	 *         tracked
+	 */
+	static PartitionCache get(IDocument document, String partitioning) {
+		if (!(document instanceof IDocumentExtension4))
+			return null;
+		long stamp= ((IDocumentExtension4) document).getModificationStamp();
+		if (stamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP)
+			return null;
+
+		PartitionCache cache;
+		synchronized (fgCaches) {
+			Map<String, PartitionCache> caches= fgCaches.get(document);
+			if (caches == null) {
+				caches= new HashMap<>();
+				fgCaches.put(document, caches);
+			}
+			cache= caches.get(partitioning);
+			if (cache != null)
+				return cache;
+			cache= new PartitionCache(partitioning, stamp);
+			caches.put(partitioning, cache);
+		}
+		document.addPrenotifiedDocumentListener(cache);
+		document.addDocumentPartitioningListener(cache);
+		return cache;
+	}
+
+	/**
+	 * Returns the partition at the given position, see
+	 * {@link TextUtilities#getPartition(IDocument, String, int, boolean)}.
+	 *
+	 * @param document the document of this cache
+	 * @param position the position
+	 * @return the partition
+	 * @throws BadLocationException if the position is not valid in the document
+	 */
+	synchronized ITypedRegion getPartition(IDocument document, int position) throws BadLocationException {
+		long stamp= ((IDocumentExtension4) document).getModificationStamp();
+		if (stamp != fModificationStamp) {
+			fPartitions.clear();
+			fModificationStamp= stamp;
+		}
+
+		Entry<Integer, ITypedRegion> entry= fPartitions.floorEntry(Integer.valueOf(position));
+		if (entry != null) {
+			ITypedRegion partition= entry.getValue();
+			if (position < partition.getOffset() + partition.getLength())
+				return partition;
+		}
+
+		ITypedRegion partition= TextUtilities.getPartition(document, fPartitioning, position, false);
+		if (partition.getLength() > 0)
+			fPartitions.put(Integer.valueOf(partition.getOffset()), partition);
+		return partition;
+	}
+
+	@Override
+	public synchronized void documentAboutToBeChanged(DocumentEvent event) {
+		// the partition containing the change and all following partitions may change
+		Integer from= fPartitions.floorKey(Integer.valueOf(event.getOffset()));
+		if (from == null)
+			fPartitions.clear();
+		else {
+			ITypedRegion partition= fPartitions.get(from);
+			boolean endsBefore= partition.getOffset() + partition.getLength() < event.getOffset();
+			fPartitions.tailMap(from, !endsBefore).clear();
+		}
+	}
+
+	@Override
+	public synchronized void documentChanged(DocumentEvent event) {
+		fModificationStamp= event.getModificationStamp();
+	}
+
+	@Override
+	public synchronized void documentPartitioningChanged(IDocument document) {
+		fPartitions.clear();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,8 +15,10 @@ package org.eclipse.jdt.internal.ui.text.correction;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -164,22 +166,43 @@ public class CorrectionMarkerResolutionGenerator implements IMarkerResolutionGen
 			}
 		}
 
+		/**
+		 * Returns the clean up targets for the given markers. The markers are grouped by their
+		 * resource, so that the compilation unit, its editor input and the positions of the marker
+		 * annotations of an open editor are looked up once per resource.
+		 *
+		 * @param markers the markers to fix
+		 * @return the targets, one for each compilation unit
+		 */
 		public static MultiFixTarget[] getCleanUpTargets(IMarker[] markers) {
-			Hashtable<ICompilationUnit, List<IProblemLocation>> problemLocations= new Hashtable<>();
+			Map<IResource, List<IMarker>> resourceMarkers= new LinkedHashMap<>();
 			for (int i= 0; i < markers.length; i++) {
 				IMarker marker= markers[i];
-				ICompilationUnit cu= getCompilationUnit(marker);
+				List<IMarker> l= resourceMarkers.get(marker.getResource());
+				if (l == null) {
+					l= new ArrayList<>();
+					resourceMarkers.put(marker.getResource(), l);
+				}
+				l.add(marker);
+			}
+
+			Map<ICompilationUnit, List<IProblemLocation>> problemLocations= new LinkedHashMap<>();
+			for (Iterator<List<IMarker>> iterator= resourceMarkers.values().iterator(); iterator.hasNext();) {
+				List<IMarker> curr= iterator.next();
+				ICompilationUnit cu= getCompilationUnit(curr.get(0));
 
 				if (cu != null) {
 					IEditorInput input= EditorUtility.getEditorInput(cu);
-					IProblemLocation location= findProblemLocation(input, marker);
-					if (location != null) {
-						List<IProblemLocation> l= problemLocations.get(cu.getPrimary());
-						if (l == null) {
-							l= new ArrayList<>();
-							problemLocations.put(cu.getPrimary(), l);
+					IProblemLocation[] locations= findProblemLocations(input, curr.toArray(new IMarker[curr.size()]));
+					for (int i= 0; i < locations.length; i++) {
+						if (locations[i] != null) {
+							List<IProblemLocation> l= problemLocations.get(cu.getPrimary());
+							if (l == null) {
+								l= new ArrayList<>();
+								problemLocations.put(cu.getPrimary(), l);
+							}
+							l.add(locations[i]);
 						}
-						l.add(location);
 					}
 				}
 			}
@@ -424,30 +447,55 @@ public class CorrectionMarkerResolutionGenerator implements IMarkerResolutionGen
 	}
 
 	public static IProblemLocation findProblemLocation(IEditorInput input, IMarker marker) {
-		if (marker.getResource() instanceof IFolder) {
-			ICompilationUnit cu= getCompilationUnit(marker);
-			return createFromMarker(marker, cu);
+		return findProblemLocations(input, new IMarker[] { marker })[0];
+	}
+
+	/**
+	 * Returns the problem locations of markers on the same resource. If the resource is open in an
+	 * editor, the annotation model is traversed once for all markers.
+	 *
+	 * @param input the editor input of the compilation unit
+	 * @param markers the markers, all on the same resource
+	 * @return the problem locations, with <code>null</code> elements for the markers whose
+	 *         location cannot be found
+	 */
+	private static IProblemLocation[] findProblemLocations(IEditorInput input, IMarker[] markers) {
+		IProblemLocation[] result= new IProblemLocation[markers.length];
+		if (markers.length == 0)
+			return result;
+
+		IResource resource= markers[0].getResource();
+		IAnnotationModel model= null;
+		if (!(resource instanceof IFolder)) {
+			model= JavaPlugin.getDefault().getCompilationUnitDocumentProvider().getAnnotationModel(input);
 		}
-		IAnnotationModel model= JavaPlugin.getDefault().getCompilationUnitDocumentProvider().getAnnotationModel(input);
 		if (model != null) { // open in editor
+			Map<IMarker, Integer> indexes= new HashMap<>();
+			for (int i= 0; i < markers.length; i++) {
+				indexes.put(markers[i], Integer.valueOf(i));
+			}
 			Iterator<Annotation> iter= model.getAnnotationIterator();
-			while (iter.hasNext()) {
+			while (iter.hasNext() && !indexes.isEmpty()) {
 				Annotation curr= iter.next();
 				if (curr instanceof JavaMarkerAnnotation) {
 					JavaMarkerAnnotation annot= (JavaMarkerAnnotation) curr;
-					if (marker.equals(annot.getMarker())) {
+					Integer index= indexes.get(annot.getMarker());
+					if (index != null) {
 						Position pos= model.getPosition(annot);
 						if (pos != null) {
-							return new ProblemLocation(pos.getOffset(), pos.getLength(), annot);
+							result[index.intValue()]= new ProblemLocation(pos.getOffset(), pos.getLength(), annot);
+							indexes.remove(annot.getMarker());
 						}
 					}
 				}
 			}
 		} else { // not open in editor
-			ICompilationUnit cu= getCompilationUnit(marker);
-			return createFromMarker(marker, cu);
+			ICompilationUnit cu= getCompilationUnit(markers[0]);
+			for (int i= 0; i < markers.length; i++) {
+				result[i]= createFromMarker(markers[i], cu);
+			}
 		}
-		return null;
+		return result;
 	}
 
 	private static IProblemLocation createFromMarker(IMarker marker, ICompilationUnit cu) {
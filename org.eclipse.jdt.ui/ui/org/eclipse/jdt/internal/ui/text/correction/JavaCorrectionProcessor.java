@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -51,6 +51,8 @@ import org.eclipse.ltk.core.refactoring.NullChange;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 
+import org.eclipse.jdt.internal.corext.dom.ASTAnalysisCache;
+import org.eclipse.jdt.internal.corext.dom.BindingHierarchyCache;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.JavaUI;
@@ -283,20 +285,25 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		MultiStatus resStatus= null;
 
 		IProblemLocation[] problemLocations= problems.toArray(new IProblemLocation[problems.size()]);
-		if (addQuickFixes) {
-			IStatus status= collectCorrections(context, problemLocations, proposals);
-			if (!status.isOK()) {
-				resStatus= new MultiStatus(JavaUI.ID_PLUGIN, IStatus.ERROR, CorrectionMessages.JavaCorrectionProcessor_error_quickfix_message, null);
-				resStatus.add(status);
+		// all processors work on the same AST, share the analyses of its nodes and bindings. The
+		// results are keyed by the analyzed nodes and bindings, so an AST created by a single
+		// processor never gets the results of another AST.
+		try (ASTAnalysisCache analysisCache= ASTAnalysisCache.open(); BindingHierarchyCache hierarchyCache= BindingHierarchyCache.open()) {
+			if (addQuickFixes) {
+				IStatus status= collectCorrections(context, problemLocations, proposals);
+				if (!status.isOK()) {
+					resStatus= new MultiStatus(JavaUI.ID_PLUGIN, IStatus.ERROR, CorrectionMessages.JavaCorrectionProcessor_error_quickfix_message, null);
+					resStatus.add(status);
+				}
 			}
-		}
-		if (addQuickAssists) {
-			IStatus status= collectAssists(context, problemLocations, proposals);
-			if (!status.isOK()) {
-				if (resStatus == null) {
-					resStatus= new MultiStatus(JavaUI.ID_PLUGIN, IStatus.ERROR, CorrectionMessages.JavaCorrectionProcessor_error_quickassist_message, null);
+			if (addQuickAssists) {
+				IStatus status= collectAssists(context, problemLocations, proposals);
+				if (!status.isOK()) {
+					if (resStatus == null) {
+						resStatus= new MultiStatus(JavaUI.ID_PLUGIN, IStatus.ERROR, CorrectionMessages.JavaCorrectionProcessor_error_quickassist_message, null);
+					}
+					resStatus.add(status);
 				}
-				resStatus.add(status);
 			}
 		}
 		if (resStatus != null) {
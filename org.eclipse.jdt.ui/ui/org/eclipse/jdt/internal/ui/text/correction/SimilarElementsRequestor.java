@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.correction;
 
+import java.util.Arrays;
 import java.util.HashSet;
 
 import org.eclipse.core.runtime.IPath;
@@ -28,15 +29,21 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.Javadoc;
 import org.eclipse.jdt.core.dom.Name;
 import org.eclipse.jdt.core.dom.QualifiedName;
 import org.eclipse.jdt.core.manipulation.TypeKinds;
 
+import org.eclipse.jdt.internal.corext.dom.ASTAnalysisCache;
 import org.eclipse.jdt.internal.corext.dom.ASTNodes;
+import org.eclipse.jdt.internal.corext.dom.ScopeAnalyzer;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.internal.corext.util.TypeFilter;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 public class SimilarElementsRequestor extends CompletionRequestor {
 
 	private static final String[] PRIM_TYPES= { "boolean", "byte", "char", "short", "int", "long", "float", "double" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
@@ -71,6 +78,21 @@ public class SimilarElementsRequestor extends CompletionRequestor {
 	}
 
 	public static SimilarElement[] findSimilarElement(ICompilationUnit cu, Name name, int kind) throws JavaModelException {
+		ASTAnalysisCache cache= ASTAnalysisCache.getCurrent();
+		Object key= null;
+		if (cache != null) {
+			key= Arrays.asList(SimilarElementsRequestor.class, cu, name, Integer.valueOf(kind));
+			SimilarElement[] elements= (SimilarElement[]) cache.get(key);
+			if (elements != null)
+				return elements.clone();
+		}
+		SimilarElement[] elements= computeSimilarElements(cu, name, kind);
+		if (cache != null)
+			cache.put(key, elements.clone());
+		return elements;
+	}
+
+	private static SimilarElement[] computeSimilarElements(ICompilationUnit cu, Name name, int kind) throws JavaModelException {
 		int pos= name.getStartPosition();
 		int nArguments= -1;
 
@@ -85,6 +107,13 @@ public class SimilarElementsRequestor extends CompletionRequestor {
 				pos= name.getStartPosition() + 1; // first letter must be included, other
 			}
 			Javadoc javadoc=  (Javadoc) ASTNodes.getParent(name, ASTNode.JAVADOC);
+			// the index only knows simple names, qualified names are completed after the qualifier
+			if (javadoc == null && name.isSimpleName() && SimilarTypeNameIndex.isIndexable(cu.getJavaProject())) {
+				SimilarElementsRequestor requestor= new SimilarElementsRequestor(identifier, kind, nArguments, returnType, !isTestSource(cu));
+				SimilarElement[] elements= requestor.processIndex(cu, name);
+				if (elements != null)
+					return elements;
+			}
 			if (javadoc != null) {
 				preparedCU= createPreparedCU(cu, javadoc, name.getStartPosition());
 				cu= preparedCU;
@@ -173,6 +202,85 @@ public class SimilarElementsRequestor extends CompletionRequestor {
 		}
 	}
 
+	/**
+	 * Collects the similar types from the {@link SimilarTypeNameIndex} and the types declared in
+	 * the scope of the given name, e.g. type variables and member types.
+	 *
+	 * @param cu the compilation unit
+	 * @param name the unresolved simple name
+	 * @return the similar elements, or <code>null</code> if the index is not built yet
+	 * @throws JavaModelException if the index cannot be updated
+	 */
+	private SimilarElement[] processIndex(ICompilationUnit cu, Name name) throws JavaModelException {
+		try {
+			SimilarTypeNameIndex index= JavaPlugin.getDefault().getSimilarTypeNameIndex();
+			String packageName= cu.getParent().getElementName();
+			SimilarElement[] types= index.findSimilarTypes(cu.getJavaProject(), packageName, fName, fExcludeTestCode);
+			if (types == null)
+				return null;
+			for (int i= 0; i < types.length; i++) {
+				SimilarElement curr= types[i];
+				if (isKind(curr.getKind()) && !TypeFilter.isFiltered(curr.getName())) {
+					addResult(curr);
+				}
+			}
+
+			IBinding[] declarations= ASTAnalysisCache.getDeclarationsInScope((CompilationUnit) name.getRoot(), name.getStartPosition(), ScopeAnalyzer.TYPES);
+			for (int i= 0; i < declarations.length; i++) {
+				ITypeBinding binding= (ITypeBinding) declarations[i];
+				int relevance= NameMatcher.getSimilarity(fName, binding.getName());
+				if (relevance < 0) {
+					continue;
+				}
+				int kind;
+				String fullName;
+				if (binding.isTypeVariable()) {
+					kind= TypeKinds.VARIABLES;
+					fullName= binding.getName();
+				} else {
+					kind= getKind(binding.getModifiers() | getTypeFlags(binding));
+					fullName= binding.getErasure().getQualifiedName();
+					if (fullName.length() == 0) {
+						fullName= binding.getName();
+					}
+				}
+				if (isKind(kind)) {
+					addResult(new SimilarElement(kind, fullName, relevance));
+				}
+			}
+			processKeywords();
+			return fResult.toArray(new SimilarElement[fResult.size()]);
+		} finally {
+			fResult.clear();
+		}
+	}
+
+	private static int getTypeFlags(ITypeBinding binding) {
+		if (binding.isAnnotation()) {
+			return Flags.AccAnnotation | Flags.AccInterface;
+		}
+		if (binding.isInterface()) {
+			return Flags.AccInterface;
+		}
+		if (binding.isEnum()) {
+			return Flags.AccEnum;
+		}
+		return 0;
+	}
+
+	static int getKind(int flags) {
+		if (Flags.isAnnotation(flags)) {
+			return TypeKinds.ANNOTATIONS;
+		}
+		if (Flags.isInterface(flags)) {
+			return TypeKinds.INTERFACES;
+		}
+		if (Flags.isEnum(flags)) {
+			return TypeKinds.ENUMS;
+		}
+		return TypeKinds.CLASSES;
+	}
+
 	private boolean isKind(int kind) {
 		return (fKind & kind) != 0;
 	}
@@ -200,16 +308,7 @@ public class SimilarElementsRequestor extends CompletionRequestor {
 		if (Signature.getTypeSignatureKind(typeNameSig) == Signature.TYPE_VARIABLE_SIGNATURE) {
 			return TypeKinds.VARIABLES;
 		}
-		if (Flags.isAnnotation(flags)) {
-			return TypeKinds.ANNOTATIONS;
-		}
-		if (Flags.isInterface(flags)) {
-			return TypeKinds.INTERFACES;
-		}
-		if (Flags.isEnum(flags)) {
-			return TypeKinds.ENUMS;
-		}
-		return TypeKinds.CLASSES;
+		return getKind(flags);
 	}
 
 
@@ -0,0 +1,558 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.correction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IAccessRule;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Index of the names of the types on the class path of a project, used by
+ * {@link SimilarElementsRequestor} to find the types with a name similar to an unresolved type
+ * name without running the code completion engine for every unresolved name.
+ * <p>
+ * Two names can only be {@link NameMatcher#isSimilarName(String, String) similar} if they start
+ * or end with the same character and the shorter name has at least half the length of the longer
+ * one. The types are therefore stored in buckets by their first and by their last character and
+ * the length of their name, and a query only compares the names in the matching buckets.
+ * </p>
+ * <p>
+ * The index of a project is built by a background job, which is scheduled on first use and waits
+ * until the Java search index is ready. Until the index is built, queries return <code>null</code>
+ * and callers fall back to code completion. Java element deltas mark changed compilation units,
+ * whose types are indexed again on the next query; class path and binary changes discard the
+ * indexes. Only the most recently used projects are kept in memory.
+ * </p>
+ *
+ * @since 3.17
+ */
+public class SimilarTypeNameIndex implements IElementChangedListener {
+
+	private static final int MAX_INDEXED_PROJECTS= 4;
+
+	private static final int MAX_INDEXED_LENGTH= 0xff;
+
+	/**
+	 * Visibility of a type which is not visible outside of its declaring type.
+	 */
+	private static final int VISIBLE_IN_TYPE= 0;
+	/**
+	 * Visibility of a type which is visible in its package.
+	 */
+	private static final int VISIBLE_IN_PACKAGE= 1;
+	/**
+	 * Visibility of a type which is visible everywhere.
+	 */
+	private static final int VISIBLE_EVERYWHERE= 2;
+
+	private static class TypeEntry {
+		final String fSimpleName;
+		final String fFullName;
+		final String fPackageName;
+		final int fModifiers;
+		/**
+		 * The visibility of the type restricted by the visibility of its enclosing types.
+		 */
+		final int fVisibility;
+		final boolean fIsTest;
+		final boolean fIsAccessible;
+
+		TypeEntry(String simpleName, String fullName, String packageName, int modifiers, int visibility, boolean isTest, boolean isAccessible) {
+			fSimpleName= simpleName;
+			fFullName= fullName;
+			fPackageName= packageName;
+			fModifiers= modifiers;
+			fVisibility= visibility;
+			fIsTest= isTest;
+			fIsAccessible= isAccessible;
+		}
+	}
+
+	private static class ProjectIndex {
+		/**
+		 * The types by {@link #getBucketKey(char, int) bucket key} of their first and of their last
+		 * character. Only accessed while holding the lock of the project index.
+		 */
+		final Map<Integer, List<TypeEntry>> fBuckets= new HashMap<>();
+		/**
+		 * The types declared in the source compilation units. Only accessed while holding the lock
+		 * of the project index.
+		 */
+		final Map<ICompilationUnit, List<TypeEntry>> fSourceTypes= new HashMap<>();
+		/**
+		 * The compilation units to index on the next query.
+		 */
+		final Set<ICompilationUnit> fStaleUnits= ConcurrentHashMap.newKeySet();
+		/**
+		 * Serializes the indexing of stale compilation units, which is done without holding the
+		 * lock of the project index.
+		 */
+		final Object fUpdateLock= new Object();
+		/**
+		 * Whether the index has been built. Set by the {@link BuildJob}.
+		 */
+		volatile boolean fReady;
+		/**
+		 * Whether the {@link BuildJob} has been scheduled and has not failed. Only accessed while
+		 * holding the lock of the project index.
+		 */
+		boolean fBuildScheduled;
+
+		void add(TypeEntry entry) {
+			String name= entry.fSimpleName;
+			add(getBucketKey(name.charAt(0), name.length()), entry);
+			add(getBucketKey(name.charAt(name.length() - 1), name.length()) | 1 << 24, entry);
+		}
+
+		private void add(int key, TypeEntry entry) {
+			Integer bucketKey= Integer.valueOf(key);
+			List<TypeEntry> bucket= fBuckets.get(bucketKey);
+			if (bucket == null) {
+				bucket= new ArrayList<>();
+				fBuckets.put(bucketKey, bucket);
+			}
+			bucket.add(entry);
+		}
+
+		void remove(TypeEntry entry) {
+			String name= entry.fSimpleName;
+			remove(getBucketKey(name.charAt(0), name.length()), entry);
+			remove(getBucketKey(name.charAt(name.length() - 1), name.length()) | 1 << 24, entry);
+		}
+
+		private void remove(int key, TypeEntry entry) {
+			List<TypeEntry> bucket= fBuckets.get(Integer.valueOf(key));
+			if (bucket != null)
+				bucket.remove(entry);
+		}
+
+		void collectCandidates(char c, int minLength, int maxLength, int flag, Set<TypeEntry> result) {
+			for (int length= minLength; length <= maxLength; length++) {
+				List<TypeEntry> bucket= fBuckets.get(Integer.valueOf(getBucketKey(c, length) | flag));
+				if (bucket != null)
+					result.addAll(bucket);
+			}
+		}
+
+		void addSourceType(ICompilationUnit cu, TypeEntry entry) {
+			List<TypeEntry> entries= fSourceTypes.get(cu);
+			if (entries == null) {
+				entries= new ArrayList<>(1);
+				fSourceTypes.put(cu, entries);
+			}
+			entries.add(entry);
+		}
+	}
+
+	/**
+	 * Builds the index of a project from the type name search, without holding the lock of the
+	 * index while searching.
+	 */
+	private class BuildJob extends Job {
+		private final IJavaProject fProject;
+		private final ProjectIndex fProjectIndex;
+
+		BuildJob(IJavaProject project, ProjectIndex projectIndex) {
+			super(CorrectionMessages.SimilarTypeNameIndex_build_job);
+			fProject= project;
+			fProjectIndex= projectIndex;
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == SimilarTypeNameIndex.this;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			final List<TypeEntry> entries= new ArrayList<>();
+			final Map<TypeEntry, ICompilationUnit> sourceTypes= new HashMap<>();
+			final Map<IPackageFragmentRoot, Boolean> testRoots= new HashMap<>();
+			TypeNameMatchRequestor requestor= new TypeNameMatchRequestor() {
+				@Override
+				public void acceptTypeNameMatch(TypeNameMatch match) {
+					String simpleName= match.getSimpleTypeName();
+					if (simpleName.length() == 0)
+						return;
+					IPackageFragmentRoot root= match.getPackageFragmentRoot();
+					boolean isTest= isTestRoot(root, testRoots);
+					int modifiers= match.getModifiers();
+					int visibility= getVisibility(modifiers);
+					// only member types have a type container name other than their package name
+					if (visibility != VISIBLE_IN_TYPE && match.getTypeContainerName().length() > match.getPackageName().length()) {
+						try {
+							visibility= getVisibility(match.getType(), modifiers);
+						} catch (JavaModelException e) {
+							// keep the visibility of the member type
+						}
+					}
+					TypeEntry entry= new TypeEntry(simpleName, match.getFullyQualifiedName(), match.getPackageName(), modifiers, visibility, isTest,
+							match.getAccessibility() != IAccessRule.K_NON_ACCESSIBLE);
+					entries.add(entry);
+					if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
+						ICompilationUnit cu= match.getType().getCompilationUnit();
+						if (cu != null)
+							sourceTypes.put(entry, cu);
+					}
+				}
+			};
+			// units changed while searching are indexed again on the next query
+			fProjectIndex.fStaleUnits.clear();
+			try {
+				IJavaSearchScope scope= SearchEngine.createJavaSearchScope(new IJavaElement[] { fProject });
+				new SearchEngine().searchAllTypeNames(null, SearchPattern.R_PREFIX_MATCH, null, SearchPattern.R_PREFIX_MATCH, IJavaSearchConstants.TYPE, scope, requestor,
+						IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+			} catch (JavaModelException e) {
+				buildFailed();
+				JavaPlugin.log(e);
+				return Status.OK_STATUS;
+			} catch (OperationCanceledException e) {
+				buildFailed();
+				return Status.CANCEL_STATUS;
+			}
+			synchronized (fProjectIndex) {
+				for (Iterator<TypeEntry> iter= entries.iterator(); iter.hasNext();) {
+					TypeEntry entry= iter.next();
+					fProjectIndex.add(entry);
+					ICompilationUnit cu= sourceTypes.get(entry);
+					if (cu != null)
+						fProjectIndex.addSourceType(cu, entry);
+				}
+				fProjectIndex.fReady= true;
+			}
+			return Status.OK_STATUS;
+		}
+
+		private void buildFailed() {
+			synchronized (fProjectIndex) {
+				fProjectIndex.fBuildScheduled= false;
+			}
+		}
+	}
+
+	private final Map<IJavaProject, ProjectIndex> fProjects= new LinkedHashMap<IJavaProject, ProjectIndex>(16, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IJavaProject, ProjectIndex> eldest) {
+			return size() > MAX_INDEXED_PROJECTS;
+		}
+	};
+
+	private boolean fInstalled;
+
+	/**
+	 * Starts listening to Java element changes.
+	 */
+	public synchronized void install() {
+		if (!fInstalled) {
+			JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+			fInstalled= true;
+		}
+	}
+
+	/**
+	 * Stops listening to Java element changes and discards the indexes.
+	 */
+	public synchronized void dispose() {
+		if (fInstalled) {
+			JavaCore.removeElementChangedListener(this);
+			fInstalled= false;
+		}
+		discardIndexes();
+	}
+
+	/**
+	 * Returns whether the types on the class path of the given project can be found with the
+	 * index. Types of modular projects have to be found with code completion, which takes the
+	 * readability of modules into account.
+	 *
+	 * @param project the project
+	 * @return <code>true</code> if the project can be indexed
+	 * @throws JavaModelException if the module description of the project cannot be accessed
+	 */
+	public static boolean isIndexable(IJavaProject project) throws JavaModelException {
+		return project.getModuleDescription() == null;
+	}
+
+	/**
+	 * Returns the types on the class path of the given project with a name similar to the given
+	 * name, ordered by descending similarity. Only types which are visible from the given package
+	 * are returned, member types only if all their enclosing types are visible as well.
+	 * <p>
+	 * If the index of the project has not been built yet, its build is scheduled and
+	 * <code>null</code> is returned without waiting for it.
+	 * </p>
+	 *
+	 * @param project the project, must be {@link #isIndexable(IJavaProject) indexable}
+	 * @param packageName the name of the package the types are referenced from
+	 * @param name the simple type name
+	 * @param excludeTestCode <code>true</code> to exclude types declared in test sources
+	 * @return the similar types with their similarity as relevance, or <code>null</code> if the
+	 *         index of the project is not built yet
+	 * @throws JavaModelException if the changed compilation units cannot be indexed
+	 */
+	public SimilarElement[] findSimilarTypes(IJavaProject project, String packageName, String name, boolean excludeTestCode) throws JavaModelException {
+		ProjectIndex projectIndex= getProjectIndex(project);
+		if (!projectIndex.fReady) {
+			synchronized (projectIndex) {
+				if (!projectIndex.fBuildScheduled) {
+					projectIndex.fBuildScheduled= true;
+					new BuildJob(project, projectIndex).schedule();
+				}
+			}
+			return null;
+		}
+		if (name.length() == 0)
+			return new SimilarElement[0];
+
+		updateStaleUnits(projectIndex, project);
+		int minLength= Math.min((name.length() + 1) / 2, MAX_INDEXED_LENGTH);
+		int maxLength= Math.min(2 * name.length(), MAX_INDEXED_LENGTH);
+		Set<TypeEntry> candidates= new HashSet<>();
+		synchronized (projectIndex) {
+			projectIndex.collectCandidates(name.charAt(0), minLength, maxLength, 0, candidates);
+			projectIndex.collectCandidates(name.charAt(name.length() - 1), minLength, maxLength, 1 << 24, candidates);
+		}
+
+		final List<SimilarElement> result= new ArrayList<>();
+		for (Iterator<TypeEntry> iter= candidates.iterator(); iter.hasNext();) {
+			TypeEntry entry= iter.next();
+			if (!entry.fIsAccessible || excludeTestCode && entry.fIsTest)
+				continue;
+			if (entry.fVisibility == VISIBLE_IN_TYPE || entry.fVisibility == VISIBLE_IN_PACKAGE && !packageName.equals(entry.fPackageName))
+				continue;
+			int similarity= NameMatcher.getSimilarity(name, entry.fSimpleName);
+			if (similarity >= 0)
+				result.add(new SimilarElement(SimilarElementsRequestor.getKind(entry.fModifiers), entry.fFullName, similarity));
+		}
+		Collections.sort(result, new Comparator<SimilarElement>() {
+			@Override
+			public int compare(SimilarElement e1, SimilarElement e2) {
+				return e2.getRelevance() - e1.getRelevance();
+			}
+		});
+		return result.toArray(new SimilarElement[result.size()]);
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		synchronized (fProjects) {
+			if (fProjects.isEmpty())
+				return;
+		}
+		if (!processDelta(event.getDelta()))
+			discardIndexes();
+	}
+
+	/**
+	 * Marks the compilation units changed in the given delta as stale.
+	 *
+	 * @param delta the delta
+	 * @return <code>false</code> if the change cannot be applied incrementally
+	 */
+	private boolean processDelta(IJavaElementDelta delta) {
+		IJavaElement element= delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED
+						|| (delta.getFlags() & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0)
+					return false;
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED
+						|| (delta.getFlags() & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0)
+					return false;
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED)
+					return false;
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				ICompilationUnit cu= ((ICompilationUnit) element).getPrimary();
+				synchronized (fProjects) {
+					for (Iterator<ProjectIndex> iter= fProjects.values().iterator(); iter.hasNext();) {
+						iter.next().fStaleUnits.add(cu);
+					}
+				}
+				return true;
+			default:
+				// class files and other binary changes
+				return false;
+		}
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (!processDelta(children[i]))
+				return false;
+		}
+		return true;
+	}
+
+	private void discardIndexes() {
+		synchronized (fProjects) {
+			fProjects.clear();
+		}
+	}
+
+	private ProjectIndex getProjectIndex(IJavaProject project) {
+		synchronized (fProjects) {
+			ProjectIndex projectIndex= fProjects.get(project);
+			if (projectIndex == null) {
+				projectIndex= new ProjectIndex();
+				fProjects.put(project, projectIndex);
+			}
+			return projectIndex;
+		}
+	}
+
+	/**
+	 * Indexes the types of the compilation units which changed since the last query. The types are
+	 * read without holding the lock of the project index.
+	 *
+	 * @param projectIndex the built index of the project
+	 * @param project the project
+	 * @throws JavaModelException if the types of a compilation unit cannot be accessed
+	 */
+	private static void updateStaleUnits(ProjectIndex projectIndex, IJavaProject project) throws JavaModelException {
+		if (projectIndex.fStaleUnits.isEmpty())
+			return;
+		synchronized (projectIndex.fUpdateLock) {
+			Map<IPackageFragmentRoot, Boolean> testRoots= new HashMap<>();
+			ICompilationUnit[] staleUnits= projectIndex.fStaleUnits.toArray(new ICompilationUnit[projectIndex.fStaleUnits.size()]);
+			for (int i= 0; i < staleUnits.length; i++) {
+				ICompilationUnit cu= staleUnits[i];
+				projectIndex.fStaleUnits.remove(cu);
+				List<TypeEntry> newEntries= new ArrayList<>();
+				if (cu.exists() && project.isOnClasspath(cu)) {
+					boolean isTest= isTestRoot((IPackageFragmentRoot) cu.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT), testRoots);
+					String packageName= cu.getParent().getElementName();
+					IType[] types= cu.getAllTypes();
+					for (int k= 0; k < types.length; k++) {
+						IType type= types[k];
+						int modifiers= type.getFlags();
+						newEntries.add(new TypeEntry(type.getElementName(), type.getFullyQualifiedName('.'), packageName, modifiers, getVisibility(type, modifiers), isTest, true));
+					}
+				}
+				synchronized (projectIndex) {
+					List<TypeEntry> oldEntries= projectIndex.fSourceTypes.remove(cu);
+					if (oldEntries != null) {
+						for (Iterator<TypeEntry> iter= oldEntries.iterator(); iter.hasNext();) {
+							projectIndex.remove(iter.next());
+						}
+					}
+					for (Iterator<TypeEntry> iter= newEntries.iterator(); iter.hasNext();) {
+						TypeEntry entry= iter.next();
+						projectIndex.add(entry);
+						projectIndex.addSourceType(cu, entry);
+					}
+				}
+			}
+		}
+	}
+
+	private static int getVisibility(int modifiers) {
+		if (Flags.isPublic(modifiers))
+			return VISIBLE_EVERYWHERE;
+		if (Flags.isPrivate(modifiers))
+			return VISIBLE_IN_TYPE;
+		return VISIBLE_IN_PACKAGE;
+	}
+
+	/**
+	 * Returns the visibility of the given type restricted by the visibility of each of its
+	 * enclosing types. Member types of interfaces are implicitly public.
+	 *
+	 * @param type the type
+	 * @param modifiers the modifiers of the type
+	 * @return the visibility
+	 * @throws JavaModelException if the modifiers of an enclosing type cannot be accessed
+	 */
+	private static int getVisibility(IType type, int modifiers) throws JavaModelException {
+		IType declaringType= type.getDeclaringType();
+		if (declaringType == null)
+			return getVisibility(modifiers);
+		int visibility= declaringType.isInterface() ? VISIBLE_EVERYWHERE : getVisibility(modifiers);
+		if (visibility == VISIBLE_IN_TYPE)
+			return visibility;
+		return Math.min(visibility, getVisibility(declaringType, declaringType.getFlags()));
+	}
+
+	private static boolean isTestRoot(IPackageFragmentRoot root, Map<IPackageFragmentRoot, Boolean> testRoots) {
+		if (root == null)
+			return false;
+		Boolean isTest= testRoots.get(root);
+		if (isTest == null) {
+			try {
+				IClasspathEntry entry= root.getResolvedClasspathEntry();
+				isTest= Boolean.valueOf(entry != null && entry.isTest());
+			} catch (JavaModelException e) {
+				isTest= Boolean.FALSE;
+			}
+			testRoots.put(root, isTest);
+		}
+		return isTest.booleanValue();
+	}
+
+	/**
+	 * Returns the key of the bucket of names starting or ending with the given character and
+	 * having the given length. Longer names than {@link #MAX_INDEXED_LENGTH} share a bucket.
+	 *
+	 * @param c the first or last character of the name, matched case insensitively
+	 * @param length the length of the name
+	 * @return the bucket key
+	 */
+	private static int getBucketKey(char c, int length) {
+		return Character.toLowerCase(c) << 8 | Math.min(length, MAX_INDEXED_LENGTH);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -895,7 +895,6 @@ public class UnresolvedElementsSubProcessor {
 		if (proposal instanceof AddImportCorrectionProposal) {
 			AddModuleRequiresCorrectionProposal cp= ((AddImportCorrectionProposal) proposal).getAdditionalProposal();
 			if (cp != null) {
-				Change importChange= proposal.getChange();
 				Change change= cp.getChange();
 				if (change != null) {
 					ImportRewrite importRewrite= ((AddImportCorrectionProposal) proposal).getImportRewrite();
@@ -908,14 +907,15 @@ public class UnresolvedElementsSubProcessor {
 					}
 					if (importNeedsToBeAdded) {
 						change.initializeValidationData(new NullProgressMonitor());
-						String importChangeName= importChange.getName();
+						// the import change is only created when the proposal is previewed or applied
+						String importChangeName= proposal.getName();
 						String moduleRequiresChangeName= change.getName();
 						moduleRequiresChangeName= moduleRequiresChangeName.substring(0, 1).toLowerCase() + moduleRequiresChangeName.substring(1);
 						String changeName= Messages.format(CorrectionMessages.UnresolvedElementsSubProcessor_combine_two_proposals_info, new String[] { importChangeName, moduleRequiresChangeName });
 						compositeProposal= new ChangeCorrectionProposal(changeName, null, IProposalRelevance.IMPORT_NOT_FOUND_ADD_REQUIRES_MODULE) {
 							@Override
 							protected Change createChange() throws CoreException {
-								return new CompositeChange(changeName, new Change[] { change, importChange });
+								return new CompositeChange(changeName, new Change[] { change, proposal.getChange() });
 							}
 
 							@Override
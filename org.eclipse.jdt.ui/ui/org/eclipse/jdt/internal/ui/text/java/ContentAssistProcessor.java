@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -68,6 +68,7 @@ import org.eclipse.ui.keys.IBindingService;
 
 import org.eclipse.ui.texteditor.ITextEditorActionDefinitionIds;
 
+import org.eclipse.jdt.internal.corext.template.java.SharedCompletionContext;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
@@ -179,6 +180,8 @@ public class ContentAssistProcessor implements IContentAssistProcessor {
 			for (CompletionProposalCategory cat : getCategoriesToNotify()) {
 				cat.sessionEnded();
 			}
+			// the computers of categories that are not notified may have used it as well
+			SharedCompletionContext.clear();
 
 			fSelectedProposal= null;
 			fCategoryIteration= null;
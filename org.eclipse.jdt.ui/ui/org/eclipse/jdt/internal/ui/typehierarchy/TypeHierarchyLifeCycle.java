@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -56,6 +56,14 @@ import org.eclipse.jdt.internal.ui.JavaPlugin;
  */
 public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IElementChangedListener {
 
+	/**
+	 * The minimal time in milliseconds a hierarchy computation must take to store the hierarchy as
+	 * snapshot.
+	 *
+	 * @since 3.17
+	 */
+	private static final long MIN_STORED_COMPUTATION_TIME= 1000;
+
 	private boolean fHierarchyRefreshNeeded;
 	private ITypeHierarchy fHierarchy;
 	private IJavaElement[] fInputElements;
@@ -84,6 +92,22 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 	 */
 	private boolean fRefreshJobCanceledExplicitly= true;
 
+	/**
+	 * Indicates whether the hierarchy changed or is a snapshot since it was last computed.
+	 *
+	 * @since 3.17
+	 */
+	private volatile boolean fHierarchyChanged;
+
+	/**
+	 * Guards publishing a hierarchy computed in the refresh job against publishing a snapshot in
+	 * the UI thread. The lock of the life cycle itself is held while joining the refresh job, so it
+	 * must not be acquired in the job.
+	 *
+	 * @since 3.17
+	 */
+	private final Object fHierarchyLock= new Object();
+
 	/**
 	 * Creates the type hierarchy life cycle.
 	 *
@@ -121,6 +145,7 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 		if (fHierarchy != null) {
 			fHierarchy.removeTypeHierarchyChangedListener(this);
 			JavaCore.removeElementChangedListener(this);
+			releaseHierarchy();
 			fHierarchy= null;
 			fInputElements= null;
 		}
@@ -298,11 +323,10 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 	private ITypeHierarchy createTypeHierarchy(IJavaElement[] elements, IProgressMonitor pm) throws JavaModelException {
 		if (elements.length == 1 && elements[0].getElementType() == IJavaElement.TYPE) {
 			IType type= (IType)elements[0];
-			if (fIsSuperTypesOnly) {
-				return type.newSupertypeHierarchy(pm);
-			} else {
-				return type.newTypeHierarchy(pm);
+			if (fTypeHierarchyViewPart != null) {
+				return createTypeHierarchyFromSnapshot(type, elements, pm);
 			}
+			return newTypeHierarchy(type, pm);
 		} else {
 			IRegion region= JavaCore.newRegion();
 			for (int i= 0; i < elements.length; i++) {
@@ -323,6 +347,95 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 	}
 
 
+	private ITypeHierarchy newTypeHierarchy(IType type, IProgressMonitor pm) throws JavaModelException {
+		if (fIsSuperTypesOnly) {
+			return type.newSupertypeHierarchy(pm);
+		} else {
+			return type.newTypeHierarchy(pm);
+		}
+	}
+
+	/**
+	 * Creates the hierarchy of the type shown in the view part. A snapshot of the hierarchy that
+	 * is known to be current is reused. Otherwise, a snapshot is shown while the hierarchy is
+	 * computed, and the computed hierarchy is stored as new snapshot if its computation was slow.
+	 *
+	 * @param type the focus type
+	 * @param elements the input elements
+	 * @param pm the progress monitor
+	 * @return the hierarchy
+	 * @throws JavaModelException if the hierarchy cannot be computed
+	 * @since 3.17
+	 */
+	private ITypeHierarchy createTypeHierarchyFromSnapshot(IType type, IJavaElement[] elements, final IProgressMonitor pm) throws JavaModelException {
+		TypeHierarchySnapshots snapshots= JavaPlugin.getDefault().getTypeHierarchySnapshots();
+		TypeHierarchySnapshots.Snapshot snapshot= snapshots.acquire(type, fIsSuperTypesOnly, pm);
+		if (snapshot != null) {
+			if (snapshot.isCurrent()) {
+				return snapshot.getHierarchy();
+			}
+			showSnapshot(snapshot.getHierarchy(), elements, pm);
+		}
+		long start= System.currentTimeMillis();
+		ITypeHierarchy hierarchy= newTypeHierarchy(type, pm);
+		if ((pm == null || !pm.isCanceled()) && System.currentTimeMillis() - start >= MIN_STORED_COMPUTATION_TIME) {
+			snapshots.store(type, fIsSuperTypesOnly, hierarchy, pm);
+		}
+		return hierarchy;
+	}
+
+	/**
+	 * Shows the snapshot of a hierarchy while the hierarchy is computed in the background.
+	 *
+	 * @param snapshot the hierarchy snapshot
+	 * @param elements the input elements
+	 * @param pm the progress monitor of the refresh job
+	 * @since 3.17
+	 */
+	private void showSnapshot(final ITypeHierarchy snapshot, final IJavaElement[] elements, final IProgressMonitor pm) {
+		final ITypeHierarchy shownHierarchy;
+		synchronized (fHierarchyLock) {
+			shownHierarchy= fHierarchy;
+		}
+		Display.getDefault().asyncExec(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (TypeHierarchyLifeCycle.this) {
+					if (fRefreshHierarchyJob == null) {
+						return;
+					}
+				}
+				synchronized (fHierarchyLock) {
+					// the snapshot is published in the UI thread, unless the computed hierarchy has been published already
+					if (fHierarchy != shownHierarchy) {
+						return;
+					}
+					fHierarchy= snapshot;
+					fInputElements= elements;
+					fHierarchyChanged= true;
+				}
+				if (pm.isCanceled() || fTypeHierarchyViewPart.getTypeHierarchyLifeCycle() == null)
+					return;
+				fTypeHierarchyViewPart.setViewersInput();
+				fTypeHierarchyViewPart.updateViewers();
+			}
+		});
+	}
+
+	/**
+	 * Stores the hierarchy of a type shown in the view part in the snapshots, so that it can be
+	 * shown again without recomputing it.
+	 *
+	 * @since 3.17
+	 */
+	private void releaseHierarchy() {
+		if (fTypeHierarchyViewPart == null || fHierarchyChanged || fInputElements == null)
+			return;
+		if (fInputElements.length == 1 && fInputElements[0].getElementType() == IJavaElement.TYPE && fHierarchy.getType() != null) {
+			JavaPlugin.getDefault().getTypeHierarchySnapshots().release((IType) fInputElements[0], fIsSuperTypesOnly, fHierarchy);
+		}
+	}
+
 	public void doHierarchyRefresh(IJavaElement[] elements, IProgressMonitor pm) throws JavaModelException {
 		boolean hierachyCreationNeeded= (fHierarchy == null || !Arrays.equals(elements, fInputElements));
 		// to ensure the order of the two listeners always remove / add listeners on operations
@@ -332,7 +445,13 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 			JavaCore.removeElementChangedListener(this);
 		}
 		if (hierachyCreationNeeded) {
-			fHierarchy= createTypeHierarchy(elements, pm);
+			if (fHierarchy != null) {
+				releaseHierarchy();
+			}
+			ITypeHierarchy hierarchy= createTypeHierarchy(elements, pm);
+			synchronized (fHierarchyLock) {
+				fHierarchy= hierarchy;
+			}
 			if (pm != null && pm.isCanceled()) {
 				throw new OperationCanceledException();
 			}
@@ -345,6 +464,7 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 		fHierarchy.addTypeHierarchyChangedListener(this);
 		JavaCore.addElementChangedListener(this);
 		fHierarchyRefreshNeeded= false;
+		fHierarchyChanged= false;
 	}
 
 	/*
@@ -353,6 +473,7 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 	@Override
 	public void typeHierarchyChanged(ITypeHierarchy typeHierarchy) {
 	 	fHierarchyRefreshNeeded= true;
+	 	fHierarchyChanged= true;
  		fireChange(null);
 	}
 
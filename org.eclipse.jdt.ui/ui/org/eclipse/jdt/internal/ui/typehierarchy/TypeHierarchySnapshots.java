@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.typehierarchy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Keeps snapshots of the type hierarchies shown in the {@link TypeHierarchyViewPart}, so that
+ * revisiting a focus type, e.g. from the history, does not compute its hierarchy from scratch.
+ * <p>
+ * The hierarchies are stored with {@link ITypeHierarchy#store(OutputStream, IProgressMonitor)} in
+ * the state location of the plug-in, keyed by the focus type and a stamp of the class path of its
+ * project, and loaded on demand. No hierarchy is kept in memory. A hierarchy released in this
+ * session is known to be up to date until the next Java element change is reported, so it can be
+ * shown again without recomputing it. Other stored hierarchies are shown while the hierarchy is
+ * recomputed.
+ * </p>
+ *
+ * @since 3.17
+ */
+public class TypeHierarchySnapshots implements IElementChangedListener {
+
+	/**
+	 * A hierarchy taken from the snapshots.
+	 */
+	public static final class Snapshot {
+
+		private final ITypeHierarchy fHierarchy;
+		private final boolean fIsCurrent;
+
+		private Snapshot(ITypeHierarchy hierarchy, boolean isCurrent) {
+			fHierarchy= hierarchy;
+			fIsCurrent= isCurrent;
+		}
+
+		/**
+		 * @return the hierarchy
+		 */
+		public ITypeHierarchy getHierarchy() {
+			return fHierarchy;
+		}
+
+		/**
+		 * Returns whether the hierarchy is known to be up to date. Hierarchies that are not current
+		 * must only be shown until the hierarchy has been recomputed.
+		 *
+		 * @return <code>true</code> if the hierarchy did not change since it was computed
+		 */
+		public boolean isCurrent() {
+			return fIsCurrent;
+		}
+	}
+
+	private static final String SNAPSHOT_DIR= "typehierarchies"; //$NON-NLS-1$
+
+	private static final String SNAPSHOT_EXTENSION= ".hierarchy"; //$NON-NLS-1$
+
+	private static final int MAX_STORED_SNAPSHOTS= 32;
+
+	/**
+	 * The keys of the stored hierarchies which did not change since they were released.
+	 */
+	private final Set<String> fCurrentKeys= new HashSet<>();
+
+	/**
+	 * The number of Java element changes reported since the listener was added.
+	 */
+	private int fChangeCount;
+
+	private boolean fListening;
+
+	/**
+	 * Takes the snapshot of the hierarchy of the given type from the stored hierarchies.
+	 *
+	 * @param type the focus type
+	 * @param isSuperTypesOnly <code>true</code> for a super type hierarchy
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @return the snapshot or <code>null</code> if there is none
+	 */
+	public Snapshot acquire(IType type, boolean isSuperTypesOnly, IProgressMonitor monitor) {
+		String key= getKey(type, isSuperTypesOnly);
+		if (key == null)
+			return null;
+		boolean isCurrent;
+		synchronized (fCurrentKeys) {
+			// handed over to the caller, which keeps the hierarchy up to date from now on
+			isCurrent= fCurrentKeys.remove(key);
+		}
+
+		File file= getSnapshotFile(key);
+		if (file == null || !file.isFile())
+			return null;
+		try (InputStream stream= new BufferedInputStream(new FileInputStream(file))) {
+			ITypeHierarchy hierarchy= type.loadTypeHierachy(stream, monitor);
+			if (!type.equals(hierarchy.getType())) {
+				return null;
+			}
+			return new Snapshot(hierarchy, isCurrent);
+		} catch (IOException | JavaModelException e) {
+			// the snapshot is outdated or corrupt, it is replaced when the hierarchy is stored again
+			file.delete();
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the given hierarchy after it is no longer shown. Until the next Java element change,
+	 * the hierarchy is known to be up to date when it is acquired again.
+	 *
+	 * @param type the focus type
+	 * @param isSuperTypesOnly <code>true</code> for a super type hierarchy
+	 * @param hierarchy the hierarchy of the type, which must be up to date
+	 */
+	public void release(IType type, boolean isSuperTypesOnly, ITypeHierarchy hierarchy) {
+		String key= getKey(type, isSuperTypesOnly);
+		if (key == null)
+			return;
+		int changeCount;
+		synchronized (fCurrentKeys) {
+			fCurrentKeys.remove(key);
+			if (!fListening) {
+				JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+				fListening= true;
+			}
+			changeCount= fChangeCount;
+		}
+		if (store(key, hierarchy, null)) {
+			synchronized (fCurrentKeys) {
+				// not current if a change was reported while storing
+				if (fListening && changeCount == fChangeCount)
+					fCurrentKeys.add(key);
+			}
+		}
+	}
+
+	/**
+	 * Stores the given hierarchy in the state location, replacing a previous snapshot of the type.
+	 *
+	 * @param type the focus type
+	 * @param isSuperTypesOnly <code>true</code> for a super type hierarchy
+	 * @param hierarchy the hierarchy of the type
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 */
+	public void store(IType type, boolean isSuperTypesOnly, ITypeHierarchy hierarchy, IProgressMonitor monitor) {
+		String key= getKey(type, isSuperTypesOnly);
+		if (key == null)
+			return;
+		synchronized (fCurrentKeys) {
+			fCurrentKeys.remove(key);
+		}
+		store(key, hierarchy, monitor);
+	}
+
+	/**
+	 * Forgets which stored hierarchies are up to date and stops listening to Java element changes.
+	 */
+	public void dispose() {
+		synchronized (fCurrentKeys) {
+			if (fListening) {
+				JavaCore.removeElementChangedListener(this);
+				fListening= false;
+			}
+			fCurrentKeys.clear();
+		}
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		synchronized (fCurrentKeys) {
+			fChangeCount++;
+			fCurrentKeys.clear();
+		}
+	}
+
+	private static boolean store(String key, ITypeHierarchy hierarchy, IProgressMonitor monitor) {
+		File file= getSnapshotFile(key);
+		if (file == null)
+			return false;
+		try (OutputStream stream= new BufferedOutputStream(new FileOutputStream(file))) {
+			hierarchy.store(stream, monitor);
+		} catch (IOException | JavaModelException e) {
+			JavaPlugin.log(e);
+			file.delete();
+			return false;
+		}
+		pruneSnapshotFiles(file.getParentFile());
+		return true;
+	}
+
+	/**
+	 * Returns the key of the hierarchy of the given type. The key contains a stamp of the resolved
+	 * class path including the modification times of the libraries, so that stored hierarchies are
+	 * not used after the class path or a library changed.
+	 *
+	 * @param type the focus type
+	 * @param isSuperTypesOnly <code>true</code> for a super type hierarchy
+	 * @return the key or <code>null</code> if the class path cannot be resolved
+	 */
+	private static String getKey(IType type, boolean isSuperTypesOnly) {
+		IJavaProject project= type.getJavaProject();
+		long classpathStamp= 0;
+		try {
+			IClasspathEntry[] entries= project.getResolvedClasspath(true);
+			for (int i= 0; i < entries.length; i++) {
+				IClasspathEntry entry= entries[i];
+				classpathStamp= 31 * classpathStamp + entry.getPath().hashCode();
+				if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY)
+					classpathStamp= 31 * classpathStamp + getModificationStamp(entry.getPath());
+			}
+		} catch (JavaModelException e) {
+			return null;
+		}
+		StringBuilder key= new StringBuilder(type.getHandleIdentifier());
+		key.append(isSuperTypesOnly ? "|S|" : "|H|"); //$NON-NLS-1$ //$NON-NLS-2$
+		key.append(Long.toHexString(classpathStamp));
+		return key.toString();
+	}
+
+	/**
+	 * Returns the modification time of the given library.
+	 *
+	 * @param path the path of the library, in the workspace or in the file system
+	 * @return the modification time, or <code>0</code> if the library does not exist
+	 */
+	private static long getModificationStamp(IPath path) {
+		IResource resource= ResourcesPlugin.getWorkspace().getRoot().findMember(path);
+		IPath location= resource != null ? resource.getLocation() : path;
+		return location != null ? location.toFile().lastModified() : 0;
+	}
+
+	private static File getSnapshotFile(String key) {
+		File dir;
+		try {
+			dir= JavaPlugin.getDefault().getStateLocation().append(SNAPSHOT_DIR).toFile();
+		} catch (IllegalStateException e) {
+			// no state location
+			return null;
+		}
+		if (!dir.isDirectory() && !dir.mkdirs())
+			return null;
+		String name= Integer.toHexString(key.hashCode()) + Integer.toHexString(key.length()) + SNAPSHOT_EXTENSION;
+		return new File(dir, name);
+	}
+
+	private static void pruneSnapshotFiles(File dir) {
+		File[] files= dir.listFiles();
+		if (files == null || files.length <= MAX_STORED_SNAPSHOTS)
+			return;
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File f1, File f2) {
+				return Long.compare(f2.lastModified(), f1.lastModified());
+			}
+		});
+		for (int i= MAX_STORED_SNAPSHOTS; i < files.length; i++) {
+			files[i].delete();
+		}
+	}
+}
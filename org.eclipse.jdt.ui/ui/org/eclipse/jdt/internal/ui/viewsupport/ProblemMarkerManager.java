@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@ package org.eclipse.jdt.internal.ui.viewsupport;
 
 
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 
 import org.eclipse.swt.widgets.Display;
@@ -24,6 +25,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IMarkerDelta;
@@ -50,9 +52,30 @@ import org.eclipse.jdt.internal.ui.javaeditor.CompilationUnitAnnotationModelEven
  * Listens to resource deltas and filters for marker changes of type IMarker.PROBLEM
  * Viewers showing error ticks should register as listener to
  * this type.
+ * <p>
+ * Marker changes are coalesced: they are collected for a time window whose length adapts to the
+ * time the listeners needed for the last update, and each update in the UI thread notifies the
+ * listeners about a bounded number of resources. Annotation model changes are propagated without
+ * delay.
+ * </p>
  */
 public class ProblemMarkerManager implements IResourceChangeListener, IAnnotationModelListener , IAnnotationModelListenerExtension {
 
+	/**
+	 * Minimal time in milliseconds to collect marker changes before the listeners are notified.
+	 */
+	private static final long MIN_COALESCE_DELAY= 50;
+
+	/**
+	 * Maximal time in milliseconds to collect marker changes before the listeners are notified.
+	 */
+	private static final long MAX_COALESCE_DELAY= 1000;
+
+	/**
+	 * Maximal number of resources with marker changes passed to the listeners in one update.
+	 */
+	private static final int MAX_RESOURCES_PER_UPDATE= 2000;
+
 	/**
 	 * Visitors used to look if the element change delta contains a marker change.
 	 */
@@ -114,6 +137,9 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 
 	private UIJob fNotifierJob;
 
+	/** Time in milliseconds the listeners needed for the last update */
+	private volatile long fLastUpdateTime;
+
 	public ProblemMarkerManager() {
 		fListeners= new ListenerList<>();
 		fResourcesWithMarkerChanges= new HashSet<>();
@@ -146,11 +172,22 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 				}
 			}
 			if (hasChanges) {
-				fireChanges();
+				fireChanges(getCoalesceDelay());
 			}
 		}
 	}
 
+	/**
+	 * Returns the time to collect further marker changes before notifying the listeners. The
+	 * delay grows with the time the listeners needed for the last update, so that the UI thread
+	 * spends at most about a third of its time updating problem decorations.
+	 *
+	 * @return the delay in milliseconds
+	 */
+	private long getCoalesceDelay() {
+		return Math.min(MAX_COALESCE_DELAY, Math.max(MIN_COALESCE_DELAY, 2 * fLastUpdateTime));
+	}
+
 	@Override
 	public void modelChanged(IAnnotationModel model) {
 		// no action
@@ -167,7 +204,7 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 					hasChanges= fResourcesWithAnnotationChanges.add(changedResource);
 				}
 				if (hasChanges) {
-					fireChanges();
+					fireChanges(0);
 				}
 			}
 		}
@@ -198,14 +235,14 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 		}
 	}
 
-	private void fireChanges() {
+	private void fireChanges(long delay) {
 		Display display= PlatformUI.getWorkbench().getDisplay();
 		if (display != null && !display.isDisposed()) {
-			postAsyncUpdate(display);
+			postAsyncUpdate(display, delay);
 		}
 	}
 
-	private void postAsyncUpdate(final Display display) {
+	private synchronized void postAsyncUpdate(final Display display, long delay) {
 		if (fNotifierJob == null) {
 			fNotifierJob= new UIJob(display, JavaUIMessages.ProblemMarkerManager_problem_marker_update_job_description) {
 				@Override
@@ -216,7 +253,11 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 			};
 			fNotifierJob.setSystem(true);
 		}
-		fNotifierJob.schedule();
+		int state= fNotifierJob.getState();
+		if (delay == 0 || (state != Job.WAITING && state != Job.SLEEPING)) {
+			// keep the time window of an already scheduled update
+			fNotifierJob.schedule(delay);
+		}
 	}
 
 	/**
@@ -225,16 +266,21 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 	private void runPendingUpdates() {
 		IResource[] markerResources= null;
 		IResource[] annotationResources= null;
+		boolean hasMoreChanges= false;
 		synchronized (this) {
 			if (!fResourcesWithMarkerChanges.isEmpty()) {
-				markerResources= fResourcesWithMarkerChanges.toArray(new IResource[fResourcesWithMarkerChanges.size()]);
-				fResourcesWithMarkerChanges.clear();
+				markerResources= removeResources(fResourcesWithMarkerChanges, MAX_RESOURCES_PER_UPDATE);
+				hasMoreChanges= !fResourcesWithMarkerChanges.isEmpty();
 			}
 			if (!fResourcesWithAnnotationChanges.isEmpty()) {
 				annotationResources= fResourcesWithAnnotationChanges.toArray(new IResource[fResourcesWithAnnotationChanges.size()]);
 				fResourcesWithAnnotationChanges.clear();
 			}
 		}
+		if (markerResources == null && annotationResources == null)
+			return;
+
+		long start= System.currentTimeMillis();
 		for (IProblemChangedListener curr : fListeners) {
 			if (markerResources != null) {
 				curr.problemsChanged(markerResources, true);
@@ -243,6 +289,28 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 				curr.problemsChanged(annotationResources, false);
 			}
 		}
+		fLastUpdateTime= System.currentTimeMillis() - start;
+
+		if (hasMoreChanges) {
+			fireChanges(getCoalesceDelay());
+		}
+	}
+
+	/**
+	 * Removes at most <code>max</code> resources from the given set.
+	 *
+	 * @param resources the resources
+	 * @param max the maximal number of resources to remove
+	 * @return the removed resources
+	 */
+	private static IResource[] removeResources(Set<IResource> resources, int max) {
+		IResource[] removed= new IResource[Math.min(resources.size(), max)];
+		Iterator<IResource> iterator= resources.iterator();
+		for (int i= 0; i < removed.length; i++) {
+			removed[i]= iterator.next();
+			iterator.remove();
+		}
+		return removed;
 	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -44,12 +44,14 @@ import org.eclipse.jdt.core.ITypeParameter;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 
+import org.eclipse.jdt.internal.core.manipulation.JavaElementLabelCache;
 import org.eclipse.jdt.internal.core.manipulation.JavaElementLabelsCore;
 import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 import org.eclipse.jdt.internal.corext.util.Strings;
 
 import org.eclipse.jdt.launching.JavaRuntime;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.packageview.ClassPathContainer;
 import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLabelComposer;
 
@@ -491,8 +493,23 @@ public class JavaElementLabels {
 	 * @return the label of the Java element
 	 */
 	public static String getElementLabel(IJavaElement element, long flags) {
-		StringBuffer result= new StringBuffer();
-		getElementLabel(element, flags, result);
+		JavaPlugin plugin= JavaPlugin.getDefault();
+		if (plugin != null) {
+			return plugin.getJavaElementLabelCache().getLabel(element, flags, LABEL_COMPUTER);
+		}
+		return computeElementLabel(element, flags);
+	}
+
+	private static final JavaElementLabelCache.ILabelComputer LABEL_COMPUTER= new JavaElementLabelCache.ILabelComputer() {
+		@Override
+		public String computeLabel(IJavaElement element, long flags) {
+			return computeElementLabel(element, flags);
+		}
+	};
+
+	private static String computeElementLabel(IJavaElement element, long flags) {
+		StringBuilder result= new StringBuilder();
+		new JavaElementLabelComposer(result).appendElementLabel(element, flags);
 		return org.eclipse.jdt.internal.core.manipulation.util.Strings.markJavaElementLabelLTR(result.toString());
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2011 IBM Corporation and others.
+ * Copyright (c) 2006, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -31,7 +31,9 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.jface.preference.IPreferenceStore;
 
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.Region;
@@ -365,7 +367,13 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 
 				fUpdatingCount++;
 				try {
-					update(createContext(false));
+					IRegion dirtyRegion= fDirtyRegionTracker.consume();
+					FoldingStructureComputationContext ctx= createContext(false);
+					Set<IJavaElement> changedElements= ctx != null ? computeChangedElements(delta, dirtyRegion) : null;
+					if (changedElements != null)
+						update(ctx, changedElements);
+					else
+						update(ctx);
 				} finally {
 					fUpdatingCount--;
 				}
@@ -450,6 +458,95 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		}
 	}
 
+	/**
+	 * Tracks the region of the document that has been changed since the folding structure was
+	 * updated. Since the Java model of the last reconcile does not reflect the changes made while
+	 * reconciling, the region consumed by an update is also reported to the next update.
+	 *
+	 * @since 3.17
+	 */
+	private static final class DirtyRegionTracker implements IDocumentListener {
+
+		private IDocument fDocument;
+
+		private int fStart= -1;
+		private int fEnd= -1;
+		private int fPreviousStart= -1;
+		private int fPreviousEnd= -1;
+
+		/**
+		 * Tracks the changes of the given document, starting with a clean document.
+		 *
+		 * @param document the document, may be <code>null</code>
+		 */
+		public synchronized void connect(IDocument document) {
+			if (fDocument != document) {
+				disconnect();
+				fDocument= document;
+				if (fDocument != null)
+					fDocument.addDocumentListener(this);
+			}
+			fStart= fEnd= fPreviousStart= fPreviousEnd= -1;
+		}
+
+		public synchronized void disconnect() {
+			if (fDocument != null) {
+				fDocument.removeDocumentListener(this);
+				fDocument= null;
+			}
+		}
+
+		/**
+		 * Returns the region changed since the update before the last one and starts a new region.
+		 *
+		 * @return the changed region, or <code>null</code> if nothing changed
+		 */
+		public synchronized IRegion consume() {
+			int start= fStart;
+			int end= fEnd;
+			if (fPreviousStart != -1) {
+				start= start == -1 ? fPreviousStart : Math.min(start, fPreviousStart);
+				end= Math.max(end, fPreviousEnd);
+			}
+			fPreviousStart= fStart;
+			fPreviousEnd= fEnd;
+			fStart= fEnd= -1;
+			return start == -1 ? null : new Region(start, end - start);
+		}
+
+		@Override
+		public void documentAboutToBeChanged(DocumentEvent event) {
+		}
+
+		@Override
+		public synchronized void documentChanged(DocumentEvent event) {
+			int offset= event.getOffset();
+			int end= offset + event.getLength();
+			int inserted= event.getText() == null ? 0 : event.getText().length();
+			int shift= inserted - event.getLength();
+
+			if (fPreviousStart != -1) {
+				fPreviousStart= shift(fPreviousStart, offset, end, shift);
+				fPreviousEnd= shift(fPreviousEnd, offset, end, shift);
+			}
+			if (fStart == -1) {
+				fStart= offset;
+				fEnd= offset + inserted;
+			} else {
+				fStart= Math.min(shift(fStart, offset, end, shift), offset);
+				fEnd= Math.max(shift(fEnd, offset, end, shift), offset + inserted);
+			}
+		}
+
+		private static int shift(int position, int offset, int end, int shift) {
+			if (position <= offset)
+				return position;
+			if (position >= end)
+				return position + shift;
+			return offset; // inside the replaced text
+		}
+	}
+
 	/**
 	 * Projection position that will return two foldable regions: one folding away
 	 * the region from after the '/**' to the beginning of the content, the other
@@ -729,6 +826,12 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 
 	private volatile int fUpdatingCount= 0;
 
+	/**
+	 * The document changes not yet reflected in the folding structure.
+	 * @since 3.17
+	 */
+	private final DirtyRegionTracker fDirtyRegionTracker= new DirtyRegionTracker();
+
 	/**
 	 * Creates a new folding provider. It must be
 	 * {@link #install(ITextEditor, ProjectionViewer) installed} on an editor/viewer pair before it
@@ -833,6 +936,7 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 			JavaCore.removeElementChangedListener(fElementListener);
 			fElementListener= null;
 		}
+		fDirtyRegionTracker.disconnect();
 	}
 
 	/*
@@ -842,6 +946,7 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 	public final void initialize() {
 		fUpdatingCount++;
 		try {
+			fDirtyRegionTracker.connect(getDocument());
 			update(createInitialContext());
 		} finally {
 			fUpdatingCount--;
@@ -893,13 +998,153 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		if (ctx == null)
 			return;
 
+		computeFoldingStructure(ctx);
+		updateAnnotations(ctx, computeCurrentStructure(ctx));
+	}
+
+	/**
+	 * Updates the folding structure of the given elements and their descendants only. The
+	 * annotations of all other elements are kept, their positions are updated by the document.
+	 *
+	 * @param ctx the context
+	 * @param changedElements the changed elements, none of which is the ancestor of another
+	 * @since 3.17
+	 */
+	private void update(FoldingStructureComputationContext ctx, Set<IJavaElement> changedElements) {
+		try {
+			String source= ((ISourceReference) fInput).getSource();
+			IType[] types= ((ICompilationUnit) fInput).getTypes();
+			if (source == null || types.length == 0)
+				return;
+
+			ctx.getScanner().setSource(source.toCharArray());
+			// the first type is unchanged, do not compute a header comment for a changed type
+			ctx.setFirstType(types[0]);
+			for (Iterator<IJavaElement> iterator= changedElements.iterator(); iterator.hasNext();) {
+				IJavaElement element= iterator.next();
+				if (element.exists())
+					computeFoldingStructure(new IJavaElement[] { element }, ctx);
+			}
+		} catch (JavaModelException x) {
+			return;
+		}
+
+		Map<IJavaElement, List<Tuple>> oldStructure= computeCurrentStructure(ctx);
+		for (Iterator<IJavaElement> iterator= oldStructure.keySet().iterator(); iterator.hasNext();) {
+			if (!isChanged(iterator.next(), changedElements))
+				iterator.remove();
+		}
+		updateAnnotations(ctx, oldStructure);
+	}
+
+	private static boolean isChanged(IJavaElement element, Set<IJavaElement> changedElements) {
+		while (element != null) {
+			if (changedElements.contains(element))
+				return true;
+			element= element.getParent();
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the elements whose folding structure has to be updated for the given delta of the
+	 * input. These are the members added, removed or changed according to the delta, and the
+	 * members intersecting the region changed in the document.
+	 *
+	 * @param delta the delta of the input
+	 * @param dirtyRegion the region of the document changed since the previous updates, or
+	 *            <code>null</code>
+	 * @return the changed elements, none of which is the ancestor of another, or
+	 *         <code>null</code> if the whole folding structure has to be updated
+	 * @since 3.17
+	 */
+	private Set<IJavaElement> computeChangedElements(IJavaElementDelta delta, IRegion dirtyRegion) {
+		if (!(fInput instanceof ICompilationUnit) || (delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0)
+			return null;
+
+		try {
+			IType[] types= ((ICompilationUnit) fInput).getTypes();
+			if (types.length == 0)
+				return null;
+
+			Set<IJavaElement> changedElements= new HashSet<>();
+			if (!collectChangedElements(delta, changedElements))
+				return null;
+
+			if (dirtyRegion != null) {
+				// changes before the name of the first type affect the header comment, the package declaration or the imports
+				ISourceRange nameRange= types[0].getNameRange();
+				if (!SourceRange.isAvailable(nameRange) || dirtyRegion.getOffset() <= nameRange.getOffset() + nameRange.getLength())
+					return null;
+				if (!collectChangedElements(types, dirtyRegion, changedElements))
+					return null;
+			}
+
+			for (Iterator<IJavaElement> iterator= changedElements.iterator(); iterator.hasNext();) {
+				IJavaElement parent= iterator.next().getParent();
+				if (parent != null && isChanged(parent, changedElements))
+					iterator.remove();
+			}
+			return changedElements;
+		} catch (JavaModelException e) {
+			return null;
+		}
+	}
+
+	private boolean collectChangedElements(IJavaElementDelta delta, Set<IJavaElement> changedElements) {
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			IJavaElementDelta child= children[i];
+			if (child.getKind() != IJavaElementDelta.CHANGED || (child.getFlags() & ~IJavaElementDelta.F_CHILDREN) != 0) {
+				if (fInput.equals(child.getElement().getParent()))
+					return false;
+				changedElements.add(child.getElement());
+			}
+			if (!collectChangedElements(child, changedElements))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean collectChangedElements(IJavaElement[] elements, IRegion dirtyRegion, Set<IJavaElement> changedElements) throws JavaModelException {
+		int dirtyStart= dirtyRegion.getOffset();
+		int dirtyEnd= dirtyStart + dirtyRegion.getLength();
+		for (int i= 0; i < elements.length; i++) {
+			IJavaElement element= elements[i];
+			if (!(element instanceof ISourceReference))
+				continue;
+			ISourceRange range= ((ISourceReference) element).getSourceRange();
+			if (!SourceRange.isAvailable(range))
+				continue;
+			int start= range.getOffset();
+			int end= start + range.getLength();
+			if (dirtyEnd < start || dirtyStart > end)
+				continue;
+
+			if (element instanceof IType) {
+				// changes between the members of a type do not affect the folding of the type itself
+				ISourceRange nameRange= ((IType) element).getNameRange();
+				int headerEnd= SourceRange.isAvailable(nameRange) ? nameRange.getOffset() + nameRange.getLength() : end;
+				if (dirtyStart <= headerEnd || dirtyEnd >= end - 1) {
+					if (fInput.equals(element.getParent()))
+						return false;
+					changedElements.add(element);
+				} else if (!collectChangedElements(((IType) element).getChildren(), dirtyRegion, changedElements)) {
+					return false;
+				}
+			} else {
+				changedElements.add(element);
+			}
+		}
+		return true;
+	}
+
+	private void updateAnnotations(FoldingStructureComputationContext ctx, Map<IJavaElement, List<Tuple>> oldStructure) {
 		Map<JavaProjectionAnnotation, Position> additions= new HashMap<>();
 		List<JavaProjectionAnnotation> deletions= new ArrayList<>();
 		List<JavaProjectionAnnotation> updates= new ArrayList<>();
 
-		computeFoldingStructure(ctx);
 		Map<JavaProjectionAnnotation, Position> newStructure= ctx.fMap;
-		Map<IJavaElement, List<Tuple>> oldStructure= computeCurrentStructure(ctx);
 
 		Iterator<JavaProjectionAnnotation> e= newStructure.keySet().iterator();
 		while (e.hasNext()) {
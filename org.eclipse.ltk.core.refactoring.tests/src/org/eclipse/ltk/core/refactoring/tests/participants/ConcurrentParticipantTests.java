@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.NullChange;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
+import org.eclipse.ltk.core.refactoring.participants.CheckConditionsContext;
+import org.eclipse.ltk.core.refactoring.participants.IThreadSafeParticipant;
+import org.eclipse.ltk.core.refactoring.participants.RefactoringParticipant;
+import org.eclipse.ltk.core.refactoring.participants.RenameArguments;
+import org.eclipse.ltk.core.refactoring.participants.RenameParticipant;
+import org.eclipse.ltk.core.refactoring.participants.RenameProcessor;
+import org.eclipse.ltk.core.refactoring.participants.RenameRefactoring;
+import org.eclipse.ltk.core.refactoring.participants.SharableParticipants;
+
+public class ConcurrentParticipantTests extends TestCase {
+
+	private static class TestParticipant extends RenameParticipant {
+		private final String fName;
+		private final long fDelay;
+		private final boolean fFatal;
+		private volatile boolean fCanceled;
+
+		public TestParticipant(String name, long delay, boolean fatal) {
+			fName= name;
+			fDelay= delay;
+			fFatal= fatal;
+		}
+		@Override
+		protected boolean initialize(Object element) {
+			return true;
+		}
+		@Override
+		public String getName() {
+			return fName;
+		}
+		@Override
+		public RefactoringStatus checkConditions(IProgressMonitor pm, CheckConditionsContext context) throws OperationCanceledException {
+			long end= System.currentTimeMillis() + fDelay;
+			while (System.currentTimeMillis() < end) {
+				if (pm.isCanceled()) {
+					fCanceled= true;
+					throw new OperationCanceledException();
+				}
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					// continue
+				}
+			}
+			if (fFatal)
+				return RefactoringStatus.createFatalErrorStatus(fName);
+			return RefactoringStatus.createWarningStatus(fName);
+		}
+		@Override
+		public Change createChange(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			try {
+				Thread.sleep(fDelay);
+			} catch (InterruptedException e) {
+				// continue
+			}
+			return new NullChange(fName);
+		}
+	}
+
+	private static class ThreadSafeTestParticipant extends TestParticipant implements IThreadSafeParticipant {
+		public ThreadSafeTestParticipant(String name, long delay, boolean fatal) {
+			super(name, delay, fatal);
+		}
+	}
+
+	private static class TestProcessor extends RenameProcessor {
+		private Object fElement= Boolean.TRUE;
+		private TestParticipant[] fParticipants;
+
+		public TestProcessor(TestParticipant[] participants) {
+			fParticipants= participants;
+		}
+		@Override
+		public Object[] getElements() {
+			return new Object[] { fElement };
+		}
+		@Override
+		public String getIdentifier() {
+			return "org.eclipse.ltk.core.refactoring.tests.TestProcessor";
+		}
+		@Override
+		public String getProcessorName() {
+			return "processor";
+		}
+		@Override
+		public boolean isApplicable() throws CoreException {
+			return true;
+		}
+		@Override
+		public RefactoringStatus checkInitialConditions(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			return new RefactoringStatus();
+		}
+		@Override
+		public RefactoringStatus checkFinalConditions(IProgressMonitor pm, CheckConditionsContext context) throws CoreException, OperationCanceledException {
+			return new RefactoringStatus();
+		}
+		@Override
+		public Change createChange(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			return new NullChange("processor");
+		}
+		@Override
+		public RefactoringParticipant[] loadParticipants(RefactoringStatus status, SharableParticipants sharedParticipants) throws CoreException {
+			for (int i= 0; i < fParticipants.length; i++) {
+				fParticipants[i].initialize(this, fElement, new RenameArguments("", false));
+			}
+			return fParticipants;
+		}
+	}
+
+	public void testMergeOrder() throws Exception {
+		TestParticipant[] participants= new TestParticipant[] {
+				new ThreadSafeTestParticipant("p1", 300, false),
+				new TestParticipant("p2", 0, false),
+				new ThreadSafeTestParticipant("p3", 0, false),
+				new ThreadSafeTestParticipant("p4", 100, false)
+		};
+		RenameRefactoring refactoring= new RenameRefactoring(new TestProcessor(participants));
+
+		RefactoringStatus status= refactoring.checkAllConditions(new NullProgressMonitor());
+		RefactoringStatusEntry[] entries= status.getEntries();
+		assertEquals(4, entries.length);
+		for (int i= 0; i < entries.length; i++) {
+			assertEquals(participants[i].getName(), entries[i].getMessage());
+		}
+
+		Change[] changes= ((CompositeChange) refactoring.createChange(new NullProgressMonitor())).getChildren();
+		assertEquals(5, changes.length);
+		assertEquals("processor", changes[0].getName());
+		for (int i= 0; i < participants.length; i++) {
+			assertEquals(participants[i].getName(), changes[i + 1].getName());
+		}
+	}
+
+	public void testFatalErrorCancelsParticipants() throws Exception {
+		TestParticipant[] participants= new TestParticipant[] {
+				new ThreadSafeTestParticipant("p1", 10000, false),
+				new ThreadSafeTestParticipant("p2", 0, true),
+				new TestParticipant("p3", 0, false)
+		};
+		RenameRefactoring refactoring= new RenameRefactoring(new TestProcessor(participants));
+
+		long start= System.currentTimeMillis();
+		RefactoringStatus status= refactoring.checkAllConditions(new NullProgressMonitor());
+		assertTrue(System.currentTimeMillis() - start < 5000);
+
+		assertTrue(status.hasFatalError());
+		RefactoringStatusEntry[] entries= status.getEntries();
+		assertEquals(1, entries.length);
+		assertEquals("p2", entries[0].getMessage());
+		assertTrue(participants[0].fCanceled);
+	}
+
+	public void testCancelIsPropagated() throws Exception {
+		TestParticipant[] participants= new TestParticipant[] {
+				new ThreadSafeTestParticipant("p1", 10000, false),
+				new ThreadSafeTestParticipant("p2", 10000, false)
+		};
+		RenameRefactoring refactoring= new RenameRefactoring(new TestProcessor(participants));
+		final long cancelTime= System.currentTimeMillis() + 200;
+		IProgressMonitor pm= new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || System.currentTimeMillis() > cancelTime;
+			}
+		};
+
+		long start= System.currentTimeMillis();
+		try {
+			refactoring.checkAllConditions(pm);
+			fail();
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		assertTrue(System.currentTimeMillis() - start < 5000);
+
+		while ((!participants[0].fCanceled || !participants[1].fCanceled) && System.currentTimeMillis() - start < 5000) {
+			Thread.sleep(10);
+		}
+		assertTrue(participants[0].fCanceled);
+		assertTrue(participants[1].fCanceled);
+	}
+}
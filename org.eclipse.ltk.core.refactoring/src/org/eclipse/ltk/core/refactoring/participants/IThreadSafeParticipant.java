@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2019 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.participants;
+
+/**
+ * A tagging interface to mark a {@link RefactoringParticipant} as thread safe. The
+ * {@link ProcessorBasedRefactoring} calls {@link RefactoringParticipant#checkConditions(org.eclipse.core.runtime.IProgressMonitor, CheckConditionsContext)
+ * checkConditions}, {@link RefactoringParticipant#createPreChange(org.eclipse.core.runtime.IProgressMonitor) createPreChange}
+ * and {@link RefactoringParticipant#createChange(org.eclipse.core.runtime.IProgressMonitor) createChange}
+ * of participants tagged with this interface concurrently with the ones of other tagged
+ * participants. Participants which are not tagged are always called one after the other in the
+ * thread executing the refactoring, after all tagged participants have finished.
+ * <p>
+ * The results of all participants are merged in the order in which the participants were loaded,
+ * independent of the order in which they finish. If a participant reports a fatal error during
+ * the condition checking, the progress monitors of the tagged participants which are still running
+ * are canceled. They are also canceled when the progress monitor of the refactoring is canceled.
+ * </p>
+ * <p>
+ * Implementors of this interface must not depend on being called in a particular thread, must not
+ * modify text changes obtained from {@link ProcessorBasedRefactoring#getTextChange(Object)} and
+ * must synchronize on the condition checkers of the {@link CheckConditionsContext} before
+ * modifying them.
+ * </p>
+ * <p>
+ * Tagged participants are called in jobs which do not own a scheduling rule, while the thread
+ * executing the refactoring usually owns the workspace root as rule and waits for them. A
+ * scheduling rule cannot be shared by several threads, so tagged participants must not begin
+ * scheduling rules, for example by calling
+ * {@link org.eclipse.core.resources.IWorkspace#run(org.eclipse.core.resources.IWorkspaceRunnable, org.eclipse.core.runtime.jobs.ISchedulingRule, int, org.eclipse.core.runtime.IProgressMonitor) IWorkspace.run}
+ * or modifying resources, and must not wait for jobs, for example by calling
+ * {@link org.eclipse.core.runtime.jobs.Job#join() Job.join}. Either blocks until the refactoring
+ * is canceled. Participants which need to do so must not be tagged with this interface.
+ * </p>
+ * <p>
+ * Clients may implement this interface to tag participants as thread safe.
+ * </p>
+ *
+ * @see RefactoringParticipant
+ * @since 3.10
+ */
+public interface IThreadSafeParticipant {
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,6 +30,8 @@ import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -64,6 +66,11 @@ public class ProcessorBasedRefactoring extends Refactoring {
 	private static final String PERF_CHECK_CONDITIONS= "org.eclipse.ltk.core.refactoring/perf/participants/checkConditions"; //$NON-NLS-1$
 	private static final String PERF_CREATE_CHANGES= "org.eclipse.ltk.core.refactoring/perf/participants/createChanges"; //$NON-NLS-1$
 
+	/**
+	 * Maximal number of thread safe participants which are called at the same time.
+	 */
+	private static final int MAX_CONCURRENT_PARTICIPANTS= Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
 	private RefactoringProcessor fProcessor;
 
 	private List<RefactoringParticipant> fParticipants;
@@ -129,6 +136,122 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		}
 	}
 
+	private interface ParticipantOperation<T> {
+		T run(RefactoringParticipant participant, IProgressMonitor pm, ConcurrentParticipants<T> concurrentParticipants) throws CoreException;
+	}
+
+	/**
+	 * The thread safe participants which are called concurrently, as jobs of one job group. The
+	 * group is canceled when the refactoring is canceled or aborted because a participant failed.
+	 */
+	private static class ConcurrentParticipants<T> {
+		private final JobGroup fGroup;
+		private final Map<RefactoringParticipant, ParticipantJob<T>> fJobs= new HashMap<>();
+		private volatile boolean fAborted;
+
+		public ConcurrentParticipants(String name, List<RefactoringParticipant> participants, ParticipantOperation<T> operation) {
+			fGroup= new JobGroup(name, Math.min(participants.size(), MAX_CONCURRENT_PARTICIPANTS), participants.size());
+			for (Iterator<RefactoringParticipant> iter= participants.iterator(); iter.hasNext();) {
+				RefactoringParticipant participant= iter.next();
+				ParticipantJob<T> job= new ParticipantJob<>(participant, operation, this);
+				job.setJobGroup(fGroup);
+				fJobs.put(participant, job);
+			}
+		}
+
+		public boolean contains(RefactoringParticipant participant) {
+			return fJobs.containsKey(participant);
+		}
+
+		/**
+		 * Cancels the participants which are still running because another participant failed.
+		 */
+		public void abort() {
+			fAborted= true;
+			fGroup.cancel();
+		}
+
+		/**
+		 * Runs the participants and waits until they are finished.
+		 *
+		 * @param pm the progress monitor of the refactoring, checked for cancellation
+		 */
+		public void run(IProgressMonitor pm) {
+			for (Iterator<ParticipantJob<T>> iter= fJobs.values().iterator(); iter.hasNext();) {
+				iter.next().schedule();
+			}
+			try {
+				fGroup.join(0, new SubProgressMonitor(pm, 0));
+			} catch (OperationCanceledException e) {
+				fGroup.cancel();
+				throw e;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fGroup.cancel();
+				throw new OperationCanceledException();
+			}
+			if (pm.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+		}
+
+		/**
+		 * Returns the result of a participant, rethrowing the exception thrown by the participant.
+		 *
+		 * @param participant the participant
+		 * @return the result, or <code>null</code> if the participant was canceled because another
+		 *         participant failed
+		 * @throws CoreException if the participant threw a core exception
+		 */
+		public T getResult(RefactoringParticipant participant) throws CoreException {
+			ParticipantJob<T> job= fJobs.get(participant);
+			Throwable exception= job.fException;
+			if (exception == null) {
+				if (job.fDone)
+					return job.fResult;
+				if (fAborted)
+					return null;
+				throw new OperationCanceledException();
+			}
+			if (exception instanceof OperationCanceledException && fAborted)
+				return null;
+			if (exception instanceof CoreException)
+				throw (CoreException) exception;
+			if (exception instanceof RuntimeException)
+				throw (RuntimeException) exception;
+			throw (Error) exception;
+		}
+	}
+
+	private static class ParticipantJob<T> extends Job {
+		private final RefactoringParticipant fParticipant;
+		private final ParticipantOperation<T> fOperation;
+		private final ConcurrentParticipants<T> fConcurrentParticipants;
+		private volatile T fResult;
+		private volatile Throwable fException;
+		private volatile boolean fDone;
+
+		public ParticipantJob(RefactoringParticipant participant, ParticipantOperation<T> operation, ConcurrentParticipants<T> concurrentParticipants) {
+			super(participant.getName());
+			fParticipant= participant;
+			fOperation= operation;
+			fConcurrentParticipants= concurrentParticipants;
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				fResult= fOperation.run(fParticipant, monitor, fConcurrentParticipants);
+				fDone= true;
+			} catch (CoreException | RuntimeException | Error e) {
+				fException= e;
+			}
+			// failures are reported in the order of the participants
+			return Status.OK_STATUS;
+		}
+	}
+
 	/**
 	 * Creates a new processor based refactoring. Clients must override {@link #getProcessor()} to return a processor or set the
 	 * processor with {@link #setProcessor(RefactoringProcessor)}.
@@ -217,7 +340,7 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		if (pm == null)
 			pm= new NullProgressMonitor();
 		RefactoringStatus result= new RefactoringStatus();
-		CheckConditionsContext context= createCheckConditionsContext();
+		final CheckConditionsContext context= createCheckConditionsContext();
 
 		pm.beginTask("", 9); //$NON-NLS-1$
 		pm.setTaskName(RefactoringCoreMessages.ProcessorBasedRefactoring_final_conditions);
@@ -247,15 +370,28 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		IProgressMonitor sm= new SubProgressMonitor(pm, 2);
 
 		sm.beginTask("", fParticipants.size()); //$NON-NLS-1$
+		ConcurrentParticipants<RefactoringStatus> concurrentParticipants= runConcurrently(new ParticipantOperation<RefactoringStatus>() {
+			@Override
+			public RefactoringStatus run(RefactoringParticipant participant, IProgressMonitor monitor, ConcurrentParticipants<RefactoringStatus> concurrentParticipants) throws CoreException {
+				RefactoringStatus status= checkConditions(participant, monitor, context, true);
+				if (status.hasFatalError())
+					concurrentParticipants.abort();
+				return status;
+			}
+		}, sm);
 		for (Iterator<RefactoringParticipant> iter= fParticipants.iterator(); iter.hasNext() && !result.hasFatalError(); ) {
 
 			RefactoringParticipant participant= iter.next();
 
-			final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
-			stats.startRun();
-
 			try {
-				result.merge(participant.checkConditions(new SubProgressMonitor(sm, 1), context));
+				if (concurrentParticipants == null || !concurrentParticipants.contains(participant)) {
+					result.merge(checkConditions(participant, new SubProgressMonitor(sm, 1), context, false));
+				} else {
+					RefactoringStatus status= concurrentParticipants.getResult(participant);
+					if (status != null)
+						result.merge(status);
+					sm.worked(1);
+				}
 			} catch (OperationCanceledException e) {
 				throw e;
 			} catch (RuntimeException e) {
@@ -267,8 +403,6 @@ public class ProcessorBasedRefactoring extends Refactoring {
 				iter.remove();
 			}
 
-			stats.endRun();
-
 			if (sm.isCanceled())
 				throw new OperationCanceledException();
 		}
@@ -298,17 +432,33 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		List<Change> changes= new ArrayList<>();
 		List<Change> preChanges= new ArrayList<>();
 		Map<Change, RefactoringParticipant> participantMap= new HashMap<>();
+		ConcurrentParticipants<Change[]> concurrentParticipants= runConcurrently(new ParticipantOperation<Change[]>() {
+			@Override
+			public Change[] run(RefactoringParticipant participant, IProgressMonitor monitor, ConcurrentParticipants<Change[]> concurrentParticipants) throws CoreException {
+				try {
+					return createChanges(participant, monitor, monitor, true);
+				} catch (CoreException | RuntimeException e) {
+					if (!(e instanceof OperationCanceledException))
+						concurrentParticipants.abort();
+					throw e;
+				}
+			}
+		}, pm);
 		for (Iterator<RefactoringParticipant> iter= fParticipants.iterator(); iter.hasNext();) {
 			final RefactoringParticipant participant= iter.next();
 
 			try {
-				final PerformanceStats stats= PerformanceStats.getStats(PERF_CREATE_CHANGES, getName() + ", " + participant.getName()); //$NON-NLS-1$
-				stats.startRun();
-
-				Change preChange= participant.createPreChange(new SubProgressMonitor(pm, 1));
-				Change change= participant.createChange(new SubProgressMonitor(pm, 1));
-
-				stats.endRun();
+				Change[] participantChanges;
+				if (concurrentParticipants == null || !concurrentParticipants.contains(participant)) {
+					participantChanges= createChanges(participant, new SubProgressMonitor(pm, 1), new SubProgressMonitor(pm, 1), false);
+				} else {
+					participantChanges= concurrentParticipants.getResult(participant);
+					pm.worked(2);
+					if (participantChanges == null)
+						continue; // canceled because another participant failed
+				}
+				Change preChange= participantChanges[0];
+				Change change= participantChanges[1];
 
 				if (preChange != null) {
 					if (fPreChangeParticipants == null)
@@ -413,6 +563,69 @@ public class ProcessorBasedRefactoring extends Refactoring {
 
 	//---- Helper methods ---------------------------------------------------------------------
 
+	private RefactoringStatus checkConditions(RefactoringParticipant participant, IProgressMonitor pm, CheckConditionsContext context, boolean concurrent) throws CoreException {
+		final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
+		stats.startRun();
+		long start= System.nanoTime();
+
+		try {
+			return participant.checkConditions(pm, context);
+		} finally {
+			stats.endRun();
+			traceParticipant("checkConditions", participant, concurrent, start); //$NON-NLS-1$
+		}
+	}
+
+	private Change[] createChanges(RefactoringParticipant participant, IProgressMonitor preChangePm, IProgressMonitor changePm, boolean concurrent) throws CoreException {
+		final PerformanceStats stats= PerformanceStats.getStats(PERF_CREATE_CHANGES, getName() + ", " + participant.getName()); //$NON-NLS-1$
+		stats.startRun();
+		long start= System.nanoTime();
+
+		try {
+			Change preChange= participant.createPreChange(preChangePm);
+			Change change= participant.createChange(changePm);
+			return new Change[] { preChange, change };
+		} finally {
+			stats.endRun();
+			traceParticipant("createChanges", participant, concurrent, start); //$NON-NLS-1$
+		}
+	}
+
+	private void traceParticipant(String phase, RefactoringParticipant participant, boolean concurrent, long start) {
+		if (RefactoringCorePlugin.DEBUG_PARTICIPANTS) {
+			long time= (System.nanoTime() - start) / 1000000;
+			RefactoringCorePlugin.trace(RefactoringCorePlugin.DEBUG_PARTICIPANTS_OPTION, phase + '\t' + getName() + '\t' + participant.getName()
+					+ '\t' + (concurrent ? "concurrent" : "sequential") + '\t' + time); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Runs the given operation for all thread safe participants as jobs of one job group and waits
+	 * until they are finished. Nothing is run if less than two participants are thread safe.
+	 * <p>
+	 * The jobs do not own the scheduling rule of the calling thread, see
+	 * {@link IThreadSafeParticipant} for the restrictions this puts on the participants.
+	 * </p>
+	 *
+	 * @param operation the operation to run
+	 * @param pm the progress monitor of the refactoring, checked for cancellation
+	 * @return the participants which have been run, or <code>null</code> if none has been run
+	 */
+	private <T> ConcurrentParticipants<T> runConcurrently(ParticipantOperation<T> operation, IProgressMonitor pm) {
+		List<RefactoringParticipant> threadSafeParticipants= new ArrayList<>();
+		for (Iterator<RefactoringParticipant> iter= fParticipants.iterator(); iter.hasNext();) {
+			RefactoringParticipant participant= iter.next();
+			if (participant instanceof IThreadSafeParticipant)
+				threadSafeParticipants.add(participant);
+		}
+		if (threadSafeParticipants.size() < 2)
+			return null;
+
+		ConcurrentParticipants<T> concurrentParticipants= new ConcurrentParticipants<>(getName(), threadSafeParticipants, operation);
+		concurrentParticipants.run(pm);
+		return concurrentParticipants;
+	}
+
 	private CheckConditionsContext createCheckConditionsContext() throws CoreException {
 		CheckConditionsContext result= new CheckConditionsContext();
 		result.add(new ValidateEditChecker(getValidationContext()));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2019 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,14 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.core.refactoring;
 
+import java.util.Hashtable;
+
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+
+import org.eclipse.osgi.service.debug.DebugOptions;
+import org.eclipse.osgi.service.debug.DebugOptionsListener;
+import org.eclipse.osgi.service.debug.DebugTrace;
 
 import org.eclipse.core.commands.operations.IOperationHistory;
 import org.eclipse.core.commands.operations.IUndoContext;
@@ -36,7 +43,17 @@ import org.eclipse.ltk.internal.core.refactoring.history.RefactoringContribution
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistorySerializer;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryService;
 
-public class RefactoringCorePlugin extends Plugin {
+public class RefactoringCorePlugin extends Plugin implements DebugOptionsListener {
+
+	/**
+	 * Debug option to trace the time of every refactoring participant condition check and change
+	 * creation.
+	 */
+	public static final String DEBUG_PARTICIPANTS_OPTION= "/debug/participants"; //$NON-NLS-1$
+
+	public static boolean DEBUG_PARTICIPANTS= false;
+
+	private static DebugTrace fgDebugTrace;
 
 	private static RefactoringCorePlugin fgDefault;
 	private static IUndoManager fgUndoManager= null;
@@ -45,6 +62,8 @@ public class RefactoringCorePlugin extends Plugin {
 
 	private IRefactoringHistoryListener fRefactoringHistoryListener= null;
 
+	private ServiceRegistration<DebugOptionsListener> fDebugRegistration;
+
 	public RefactoringCorePlugin() {
 		fgDefault= this;
 	}
@@ -107,6 +126,19 @@ public class RefactoringCorePlugin extends Plugin {
 		log(new Status(IStatus.ERROR, getPluginId(), IRefactoringCoreStatusCodes.INTERNAL_ERROR, message, null));
 	}
 
+	/**
+	 * Writes a message to the trace output if the given debug option is enabled.
+	 *
+	 * @param option the debug option, relative to the plug-in id, e.g.
+	 *            {@link #DEBUG_PARTICIPANTS_OPTION}
+	 * @param message the message to trace
+	 */
+	public static void trace(String option, String message) {
+		DebugTrace debugTrace= fgDebugTrace;
+		if (debugTrace != null)
+			debugTrace.trace(option, message);
+	}
+
 	public static IUndoManager getUndoManager() {
 		if (fgUndoManager == null)
 			fgUndoManager= createUndoManager();
@@ -116,6 +148,12 @@ public class RefactoringCorePlugin extends Plugin {
 	@Override
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
+
+		// register debug options listener
+		Hashtable<String, String> properties= new Hashtable<>(2);
+		properties.put(DebugOptions.LISTENER_SYMBOLICNAME, getPluginId());
+		fDebugRegistration= context.registerService(DebugOptionsListener.class, this, properties);
+
 		RefactoringContributionManager.getInstance().connect();
 		final RefactoringHistoryService service= RefactoringHistoryService.getInstance();
 		service.connect();
@@ -138,9 +176,19 @@ public class RefactoringCorePlugin extends Plugin {
 		if (fRefactoringHistoryListener != null)
 			service.removeHistoryListener(fRefactoringHistoryListener);
 		RefactoringContributionManager.getInstance().disconnect();
+		if (fDebugRegistration != null) {
+			fDebugRegistration.unregister();
+			fDebugRegistration= null;
+		}
 		super.stop(context);
 	}
 
+	@Override
+	public void optionsChanged(DebugOptions options) {
+		DEBUG_PARTICIPANTS= options.getBooleanOption(getPluginId() + DEBUG_PARTICIPANTS_OPTION, false);
+		fgDebugTrace= options.newDebugTrace(getPluginId());
+	}
+
 	/**
 	 * Creates a new empty undo manager.
 	 *